@@ -1,12 +1,17 @@
 package com.linsir.core.c8;
 
 import java.io.*;
+import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class TestServer {
     public static void main(String[] args) throws IOException, ClassNotFoundException {
         System.out.println("服务器启动了");
+        //处理请求的线程策略：platform（默认，每个请求新建一个线程）、pool（固定大小线程池）、virtual（每个请求一个虚拟线程）
+        ExecutorService executor = newExecutor(args.length > 0 ? args[0] : "platform");
         //1.创建套接字： 指定服务器的端口号
         ServerSocket ss = null;
         Socket s = null;
@@ -16,7 +21,11 @@ public class TestServer {
             while(true){//加入死循环，服务器一直监听客户端是否发送数据
                 s = ss.accept();//等待接收客户端的数据
                 //每次过来的客户端的请求 靠 线程处理：
-                new ServerThread(s).start();
+                if (executor == null) {
+                    new ServerThread(s).start();
+                } else {
+                    executor.execute(new ServerThread(s));
+                }
                 count++;
                 //输入请求的客户端的信息：
                 System.out.println("当前是第"+count+"个用户访问我们的服务器,对应的用户是："+s.getInetAddress());
@@ -25,4 +34,23 @@ public class TestServer {
             e.printStackTrace();
         }
     }
+
+    /**
+     * 虚拟线程需要 Java 21+，这里通过反射创建，不支持时退回每个请求一个线程
+     * @return platform 策略返回 null，表示直接 new 线程
+     */
+    private static ExecutorService newExecutor(String mode) {
+        if ("pool".equals(mode)) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 4);
+        }
+        if ("virtual".equals(mode)) {
+            try {
+                Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) method.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.out.println("当前JDK不支持虚拟线程，改为每个请求新建一个线程");
+            }
+        }
+        return null;
+    }
 }
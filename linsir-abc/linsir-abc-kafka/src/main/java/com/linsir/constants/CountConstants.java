@@ -0,0 +1,20 @@
+package com.linsir.constants;
+
+/**
+ * 文章统计相关的常量，与 linsir-abc-redis 中的 CountConstants 保持一致，
+ * 两边读写的是同一个 redis hash
+ */
+public interface CountConstants {
+
+    // 文章相关统计信息
+    String ARTICLE_STATISTIC_INFO = "article_statistic_";
+
+    // 文章点赞数
+    String PRAISE_COUNT = "praiseCount";
+
+    // 文章被阅读数
+    String READ_COUNT = "readCount";
+
+    // 评论数
+    String COMMENT_COUNT = "commentCount";
+}
@@ -0,0 +1,28 @@
+package com.linsir.controller;
+
+import com.linsir.kafka.service.ArticleEventService;
+import com.linsir.kafka.streams.ArticleEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/article/")
+public class ArticleController {
+
+    @Autowired
+    private ArticleEventService articleEventService;
+
+
+    /**
+     * 例如 POST /article/1001/READ、/article/1001/PRAISE
+     */
+    @PostMapping("{articleId}/{event}")
+    public String event(@PathVariable("articleId") String articleId, @PathVariable("event") ArticleEvent event)
+    {
+        articleEventService.emit(articleId, event);
+        return "success";
+    }
+}
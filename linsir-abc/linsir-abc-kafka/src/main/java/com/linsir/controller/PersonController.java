@@ -5,6 +5,8 @@ import com.linsir.entity.Person;
 import com.linsir.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,4 +24,10 @@ public class PersonController {
     {
         return personService.findAll();
     }
+
+    @PostMapping("save")
+    public Person save(@RequestBody Person person)
+    {
+        return personService.save(person);
+    }
 }
@@ -1,14 +1,24 @@
 package com.linsir.controller;
 
+import com.linsir.kafka.planning.PartitionPlan;
+import com.linsir.kafka.planning.PartitionSkew;
+import com.linsir.kafka.planning.TopicPlanRequest;
 import com.linsir.kafka.service.AdminClientService;
+import com.linsir.kafka.service.DltReplayService;
+import com.linsir.kafka.service.KafkaMetricsService;
+import com.linsir.kafka.service.TopicPlanningService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
 
@@ -19,6 +29,15 @@ public class TopicController {
     @Autowired
     private AdminClientService  adminClientService;
 
+    @Autowired
+    private KafkaMetricsService kafkaMetricsService;
+
+    @Autowired
+    private DltReplayService dltReplayService;
+
+    @Autowired
+    private TopicPlanningService topicPlanningService;
+
 
     @GetMapping("describe/{tName}")
     public List<String> describe(@PathVariable("tName") String tName)
@@ -32,4 +51,49 @@ public class TopicController {
         );
         return list;
     }
+
+    @GetMapping("lag/{groupId}")
+    public Map<String, Long> lag(@PathVariable("groupId") String groupId)
+    {
+        return kafkaMetricsService.consumerLag(groupId);
+    }
+
+    @GetMapping("throughput")
+    public Map<String, Double> throughput()
+    {
+        return kafkaMetricsService.producerThroughput();
+    }
+
+    @PostMapping("dlt/replay")
+    public int replayDlt(@RequestParam(value = "batchSize", defaultValue = "500") int batchSize,
+                         @RequestParam(value = "max", defaultValue = "10000") int max)
+    {
+        return dltReplayService.replay(batchSize, max);
+    }
+
+    @GetMapping("plan/{tName}")
+    public PartitionPlan plan(@PathVariable("tName") String tName,
+                              @RequestParam("targetMsgs") long targetMsgs,
+                              @RequestParam(value = "parallelism", defaultValue = "1") int parallelism)
+    {
+        return topicPlanningService.plan(tName, targetMsgs, parallelism);
+    }
+
+    @PostMapping("provision")
+    public List<PartitionPlan> provision(@RequestBody List<TopicPlanRequest> requests)
+    {
+        return topicPlanningService.provision(requests);
+    }
+
+    @PostMapping("leaders/rebalance")
+    public Map<String, String> rebalanceLeaders(@RequestParam("topics") List<String> topics)
+    {
+        return topicPlanningService.rebalanceLeadership(topics);
+    }
+
+    @GetMapping("skew/{tName}")
+    public PartitionSkew skew(@PathVariable("tName") String tName)
+    {
+        return topicPlanningService.skew(tName);
+    }
 }
@@ -0,0 +1,46 @@
+package com.linsir.entity;
+
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * 事务发件箱（transactional outbox）中的一条待投递事件
+ * 业务数据与事件在同一个数据库事务中写入，由 OutboxRelay 异步批量投递到 kafka
+ */
+@Data
+@Table("outbox_event")
+public class OutboxEvent {
+
+    /**
+     * 待投递
+     */
+    public static final int STATUS_NEW = 0;
+
+    /**
+     * 已投递（仅在保留已投递记录的模式下使用）
+     */
+    public static final int STATUS_SENT = 1;
+
+    @Id
+    private Long id;
+
+    // 聚合类型，例如 person、real_name
+    private String aggregateType;
+
+    // 聚合 id，同时作为 kafka 消息 key，保证同一聚合的事件落在同一分区内有序
+    private String aggregateId;
+
+    private String topic;
+
+    private String payload;
+
+    private int status;
+
+    private LocalDateTime createdTime;
+
+    private LocalDateTime sentTime;
+}
@@ -0,0 +1,160 @@
+package com.linsir.kafka.benchmark;
+
+import com.linsir.kafka.retry.RetryTierListener;
+import com.linsir.kafka.retry.RetryTopics;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 非阻塞重试流水线的吞吐基准，需要一个可用的 kafka 集群
+ *
+ * 分别以 0 与给定失败率（默认 1%）跑一轮：先写入 N 条记录，再计时主消费者消费完全部记录的耗时，
+ * 失败的记录（固定为毒消息，每一级都会失败）另外统计全部进入 dlt 所需的时间。
+ * 两轮主 topic 吞吐接近，说明失败记录没有阻塞主消费者。
+ *
+ * 运行：RetryPipelineBenchmark [bootstrap-servers] [records] [failure-rate]
+ */
+public class RetryPipelineBenchmark {
+
+    private static final int PARTITIONS = 3;
+
+    public static void main(String[] args) throws Exception {
+        String servers = args.length > 0 ? args[0] : "192.168.1.99:9092";
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+        double failureRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+
+        System.out.println("=== 非阻塞重试流水线基准 ===");
+        System.out.println("记录数: " + records + "，分区数: " + PARTITIONS);
+        run(servers, records, 0);
+        run(servers, records, failureRate);
+    }
+
+    private static void run(String servers, int records, double failureRate) throws Exception {
+        String topic = "retry-bench-" + System.currentTimeMillis();
+        // 基准中缩短重试延迟：200ms / 400ms / 800ms
+        RetryTopics retryTopics = new RetryTopics(topic, 3, 200, 2);
+        int poisonEvery = failureRate > 0 ? (int) Math.round(1 / failureRate) : 0;
+        int poisonCount = poisonEvery > 0 ? records / poisonEvery : 0;
+
+        List<String> topics = new ArrayList<>();
+        topics.add(topic);
+        topics.addAll(retryTopics.retryTopicNames());
+        topics.add(retryTopics.dltTopic());
+
+        Map<String, Object> adminProps = new HashMap<>();
+        adminProps.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+        try (AdminClient admin = AdminClient.create(adminProps)) {
+            List<NewTopic> newTopics = new ArrayList<>();
+            topics.forEach(name -> newTopics.add(new NewTopic(name, PARTITIONS, (short) 1)));
+            admin.createTopics(newTopics).all().get();
+
+            DefaultKafkaProducerFactory<String, String> producerFactory = new DefaultKafkaProducerFactory<>(producerProps(servers));
+            KafkaTemplate<String, String> template = new KafkaTemplate<>(producerFactory);
+            for (int i = 0; i < records; i++) {
+                template.send(topic, String.valueOf(i), "payload-" + i);
+            }
+            template.flush();
+
+            CountDownLatch mainDone = new CountDownLatch(records);
+            CountDownLatch dltDone = new CountDownLatch(poisonCount);
+
+            MessageListener<String, String> handler = record -> {
+                if (poisonEvery > 0 && Integer.parseInt(record.key()) % poisonEvery == 0) {
+                    throw new IllegalStateException("poison record " + record.key());
+                }
+            };
+            MessageListener<String, String> mainListener = record -> {
+                try {
+                    handler.onMessage(record);
+                } finally {
+                    mainDone.countDown();
+                }
+            };
+
+            ConcurrentMessageListenerContainer<String, String> main = container(servers, topic + "-main",
+                    new String[]{topic}, mainListener);
+            main.setCommonErrorHandler(retryTopics.errorHandler(template));
+
+            RetryTierListener tierListener = new RetryTierListener(handler, retryTopics.recoverer(template));
+            ConcurrentMessageListenerContainer<String, String> tiers = container(servers, topic + "-retry",
+                    retryTopics.retryTopicNames().toArray(new String[0]), tierListener);
+            tiers.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+            tierListener.setContainer(tiers);
+
+            MessageListener<String, String> dltListener = record -> dltDone.countDown();
+            ConcurrentMessageListenerContainer<String, String> dlt = container(servers, topic + "-dlt",
+                    new String[]{retryTopics.dltTopic()}, dltListener);
+
+            long start = System.nanoTime();
+            main.start();
+            tiers.start();
+            dlt.start();
+
+            mainDone.await();
+            long mainNanos = System.nanoTime() - start;
+            boolean dltComplete = dltDone.await(2, TimeUnit.MINUTES);
+            long dltNanos = System.nanoTime() - start;
+
+            main.stop();
+            tiers.stop();
+            dlt.stop();
+            producerFactory.destroy();
+            admin.deleteTopics(topics).all().get();
+
+            System.out.printf("失败率 %.2f%%：主 topic 消费 %d 条耗时 %d ms，吞吐 %.0f records/s%n",
+                    failureRate * 100, records, TimeUnit.NANOSECONDS.toMillis(mainNanos),
+                    records / (mainNanos / 1_000_000_000.0));
+            if (poisonCount > 0) {
+                System.out.printf("  %d 条毒消息%s进入 dlt，耗时 %d ms%n", poisonCount,
+                        dltComplete ? "全部" : "未能全部", TimeUnit.NANOSECONDS.toMillis(dltNanos));
+            }
+        }
+    }
+
+    private static ConcurrentMessageListenerContainer<String, String> container(String servers, String groupId,
+                                                                              String[] topics, Object listener) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+
+        ContainerProperties containerProperties = new ContainerProperties(topics);
+        containerProperties.setMessageListener(listener);
+        ConcurrentMessageListenerContainer<String, String> container = new ConcurrentMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(props), containerProperties);
+        container.setConcurrency(PARTITIONS);
+        return container;
+    }
+
+    private static Map<String, Object> producerProps(String servers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, servers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        return props;
+    }
+}
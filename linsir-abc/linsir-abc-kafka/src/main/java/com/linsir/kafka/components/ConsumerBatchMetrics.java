@@ -0,0 +1,101 @@
+package com.linsir.kafka.components;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerInterceptor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.listener.RecordInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消费端处理耗时：单条记录的处理时间，以及一次 poll 拉回的整批记录的处理时间
+ *
+ * kafka 原生 ConsumerInterceptor 在 poll 返回前拿到整批记录，记下批次开始时间和条数；
+ * 容器在同一个消费线程上逐条回调本类，最后一条处理完时记录整批耗时
+ */
+@Component
+public class ConsumerBatchMetrics implements RecordInterceptor<String, String> {
+
+    // [批次开始纳秒, 剩余条数, 批次条数]
+    private static final ThreadLocal<long[]> BATCH = new ThreadLocal<>();
+
+    private static final ThreadLocal<Long> RECORD_START = new ThreadLocal<>();
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+
+    @Override
+    public ConsumerRecord<String, String> intercept(ConsumerRecord<String, String> record, Consumer<String, String> consumer) {
+        RECORD_START.set(System.nanoTime());
+        return record;
+    }
+
+    @Override
+    public void afterRecord(ConsumerRecord<String, String> record, Consumer<String, String> consumer) {
+        long now = System.nanoTime();
+        Long start = RECORD_START.get();
+        if (start != null) {
+            Timer.builder("kafka.consumer.record.processing")
+                    .tag("topic", record.topic())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(now - start, TimeUnit.NANOSECONDS);
+            RECORD_START.remove();
+        }
+
+        long[] batch = BATCH.get();
+        if (batch != null && --batch[1] <= 0) {
+            Timer.builder("kafka.consumer.batch.processing")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(now - batch[0], TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("kafka.consumer.batch.size")
+                    .register(meterRegistry)
+                    .record(batch[2]);
+            BATCH.remove();
+        }
+    }
+
+    @Override
+    public void clearThreadState(Consumer<?, ?> consumer) {
+        BATCH.remove();
+        RECORD_START.remove();
+    }
+
+
+    /**
+     * 通过 interceptor.classes 配置给 kafka 消费者，由 kafka 反射创建
+     */
+    public static class PollInterceptor implements ConsumerInterceptor<String, String> {
+
+        @Override
+        public ConsumerRecords<String, String> onConsume(ConsumerRecords<String, String> records) {
+            if (!records.isEmpty()) {
+                BATCH.set(new long[]{System.nanoTime(), records.count(), records.count()});
+            }
+            return records;
+        }
+
+        @Override
+        public void onCommit(Map<TopicPartition, OffsetAndMetadata> offsets) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void configure(Map<String, ?> configs) {
+        }
+    }
+}
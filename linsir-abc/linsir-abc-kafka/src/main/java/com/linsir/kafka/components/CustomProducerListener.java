@@ -1,27 +1,114 @@
 package com.linsir.kafka.components;
 
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerInterceptor;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.support.ProducerListener;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生产者回调：记录发送延迟、消息大小和成功/失败次数
+ *
+ * 发送延迟从 send() 到确认回调，用 System.nanoTime() 计时：同时作为 KafkaTemplate 的 ProducerInterceptor，
+ * send() 时记下开始时间，回调时取出。不能用 RecordMetadata.timestamp()，topic 为 LogAppendTime 时
+ * 它是 broker 写入时间，相减得到的是两边的时钟差而不是延迟
+ */
 @Component
-public class CustomProducerListener implements ProducerListener<String,String> {
+public class CustomProducerListener implements ProducerListener<String,String>, ProducerInterceptor<String,String> {
 
     private final static Logger logger = LoggerFactory.getLogger(CustomProducerListener.class);
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 已 send() 未回调的记录 -> 开始时间，按引用区分，内容相同的两条记录互不覆盖
+    private final Map<RecordKey, Long> sendStartNanos = new ConcurrentHashMap<>();
+
+
+    @Override
+    public ProducerRecord<String, String> onSend(ProducerRecord<String, String> producerRecord) {
+        sendStartNanos.put(new RecordKey(producerRecord), System.nanoTime());
+        return producerRecord;
+    }
+
+    @Override
+    public void onAcknowledgement(RecordMetadata recordMetadata, Exception exception) {
+    }
 
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+    }
 
     @Override
     public void onSuccess(ProducerRecord<String, String> producerRecord, RecordMetadata recordMetadata) {
         logger.info("推送成功，推送数据：{},{}", producerRecord.value(),recordMetadata.timestamp());
+
+        String topic = producerRecord.topic();
+        Long startNanos = sendStartNanos.remove(new RecordKey(producerRecord));
+        if (startNanos != null) {
+            Timer.builder("kafka.producer.send.latency")
+                    .tag("topic", topic)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+        DistributionSummary.builder("kafka.producer.record.bytes")
+                .tag("topic", topic)
+                .baseUnit("bytes")
+                .register(meterRegistry)
+                .record(Math.max(0, recordMetadata.serializedKeySize()) + Math.max(0, recordMetadata.serializedValueSize()));
+        records(topic, "success").increment();
     }
 
     @Override
     public void onError(ProducerRecord<String, String> producerRecord, RecordMetadata recordMetadata, Exception exception) {
         logger.error("推送失败，推送数据：{}，失败原因：{}", producerRecord.value(), exception.getMessage());
+        sendStartNanos.remove(new RecordKey(producerRecord));
+        records(producerRecord.topic(), "error").increment();
+    }
+
+    private Counter records(String topic, String result) {
+        return Counter.builder("kafka.producer.records")
+                .tag("topic", topic)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 按引用比较的记录键，ProducerRecord 的 equals 按内容比较
+     */
+    private static final class RecordKey {
+
+        private final ProducerRecord<?, ?> record;
+
+        RecordKey(ProducerRecord<?, ?> record) {
+            this.record = record;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RecordKey && ((RecordKey) other).record == record;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(record);
+        }
     }
 }
@@ -0,0 +1,37 @@
+package com.linsir.kafka.components;
+
+import com.linsir.kafka.service.KafkaMetricsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/kafkametrics：生产者吞吐快照与各消费组分区 lag
+ * /actuator/kafkametrics/{groupId}：指定消费组的分区 lag
+ */
+@Component
+@Endpoint(id = "kafkametrics")
+public class KafkaMetricsEndpoint {
+
+    @Autowired
+    private KafkaMetricsService kafkaMetricsService;
+
+
+    @ReadOperation
+    public Map<String, Object> metrics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("producer", kafkaMetricsService.producerThroughput());
+        result.put("consumerLag", kafkaMetricsService.consumerLag());
+        return result;
+    }
+
+    @ReadOperation
+    public Map<String, Long> lag(@Selector String groupId) {
+        return kafkaMetricsService.consumerLag(groupId);
+    }
+}
@@ -0,0 +1,165 @@
+package com.linsir.kafka.components;
+
+import com.linsir.entity.OutboxEvent;
+import com.linsir.repositories.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 事务发件箱中继
+ * 定时从 outbox_event 中以 SKIP LOCKED 锁定一批事件，全部异步发送后统一等待确认，
+ * 再对成功的记录做一次批量删除（或批量标记已投递）。投递语义为至少一次，
+ * 生产者开启幂等，避免 broker 侧重试造成的重复。某个聚合的事件投递失败后，
+ * 本批中该聚合后续的事件一律保留到下一轮，避免重试时旧事件排在新事件之后。
+ * 整批共用一个确认截止时间（send-timeout-ms），不按事件逐个等待，
+ * broker 不可达时一批最多阻塞 send-timeout-ms，远小于持有行锁的事务超时，已确认的事件不会随事务回滚被重发。
+ */
+@Component
+public class OutboxRelay {
+
+    private final static Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    @Value("${linsir.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${linsir.outbox.delete-after-publish:true}")
+    private boolean deleteAfterPublish;
+
+    @Value("${linsir.outbox.send-timeout-ms:30000}")
+    private long sendTimeoutMs;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Resource(name = "outboxTransactionTemplate")
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DistributionSummary batchSizeSummary;
+
+    private Counter publishedCounter;
+
+    private Counter failedCounter;
+
+    // 最早一条待投递事件距今的毫秒数
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final AtomicLong pending = new AtomicLong();
+
+
+    @PostConstruct
+    public void initMetrics() {
+        if (transactionTemplate.getTimeout() > 0 && sendTimeoutMs * 2 > TimeUnit.SECONDS.toMillis(transactionTemplate.getTimeout())) {
+            throw new IllegalStateException("linsir.outbox.send-timeout-ms 不能超过中继事务超时的一半: " + sendTimeoutMs);
+        }
+        batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("每个中继批次锁定的事件数")
+                .register(meterRegistry);
+        publishedCounter = Counter.builder("outbox.relay.published")
+                .description("已投递并确认的事件数")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("outbox.relay.failed")
+                .description("投递失败、等待下一轮重试的事件数")
+                .register(meterRegistry);
+        meterRegistry.gauge("outbox.relay.lag.ms", lagMillis);
+        meterRegistry.gauge("outbox.relay.pending", pending);
+    }
+
+
+    @Scheduled(fixedDelayString = "${linsir.outbox.poll-interval-ms:200}")
+    public void relay() {
+        // 批次满且全部成功说明还有积压，继续拉取，不等下一个调度周期
+        Integer published;
+        do {
+            published = transactionTemplate.execute(status -> relayBatch());
+        } while (published != null && published == batchSize);
+        refreshLag();
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batchSizeSummary.record(batch.size());
+
+        // 整批的确认截止时间，逐个等待时只等剩余时间
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            futures.add(kafkaTemplate.send(event.getTopic(), event.getAggregateId(), event.getPayload()));
+        }
+        // 不等 linger.ms，整批立即发出
+        kafkaTemplate.flush();
+
+        List<Long> publishedIds = new ArrayList<>(batch.size());
+        // 本批中已有事件投递失败的聚合：其后的事件即使发送成功也保持待投递，
+        // 下一轮与失败的事件一起按 id 顺序重发，保证同一聚合的事件顺序
+        Set<String> failedAggregates = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxEvent event = batch.get(i);
+            if (failedAggregates.contains(event.getAggregateId())) {
+                failedCounter.increment();
+                logger.warn("outbox 事件因同一聚合的前序事件投递失败而推迟，id:{}，aggregateId:{}", event.getId(),
+                        event.getAggregateId());
+                continue;
+            }
+            try {
+                futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                publishedIds.add(event.getId());
+            } catch (ExecutionException | TimeoutException e) {
+                failedAggregates.add(event.getAggregateId());
+                failedCounter.increment();
+                logger.error("outbox 事件投递失败，id:{}，topic:{}，原因：{}", event.getId(), event.getTopic(), e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!publishedIds.isEmpty()) {
+            if (deleteAfterPublish) {
+                outboxEventRepository.deleteByIds(publishedIds);
+            } else {
+                outboxEventRepository.markSent(publishedIds, LocalDateTime.now());
+            }
+            publishedCounter.increment(publishedIds.size());
+        }
+        return publishedIds.size();
+    }
+
+    private void refreshLag() {
+        LocalDateTime oldest = outboxEventRepository.findOldestPendingTime();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        pending.set(outboxEventRepository.countPending());
+    }
+}
@@ -1,27 +1,66 @@
 package com.linsir.kafka.components;
 
+import com.linsir.kafka.service.KafkaMetricsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.kafka.KafkaClientMetrics;
 import org.apache.kafka.clients.producer.Producer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 生产者创建/关闭时绑定、解绑 kafka 客户端原生指标（record-send-rate、byte-rate、
+ * batch-size-avg、requests-in-flight 等），并额外注册批次填充率
+ */
 @Component
 public class PListener implements ProducerFactory.Listener<String, String> {
 
     private final static Logger logger = LoggerFactory.getLogger(PListener.class);
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, KafkaClientMetrics> clientMetrics = new ConcurrentHashMap<>();
+
+    private final Map<String, Gauge> fillRatioGauges = new ConcurrentHashMap<>();
+
 
     @Override
     public void producerAdded(String id, Producer<String, String> producer) {
 
         logger.info("Producer added to topic: " + id);
         logger.info(producer.toString());
+
+        KafkaClientMetrics metrics = new KafkaClientMetrics(producer, Tags.of("spring.id", id));
+        metrics.bindTo(meterRegistry);
+        clientMetrics.put(id, metrics);
+
+        fillRatioGauges.put(id, Gauge.builder("kafka.producer.batch.fill.ratio", producer,
+                        p -> KafkaMetricsService.batchFillRatio(p.metrics()))
+                .tag("spring.id", id)
+                .description("batch-size-avg / batch.size")
+                .register(meterRegistry));
     }
 
     @Override
     public void producerRemoved(String id, Producer<String, String> producer) {
         logger.info("Producer removed from topic: " + id);
         logger.info(producer.toString());
+
+        KafkaClientMetrics metrics = clientMetrics.remove(id);
+        if (metrics != null) {
+            metrics.close();
+        }
+        Gauge gauge = fillRatioGauges.remove(id);
+        if (gauge != null) {
+            meterRegistry.remove(gauge);
+        }
     }
 }
@@ -0,0 +1,90 @@
+package com.linsir.kafka.configs;
+
+import com.linsir.kafka.listeners.ArticleStatisticsRedisWriter;
+import com.linsir.kafka.streams.ArticleCounts;
+import com.linsir.kafka.streams.ArticleStatisticsTopology;
+import jakarta.annotation.Resource;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.kstream.KStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.annotation.EnableKafkaStreams;
+import org.springframework.kafka.annotation.KafkaStreamsDefaultConfiguration;
+import org.springframework.kafka.config.KafkaStreamsConfiguration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 文章统计：请求线程只发 article-interaction 事件，kafka streams 做窗口聚合，
+ * 聚合后的增量由 ArticleStatisticsRedisWriter 批量写入 redis
+ *
+ * streams 使用 exactly_once_v2：at_least_once 下宕机恢复会重新聚合并以新的 offset 再发一次窗口增量，
+ * 写入端的分区高水位拦不住，redis 会重复累加；写入端相应地以 read_committed 读取，跳过被中止事务里的增量
+ */
+@Configuration
+@EnableKafkaStreams
+public class ArticleStatisticsConfiguration {
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String BOOTSTRAP_SERVERS_CONFIG;
+
+    @Value("${linsir.article.statistics.window-ms:5000}")
+    private long windowMs;
+
+    @Value("${linsir.article.statistics.partitions:3}")
+    private int partitions;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+
+    @Bean(name = KafkaStreamsDefaultConfiguration.DEFAULT_STREAMS_CONFIG_BEAN_NAME)
+    public KafkaStreamsConfiguration kafkaStreamsConfiguration() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "linsir-article-statistics");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS_CONFIG);
+        props.put(StreamsConfig.DEFAULT_KEY_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.DEFAULT_VALUE_SERDE_CLASS_CONFIG, Serdes.StringSerde.class);
+        props.put(StreamsConfig.NUM_STREAM_THREADS_CONFIG, partitions);
+        props.put(StreamsConfig.PROCESSING_GUARANTEE_CONFIG, StreamsConfig.EXACTLY_ONCE_V2);
+        props.put(StreamsConfig.COMMIT_INTERVAL_MS_CONFIG, 1000);
+        return new KafkaStreamsConfiguration(props);
+    }
+
+    @Bean
+    public KStream<String, ArticleCounts> articleStatisticsStream(StreamsBuilder streamsBuilder) {
+        return ArticleStatisticsTopology.build(streamsBuilder, Duration.ofMillis(windowMs));
+    }
+
+    @Bean
+    public KafkaAdmin.NewTopics articleStatisticsTopics() {
+        return new KafkaAdmin.NewTopics(
+                TopicBuilder.name(ArticleStatisticsTopology.INPUT_TOPIC).partitions(partitions).build(),
+                TopicBuilder.name(ArticleStatisticsTopology.OUTPUT_TOPIC).partitions(partitions).build());
+    }
+
+    @Bean
+    public KafkaMessageListenerContainer<String, String> articleStatisticsWriterContainer(ConsumerConfiguration consumerConfiguration) {
+        Map<String, Object> props = consumerConfiguration.consumerConfigs();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "group-id-article-statistics");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 1000);
+        props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        props.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);
+
+        ContainerProperties containerProperties = new ContainerProperties(ArticleStatisticsTopology.OUTPUT_TOPIC);
+        containerProperties.setMessageListener(new ArticleStatisticsRedisWriter(stringRedisTemplate));
+        return new KafkaMessageListenerContainer<>(new DefaultKafkaConsumerFactory<>(props), containerProperties);
+    }
+}
@@ -1,17 +1,21 @@
 package com.linsir.kafka.configs;
 
 
+import com.linsir.kafka.components.ConsumerBatchMetrics;
+import com.linsir.kafka.listeners.KMessageListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Resource;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.MicrometerConsumerListener;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
 import org.springframework.kafka.listener.KafkaMessageListenerContainer;
-import org.springframework.kafka.listener.MessageListener;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -22,6 +26,15 @@ public class ConsumerConfiguration {
     @Value("${spring.kafka.bootstrap-servers}")
     private String BOOTSTRAP_SERVERS_CONFIG;
 
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource
+    private ConsumerBatchMetrics consumerBatchMetrics;
+
+    @Resource
+    private DefaultErrorHandler retryErrorHandler;
+
     public Map<String, Object> consumerConfigs()
     {
         Map<String, Object> props=new HashMap<String, Object>();
@@ -32,6 +45,8 @@ public class ConsumerConfiguration {
         props.put(ConsumerConfig.SESSION_TIMEOUT_MS_CONFIG, "30000");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        // poll 批次的处理耗时统计，见 ConsumerBatchMetrics
+        props.put(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG, ConsumerBatchMetrics.PollInterceptor.class.getName());
         return props;
     }
 
@@ -41,15 +56,16 @@ public class ConsumerConfiguration {
     public KafkaMessageListenerContainer  kafkaMessageListenerContainer()
     {
         ContainerProperties containerProperties= new ContainerProperties("topic1");
-        containerProperties.setMessageListener(new MessageListener<String,String>() {
-            @Override
-            public void onMessage(ConsumerRecord<String, String> data) {
-                System.out.println(data);
-            }
-        });
+        containerProperties.setMessageListener(new KMessageListener());
         ConsumerFactory<String,String> consumerFactory= new DefaultKafkaConsumerFactory<>(consumerConfigs());
+        // 绑定消费者原生指标：records-lag、fetch-rate、records-consumed-rate 等
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
 
-        return new KafkaMessageListenerContainer<String,String>(consumerFactory,containerProperties);
+        KafkaMessageListenerContainer<String,String> container = new KafkaMessageListenerContainer<String,String>(consumerFactory,containerProperties);
+        container.setRecordInterceptor(consumerBatchMetrics);
+        // 处理失败的记录转发到 topic1-retry-0，主消费者继续拉取，见 RetryPipelineConfiguration
+        container.setCommonErrorHandler(retryErrorHandler);
+        return container;
     }
 
 }
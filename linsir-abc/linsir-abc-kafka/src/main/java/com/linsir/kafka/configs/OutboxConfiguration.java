@@ -0,0 +1,24 @@
+package com.linsir.kafka.configs;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * 事务发件箱中继的配置：开启定时调度，并提供中继批次使用的编程式事务
+ */
+@Configuration
+@EnableScheduling
+public class OutboxConfiguration {
+
+    @Bean
+    public TransactionTemplate outboxTransactionTemplate(TransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate((PlatformTransactionManager) transactionManager);
+        // 一个批次的行锁要持有到 kafka 确认为止，超时后回滚释放锁，交给下一轮重新投递
+        transactionTemplate.setTimeout(60);
+        return transactionTemplate;
+    }
+}
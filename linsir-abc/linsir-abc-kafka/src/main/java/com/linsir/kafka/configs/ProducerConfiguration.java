@@ -1,5 +1,6 @@
 package com.linsir.kafka.configs;
 
+import com.linsir.kafka.components.CustomProducerListener;
 import com.linsir.kafka.components.PListener;
 import jakarta.annotation.Resource;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -9,7 +10,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.ProducerListener;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -17,6 +17,10 @@ import java.util.Map;
 @Configuration
 public class ProducerConfiguration {
 
+    /**
+     * 生产者 batch.size，批次填充率指标以此为分母
+     */
+    public static final int BATCH_SIZE = 64 * 1024;
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String BOOTSTRAP_SERVERS_CONFIG;
@@ -29,7 +33,7 @@ public class ProducerConfiguration {
 
 
     @Resource
-    private ProducerListener producerListener;
+    private CustomProducerListener producerListener;
 
     @Resource
     private PListener pListener;
@@ -41,6 +45,14 @@ public class ProducerConfiguration {
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, BOOTSTRAP_SERVERS_CONFIG);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, KEY_SERIALIZER_CONFIG);
         props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, VALUE_SERIALIZER_CONFIG);
+        // 幂等生产者：outbox 中继按至少一次投递，broker 侧的重试不会再产生重复消息
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // 批量发送
+        props.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, BATCH_SIZE);
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
         return props;
     }
 
@@ -57,6 +69,8 @@ public class ProducerConfiguration {
     public KafkaTemplate<String,String> kafkaTemplate() {
         KafkaTemplate<String,String> kafkaTemplate = new KafkaTemplate<>(producerFactory());
         kafkaTemplate.setProducerListener(producerListener);
+        // 同一个组件在 send() 时记下开始时间，回调时计算发送延迟
+        kafkaTemplate.setProducerInterceptor(producerListener);
         return kafkaTemplate;
     }
     
@@ -0,0 +1,96 @@
+package com.linsir.kafka.configs;
+
+import com.linsir.kafka.listeners.KMessageListener;
+import com.linsir.kafka.retry.RetryTierListener;
+import com.linsir.kafka.retry.RetryTopics;
+import jakarta.annotation.Resource;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * topic1 的非阻塞重试流水线：topic1 -> topic1-retry-0 ... topic1-retry-n -> topic1-dlt
+ */
+@Configuration
+public class RetryPipelineConfiguration {
+
+    @Value("${linsir.kafka.retry.topic:topic1}")
+    private String topic;
+
+    @Value("${linsir.kafka.retry.attempts:3}")
+    private int attempts;
+
+    @Value("${linsir.kafka.retry.initial-delay-ms:1000}")
+    private long initialDelayMs;
+
+    @Value("${linsir.kafka.retry.multiplier:4}")
+    private double multiplier;
+
+    @Value("${linsir.kafka.retry.partitions:3}")
+    private int partitions;
+
+    @Resource
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+
+    @Bean
+    public RetryTopics retryTopics() {
+        return new RetryTopics(topic, attempts, initialDelayMs, multiplier);
+    }
+
+    /**
+     * 启动时由 KafkaAdmin 创建各级重试 topic 与 dlt
+     */
+    @Bean
+    public KafkaAdmin.NewTopics retryTopicDefinitions() {
+        List<NewTopic> topics = new ArrayList<>();
+        for (String name : retryTopics().retryTopicNames()) {
+            topics.add(TopicBuilder.name(name).partitions(partitions).build());
+        }
+        topics.add(TopicBuilder.name(retryTopics().dltTopic()).partitions(partitions).build());
+        return new KafkaAdmin.NewTopics(topics.toArray(new NewTopic[0]));
+    }
+
+    /**
+     * 主消费者的错误处理器，失败即转发到 retry-0
+     */
+    @Bean
+    public DefaultErrorHandler retryErrorHandler() {
+        return retryTopics().errorHandler(kafkaTemplate);
+    }
+
+    /**
+     * 一个容器订阅所有级别的重试 topic，各分区按自己的到期时间独立暂停/恢复
+     */
+    @Bean
+    public ConcurrentMessageListenerContainer<String, String> retryTierContainer(ConsumerConfiguration consumerConfiguration) {
+        Map<String, Object> props = consumerConfiguration.consumerConfigs();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, "group-id-retry");
+
+        RetryTierListener listener = new RetryTierListener(new KMessageListener(),
+                retryTopics().recoverer(kafkaTemplate));
+
+        ContainerProperties containerProperties = new ContainerProperties(retryTopics().retryTopicNames().toArray(new String[0]));
+        containerProperties.setAckMode(ContainerProperties.AckMode.MANUAL);
+        containerProperties.setMessageListener(listener);
+
+        ConcurrentMessageListenerContainer<String, String> container = new ConcurrentMessageListenerContainer<>(
+                new DefaultKafkaConsumerFactory<>(props), containerProperties);
+        container.setConcurrency(partitions);
+        listener.setContainer(container);
+        return container;
+    }
+}
@@ -1,9 +1,12 @@
 package com.linsir.kafka.configs;
 
+import com.linsir.kafka.planning.PartitionPlanner;
 import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.KafkaAdmin;
 
 import java.util.HashMap;
@@ -16,6 +19,24 @@ public class TopicsConfiguration {
     @Value("${spring.kafka.bootstrap-servers}")
     private String servers;
 
+    @Value("${linsir.kafka.planning.producer-msgs-per-partition:5000}")
+    private long producerMsgsPerPartition;
+
+    @Value("${linsir.kafka.planning.consumer-msgs-per-partition:2000}")
+    private long consumerMsgsPerPartition;
+
+    @Value("${linsir.kafka.planning.max-partitions:120}")
+    private int maxPartitions;
+
+    @Value("${linsir.kafka.planning.hot-threshold:1.5}")
+    private double hotThreshold;
+
+    @Value("${linsir.kafka.planning.topic1.target-msgs-per-sec:10000}")
+    private long topic1TargetMsgsPerSec;
+
+    @Value("${linsir.kafka.planning.topic1.consumer-parallelism:3}")
+    private int topic1ConsumerParallelism;
+
     @Bean
     public KafkaAdmin kafkaAdmin() {
         Map<String, Object> configs = new HashMap<>();
@@ -23,4 +44,18 @@ public class TopicsConfiguration {
         return new KafkaAdmin(configs);
     }
 
+    @Bean
+    public PartitionPlanner partitionPlanner() {
+        return new PartitionPlanner(producerMsgsPerPartition, consumerMsgsPerPartition, maxPartitions, hotThreshold);
+    }
+
+    /**
+     * 启动时按容量规划创建 topic1，已存在且分区不足时由 KafkaAdmin 扩容
+     */
+    @Bean
+    public NewTopic topic1() {
+        int partitions = partitionPlanner().plan("topic1", topic1TargetMsgsPerSec, topic1ConsumerParallelism, 0).getPartitions();
+        return TopicBuilder.name("topic1").partitions(partitions).build();
+    }
+
 }
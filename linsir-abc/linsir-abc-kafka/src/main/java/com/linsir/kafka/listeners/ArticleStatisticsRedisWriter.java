@@ -0,0 +1,118 @@
+package com.linsir.kafka.listeners;
+
+import com.linsir.constants.CountConstants;
+import com.linsir.kafka.streams.ArticleCounts;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.kafka.listener.BatchMessageListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 消费 article-statistics-delta，把一次 poll 拉到的增量按分区、文章合并，
+ * 每个分区用一次 lua 脚本写入 redis 的 article_statistic_{id} hash
+ *
+ * 消费是至少一次的（rebalance、提交前宕机、错误处理器重试都会重投），HINCRBY 本身不幂等，
+ * 因此每个分区在 redis 中记录已写入的最大 offset（高水位），与增量在同一个脚本里原子更新：
+ * 重投的记录 offset 不大于高水位，合并前直接跳过；脚本执行前再比对一次高水位，
+ * 分区已被其他消费者推进时放弃本次写入，重新读取高水位后再合并。
+ * 脚本同时操作高水位和多篇文章的 key，要求单机或哨兵部署；集群模式下这些 key 不在同一个 slot
+ */
+public class ArticleStatisticsRedisWriter implements BatchMessageListener<String, String> {
+
+    private final static Logger logger = LoggerFactory.getLogger(ArticleStatisticsRedisWriter.class);
+
+    // 分区高水位：article_statistic_offset:{topic}:{partition} -> 已写入的最大 offset
+    static final String OFFSET_KEY_PREFIX = "article_statistic_offset:";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * KEYS[1] 为分区高水位，KEYS[2..n] 为文章 hash；
+     * ARGV[1] 为期望的当前高水位（没有记录时为 -1），ARGV[2] 为新高水位，之后每篇文章依次为阅读、点赞、评论增量
+     */
+    private static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+            "local mark = redis.call('GET', KEYS[1]) or '-1'\n"
+                    + "if mark ~= ARGV[1] then return 0 end\n"
+                    + "for i = 2, #KEYS do\n"
+                    + "  local base = (i - 2) * 3 + 2\n"
+                    + "  if ARGV[base + 1] ~= '0' then redis.call('HINCRBY', KEYS[i], '" + CountConstants.READ_COUNT + "', ARGV[base + 1]) end\n"
+                    + "  if ARGV[base + 2] ~= '0' then redis.call('HINCRBY', KEYS[i], '" + CountConstants.PRAISE_COUNT + "', ARGV[base + 2]) end\n"
+                    + "  if ARGV[base + 3] ~= '0' then redis.call('HINCRBY', KEYS[i], '" + CountConstants.COMMENT_COUNT + "', ARGV[base + 3]) end\n"
+                    + "end\n"
+                    + "redis.call('SET', KEYS[1], ARGV[2])\n"
+                    + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+
+    public ArticleStatisticsRedisWriter(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Override
+    public void onMessage(List<ConsumerRecord<String, String>> records) {
+        Map<TopicPartition, List<ConsumerRecord<String, String>>> byPartition = new LinkedHashMap<>();
+        for (ConsumerRecord<String, String> record : records) {
+            byPartition.computeIfAbsent(new TopicPartition(record.topic(), record.partition()), tp -> new ArrayList<>())
+                    .add(record);
+        }
+        byPartition.forEach(this::write);
+    }
+
+    private void write(TopicPartition partition, List<ConsumerRecord<String, String>> records) {
+        String offsetKey = OFFSET_KEY_PREFIX + partition.topic() + ":" + partition.partition();
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            String stored = stringRedisTemplate.opsForValue().get(offsetKey);
+            long mark = stored == null ? -1 : Long.parseLong(stored);
+
+            Map<String, ArticleCounts> merged = new LinkedHashMap<>();
+            long maxOffset = mark;
+            int skipped = 0;
+            for (ConsumerRecord<String, String> record : records) {
+                if (record.offset() <= mark) {
+                    skipped++;
+                    continue;
+                }
+                maxOffset = Math.max(maxOffset, record.offset());
+                if (record.key() == null || record.value() == null) {
+                    continue;
+                }
+                merged.computeIfAbsent(record.key(), id -> new ArticleCounts()).merge(ArticleCounts.parse(record.value()));
+            }
+            if (maxOffset == mark) {
+                logger.info("文章统计分区 {} 的 {} 条记录均已写入过，跳过", partition, records.size());
+                return;
+            }
+
+            List<String> keys = new ArrayList<>(merged.size() + 1);
+            List<String> args = new ArrayList<>(merged.size() * 3 + 2);
+            keys.add(offsetKey);
+            args.add(String.valueOf(mark));
+            args.add(String.valueOf(maxOffset));
+            merged.forEach((articleId, counts) -> {
+                keys.add(CountConstants.ARTICLE_STATISTIC_INFO + articleId);
+                args.add(String.valueOf(counts.getRead()));
+                args.add(String.valueOf(counts.getPraise()));
+                args.add(String.valueOf(counts.getComment()));
+            });
+            Long applied = stringRedisTemplate.execute(APPLY_SCRIPT, keys, args.toArray());
+            if (applied != null && applied == 1) {
+                logger.info("文章统计写入 redis：分区 {}，{} 条增量合并为 {} 篇文章，跳过已写入的 {} 条，高水位 {}",
+                        partition, records.size() - skipped, merged.size(), skipped, maxOffset);
+                return;
+            }
+            logger.warn("文章统计分区 {} 的高水位已被推进（期望 {}），第 {} 次重试", partition, mark, attempt);
+        }
+        throw new IllegalStateException("文章统计分区 " + partition + " 的高水位持续变化，放弃本批写入");
+    }
+}
@@ -0,0 +1,28 @@
+package com.linsir.kafka.planning;
+
+import lombok.Data;
+
+/**
+ * 分区规划结果
+ */
+@Data
+public class PartitionPlan {
+
+    private String topic;
+
+    private long targetMsgsPerSec;
+
+    private int consumerParallelism;
+
+    // 仅按生产端单分区吞吐计算所需分区数
+    private int producerBound;
+
+    // 仅按消费端单分区吞吐计算所需分区数
+    private int consumerBound;
+
+    // 最终分区数：取两者与消费并行度的最大值，并向上对齐到并行度的整数倍
+    private int partitions;
+
+    // 当前分区数，topic 不存在时为 0
+    private int currentPartitions;
+}
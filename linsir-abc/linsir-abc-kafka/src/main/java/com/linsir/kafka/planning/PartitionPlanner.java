@@ -0,0 +1,110 @@
+package com.linsir.kafka.planning;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按目标吞吐计算分区数，并根据位移统计分区倾斜
+ *
+ * 分区数 = max(目标吞吐 / 单分区生产吞吐, 目标吞吐 / 单分区消费吞吐, 消费并行度)，
+ * 再向上取整到消费并行度的整数倍，保证每个消费者分到的分区数相同
+ */
+public class PartitionPlanner {
+
+    private final long producerMsgsPerPartition;
+
+    private final long consumerMsgsPerPartition;
+
+    private final int maxPartitions;
+
+    private final double hotThreshold;
+
+
+    /**
+     * @param producerMsgsPerPartition 单分区可承受的生产吞吐（条/秒），需压测得出
+     * @param consumerMsgsPerPartition 单个消费线程的处理吞吐（条/秒）
+     * @param maxPartitions            分区数上限
+     * @param hotThreshold             分区消息数超过平均值的多少倍视为热点
+     */
+    public PartitionPlanner(long producerMsgsPerPartition, long consumerMsgsPerPartition, int maxPartitions, double hotThreshold) {
+        if (producerMsgsPerPartition <= 0 || consumerMsgsPerPartition <= 0 || maxPartitions <= 0) {
+            throw new IllegalArgumentException("单分区吞吐与分区上限必须大于 0");
+        }
+        this.producerMsgsPerPartition = producerMsgsPerPartition;
+        this.consumerMsgsPerPartition = consumerMsgsPerPartition;
+        this.maxPartitions = maxPartitions;
+        this.hotThreshold = hotThreshold;
+    }
+
+    public PartitionPlan plan(String topic, long targetMsgsPerSec, int consumerParallelism, int currentPartitions) {
+        if (targetMsgsPerSec < 0 || consumerParallelism <= 0) {
+            throw new IllegalArgumentException("目标吞吐不能为负，消费并行度必须大于 0");
+        }
+        // 按 long 计算，目标吞吐很大时中间结果不会溢出成负数；超过上限的部分最终都会被 maxPartitions 截掉
+        long producerBound = ceilDiv(targetMsgsPerSec, producerMsgsPerPartition);
+        long consumerBound = ceilDiv(targetMsgsPerSec, consumerMsgsPerPartition);
+        long required = Math.max(Math.max(producerBound, consumerBound), consumerParallelism);
+        required = ceilDiv(required, consumerParallelism) * consumerParallelism;
+        int partitions = (int) Math.min(required, maxPartitions);
+        // 分区只能增加不能减少
+        partitions = Math.max(partitions, currentPartitions);
+
+        PartitionPlan plan = new PartitionPlan();
+        plan.setTopic(topic);
+        plan.setTargetMsgsPerSec(targetMsgsPerSec);
+        plan.setConsumerParallelism(consumerParallelism);
+        plan.setProducerBound(saturatedInt(producerBound));
+        plan.setConsumerBound(saturatedInt(consumerBound));
+        plan.setPartitions(partitions);
+        plan.setCurrentPartitions(currentPartitions);
+        return plan;
+    }
+
+    /**
+     * @param earliest 分区 -> 最早位移
+     * @param latest   分区 -> 最新位移
+     */
+    public PartitionSkew skew(String topic, Map<Integer, Long> earliest, Map<Integer, Long> latest) {
+        Map<Integer, Long> records = new TreeMap<>();
+        long total = 0;
+        long max = 0;
+        for (Map.Entry<Integer, Long> entry : latest.entrySet()) {
+            long count = Math.max(0, entry.getValue() - earliest.getOrDefault(entry.getKey(), 0L));
+            records.put(entry.getKey(), count);
+            total += count;
+            max = Math.max(max, count);
+        }
+        double mean = records.isEmpty() ? 0 : (double) total / records.size();
+
+        List<Integer> hot = new ArrayList<>();
+        if (mean > 0) {
+            records.forEach((partition, count) -> {
+                if (count > mean * hotThreshold) {
+                    hot.add(partition);
+                }
+            });
+        }
+
+        PartitionSkew skew = new PartitionSkew();
+        skew.setTopic(topic);
+        skew.setRecords(records);
+        skew.setTotal(total);
+        skew.setMean(mean);
+        skew.setSkewRatio(mean > 0 ? max / mean : 0);
+        skew.setHotPartitions(hot);
+        return skew;
+    }
+
+    /**
+     * 非负数的向上取整除法，不做 value + divisor - 1，value 接近 Long.MAX_VALUE 时也不会溢出
+     */
+    private static long ceilDiv(long value, long divisor) {
+        return -Math.floorDiv(-value, divisor);
+    }
+
+    private static int saturatedInt(long value) {
+        return (int) Math.min(value, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,28 @@
+package com.linsir.kafka.planning;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一个 topic 各分区的数据倾斜情况，按分区内的消息数（最新位移 - 最早位移）计算
+ */
+@Data
+public class PartitionSkew {
+
+    private String topic;
+
+    // 分区 -> 消息数
+    private Map<Integer, Long> records;
+
+    private long total;
+
+    private double mean;
+
+    // 最大分区消息数 / 平均值，1 表示完全均匀
+    private double skewRatio;
+
+    // 消息数超过平均值 hotThreshold 倍的分区
+    private List<Integer> hotPartitions;
+}
@@ -0,0 +1,18 @@
+package com.linsir.kafka.planning;
+
+import lombok.Data;
+
+/**
+ * 一个 topic 的容量需求
+ */
+@Data
+public class TopicPlanRequest {
+
+    private String topic;
+
+    // 目标吞吐（条/秒）
+    private long targetMsgsPerSec;
+
+    // 消费端并行度（消费者实例数 * 每个实例的并发线程数）
+    private int consumerParallelism;
+}
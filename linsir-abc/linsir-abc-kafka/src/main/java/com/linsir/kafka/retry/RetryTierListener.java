@@ -0,0 +1,105 @@
+package com.linsir.kafka.retry;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.listener.AcknowledgingConsumerAwareMessageListener;
+import org.springframework.kafka.listener.ConsumerAwareRecordRecoverer;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 各级重试 topic 的消费者
+ *
+ * 同一级 topic 的延迟相同，所以分区内记录的到期时间是递增的：分区头部的记录未到期时，
+ * 把位移回退到这条记录并暂停该分区，到期后由调度器恢复；其他分区不受影响，线程也不会 sleep。
+ * 到期的记录交给业务 listener 处理，再次失败则由 recoverer 转发到下一级或 dlt。
+ *
+ * 容器需使用 MANUAL 提交，只确认真正处理过的记录。
+ * 分区被回收或重新分配时清掉它的回退标记：重新分配后从已提交位移开始消费，
+ * 留下的旧标记会让位移更大的记录全部被跳过且不确认
+ */
+public class RetryTierListener implements AcknowledgingConsumerAwareMessageListener<String, String>, ConsumerSeekAware {
+
+    private final static Logger logger = LoggerFactory.getLogger(RetryTierListener.class);
+
+    private final MessageListener<String, String> delegate;
+
+    private final ConsumerAwareRecordRecoverer recoverer;
+
+    /*
+     * 只负责到期后恢复分区，不注册为 bean：容器里出现 TaskScheduler/ScheduledExecutorService bean
+     * 会替换掉 @Scheduled 默认使用的调度器
+     * */
+    private final ScheduledExecutorService resumeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "kafka-retry-resume");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // 已回退的分区 -> 回退到的位移，同一次 poll 中排在它之后的记录全部跳过，等重新拉取
+    private final Map<TopicPartition, Long> rewound = new ConcurrentHashMap<>();
+
+    private volatile MessageListenerContainer container;
+
+
+    public RetryTierListener(MessageListener<String, String> delegate, ConsumerAwareRecordRecoverer recoverer) {
+        this.delegate = delegate;
+        this.recoverer = recoverer;
+    }
+
+    public void setContainer(MessageListenerContainer container) {
+        this.container = container;
+    }
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        rewound.keySet().removeAll(assignments.keySet());
+    }
+
+    @Override
+    public void onPartitionsRevoked(Collection<TopicPartition> partitions) {
+        rewound.keySet().removeAll(partitions);
+    }
+
+    @Override
+    public void onMessage(ConsumerRecord<String, String> record, Acknowledgment acknowledgment, Consumer<?, ?> consumer) {
+        TopicPartition tp = new TopicPartition(record.topic(), record.partition());
+        Long rewoundOffset = rewound.get(tp);
+        if (rewoundOffset != null) {
+            if (record.offset() > rewoundOffset) {
+                return;
+            }
+            rewound.remove(tp);
+        }
+
+        long wait = RetryTopics.dueTimestamp(record.headers()) - System.currentTimeMillis();
+        if (wait > 0) {
+            rewound.put(tp, record.offset());
+            consumer.seek(tp, record.offset());
+            container.pausePartition(tp);
+            resumeScheduler.schedule(() -> container.resumePartition(tp), wait, TimeUnit.MILLISECONDS);
+            return;
+        }
+
+        try {
+            delegate.onMessage(record);
+        } catch (Exception e) {
+            logger.warn("重试失败，topic:{}，offset:{}，第 {} 次：{}", record.topic(), record.offset(),
+                    RetryTopics.attempt(record.headers()) + 1, e.getMessage());
+            recoverer.accept(record, consumer, e);
+        }
+        acknowledgment.acknowledge();
+    }
+}
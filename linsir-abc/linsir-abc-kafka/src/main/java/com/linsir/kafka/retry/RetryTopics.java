@@ -0,0 +1,121 @@
+package com.linsir.kafka.retry;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 非阻塞重试的分级 topic 规划
+ *
+ * 主 topic 上处理失败的记录不在原分区上重试，而是立即转发到 {topic}-retry-0，
+ * 之后每失败一次进入下一级，第 n 级的延迟为 initialDelay * multiplier^n，
+ * 所有级别都失败后进入 {topic}-dlt。主消费者因此不会被慢记录或毒消息卡住。
+ *
+ * 转发时写入两个头：当前已失败次数，以及下一次允许处理的时间戳
+ */
+public class RetryTopics {
+
+    public static final String ATTEMPT_HEADER = "linsir-retry-attempt";
+
+    public static final String DUE_HEADER = "linsir-retry-due";
+
+    private final String mainTopic;
+
+    private final long[] delays;
+
+
+    public RetryTopics(String mainTopic, int attempts, long initialDelayMs, double multiplier) {
+        this.mainTopic = mainTopic;
+        this.delays = new long[attempts];
+        double delay = initialDelayMs;
+        for (int i = 0; i < attempts; i++) {
+            delays[i] = (long) delay;
+            delay *= multiplier;
+        }
+    }
+
+    public String mainTopic() {
+        return mainTopic;
+    }
+
+    public int tiers() {
+        return delays.length;
+    }
+
+    public String retryTopic(int tier) {
+        return mainTopic + "-retry-" + tier;
+    }
+
+    public String dltTopic() {
+        return mainTopic + "-dlt";
+    }
+
+    public long delayOf(int tier) {
+        return delays[tier];
+    }
+
+    public List<String> retryTopicNames() {
+        List<String> names = new ArrayList<>(delays.length);
+        for (int i = 0; i < delays.length; i++) {
+            names.add(retryTopic(i));
+        }
+        return names;
+    }
+
+    /**
+     * 记录下一跳：已失败 n 次（不含本次）则进入 retry-n，重试级别用完进入 dlt
+     */
+    public String nextDestination(ConsumerRecord<?, ?> record) {
+        int attempt = attempt(record.headers());
+        return attempt < delays.length ? retryTopic(attempt) : dltTopic();
+    }
+
+    /**
+     * 按失败次数把记录转发到下一级重试 topic 或 dlt 的 recoverer，主消费者与各级重试消费者共用
+     */
+    public DeadLetterPublishingRecoverer recoverer(KafkaOperations<?, ?> template) {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template,
+                (record, ex) -> new TopicPartition(nextDestination(record), -1));
+        recoverer.setHeadersFunction((record, ex) -> {
+            int attempt = attempt(record.headers());
+            Headers headers = new RecordHeaders();
+            headers.add(ATTEMPT_HEADER, ByteBuffer.allocate(Integer.BYTES).putInt(attempt + 1).array());
+            if (attempt < delays.length) {
+                long due = System.currentTimeMillis() + delays[attempt];
+                headers.add(DUE_HEADER, ByteBuffer.allocate(Long.BYTES).putLong(due).array());
+            }
+            return headers;
+        });
+        return recoverer;
+    }
+
+    /**
+     * 主消费者的错误处理：不在原地重试，失败即转发；
+     * 不回退（seek）同批次剩余的记录，直接继续处理，避免一次失败引起整批重新拉取
+     */
+    public DefaultErrorHandler errorHandler(KafkaOperations<?, ?> template) {
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer(template), new FixedBackOff(0L, 0L));
+        errorHandler.setSeekAfterError(false);
+        return errorHandler;
+    }
+
+    public static int attempt(Headers headers) {
+        Header header = headers.lastHeader(ATTEMPT_HEADER);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getInt();
+    }
+
+    public static long dueTimestamp(Headers headers) {
+        Header header = headers.lastHeader(DUE_HEADER);
+        return header == null ? 0 : ByteBuffer.wrap(header.value()).getLong();
+    }
+}
@@ -1,11 +1,20 @@
 package com.linsir.kafka.service;
 
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
 import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.kafka.core.KafkaAdmin;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
 
 @Service
 public class AdminClientService {
@@ -13,6 +22,8 @@ public class AdminClientService {
     @Autowired
     private KafkaAdmin kafkaAdmin;
 
+    private volatile AdminClient adminClient;
+
 
 
     public Map<String,TopicDescription> describe( String topicName )
@@ -20,4 +31,60 @@ public class AdminClientService {
       return   kafkaAdmin.describeTopics(topicName);
     }
 
+    /**
+     * 消费组在各分区上的 lag = 分区最新位移 - 消费组已提交位移
+     */
+    public Map<TopicPartition, Long> consumerLag(String groupId)
+    {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = adminClient()
+                    .listConsumerGroupOffsets(groupId)
+                    .partitionsToOffsetAndMetadata()
+                    .get();
+            Map<TopicPartition, OffsetSpec> latestRequest = new HashMap<>();
+            committed.keySet().forEach(tp -> latestRequest.put(tp, OffsetSpec.latest()));
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> latest = adminClient()
+                    .listOffsets(latestRequest)
+                    .all()
+                    .get();
+
+            Map<TopicPartition, Long> lag = new TreeMap<>((a, b) -> a.topic().equals(b.topic())
+                    ? Integer.compare(a.partition(), b.partition())
+                    : a.topic().compareTo(b.topic()));
+            committed.forEach((tp, offset) -> {
+                long end = latest.get(tp).offset();
+                lag.put(tp, offset == null ? end : Math.max(0, end - offset.offset()));
+            });
+            return lag;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("查询消费组 " + groupId + " lag 被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("查询消费组 " + groupId + " lag 失败", e.getCause());
+        }
+    }
+
+    /**
+     * KafkaAdmin 每次调用都会新建 AdminClient，需要频繁查询位移的场景复用一个长连接
+     */
+    AdminClient adminClient()
+    {
+        if (adminClient == null) {
+            synchronized (this) {
+                if (adminClient == null) {
+                    adminClient = AdminClient.create(kafkaAdmin.getConfigurationProperties());
+                }
+            }
+        }
+        return adminClient;
+    }
+
+    @PreDestroy
+    public void close()
+    {
+        if (adminClient != null) {
+            adminClient.close();
+        }
+    }
+
 }
@@ -0,0 +1,23 @@
+package com.linsir.kafka.service;
+
+import com.linsir.kafka.streams.ArticleEvent;
+import com.linsir.kafka.streams.ArticleStatisticsTopology;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * 请求线程只负责发出文章互动事件，计数由 ArticleStatisticsTopology 聚合后批量写入 redis
+ */
+@Service
+public class ArticleEventService {
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+
+    public void emit(String articleId, ArticleEvent event) {
+        // 以文章 id 为 key，同一篇文章的事件进入同一分区、同一个窗口状态
+        kafkaTemplate.send(ArticleStatisticsTopology.INPUT_TOPIC, articleId, event.name());
+    }
+}
@@ -0,0 +1,82 @@
+package com.linsir.kafka.service;
+
+import com.linsir.kafka.configs.ConsumerConfiguration;
+import com.linsir.kafka.retry.RetryTopics;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 把 dlt 中的记录按批重新发布回主 topic
+ *
+ * 每批先全部异步发送并等待确认，再同步提交 dlt 上的位移，中途失败时未提交的批次下次会重新回放
+ */
+@Service
+public class DltReplayService {
+
+    private final static Logger logger = LoggerFactory.getLogger(DltReplayService.class);
+
+    private static final String REPLAY_GROUP = "group-id-dlt-replay";
+
+    @Autowired
+    private RetryTopics retryTopics;
+
+    @Autowired
+    private ConsumerConfiguration consumerConfiguration;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+
+    /**
+     * @param batchSize  每批回放的记录数
+     * @param maxRecords 本次最多回放的记录数，按批取整
+     * @return 实际回放的记录数
+     */
+    public int replay(int batchSize, int maxRecords) {
+        Map<String, Object> props = consumerConfiguration.consumerConfigs();
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, REPLAY_GROUP);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchSize);
+        props.remove(ConsumerConfig.INTERCEPTOR_CLASSES_CONFIG);
+
+        int replayed = 0;
+        try (KafkaConsumer<String, String> consumer = new KafkaConsumer<>(props)) {
+            consumer.subscribe(List.of(retryTopics.dltTopic()));
+            int emptyPolls = 0;
+            while (replayed < maxRecords && emptyPolls < 3) {
+                ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(1));
+                if (records.isEmpty()) {
+                    emptyPolls++;
+                    continue;
+                }
+                emptyPolls = 0;
+
+                List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(records.count());
+                for (ConsumerRecord<String, String> record : records) {
+                    // 不带重试头，回放的记录从主 topic 重新开始计数
+                    futures.add(kafkaTemplate.send(new ProducerRecord<>(retryTopics.mainTopic(), record.key(), record.value())));
+                }
+                kafkaTemplate.flush();
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+                consumer.commitSync();
+                replayed += records.count();
+                logger.info("dlt 回放 {} 条，累计 {} 条", records.count(), replayed);
+            }
+        }
+        return replayed;
+    }
+}
@@ -0,0 +1,128 @@
+package com.linsir.kafka.service;
+
+import com.linsir.kafka.configs.ProducerConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * kafka 吞吐与消费延迟（lag）的查询入口，供 TopicController 与 actuator 端点使用，
+ * 同时定时把配置的消费组的分区 lag 注册为 Micrometer gauge
+ */
+@Service
+public class KafkaMetricsService {
+
+    private final static Logger logger = LoggerFactory.getLogger(KafkaMetricsService.class);
+
+    private static final String PRODUCER_GROUP = "producer-metrics";
+
+    // 对外展示的生产者原生指标
+    private static final List<String> PRODUCER_METRICS = List.of(
+            "record-send-rate",
+            "byte-rate",
+            "batch-size-avg",
+            "records-per-request-avg",
+            "requests-in-flight",
+            "request-latency-avg",
+            "record-error-rate",
+            "record-retry-rate");
+
+    @Value("${linsir.kafka.metrics.lag-groups:group-id}")
+    private List<String> lagGroups;
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private AdminClientService adminClientService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // group|topic|partition -> lag
+    private final Map<String, AtomicLong> lagGauges = new ConcurrentHashMap<>();
+
+
+    /**
+     * 当前 kafkaTemplate 所用生产者的吞吐快照，附带批次填充率
+     */
+    public Map<String, Double> producerThroughput() {
+        Map<MetricName, ? extends Metric> metrics = kafkaTemplate.metrics();
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (String name : PRODUCER_METRICS) {
+            result.put(name, metricValue(metrics, PRODUCER_GROUP, name));
+        }
+        result.put("batch-fill-ratio", batchFillRatio(metrics));
+        return result;
+    }
+
+    /**
+     * 消费组在每个分区上的 lag，key 为 topic-partition
+     */
+    public Map<String, Long> consumerLag(String groupId) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        adminClientService.consumerLag(groupId).forEach((tp, lag) -> result.put(tp.toString(), lag));
+        return result;
+    }
+
+    public Map<String, Map<String, Long>> consumerLag() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String groupId : lagGroups) {
+            result.put(groupId, consumerLag(groupId));
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${linsir.kafka.metrics.lag-refresh-ms:30000}")
+    public void refreshLagGauges() {
+        for (String groupId : lagGroups) {
+            try {
+                adminClientService.consumerLag(groupId).forEach((tp, lag) ->
+                        lagGauges.computeIfAbsent(groupId + "|" + tp, key -> {
+                            AtomicLong holder = new AtomicLong();
+                            Gauge.builder("kafka.consumer.group.lag", holder, AtomicLong::get)
+                                    .tag("group", groupId)
+                                    .tag("topic", tp.topic())
+                                    .tag("partition", String.valueOf(tp.partition()))
+                                    .register(meterRegistry);
+                            return holder;
+                        }).set(lag));
+            } catch (RuntimeException e) {
+                logger.warn("刷新消费组 {} 的 lag 失败：{}", groupId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 平均批次大小 / 配置的 batch.size，越接近 1 说明 linger 与批次配置越合理
+     */
+    public static double batchFillRatio(Map<MetricName, ? extends Metric> metrics) {
+        double avg = metricValue(metrics, PRODUCER_GROUP, "batch-size-avg");
+        return Double.isNaN(avg) ? 0 : avg / ProducerConfiguration.BATCH_SIZE;
+    }
+
+    public static double metricValue(Map<MetricName, ? extends Metric> metrics, String group, String name) {
+        for (Map.Entry<MetricName, ? extends Metric> entry : metrics.entrySet()) {
+            MetricName metricName = entry.getKey();
+            if (metricName.group().equals(group) && metricName.name().equals(name)) {
+                Object value = entry.getValue().metricValue();
+                return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,182 @@
+package com.linsir.kafka.service;
+
+import com.linsir.kafka.planning.PartitionPlan;
+import com.linsir.kafka.planning.PartitionPlanner;
+import com.linsir.kafka.planning.PartitionSkew;
+import com.linsir.kafka.planning.TopicPlanRequest;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.admin.TopicDescription;
+import org.apache.kafka.common.ElectionType;
+import org.apache.kafka.common.KafkaFuture;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.TopicPartitionInfo;
+import org.apache.kafka.common.errors.UnknownTopicOrPartitionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * topic 容量规划：按目标吞吐计算分区数、批量创建/扩容 topic、
+ * 触发优先副本选举让 leader 均匀分布，以及根据位移查看分区倾斜
+ */
+@Service
+public class TopicPlanningService {
+
+    private final static Logger logger = LoggerFactory.getLogger(TopicPlanningService.class);
+
+    @Value("${linsir.kafka.planning.replication-factor:1}")
+    private short replicationFactor;
+
+    @Value("${linsir.kafka.planning.batch-size:50}")
+    private int batchSize;
+
+    @Autowired
+    private KafkaAdmin kafkaAdmin;
+
+    @Autowired
+    private AdminClientService adminClientService;
+
+    @Autowired
+    private PartitionPlanner partitionPlanner;
+
+
+    public PartitionPlan plan(String topic, long targetMsgsPerSec, int consumerParallelism) {
+        int current = currentPartitions(List.of(topic)).get(topic);
+        return partitionPlanner.plan(topic, targetMsgsPerSec, consumerParallelism, current);
+    }
+
+    /**
+     * 批量规划并落地：不存在的 topic 创建，分区不足的扩容，已满足的不动；
+     * 分区只增不减，每 batchSize 个 topic 提交一次 KafkaAdmin 请求
+     */
+    public List<PartitionPlan> provision(List<TopicPlanRequest> requests) {
+        List<String> names = new ArrayList<>(requests.size());
+        requests.forEach(request -> names.add(request.getTopic()));
+        Map<String, Integer> current = currentPartitions(names);
+
+        List<PartitionPlan> plans = new ArrayList<>(requests.size());
+        List<NewTopic> changes = new ArrayList<>();
+        for (TopicPlanRequest request : requests) {
+            PartitionPlan plan = partitionPlanner.plan(request.getTopic(), request.getTargetMsgsPerSec(),
+                    request.getConsumerParallelism(), current.get(request.getTopic()));
+            plans.add(plan);
+            if (plan.getPartitions() > plan.getCurrentPartitions()) {
+                changes.add(TopicBuilder.name(plan.getTopic())
+                        .partitions(plan.getPartitions())
+                        .replicas(replicationFactor)
+                        .build());
+            }
+        }
+
+        for (int from = 0; from < changes.size(); from += batchSize) {
+            List<NewTopic> batch = changes.subList(from, Math.min(from + batchSize, changes.size()));
+            kafkaAdmin.createOrModifyTopics(batch.toArray(new NewTopic[0]));
+            logger.info("创建/扩容 topic {} 个：{}", batch.size(), batch);
+        }
+        return plans;
+    }
+
+    /**
+     * 对 leader 不是优先副本的分区触发优先副本选举
+     *
+     * @return 分区 -> 选举结果，leader 已经是优先副本的分区不出现在结果中
+     */
+    public Map<String, String> rebalanceLeadership(Collection<String> topics) {
+        Set<TopicPartition> partitions = new HashSet<>();
+        describe(topics).forEach((topic, description) -> {
+            for (TopicPartitionInfo info : description.partitions()) {
+                if (!info.replicas().isEmpty() && info.leader() != null
+                        && info.leader().id() != info.replicas().get(0).id()) {
+                    partitions.add(new TopicPartition(topic, info.partition()));
+                }
+            }
+        });
+
+        Map<String, String> result = new TreeMap<>();
+        if (partitions.isEmpty()) {
+            return result;
+        }
+        Map<TopicPartition, Optional<Throwable>> elected = get(adminClientService.adminClient()
+                .electLeaders(ElectionType.PREFERRED, partitions)
+                .partitions());
+        elected.forEach((tp, error) -> result.put(tp.toString(), error.map(Throwable::getMessage).orElse("elected")));
+        return result;
+    }
+
+    public PartitionSkew skew(String topic) {
+        TopicDescription description = describe(List.of(topic)).get(topic);
+        Map<TopicPartition, OffsetSpec> earliestRequest = new HashMap<>();
+        Map<TopicPartition, OffsetSpec> latestRequest = new HashMap<>();
+        for (TopicPartitionInfo info : description.partitions()) {
+            TopicPartition tp = new TopicPartition(topic, info.partition());
+            earliestRequest.put(tp, OffsetSpec.earliest());
+            latestRequest.put(tp, OffsetSpec.latest());
+        }
+        return partitionPlanner.skew(topic,
+                offsets(get(adminClientService.adminClient().listOffsets(earliestRequest).all())),
+                offsets(get(adminClientService.adminClient().listOffsets(latestRequest).all())));
+    }
+
+    /**
+     * 一次请求查询多个 topic 的当前分区数，不存在的 topic 记为 0
+     */
+    private Map<String, Integer> currentPartitions(Collection<String> topics) {
+        Map<String, KafkaFuture<TopicDescription>> futures = adminClientService.adminClient()
+                .describeTopics(topics)
+                .topicNameValues();
+        Map<String, Integer> result = new LinkedHashMap<>();
+        futures.forEach((topic, future) -> {
+            try {
+                result.put(topic, future.get().partitions().size());
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof UnknownTopicOrPartitionException)) {
+                    throw new IllegalStateException("查询 topic " + topic + " 失败", e.getCause());
+                }
+                result.put(topic, 0);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("查询 topic " + topic + " 被中断", e);
+            }
+        });
+        return result;
+    }
+
+    private Map<String, TopicDescription> describe(Collection<String> topics) {
+        return get(adminClientService.adminClient().describeTopics(topics).allTopicNames());
+    }
+
+    private static Map<Integer, Long> offsets(Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> offsets) {
+        Map<Integer, Long> result = new HashMap<>();
+        offsets.forEach((tp, info) -> result.put(tp.partition(), info.offset()));
+        return result;
+    }
+
+    private static <T> T get(KafkaFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("kafka admin 请求被中断", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("kafka admin 请求失败", e.getCause());
+        }
+    }
+}
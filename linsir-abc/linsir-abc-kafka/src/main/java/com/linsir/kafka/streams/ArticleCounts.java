@@ -0,0 +1,112 @@
+package com.linsir.kafka.streams;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.apache.kafka.common.serialization.Serde;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 一篇文章在一个窗口内的计数增量
+ *
+ * 状态存储与输出 topic 使用同一种格式："阅读,点赞,评论"，例如 "12,3,-1"
+ */
+public class ArticleCounts {
+
+    private long read;
+
+    private long praise;
+
+    private long comment;
+
+
+    public ArticleCounts() {
+    }
+
+    public ArticleCounts(long read, long praise, long comment) {
+        this.read = read;
+        this.praise = praise;
+        this.comment = comment;
+    }
+
+    public ArticleCounts add(ArticleEvent event) {
+        switch (event) {
+            case READ:
+                read += event.delta();
+                break;
+            case PRAISE:
+            case CANCEL_PRAISE:
+                praise += event.delta();
+                break;
+            case COMMENT:
+            case DELETE_COMMENT:
+                comment += event.delta();
+                break;
+            default:
+        }
+        return this;
+    }
+
+    public ArticleCounts merge(ArticleCounts other) {
+        read += other.read;
+        praise += other.praise;
+        comment += other.comment;
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return read == 0 && praise == 0 && comment == 0;
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public long getPraise() {
+        return praise;
+    }
+
+    public long getComment() {
+        return comment;
+    }
+
+    public String format() {
+        return read + "," + praise + "," + comment;
+    }
+
+    public static ArticleCounts parse(String value) {
+        String[] parts = value.split(",");
+        return new ArticleCounts(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+    }
+
+    public static Serde<ArticleCounts> serde() {
+        Serializer<ArticleCounts> serializer = (topic, data) ->
+                data == null ? null : data.format().getBytes(StandardCharsets.UTF_8);
+        Deserializer<ArticleCounts> deserializer = (topic, data) ->
+                data == null ? null : parse(new String(data, StandardCharsets.UTF_8));
+        return Serdes.serdeFrom(serializer, deserializer);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ArticleCounts)) {
+            return false;
+        }
+        ArticleCounts that = (ArticleCounts) o;
+        return read == that.read && praise == that.praise && comment == that.comment;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(read) * 31 * 31 + Long.hashCode(praise) * 31 + Long.hashCode(comment);
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleCounts{read=" + read + ", praise=" + praise + ", comment=" + comment + "}";
+    }
+}
@@ -0,0 +1,27 @@
+package com.linsir.kafka.streams;
+
+/**
+ * 文章互动事件，消息 key 为文章 id，value 为事件名
+ */
+public enum ArticleEvent {
+
+    READ(1),
+
+    PRAISE(1),
+
+    CANCEL_PRAISE(-1),
+
+    COMMENT(1),
+
+    DELETE_COMMENT(-1);
+
+    private final int delta;
+
+    ArticleEvent(int delta) {
+        this.delta = delta;
+    }
+
+    public int delta() {
+        return delta;
+    }
+}
@@ -0,0 +1,74 @@
+package com.linsir.kafka.streams;
+
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.common.utils.Bytes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.kstream.Consumed;
+import org.apache.kafka.streams.kstream.Grouped;
+import org.apache.kafka.streams.kstream.KStream;
+import org.apache.kafka.streams.kstream.Materialized;
+import org.apache.kafka.streams.kstream.Produced;
+import org.apache.kafka.streams.kstream.Suppressed;
+import org.apache.kafka.streams.kstream.TimeWindows;
+import org.apache.kafka.streams.state.WindowStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 文章统计的流式聚合拓扑
+ *
+ * article-interaction（key：文章 id，value：ArticleEvent 名称）
+ *   -> 按文章分组，在滚动窗口的状态存储 article-counts-store 中累加阅读/点赞/评论增量
+ *   -> 窗口关闭后每篇文章只输出一条合并后的增量
+ *   -> article-statistics-delta（key：文章 id，value：ArticleCounts）
+ *
+ * 一篇热门文章一个窗口内的上千次点击，最终只对应 redis 上的一次 HINCRBY
+ */
+public final class ArticleStatisticsTopology {
+
+    private final static Logger logger = LoggerFactory.getLogger(ArticleStatisticsTopology.class);
+
+    public static final String INPUT_TOPIC = "article-interaction";
+
+    public static final String OUTPUT_TOPIC = "article-statistics-delta";
+
+    public static final String STORE_NAME = "article-counts-store";
+
+    private ArticleStatisticsTopology() {
+    }
+
+    public static KStream<String, ArticleCounts> build(StreamsBuilder builder, Duration window) {
+        KStream<String, ArticleCounts> deltas = builder
+                .stream(INPUT_TOPIC, Consumed.with(Serdes.String(), Serdes.String()))
+                .flatMapValues(ArticleStatisticsTopology::parseEvent)
+                .groupByKey(Grouped.with(Serdes.String(), Serdes.String()))
+                .windowedBy(TimeWindows.ofSizeWithNoGrace(window))
+                .aggregate(ArticleCounts::new,
+                        (articleId, event, counts) -> counts.add(ArticleEvent.valueOf(event)),
+                        Materialized.<String, ArticleCounts, WindowStore<Bytes, byte[]>>as(STORE_NAME)
+                                .withKeySerde(Serdes.String())
+                                .withValueSerde(ArticleCounts.serde()))
+                .suppress(Suppressed.untilWindowCloses(Suppressed.BufferConfig.unbounded()))
+                .toStream()
+                .map((windowedId, counts) -> KeyValue.pair(windowedId.key(), counts))
+                .filter((articleId, counts) -> counts != null && !counts.isEmpty());
+        deltas.to(OUTPUT_TOPIC, Produced.with(Serdes.String(), ArticleCounts.serde()));
+        return deltas;
+    }
+
+    /**
+     * 无法识别的事件直接丢弃，不让一条脏数据卡住整个拓扑
+     */
+    private static Iterable<String> parseEvent(String value) {
+        try {
+            return List.of(ArticleEvent.valueOf(value).name());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warn("忽略无法识别的文章事件：{}", value);
+            return List.of();
+        }
+    }
+}
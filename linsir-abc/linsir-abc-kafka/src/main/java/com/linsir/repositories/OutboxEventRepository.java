@@ -0,0 +1,37 @@
+package com.linsir.repositories;
+
+import com.linsir.entity.OutboxEvent;
+import org.springframework.data.jdbc.repository.query.Modifying;
+import org.springframework.data.jdbc.repository.query.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends ListCrudRepository<OutboxEvent, Long> {
+
+    /**
+     * 锁定下一批待投递事件，SKIP LOCKED 让多个中继实例各自拿到不重叠的批次，互不阻塞
+     * 必须在事务中调用，行锁在事务提交时释放
+     */
+    @Query("SELECT * FROM outbox_event WHERE status = 0 ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED")
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM outbox_event WHERE id IN (:ids)")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE outbox_event SET status = 1, sent_time = :sentTime WHERE id IN (:ids)")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentTime") LocalDateTime sentTime);
+
+    @Query("SELECT MIN(created_time) FROM outbox_event WHERE status = 0")
+    LocalDateTime findOldestPendingTime();
+
+    @Query("SELECT COUNT(*) FROM outbox_event WHERE status = 0")
+    long countPending();
+}
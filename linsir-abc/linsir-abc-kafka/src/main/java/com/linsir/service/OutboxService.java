@@ -0,0 +1,14 @@
+package com.linsir.service;
+
+public interface OutboxService {
+
+    /**
+     * 在当前事务中写入一条发件箱事件，调用方必须已开启事务
+     *
+     * @param aggregateType 聚合类型
+     * @param aggregateId   聚合 id，作为 kafka 消息 key
+     * @param topic         目标 topic
+     * @param payload       事件内容，字符串原样写入，其他对象序列化为 json
+     */
+    void append(String aggregateType, String aggregateId, String topic, Object payload);
+}
@@ -9,4 +9,9 @@ public interface PersonService {
     List<Person> findAll();
 
     Person findById(int id);
+
+    /**
+     * 保存 person，并在同一事务中写入 person 变更事件到发件箱
+     */
+    Person save(Person person);
 }
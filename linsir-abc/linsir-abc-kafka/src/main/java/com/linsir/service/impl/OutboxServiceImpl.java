@@ -0,0 +1,52 @@
+package com.linsir.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linsir.entity.OutboxEvent;
+import com.linsir.repositories.OutboxEventRepository;
+import com.linsir.service.OutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+
+@Service
+public class OutboxServiceImpl implements OutboxService {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+
+    /*
+     * MANDATORY：没有外层事务时直接报错，避免事件脱离业务事务单独提交
+     * */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String aggregateType, String aggregateId, String topic, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setTopic(topic);
+        event.setPayload(serialize(payload));
+        event.setStatus(OutboxEvent.STATUS_NEW);
+        event.setCreatedTime(LocalDateTime.now());
+        outboxEventRepository.save(event);
+    }
+
+    private String serialize(Object payload) {
+        if (payload instanceof String) {
+            return (String) payload;
+        }
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("outbox payload 序列化失败", e);
+        }
+    }
+}
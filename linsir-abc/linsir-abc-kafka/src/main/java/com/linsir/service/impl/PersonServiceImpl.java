@@ -2,9 +2,11 @@ package com.linsir.service.impl;
 
 import com.linsir.entity.Person;
 import com.linsir.repositories.PersonRepository;
+import com.linsir.service.OutboxService;
 import com.linsir.service.PersonService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
@@ -15,6 +17,9 @@ public class PersonServiceImpl implements PersonService {
     @Autowired
     private PersonRepository personRepository;
 
+    @Autowired
+    private OutboxService outboxService;
+
 
     @Override
     public List<Person> findAll() {
@@ -25,4 +30,12 @@ public class PersonServiceImpl implements PersonService {
     public Person findById(int id) {
         return null;
     }
+
+    @Override
+    @Transactional
+    public Person save(Person person) {
+        Person saved = personRepository.save(person);
+        outboxService.append("person", String.valueOf(saved.getId()), "person-events", saved);
+        return saved;
+    }
 }
@@ -1,29 +1,26 @@
 package com.linsir.service.impl;
 
+import com.linsir.service.OutboxService;
 import com.linsir.service.RealNameService;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.UUID;
 
 
 @Service
 public class RealNameServiceImpl implements RealNameService {
 
     @Autowired
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxService outboxService;
 
+    /*
+     * 不再直接调用 kafkaTemplate，消息先写入发件箱，由 OutboxRelay 批量投递到 topic1
+     * */
     @Override
+    @Transactional
     public void sendRealName(String msg) {
-        ProducerRecord<String, String> record = new ProducerRecord<String, String>("topic1",msg);
-        CompletableFuture<SendResult<String, String>> future =kafkaTemplate.send(record);
-        future.whenComplete((result, ex) -> {
-            if (ex != null) {
-                ex.printStackTrace();
-            }
-        });
+        outboxService.append("real_name", UUID.randomUUID().toString(), "topic1", msg);
     }
 }
@@ -0,0 +1,15 @@
+-- 事务发件箱表，需要 MySQL 8.0+（FOR UPDATE SKIP LOCKED）
+CREATE TABLE IF NOT EXISTS `outbox_event`
+(
+    `id`             BIGINT       NOT NULL AUTO_INCREMENT,
+    `aggregate_type` VARCHAR(64)  NOT NULL,
+    `aggregate_id`   VARCHAR(64)  NOT NULL,
+    `topic`          VARCHAR(255) NOT NULL,
+    `payload`        TEXT         NOT NULL,
+    `status`         TINYINT      NOT NULL DEFAULT 0 COMMENT '0:待投递 1:已投递',
+    `created_time`   DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    `sent_time`      DATETIME(3)  NULL,
+    PRIMARY KEY (`id`),
+    KEY `idx_status_id` (`status`, `id`)
+) ENGINE = InnoDB
+  DEFAULT CHARSET = utf8mb4;
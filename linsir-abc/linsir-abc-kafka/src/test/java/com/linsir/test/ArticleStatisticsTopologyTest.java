@@ -0,0 +1,116 @@
+package com.linsir.test;
+
+import com.linsir.kafka.streams.ArticleCounts;
+import com.linsir.kafka.streams.ArticleEvent;
+import com.linsir.kafka.streams.ArticleStatisticsTopology;
+import org.apache.kafka.common.serialization.Serdes;
+import org.apache.kafka.streams.KeyValue;
+import org.apache.kafka.streams.StreamsBuilder;
+import org.apache.kafka.streams.StreamsConfig;
+import org.apache.kafka.streams.TestInputTopic;
+import org.apache.kafka.streams.TestOutputTopic;
+import org.apache.kafka.streams.TopologyTestDriver;
+import org.apache.kafka.streams.state.WindowStore;
+import org.apache.kafka.streams.state.WindowStoreIterator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+public class ArticleStatisticsTopologyTest {
+
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    private TopologyTestDriver driver;
+
+    private TestInputTopic<String, String> input;
+
+    private TestOutputTopic<String, ArticleCounts> output;
+
+
+    @BeforeEach
+    public void setUp() {
+        StreamsBuilder builder = new StreamsBuilder();
+        ArticleStatisticsTopology.build(builder, Duration.ofSeconds(5));
+
+        Properties props = new Properties();
+        props.put(StreamsConfig.APPLICATION_ID_CONFIG, "article-statistics-test");
+        props.put(StreamsConfig.BOOTSTRAP_SERVERS_CONFIG, "dummy:9092");
+        driver = new TopologyTestDriver(builder.build(), props);
+
+        input = driver.createInputTopic(ArticleStatisticsTopology.INPUT_TOPIC,
+                Serdes.String().serializer(), Serdes.String().serializer(), START, Duration.ZERO);
+        output = driver.createOutputTopic(ArticleStatisticsTopology.OUTPUT_TOPIC,
+                Serdes.String().deserializer(), ArticleCounts.serde().deserializer());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        driver.close();
+    }
+
+    @Test
+    public void aggregatesEventsPerArticleUntilWindowCloses() {
+        input.pipeInput("1001", ArticleEvent.READ.name(), START);
+        input.pipeInput("1001", ArticleEvent.READ.name(), START.plusMillis(100));
+        input.pipeInput("1001", ArticleEvent.READ.name(), START.plusMillis(200));
+        input.pipeInput("1001", ArticleEvent.PRAISE.name(), START.plusMillis(300));
+        input.pipeInput("1002", ArticleEvent.COMMENT.name(), START.plusMillis(400));
+        input.pipeInput("1002", ArticleEvent.COMMENT.name(), START.plusMillis(500));
+        input.pipeInput("1002", ArticleEvent.DELETE_COMMENT.name(), START.plusMillis(600));
+
+        // 窗口未关闭前不输出
+        Assertions.assertTrue(output.isEmpty());
+
+        // 推进流时间，关闭第一个窗口
+        input.pipeInput("1003", ArticleEvent.READ.name(), START.plusSeconds(6));
+
+        Map<String, ArticleCounts> result = output.readKeyValuesToList().stream()
+                .collect(Collectors.toMap(kv -> kv.key, kv -> kv.value));
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(new ArticleCounts(3, 1, 0), result.get("1001"));
+        Assertions.assertEquals(new ArticleCounts(0, 0, 1), result.get("1002"));
+    }
+
+    @Test
+    public void emitsOneDeltaPerWindow() {
+        input.pipeInput("1001", ArticleEvent.READ.name(), START);
+        input.pipeInput("1001", ArticleEvent.READ.name(), START.plusSeconds(5));
+        input.pipeInput("1001", ArticleEvent.PRAISE.name(), START.plusSeconds(6));
+        input.pipeInput("1001", ArticleEvent.READ.name(), START.plusSeconds(11));
+
+        List<KeyValue<String, ArticleCounts>> result = output.readKeyValuesToList();
+        Assertions.assertEquals(2, result.size());
+        Assertions.assertEquals(new ArticleCounts(1, 0, 0), result.get(0).value);
+        Assertions.assertEquals(new ArticleCounts(1, 1, 0), result.get(1).value);
+    }
+
+    @Test
+    public void dropsUnknownEventsAndNetZeroWindows() {
+        input.pipeInput("1001", "SHARE", START);
+        input.pipeInput("1002", ArticleEvent.PRAISE.name(), START.plusMillis(10));
+        input.pipeInput("1002", ArticleEvent.CANCEL_PRAISE.name(), START.plusMillis(20));
+        input.pipeInput("1003", ArticleEvent.READ.name(), START.plusSeconds(6));
+
+        Assertions.assertTrue(output.isEmpty());
+    }
+
+    @Test
+    public void keepsWindowedCountsInStateStore() {
+        input.pipeInput("1001", ArticleEvent.READ.name(), START);
+        input.pipeInput("1001", ArticleEvent.COMMENT.name(), START.plusMillis(10));
+
+        WindowStore<String, ArticleCounts> store = driver.getWindowStore(ArticleStatisticsTopology.STORE_NAME);
+        try (WindowStoreIterator<ArticleCounts> iterator = store.fetch("1001", START, START.plusSeconds(5))) {
+            Assertions.assertTrue(iterator.hasNext());
+            Assertions.assertEquals(new ArticleCounts(1, 0, 1), iterator.next().value);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.linsir.test;
+
+import com.linsir.kafka.planning.PartitionPlan;
+import com.linsir.kafka.planning.PartitionPlanner;
+import com.linsir.kafka.planning.PartitionSkew;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class PartitionPlannerTest {
+
+    private final PartitionPlanner planner = new PartitionPlanner(5000, 2000, 120, 1.5);
+
+
+    @Test
+    public void partitionsRoundUpToConsumerParallelism() {
+        // 消费端需要 5 个分区，向上取整到并行度 3 的倍数
+        PartitionPlan plan = planner.plan("t", 10000, 3, 0);
+        Assertions.assertEquals(2, plan.getProducerBound());
+        Assertions.assertEquals(5, plan.getConsumerBound());
+        Assertions.assertEquals(6, plan.getPartitions());
+    }
+
+    @Test
+    public void partitionsNeverShrinkAndAreCapped() {
+        Assertions.assertEquals(12, planner.plan("t", 100, 1, 12).getPartitions());
+        Assertions.assertEquals(120, planner.plan("t", 10_000_000, 4, 0).getPartitions());
+    }
+
+    @Test
+    public void hugeTargetDoesNotOverflow() {
+        PartitionPlan plan = planner.plan("t", Long.MAX_VALUE, 7, 0);
+        Assertions.assertEquals(120, plan.getPartitions());
+        Assertions.assertEquals(Integer.MAX_VALUE, plan.getConsumerBound());
+    }
+
+    @Test
+    public void skewReportsHotPartitions() {
+        PartitionSkew skew = planner.skew("t",
+                Map.of(0, 0L, 1, 100L, 2, 0L),
+                Map.of(0, 100L, 1, 200L, 2, 400L));
+        Assertions.assertEquals(600, skew.getTotal());
+        Assertions.assertEquals(200.0, skew.getMean());
+        Assertions.assertEquals(2.0, skew.getSkewRatio());
+        Assertions.assertEquals(List.of(2), skew.getHotPartitions());
+    }
+}
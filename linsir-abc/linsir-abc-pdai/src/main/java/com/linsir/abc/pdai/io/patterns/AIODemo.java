@@ -1,7 +1,13 @@
 package com.linsir.abc.pdai.io.patterns;
 
+import com.linsir.abc.pdai.io.patterns.aio.AioServer;
+import com.linsir.abc.pdai.io.patterns.reactor.Frames;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.AsynchronousServerSocketChannel;
 import java.nio.channels.AsynchronousSocketChannel;
@@ -9,7 +15,8 @@ import java.nio.channels.CompletionHandler;
 
 /**
  * 异步IO（AIO）模式示例
- * 演示基于回调机制的异步IO
+ * 演示基于回调机制的异步IO；startServer 是最简版本（默认 channel group、每次读新分配缓冲区、嵌套回调），
+ * 带缓冲区池、常驻读循环和发送队列的版本见 startPooledServer
  */
 public class AIODemo {
     private static final int PORT = 8085;
@@ -82,6 +89,44 @@ public class AIODemo {
         System.out.println();
     }
     
+    /**
+     * 启动 aio 包中的服务器：独立 channel group、共享缓冲区池、每个连接一个常驻读循环和发送队列
+     */
+    public static void startPooledServer() {
+        System.out.println("5.1 带缓冲区池的 AIO 服务器示例:");
+        System.out.println("特点: 固定大小的 AsynchronousChannelGroup，读写回调对象每个连接只创建一次，缓冲区从池中借还");
+
+        AioServer server = new AioServer((connection, frame) -> connection.send(frame)).threads(2);
+        try {
+            int port = server.start(0);
+            System.out.println("AIO 服务器已启动，端口: " + port);
+            for (int clientId = 1; clientId <= 3; clientId++) {
+                try (Socket socket = new Socket("localhost", port)) {
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    // 一次写出两帧，服务端在同一个读回调里切开，两个响应合并成一次写
+                    byte[] first = ("Hello AIO! Client " + clientId).getBytes();
+                    byte[] second = ("Bye AIO! Client " + clientId).getBytes();
+                    Frames.write(out, first, 0, first.length);
+                    Frames.write(out, second, 0, second.length);
+                    out.flush();
+                    System.out.println("客户端 " + clientId + " 接收到响应: " + new String(Frames.read(in, 1024))
+                            + " / " + new String(Frames.read(in, 1024)));
+                }
+            }
+            System.out.println("服务器统计: " + server);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        System.out.println();
+    }
+
     /**
      * 处理客户端连接
      */
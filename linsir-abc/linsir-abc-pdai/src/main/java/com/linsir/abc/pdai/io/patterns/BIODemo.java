@@ -1,14 +1,18 @@
 package com.linsir.abc.pdai.io.patterns;
 
+import com.linsir.abc.pdai.thread.juc.executors.ThreadStrategy;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 阻塞IO（BIO）模式示例
- * 演示最传统的IO模式，每个连接一个线程
+ * 演示最传统的IO模式，每个连接一个线程；startServer(ThreadStrategy) 可以改用固定线程池或虚拟线程处理连接
  */
 public class BIODemo {
     private static final int PORT = 8081;
@@ -49,6 +53,43 @@ public class BIODemo {
         System.out.println();
     }
     
+    /**
+     * 启动BIO服务器，连接交给指定策略的执行器处理
+     *
+     * @param strategy PLATFORM 每连接一个平台线程，FIXED_POOL 固定线程池，VIRTUAL 每连接一个虚拟线程（不支持时回退为平台线程）
+     */
+    public static void startServer(ThreadStrategy strategy) {
+        System.out.println("1.1 阻塞IO（BIO）服务器，执行策略: " + strategy + "（实际 " + strategy.effective() + "）");
+        final int clients = 3;
+        ExecutorService executor = strategy.newExecutor(2, "bio-connection");
+        try (ServerSocket serverSocket = new ServerSocket(PORT)) {
+            for (int i = 0; i < clients; i++) {
+                new Thread(BIODemo::clientTest).start();
+            }
+            for (int i = 0; i < clients; i++) {
+                Socket socket = serverSocket.accept();
+                // 阻塞读写都在执行器的线程上，accept 线程立即回去接收下一个连接
+                executor.execute(() -> {
+                    try (socket) {
+                        handleConnection(socket);
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        System.out.println();
+    }
+
     /**
      * 处理客户端连接
      */
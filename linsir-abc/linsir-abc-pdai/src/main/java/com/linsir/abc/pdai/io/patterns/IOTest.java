@@ -1,5 +1,7 @@
 package com.linsir.abc.pdai.io.patterns;
 
+import com.linsir.abc.pdai.thread.juc.executors.ThreadStrategy;
+
 /**
  * IO模式测试主类
  * 测试所有5种IO模式示例代码
@@ -10,6 +12,9 @@ public class IOTest {
         
         // 测试阻塞IO（BIO）模式
         BIODemo.startServer();
+
+        // 测试用虚拟线程处理连接的BIO服务器
+        BIODemo.startServer(ThreadStrategy.VIRTUAL);
         
         // 等待测试完成
         try {
@@ -30,6 +35,9 @@ public class IOTest {
         
         // 测试多路复用IO模式
         MultiplexedIODemo.startServer();
+
+        // 测试多 reactor 服务器
+        MultiplexedIODemo.startMultiReactorServer();
         
         // 等待测试完成
         try {
@@ -50,6 +58,9 @@ public class IOTest {
         
         // 测试异步IO（AIO）模式
         AIODemo.startServer();
+
+        // 测试带缓冲区池的 AIO 服务器
+        AIODemo.startPooledServer();
         
         System.out.println("=== IO模式测试完成 ===");
         System.out.println("\n总结:");
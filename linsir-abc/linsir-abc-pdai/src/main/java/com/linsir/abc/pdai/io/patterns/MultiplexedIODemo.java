@@ -1,7 +1,13 @@
 package com.linsir.abc.pdai.io.patterns;
 
+import com.linsir.abc.pdai.io.patterns.reactor.Frames;
+import com.linsir.abc.pdai.io.patterns.reactor.ReactorServer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
@@ -12,7 +18,7 @@ import java.util.Set;
 
 /**
  * 多路复用IO模式示例
- * 演示基于Selector的多路复用IO
+ * 演示基于Selector的多路复用IO；单 Selector 单线程的版本见 startServer，多 reactor 版本见 startMultiReactorServer
  */
 public class MultiplexedIODemo {
     private static final int PORT = 8083;
@@ -88,6 +94,44 @@ public class MultiplexedIODemo {
         System.out.println();
     }
     
+    /**
+     * 启动多 reactor 服务器：一个 acceptor 线程 + 多个 worker Selector，协议为长度前缀分帧
+     */
+    public static void startMultiReactorServer() {
+        System.out.println("3.1 多 reactor 服务器示例:");
+        System.out.println("特点: acceptor 线程接收连接，轮询分给多个 worker Selector，连接终生绑定一个 reactor");
+
+        ReactorServer server = new ReactorServer((connection, frame) -> connection.send(frame)).workers(2);
+        try {
+            int port = server.start(0);
+            System.out.println("多 reactor 服务器已启动，端口: " + port);
+            for (int clientId = 1; clientId <= 3; clientId++) {
+                try (Socket socket = new Socket("localhost", port)) {
+                    DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+                    DataInputStream in = new DataInputStream(socket.getInputStream());
+                    // 一次写出两帧，服务端按长度前缀切开，分别回显
+                    byte[] first = ("Hello Reactor! Client " + clientId).getBytes();
+                    byte[] second = ("Bye Reactor! Client " + clientId).getBytes();
+                    Frames.write(out, first, 0, first.length);
+                    Frames.write(out, second, 0, second.length);
+                    out.flush();
+                    System.out.println("客户端 " + clientId + " 接收到响应: " + new String(Frames.read(in, 1024))
+                            + " / " + new String(Frames.read(in, 1024)));
+                }
+            }
+            System.out.println("服务器统计: " + server);
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                server.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        System.out.println();
+    }
+
     /**
      * 处理连接事件
      */
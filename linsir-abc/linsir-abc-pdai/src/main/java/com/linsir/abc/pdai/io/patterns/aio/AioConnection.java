@@ -0,0 +1,458 @@
+package com.linsir.abc.pdai.io.patterns.aio;
+
+import com.linsir.abc.pdai.io.patterns.reactor.BufferPool;
+import com.linsir.abc.pdai.io.patterns.reactor.Frames;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AIO 服务端的一个连接
+ *
+ * 说明：
+ * 1. 读循环：连接建立时借一块读缓冲区并一直持有，读完成回调里切完所有完整帧、compact 半包，再用同一个 ReadHandler 发起下一次读；
+ *    读写回调对象每个连接只创建一次，不像 AIODemo 那样每条消息新建缓冲区和嵌套的匿名 CompletionHandler
+ * 2. AIO 的读必须先把缓冲区交给内核再等数据，空闲连接也占着读缓冲区，这是与 reactor（就绪后才借缓冲区）在内存上的主要差别，
+ *    所以读缓冲区默认只有 4KB；超过读缓冲区的大帧单独分配一块堆缓冲区接收
+ * 3. 写：一个连接同时只能有一个未完成的写（否则 WritePendingException），send 把帧放进发送队列，
+ *    由 writing 标志的 CAS 胜者发起聚集写（一次最多 16 块），写完成回调里继续取队列，直到队列为空
+ * 4. 在读回调里调用的 send 先追加到借来的 staging 缓冲区，一批帧处理完再整块入队，流水线请求的响应合并成一次写
+ * 5. 背压：待发送字节超过高水位时读回调结束后不再发起读，写完成后降到低水位以下由写回调恢复读；超过 maxPendingBytes 时 send 返回 false
+ * 6. 池化缓冲区只在没有 IO 持有它时归还：读缓冲区由读回调或暂停状态的 CAS 胜者归还，写缓冲区由写回调或 close 归还
+ */
+public final class AioConnection {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    private static final int MAX_GATHER = 16;
+
+    private final long id = IDS.incrementAndGet();
+
+    private final AsynchronousSocketChannel channel;
+
+    private final AioServer server;
+
+    private final BufferPool pool;
+
+    private final ReadHandler reader = new ReadHandler();
+
+    private final WriteHandler writer = new WriteHandler();
+
+    // 以下字段只由当前的读回调访问，前后两次回调之间由发起读/读完成建立 happens-before
+
+    private ByteBuffer readBuffer;
+
+    private ByteBuffer large;
+
+    private ByteBuffer staging;
+
+    private Thread callbackThread;
+
+    // 以下字段只由持有 writing 的线程访问
+
+    private final ByteBuffer[] inFlight = new ByteBuffer[MAX_GATHER];
+
+    private int inFlightOffset;
+
+    private int inFlightCount;
+
+    // 以下字段跨线程访问
+
+    private final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    private final AtomicBoolean readSuspended = new AtomicBoolean();
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    final AtomicLong pendingBytes = new AtomicLong();
+
+    private volatile Object attachment;
+
+
+    AioConnection(AsynchronousSocketChannel channel, AioServer server, BufferPool pool) {
+        this.channel = channel;
+        this.server = server;
+        this.pool = pool;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public SocketAddress remoteAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    /**
+     * 已提交但还没写进 socket 的字节数（含帧头）
+     */
+    public long pendingBytes() {
+        return pendingBytes.get();
+    }
+
+    public void attach(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    public Object attachment() {
+        return attachment;
+    }
+
+    /**
+     * 发送一帧，可以在任意线程调用；payload 的 position 到 limit 之间是负载，调用返回后即可复用
+     *
+     * @return 连接已关闭或待发送数据超过上限时返回 false
+     */
+    public boolean send(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length > server.maxFrameSize) {
+            throw new IllegalArgumentException("帧长度超过上限: " + length);
+        }
+        if (closed.get()) {
+            return false;
+        }
+        int bytes = Frames.HEADER_SIZE + length;
+        if (pendingBytes.get() + bytes > server.maxPendingBytes) {
+            server.rejectedSends.increment();
+            return false;
+        }
+        pendingBytes.addAndGet(bytes);
+        server.framesOut.increment();
+        if (Thread.currentThread() == callbackThread) {
+            if (staging != null && staging.remaining() < bytes) {
+                submitStaging();
+            }
+            if (bytes <= pool.bufferSize()) {
+                if (staging == null) {
+                    staging = pool.acquire();
+                }
+                staging.putInt(length).put(payload.duplicate());
+            } else {
+                enqueue(frame(payload));
+            }
+            // 回调结束时由 flushStaging 统一发起写
+            return true;
+        }
+        enqueue(frame(payload));
+        startWrite();
+        return true;
+    }
+
+    /**
+     * 关闭连接，可以在任意线程调用，重复调用无副作用
+     */
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 关闭时忽略
+        }
+        // 未完成的读写会以 AsynchronousCloseException 失败，由各自的回调归还缓冲区；这里只处理没有 IO 持有的部分
+        if (readSuspended.compareAndSet(true, false)) {
+            releaseReadBuffers();
+        }
+        discardQueued();
+        server.remove(this);
+        try {
+            server.handler.onClose(this);
+        } catch (RuntimeException e) {
+            server.errors.increment();
+        }
+    }
+
+    void open() {
+        readBuffer = pool.acquire();
+        callbackThread = Thread.currentThread();
+        try {
+            server.handler.onOpen(this);
+        } catch (RuntimeException e) {
+            server.errors.increment();
+            close();
+        } finally {
+            callbackThread = null;
+        }
+        flushStaging();
+        continueReading();
+    }
+
+    // ---------------------------------------------------------------- 读
+
+    private final class ReadHandler implements CompletionHandler<Integer, AioConnection> {
+
+        @Override
+        public void completed(Integer read, AioConnection connection) {
+            if (read < 0) {
+                close();
+                releaseReadBuffers();
+                return;
+            }
+            server.bytesIn.add(read);
+            callbackThread = Thread.currentThread();
+            try {
+                onRead();
+            } catch (IOException | RuntimeException e) {
+                if (!(e instanceof IOException)) {
+                    server.errors.increment();
+                }
+                close();
+            } finally {
+                callbackThread = null;
+            }
+            flushStaging();
+            continueReading();
+        }
+
+        @Override
+        public void failed(Throwable exc, AioConnection connection) {
+            close();
+            releaseReadBuffers();
+        }
+    }
+
+    /**
+     * 切出读缓冲区里所有完整的帧，剩余半包 compact 到缓冲区开头
+     */
+    private void onRead() throws IOException {
+        if (large != null) {
+            if (large.hasRemaining()) {
+                return;
+            }
+            deliver(large.flip());
+            large = null;
+        }
+        ByteBuffer buffer = readBuffer.flip();
+        int maxFrameSize = server.maxFrameSize;
+        while (buffer.remaining() >= Frames.HEADER_SIZE && !closed.get()) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            Frames.checkLength(length, maxFrameSize);
+            if (Frames.HEADER_SIZE + length > buffer.capacity()) {
+                // 大帧：已到的部分搬进单独的缓冲区，之后的读直接读进去
+                int available = Math.min(buffer.remaining() - Frames.HEADER_SIZE, length);
+                large = ByteBuffer.allocate(length);
+                large.put(0, buffer, start + Frames.HEADER_SIZE, available).position(available);
+                buffer.position(start + Frames.HEADER_SIZE + available);
+                if (large.hasRemaining()) {
+                    break;
+                }
+                deliver(large.flip());
+                large = null;
+                continue;
+            }
+            if (buffer.remaining() < Frames.HEADER_SIZE + length) {
+                break;
+            }
+            int end = start + Frames.HEADER_SIZE + length;
+            int limit = buffer.limit();
+            buffer.limit(end).position(start + Frames.HEADER_SIZE);
+            deliver(buffer);
+            buffer.limit(limit).position(end);
+        }
+        buffer.compact();
+    }
+
+    private void deliver(ByteBuffer frame) {
+        server.framesIn.increment();
+        server.handler.onFrame(this, frame);
+    }
+
+    /**
+     * 读回调的最后一步：关闭了就归还读缓冲区，超过高水位就暂停，否则发起下一次读
+     */
+    private void continueReading() {
+        if (closed.get()) {
+            releaseReadBuffers();
+            return;
+        }
+        if (pendingBytes.get() > server.highWatermark) {
+            server.readPauses.increment();
+            readSuspended.set(true);
+            // 置位之前写回调可能已经把数据写完、错过了恢复时机，再检查一次
+            if ((closed.get() || pendingBytes.get() <= server.lowWatermark) && readSuspended.compareAndSet(true, false)) {
+                resumeReading();
+            }
+            return;
+        }
+        read();
+    }
+
+    /**
+     * 由把 readSuspended 从 true 改为 false 的线程调用
+     */
+    private void resumeReading() {
+        if (closed.get()) {
+            releaseReadBuffers();
+        } else {
+            read();
+        }
+    }
+
+    private void read() {
+        ByteBuffer target = large != null ? large : readBuffer;
+        try {
+            channel.read(target, this, reader);
+        } catch (RuntimeException e) {
+            // 例如 channel group 已关闭
+            close();
+            releaseReadBuffers();
+        }
+    }
+
+    private void releaseReadBuffers() {
+        if (readBuffer != null) {
+            pool.release(readBuffer);
+            readBuffer = null;
+        }
+        large = null;
+    }
+
+    // ---------------------------------------------------------------- 写
+
+    private void submitStaging() {
+        enqueue(staging.flip());
+        staging = null;
+    }
+
+    private void flushStaging() {
+        if (staging != null) {
+            if (staging.position() == 0) {
+                pool.release(staging);
+                staging = null;
+            } else {
+                submitStaging();
+            }
+        }
+        if (!queue.isEmpty()) {
+            startWrite();
+        }
+    }
+
+    private void enqueue(ByteBuffer frame) {
+        queue.add(frame);
+        // 与 close 中的 discardQueued 配对：两边都是先写后读，至少有一方能看到对方，入队的缓冲区不会漏还
+        if (closed.get()) {
+            discardQueued();
+        }
+    }
+
+    private void startWrite() {
+        if (writing.compareAndSet(false, true)) {
+            writeNext();
+        }
+    }
+
+    /**
+     * 持有 writing 时调用：从队列取一批帧发起聚集写，队列为空则释放 writing
+     */
+    private void writeNext() {
+        while (true) {
+            if (closed.get()) {
+                // 不再释放 writing，之后的 startWrite 都不会再发起写
+                discardQueued();
+                return;
+            }
+            int count = 0;
+            ByteBuffer frame;
+            while (count < MAX_GATHER && (frame = queue.poll()) != null) {
+                inFlight[count++] = frame;
+            }
+            if (count > 0) {
+                inFlightOffset = 0;
+                inFlightCount = count;
+                write();
+                return;
+            }
+            writing.set(false);
+            // 释放之后其他线程可能刚入队而 CAS 失败，需要再检查一次
+            if (queue.isEmpty() || !writing.compareAndSet(false, true)) {
+                return;
+            }
+        }
+    }
+
+    private void write() {
+        try {
+            channel.write(inFlight, inFlightOffset, inFlightCount - inFlightOffset, 0L, TimeUnit.MILLISECONDS, this, writer);
+        } catch (RuntimeException e) {
+            releaseInFlight();
+            close();
+        }
+    }
+
+    private final class WriteHandler implements CompletionHandler<Long, AioConnection> {
+
+        @Override
+        public void completed(Long written, AioConnection connection) {
+            server.bytesOut.add(written);
+            long pending = pendingBytes.addAndGet(-written);
+            while (inFlightOffset < inFlightCount && !inFlight[inFlightOffset].hasRemaining()) {
+                pool.release(inFlight[inFlightOffset]);
+                inFlight[inFlightOffset++] = null;
+            }
+            if (closed.get()) {
+                releaseInFlight();
+                discardQueued();
+                return;
+            }
+            if (inFlightOffset < inFlightCount) {
+                // 部分写：socket 发送缓冲区满，从断点继续
+                write();
+                return;
+            }
+            if (pending <= server.lowWatermark && readSuspended.get() && readSuspended.compareAndSet(true, false)) {
+                resumeReading();
+            }
+            writeNext();
+        }
+
+        @Override
+        public void failed(Throwable exc, AioConnection connection) {
+            releaseInFlight();
+            close();
+            discardQueued();
+        }
+    }
+
+    private void releaseInFlight() {
+        for (int i = inFlightOffset; i < inFlightCount; i++) {
+            pool.release(inFlight[i]);
+            inFlight[i] = null;
+        }
+        inFlightOffset = inFlightCount = 0;
+    }
+
+    private void discardQueued() {
+        ByteBuffer frame;
+        while ((frame = queue.poll()) != null) {
+            pool.release(frame);
+        }
+    }
+
+    private static ByteBuffer frame(ByteBuffer payload) {
+        int length = payload.remaining();
+        ByteBuffer frame = ByteBuffer.allocate(Frames.HEADER_SIZE + length);
+        frame.putInt(length).put(payload.duplicate());
+        return frame.flip();
+    }
+}
@@ -0,0 +1,23 @@
+package com.linsir.abc.pdai.io.patterns.aio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * AIO 帧处理器，回调在 AsynchronousChannelGroup 的线程上执行，不能阻塞
+ */
+@FunctionalInterface
+public interface AioFrameHandler {
+
+    /**
+     * 收到一帧；同一个连接的回调不会并发执行
+     *
+     * @param frame 帧负载，position 到 limit 之间是内容；只在回调期间有效，需要保留时自行复制
+     */
+    void onFrame(AioConnection connection, ByteBuffer frame);
+
+    default void onOpen(AioConnection connection) {
+    }
+
+    default void onClose(AioConnection connection) {
+    }
+}
@@ -0,0 +1,286 @@
+package com.linsir.abc.pdai.io.patterns.aio;
+
+import com.linsir.abc.pdai.io.patterns.reactor.BufferPool;
+import com.linsir.abc.pdai.io.patterns.reactor.Frames;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.AsynchronousChannelGroup;
+import java.nio.channels.AsynchronousServerSocketChannel;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于完成回调（AIO）的帧服务端，协议与 ReactorServer 相同
+ *
+ * 说明：
+ * 1. 使用独立的 AsynchronousChannelGroup（固定线程池，默认 CPU 核数个线程），不用 JVM 默认组：
+ *    默认组的线程池是无界的 cached pool，线程数不受控，且与进程里其他 AIO 代码共享
+ * 2. 所有连接共享一个 slab 直接缓冲区池（BufferPool），读缓冲区、合并写缓冲区都从池里借，池耗尽时临时分配并计数
+ * 3. accept 回调先发起下一次 accept 再初始化当前连接；读写循环、发送队列与背压见 AioConnection
+ * 4. 回调运行在组线程上，handler 不能阻塞，否则会占住有限的组线程，其他连接的完成事件得不到处理
+ *
+ * 使用：
+ * <pre>
+ * AioServer server = new AioServer((connection, frame) -&gt; connection.send(frame)).threads(4);
+ * int port = server.start(0);
+ * </pre>
+ */
+public final class AioServer implements Closeable {
+
+    final AioFrameHandler handler;
+
+    int maxFrameSize = Frames.DEFAULT_MAX_FRAME_SIZE;
+
+    long lowWatermark = 32 * 1024;
+
+    long highWatermark = 256 * 1024;
+
+    long maxPendingBytes = 4 * 1024 * 1024;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private int readBufferSize = 4096;
+
+    private int pooledBuffers = 8192;
+
+    private AsynchronousChannelGroup group;
+
+    private AsynchronousServerSocketChannel serverChannel;
+
+    private BufferPool pool;
+
+    private final Set<AioConnection> open = ConcurrentHashMap.newKeySet();
+
+    // 统计
+
+    final AtomicInteger connections = new AtomicInteger();
+
+    final LongAdder accepted = new LongAdder();
+
+    final LongAdder framesIn = new LongAdder();
+
+    final LongAdder framesOut = new LongAdder();
+
+    final LongAdder bytesIn = new LongAdder();
+
+    final LongAdder bytesOut = new LongAdder();
+
+    final LongAdder readPauses = new LongAdder();
+
+    final LongAdder rejectedSends = new LongAdder();
+
+    final LongAdder errors = new LongAdder();
+
+
+    public AioServer(AioFrameHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * channel group 的线程数，默认 CPU 核数
+     */
+    public AioServer threads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("线程数至少为 1: " + threads);
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * 最大帧长度（不含 4 字节帧头）
+     */
+    public AioServer maxFrameSize(int maxFrameSize) {
+        if (maxFrameSize < 1) {
+            throw new IllegalArgumentException("最大帧长度必须为正数: " + maxFrameSize);
+        }
+        this.maxFrameSize = maxFrameSize;
+        return this;
+    }
+
+    /**
+     * 池中每块缓冲区的大小，即每个连接常驻读缓冲区的大小；超过它的帧单独分配缓冲区接收
+     */
+    public AioServer readBufferSize(int readBufferSize) {
+        if (readBufferSize < 64) {
+            throw new IllegalArgumentException("读缓冲区至少 64 字节: " + readBufferSize);
+        }
+        this.readBufferSize = readBufferSize;
+        return this;
+    }
+
+    /**
+     * 池中缓冲区个数；每个连接常驻一块读缓冲区，有待发送数据时再借写缓冲区，应大于预期连接数
+     */
+    public AioServer pooledBuffers(int count) {
+        this.pooledBuffers = count;
+        return this;
+    }
+
+    /**
+     * 发送背压：待发送字节超过 high 时暂停读该连接，降到 low 以下恢复，超过 max 时拒绝发送
+     */
+    public AioServer writeWatermarks(long low, long high, long max) {
+        if (low < 0 || low > high || high > max) {
+            throw new IllegalArgumentException("水位必须满足 0 <= low <= high <= max");
+        }
+        this.lowWatermark = low;
+        this.highWatermark = high;
+        this.maxPendingBytes = max;
+        return this;
+    }
+
+    /**
+     * 启动服务，port 为 0 时由系统分配端口
+     *
+     * @return 实际监听的端口
+     */
+    public int start(int port) throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("服务已启动");
+        }
+        pool = new BufferPool(readBufferSize, pooledBuffers);
+        AtomicInteger index = new AtomicInteger();
+        group = AsynchronousChannelGroup.withFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "aio-worker-" + index.getAndIncrement()));
+        serverChannel = AsynchronousServerSocketChannel.open(group);
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(port), 4096);
+        serverChannel.accept(null, new Acceptor());
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    private final class Acceptor implements CompletionHandler<AsynchronousSocketChannel, Void> {
+
+        @Override
+        public void completed(AsynchronousSocketChannel channel, Void attachment) {
+            acceptNext(this);
+            try {
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException e) {
+                errors.increment();
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 关闭时忽略
+                }
+                return;
+            }
+            accepted.increment();
+            connections.incrementAndGet();
+            AioConnection connection = new AioConnection(channel, AioServer.this, pool);
+            open.add(connection);
+            connection.open();
+        }
+
+        @Override
+        public void failed(Throwable exc, Void attachment) {
+            if (serverChannel.isOpen()) {
+                // 例如文件描述符耗尽，继续接收，已有连接关闭后会恢复
+                errors.increment();
+                acceptNext(this);
+            }
+        }
+    }
+
+    private void acceptNext(Acceptor acceptor) {
+        try {
+            serverChannel.accept(null, acceptor);
+        } catch (RuntimeException e) {
+            // 服务端已关闭
+        }
+    }
+
+    void remove(AioConnection connection) {
+        if (open.remove(connection)) {
+            connections.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverChannel == null) {
+            return;
+        }
+        serverChannel.close();
+        for (AioConnection connection : open) {
+            connection.close();
+        }
+        group.shutdown();
+        try {
+            if (!group.awaitTermination(5, TimeUnit.SECONDS)) {
+                group.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long framesIn() {
+        return framesIn.sum();
+    }
+
+    public long framesOut() {
+        return framesOut.sum();
+    }
+
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * 因背压暂停读的次数
+     */
+    public long readPauses() {
+        return readPauses.sum();
+    }
+
+    public long rejectedSends() {
+        return rejectedSends.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * 缓冲区池耗尽后额外分配的次数
+     */
+    public long unpooledAllocations() {
+        return pool == null ? 0 : pool.unpooledAllocations();
+    }
+
+    /**
+     * 池中当前空闲的缓冲区个数，所有连接关闭后应回到 pooledBuffers
+     */
+    public int availableBuffers() {
+        return pool == null ? 0 : pool.available();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("连接 %d（累计 %d），收帧 %,d，发帧 %,d，读暂停 %d，拒绝发送 %d，池外分配 %d，错误 %d",
+                connections(), accepted(), framesIn(), framesOut(), readPauses(), rejectedSends(),
+                unpooledAllocations(), errors());
+    }
+}
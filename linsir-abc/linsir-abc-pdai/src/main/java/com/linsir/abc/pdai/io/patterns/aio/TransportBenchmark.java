@@ -0,0 +1,139 @@
+package com.linsir.abc.pdai.io.patterns.aio;
+
+import com.linsir.abc.pdai.io.patterns.reactor.BlockingFrameServer;
+import com.linsir.abc.pdai.io.patterns.reactor.LoadGenerator;
+import com.linsir.abc.pdai.io.patterns.reactor.ReactorServer;
+import com.linsir.abc.pdai.thread.juc.executors.ThreadStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AIO、多 reactor NIO、阻塞 IO 帧服务端的对比压测
+ *
+ * 运行：java ... TransportBenchmark [连接数列表，默认 1000,10000] [每轮秒数，默认 5] [负载字节数，默认 64] [客户端线程数，默认 CPU 核数的一半]
+ *       [服务端列表，默认 aio,reactor,bio]
+ *
+ * 服务端：aio、reactor、bio（每连接一个平台线程）、bio-pool（256 个线程的固定线程池）、bio-virtual（每连接一个虚拟线程）
+ *
+ * 说明：
+ * 1. 三个服务端都是回显：收到一帧原样发回，客户端是 LoadGenerator 的闭环 NIO 压测
+ * 2. 客户端放在单独的子 JVM 里（同一个 classpath，本类的 client 模式），服务端与客户端各自只占一半文件描述符，
+ *    1 万连接时同进程需要 2 万个描述符，常见的 ulimit -n 放不下
+ * 3. 每轮之后打印服务端统计；AIO 额外打印池中空闲缓冲区数，连接全部关闭后应回到初始值，用来检查缓冲区有没有漏还
+ * 4. BIO 在 1 万连接时需要 1 万个线程，受 ulimit -u 约束；bio-pool 只能同时服务 256 个连接，其余连接的请求一直排队；
+ *    bio-virtual 在不支持虚拟线程的运行时上回退为平台线程，输出中标注
+ */
+public final class TransportBenchmark {
+
+    private TransportBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "client".equals(args[0])) {
+            client(args);
+            return;
+        }
+        String[] connectionCounts = (args.length > 0 ? args[0] : "1000,10000").split(",");
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        int payloadSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        String[] servers = (args.length > 4 ? args[4] : "aio,reactor,bio").split(",");
+        System.out.printf("每轮 %d 秒，负载 %d 字节，客户端线程 %d，CPU %d 核%n",
+                seconds, payloadSize, threads, Runtime.getRuntime().availableProcessors());
+
+        for (String count : connectionCounts) {
+            int connections = Integer.parseInt(count.trim());
+            String[] clientArgs = {String.valueOf(connections), String.valueOf(seconds),
+                    String.valueOf(payloadSize), String.valueOf(threads)};
+
+            for (String server : servers) {
+                run(server.trim(), connections, clientArgs);
+            }
+        }
+    }
+
+    private static void run(String server, int connections, String[] clientArgs) throws IOException, InterruptedException {
+        switch (server) {
+            case "aio":
+                int pooledBuffers = connections + connections / 4 + 1024;
+                try (AioServer aio = new AioServer((connection, frame) -> connection.send(frame)).pooledBuffers(pooledBuffers)) {
+                    runClient("AIO            ", aio.start(0), clientArgs);
+                    System.out.println("               " + aio);
+                    awaitClosed(aio, pooledBuffers);
+                    System.out.printf("               池中空闲缓冲区 %d / %d%n", aio.availableBuffers(), pooledBuffers);
+                }
+                break;
+            case "reactor":
+                try (ReactorServer reactor = new ReactorServer((connection, frame) -> connection.send(frame))) {
+                    runClient("multi-reactor  ", reactor.start(0), clientArgs);
+                    System.out.println("               " + reactor);
+                }
+                break;
+            case "bio":
+            case "bio-pool":
+            case "bio-virtual":
+                ThreadStrategy strategy = "bio-pool".equals(server) ? ThreadStrategy.FIXED_POOL
+                        : "bio-virtual".equals(server) ? ThreadStrategy.VIRTUAL : ThreadStrategy.PLATFORM;
+                try (BlockingFrameServer bio = new BlockingFrameServer(request -> request).threadStrategy(strategy, 256)) {
+                    runClient(String.format("%-15s", server), bio.start(0), clientArgs);
+                    System.out.printf("               收帧 %,d，实际执行策略 %s%n", bio.frames(), bio.threadStrategy());
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("未知的服务端: " + server + "，可选 aio / reactor / bio / bio-pool / bio-virtual");
+        }
+    }
+
+    /**
+     * 启动子 JVM 跑客户端，输出直接继承到当前进程
+     */
+    private static void runClient(String label, int port, String[] clientArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        String encoding = System.getProperty("stdout.encoding");
+        if (encoding != null) {
+            command.add("-Dstdout.encoding=" + encoding);
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(TransportBenchmark.class.getName());
+        command.add("client");
+        command.add(label);
+        command.add(String.valueOf(port));
+        command.addAll(List.of(clientArgs));
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        if (process.waitFor() != 0) {
+            System.out.println(label + "客户端异常退出: " + process.exitValue());
+        }
+    }
+
+    /**
+     * client 模式：client 标签 端口 连接数 秒数 负载字节数 客户端线程数
+     */
+    private static void client(String[] args) throws InterruptedException {
+        String label = args[1];
+        int port = Integer.parseInt(args[2]);
+        int connections = Integer.parseInt(args[3]);
+        long seconds = Long.parseLong(args[4]);
+        int payloadSize = Integer.parseInt(args[5]);
+        int threads = Integer.parseInt(args[6]);
+        LoadGenerator.Result result = LoadGenerator.run(new InetSocketAddress("127.0.0.1", port),
+                connections, threads, payloadSize, seconds);
+        System.out.println(label + result);
+    }
+
+    /**
+     * 子进程退出后服务端要稍后才能处理完所有连接的关闭、归还读缓冲区
+     */
+    private static void awaitClosed(AioServer server, int pooledBuffers) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((server.connections() > 0 || server.availableBuffers() < pooledBuffers)
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import com.linsir.abc.pdai.thread.juc.executors.ThreadStrategy;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+/**
+ * 阻塞 IO 的帧服务端：默认与 BIODemo 一样每个连接一个线程，协议与 ReactorServer 相同，作为压测对照
+ *
+ * 说明：
+ * 1. 读一帧、交给 handler、写回结果；输入流缓冲区里没有更多数据时才 flush，流水线请求可以合并写出
+ * 2. 每个连接的线程默认栈 1MB（虚拟内存），上万连接时线程创建和上下文切换是主要开销
+ * 3. 连接由 threadStrategy 决定的执行器处理：PLATFORM 每连接一个平台线程；FIXED_POOL 只有 poolSize 个连接同时被服务，
+ *    其余连接排队到有连接断开为止；VIRTUAL 每连接一个虚拟线程（运行时不支持时回退为 PLATFORM）
+ */
+public final class BlockingFrameServer implements Closeable {
+
+    private final UnaryOperator<byte[]> handler;
+
+    private final int maxFrameSize;
+
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final LongAdder frames = new LongAdder();
+
+    private ThreadStrategy threadStrategy = ThreadStrategy.PLATFORM;
+
+    private int poolSize = 200;
+
+    private ExecutorService executor;
+
+    private ServerSocket serverSocket;
+
+    private Thread acceptor;
+
+
+    /**
+     * @param handler 请求负载 -> 响应负载，返回 null 表示不响应
+     */
+    public BlockingFrameServer(UnaryOperator<byte[]> handler) {
+        this(handler, Frames.DEFAULT_MAX_FRAME_SIZE);
+    }
+
+    public BlockingFrameServer(UnaryOperator<byte[]> handler, int maxFrameSize) {
+        this.handler = handler;
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    /**
+     * 连接的执行策略，默认 PLATFORM
+     *
+     * @param poolSize FIXED_POOL 的线程数，其他策略忽略
+     */
+    public BlockingFrameServer threadStrategy(ThreadStrategy threadStrategy, int poolSize) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("线程池大小至少为 1: " + poolSize);
+        }
+        this.threadStrategy = threadStrategy;
+        this.poolSize = poolSize;
+        return this;
+    }
+
+    public int start(int port) throws IOException {
+        executor = threadStrategy.newExecutor(poolSize, "bio-connection");
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(port), 4096);
+        acceptor = new Thread(this::acceptLoop, "bio-acceptor");
+        acceptor.start();
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                continue;
+            }
+            sockets.add(socket);
+            connections.incrementAndGet();
+            try {
+                executor.execute(() -> serve(socket));
+            } catch (RuntimeException e) {
+                // 服务端正在关闭，线程池拒绝任务；Error（如建不出平台线程的 OOM）不在这里吞掉，
+                // 让接收线程终止并暴露出来，JVM 已经不健康时继续接收连接只会掩盖问题
+                sockets.remove(socket);
+                connections.decrementAndGet();
+                try {
+                    socket.close();
+                } catch (IOException ignored) {
+                    // 关闭时忽略
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            byte[] request;
+            while ((request = Frames.read(in, maxFrameSize)) != null) {
+                frames.increment();
+                byte[] response = handler.apply(request);
+                if (response != null) {
+                    Frames.write(out, response, 0, response.length);
+                }
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (SocketException e) {
+            // 对端重置或服务端关闭
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            sockets.remove(socket);
+            connections.decrementAndGet();
+        }
+    }
+
+    /**
+     * 实际生效的执行策略
+     */
+    public ThreadStrategy threadStrategy() {
+        return threadStrategy.effective();
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    public long frames() {
+        return frames.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverSocket == null) {
+            return;
+        }
+        serverSocket.close();
+        for (Socket socket : sockets) {
+            socket.close();
+        }
+        try {
+            acceptor.join();
+            // 固定线程池里排队的连接已经随 sockets 一起关闭，直接丢弃
+            executor.shutdownNow();
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
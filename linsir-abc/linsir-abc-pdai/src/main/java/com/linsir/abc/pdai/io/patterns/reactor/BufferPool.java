@@ -0,0 +1,125 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 定长直接缓冲区池
+ *
+ * 说明：
+ * 1. 启动时一次性分配大块直接内存（slab，每块不超过 1GB），切成 count 个定长切片，之后借还都不再分配内存
+ * 2. 空闲切片用无锁栈（Treiber stack）管理：栈顶存在一个 AtomicLong 里，高 32 位是版本号、低 32 位是下标 + 1，
+ *    版本号每次修改加一，避免 ABA；next[] 只在持有该切片时写，由 CAS 的 happens-before 保证可见
+ * 3. 池耗尽时临时分配一块不入池的直接缓冲区并计数，归还时丢弃，由 GC 回收
+ * 4. 线程安全，可以被多个 reactor / 完成回调线程共享
+ */
+public final class BufferPool {
+
+    private static final int MAX_SLAB_SIZE = 1 << 30;
+
+    private final int bufferSize;
+
+    private final ByteBuffer[] slices;
+
+    // 切片 -> 下标，构造后只读
+    private final Map<ByteBuffer, Integer> indexes;
+
+    private final int[] next;
+
+    private final AtomicLong head = new AtomicLong();
+
+    private final LongAdder unpooled = new LongAdder();
+
+
+    public BufferPool(int bufferSize, int count) {
+        if (bufferSize <= 0 || count <= 0 || bufferSize > MAX_SLAB_SIZE) {
+            throw new IllegalArgumentException("缓冲区大小和个数必须为正数: " + bufferSize + " × " + count);
+        }
+        this.bufferSize = bufferSize;
+        this.slices = new ByteBuffer[count];
+        this.indexes = new IdentityHashMap<>(count);
+        this.next = new int[count];
+        int perSlab = MAX_SLAB_SIZE / bufferSize;
+        ByteBuffer slab = null;
+        for (int i = 0; i < count; i++) {
+            if (i % perSlab == 0) {
+                slab = ByteBuffer.allocateDirect(Math.min(perSlab, count - i) * bufferSize);
+            }
+            int offset = (i % perSlab) * bufferSize;
+            slices[i] = slab.slice(offset, bufferSize);
+            indexes.put(slices[i], i);
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            push(i);
+        }
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 借出一块已清空的缓冲区
+     */
+    public ByteBuffer acquire() {
+        int index = pop();
+        if (index < 0) {
+            unpooled.increment();
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        return slices[index].clear();
+    }
+
+    public void release(ByteBuffer buffer) {
+        Integer index = indexes.get(buffer);
+        if (index != null) {
+            push(index);
+        }
+    }
+
+    /**
+     * 当前空闲切片数，遍历空闲栈，只用于统计
+     */
+    public int available() {
+        int count = 0;
+        for (int i = (int) head.get() - 1; i >= 0 && count <= slices.length; i = next[i]) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 池耗尽时额外分配的缓冲区个数
+     */
+    public long unpooledAllocations() {
+        return unpooled.sum();
+    }
+
+    private int pop() {
+        while (true) {
+            long current = head.get();
+            int index = (int) current - 1;
+            if (index < 0) {
+                return -1;
+            }
+            long updated = ((current >>> 32) + 1) << 32 | (next[index] + 1);
+            if (head.compareAndSet(current, updated)) {
+                return index;
+            }
+        }
+    }
+
+    private void push(int index) {
+        while (true) {
+            long current = head.get();
+            next[index] = (int) current - 1;
+            long updated = ((current >>> 32) + 1) << 32 | (index + 1);
+            if (head.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 一个客户端连接，终生绑定在接收它时分配的 reactor 上
+ *
+ * 说明：
+ * 1. 读半包和写缓冲都从 reactor 的缓冲区池借用，只在确实有未处理数据时持有，空闲连接不占缓冲区
+ * 2. send 可以在任意线程调用：在 reactor 线程上直接把帧追加到写缓冲，其他线程则复制一份放进发送队列并唤醒 reactor
+ * 3. 待发送字节数超过高水位时 reactor 暂停读这个连接（不再产生新的响应），降到低水位以下再恢复；
+ *    超过 maxPendingBytes 时 send 直接返回 false，由调用方决定丢弃还是断开
+ */
+public final class Connection {
+
+    private static final AtomicLong IDS = new AtomicLong();
+
+    final long id = IDS.incrementAndGet();
+
+    final SocketChannel channel;
+
+    final Reactor reactor;
+
+    SelectionKey key;
+
+    // 以下字段只由 reactor 线程访问
+
+    ByteBuffer partial;
+
+    ByteBuffer out;
+
+    ByteBuffer current;
+
+    boolean readPaused;
+
+    boolean dirty;
+
+    // 以下字段跨线程访问
+
+    final Queue<ByteBuffer> queue = new ConcurrentLinkedQueue<>();
+
+    final AtomicLong pendingBytes = new AtomicLong();
+
+    final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    volatile boolean closeRequested;
+
+    volatile boolean closed;
+
+    private volatile Object attachment;
+
+
+    Connection(SocketChannel channel, Reactor reactor) {
+        this.channel = channel;
+        this.reactor = reactor;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    public SocketAddress remoteAddress() {
+        try {
+            return channel.getRemoteAddress();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    /**
+     * 已提交但还没写到 socket 的字节数（含帧头）
+     */
+    public long pendingBytes() {
+        return pendingBytes.get();
+    }
+
+    public Object attachment() {
+        return attachment;
+    }
+
+    public void attach(Object attachment) {
+        this.attachment = attachment;
+    }
+
+    /**
+     * 发送一帧，payload 的 position 到 limit 之间是内容；调用期间内容已被复制，返回后调用方可以复用 payload
+     *
+     * @return 连接已关闭或待发送数据超过上限时返回 false
+     */
+    public boolean send(ByteBuffer payload) {
+        return reactor.send(this, payload);
+    }
+
+    /**
+     * 关闭连接，未发送的数据被丢弃
+     */
+    public void close() {
+        reactor.close(this);
+    }
+
+    @Override
+    public String toString() {
+        return "Connection#" + id;
+    }
+}
@@ -0,0 +1,23 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 帧处理器，所有回调都在连接所属的 reactor 线程上执行，不能阻塞
+ */
+@FunctionalInterface
+public interface FrameHandler {
+
+    /**
+     * 收到一帧
+     *
+     * @param frame 帧负载，position 到 limit 之间是内容；只在回调期间有效，需要保留时自行复制
+     */
+    void onFrame(Connection connection, ByteBuffer frame);
+
+    default void onOpen(Connection connection) {
+    }
+
+    default void onClose(Connection connection) {
+    }
+}
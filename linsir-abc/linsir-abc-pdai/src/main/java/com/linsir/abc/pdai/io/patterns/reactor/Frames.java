@@ -0,0 +1,56 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * 长度前缀分帧协议：4 字节大端长度 + 负载
+ *
+ * 说明：
+ * 1. 非阻塞服务端在 Reactor 中直接按此格式从 ByteBuffer 中切帧，这里是阻塞流版本，供 BIO 服务端和测试客户端使用
+ * 2. 长度为负数或超过 maxFrameSize 视为协议错误，直接断开连接，防止对端用一个巨大的长度耗尽内存
+ */
+public final class Frames {
+
+    public static final int HEADER_SIZE = 4;
+
+    public static final int DEFAULT_MAX_FRAME_SIZE = 64 * 1024 - HEADER_SIZE;
+
+    private Frames() {
+    }
+
+    /**
+     * 读一帧，对端在帧边界正常关闭时返回 null
+     */
+    public static byte[] read(DataInputStream in, int maxFrameSize) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        checkLength(length, maxFrameSize);
+        byte[] payload = new byte[length];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * 写一帧，不 flush
+     */
+    public static void write(DataOutputStream out, byte[] payload, int offset, int length) throws IOException {
+        out.writeInt(length);
+        out.write(payload, offset, length);
+    }
+
+    /**
+     * 校验帧头里的长度，非法时抛出 IOException，调用方据此断开连接
+     */
+    public static void checkLength(int length, int maxFrameSize) throws IOException {
+        if (length < 0 || length > maxFrameSize) {
+            throw new IOException("非法帧长度: " + length);
+        }
+    }
+}
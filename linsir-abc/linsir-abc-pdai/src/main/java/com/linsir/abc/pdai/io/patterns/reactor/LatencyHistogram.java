@@ -0,0 +1,92 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.util.Arrays;
+
+/**
+ * 对数分桶的延迟直方图，记录纳秒值，相对误差不超过 1/64
+ *
+ * 说明：
+ * 1. 与 HdrHistogram 的思路相同：小于 128 的值一个值一个桶；更大的值按最高位所在的 2 的幂分组，每组线性分成 64 个桶
+ * 2. 记录是一次数组自增，没有分配；非线程安全，每个压测线程一个，结束后 merge
+ */
+public final class LatencyHistogram {
+
+    // 每组 64 个桶
+    private static final int GROUP_BITS = 6;
+
+    private static final int LINEAR_LIMIT = 2 << GROUP_BITS;
+
+    private final long[] counts = new long[64 << GROUP_BITS];
+
+    private long total;
+
+    private long max;
+
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(value)]++;
+        total++;
+        max = Math.max(max, value);
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /**
+     * 百分位数，返回所在桶的上界
+     *
+     * @param percentile 范围 (0, 100]
+     */
+    public long percentile(double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, upperBound(i));
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    private static int index(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        // value >>> shift 落在 [64, 128)，index = shift × 64 + (value >>> shift) 与线性区间首尾相接
+        int shift = 63 - Long.numberOfLeadingZeros(value) - GROUP_BITS;
+        return (shift << GROUP_BITS) + (int) (value >>> shift);
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index >>> GROUP_BITS) - 1;
+        long top = index - ((long) shift << GROUP_BITS);
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,253 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 帧协议的压测客户端，同时是 ReactorServer 与 BlockingFrameServer 的对比入口
+ *
+ * 运行：java ... LoadGenerator [连接数列表，默认 100,1000,5000] [每轮秒数，默认 5] [负载字节数，默认 64] [客户端线程数，默认 CPU 核数的一半]
+ *
+ * 说明：
+ * 1. 客户端本身也是 NIO：少量线程各用一个 Selector 驱动大量连接，避免压测端先成为瓶颈
+ * 2. 闭环压测：每个连接同时只有一个未完成请求，收到响应后立即发下一个；请求负载前 8 字节是发送时的 nanoTime，
+ *    服务端原样回显，客户端据此算延迟，不需要按连接保存状态
+ * 3. 先预热 1 秒再开始计数，吞吐和延迟只统计计数窗口内完成的请求
+ * 4. 服务端与客户端在同一进程中，连接数受文件描述符上限约束（每个连接占两个）
+ */
+public final class LoadGenerator {
+
+    private static final long WARMUP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * 一轮压测的结果
+     */
+    public static final class Result {
+
+        public final int connections;
+
+        public final long requests;
+
+        public final double requestsPerSecond;
+
+        public final LatencyHistogram latency;
+
+        public final long errors;
+
+        Result(int connections, long requests, double requestsPerSecond, LatencyHistogram latency, long errors) {
+            this.connections = connections;
+            this.requests = requests;
+            this.requestsPerSecond = requestsPerSecond;
+            this.latency = latency;
+            this.errors = errors;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("连接 %6d  请求/秒 %,10.0f  p50 %8.1f µs  p99 %8.1f µs  p99.9 %8.1f µs  错误 %d",
+                    connections, requestsPerSecond, latency.percentile(50) / 1e3, latency.percentile(99) / 1e3,
+                    latency.percentile(99.9) / 1e3, errors);
+        }
+    }
+
+    public static Result run(InetSocketAddress address, int connections, int threads, int payloadSize, long seconds)
+            throws InterruptedException {
+        if (payloadSize < 8) {
+            throw new IllegalArgumentException("负载至少 8 字节，用来携带发送时间: " + payloadSize);
+        }
+        threads = Math.max(1, Math.min(threads, connections));
+        ClientThread[] clients = new ClientThread[threads];
+        for (int i = 0; i < threads; i++) {
+            int count = connections / threads + (i < connections % threads ? 1 : 0);
+            clients[i] = new ClientThread(address, count, payloadSize);
+        }
+        long start = System.nanoTime();
+        long measureFrom = start + WARMUP_NANOS;
+        long measureTo = measureFrom + TimeUnit.SECONDS.toNanos(seconds);
+        for (ClientThread client : clients) {
+            client.window(measureFrom, measureTo);
+            client.start();
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        long requests = 0;
+        long errors = 0;
+        int connected = 0;
+        for (ClientThread client : clients) {
+            client.join();
+            latency.merge(client.latency);
+            requests += client.completed;
+            errors += client.errors.get();
+            connected += client.connected;
+        }
+        return new Result(connected, requests, requests / (double) seconds, latency, errors);
+    }
+
+    private static final class ClientThread extends Thread {
+
+        private final InetSocketAddress address;
+
+        private final int connections;
+
+        private final int payloadSize;
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private final AtomicLong errors = new AtomicLong();
+
+        private long measureFrom;
+
+        private long measureTo;
+
+        private long completed;
+
+        private int connected;
+
+        ClientThread(InetSocketAddress address, int connections, int payloadSize) {
+            super("load-generator");
+            this.address = address;
+            this.connections = connections;
+            this.payloadSize = payloadSize;
+        }
+
+        void window(long from, long to) {
+            this.measureFrom = from;
+            this.measureTo = to;
+        }
+
+        @Override
+        public void run() {
+            List<SocketChannel> channels = new ArrayList<>();
+            try (Selector selector = Selector.open()) {
+                for (int i = 0; i < connections; i++) {
+                    try {
+                        SocketChannel channel = SocketChannel.open(address);
+                        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                        channel.configureBlocking(false);
+                        channels.add(channel);
+                        Client client = new Client(channel, payloadSize);
+                        channel.register(selector, SelectionKey.OP_READ, client);
+                        connected++;
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+                for (SelectionKey key : selector.keys()) {
+                    send(key);
+                }
+                while (System.nanoTime() < measureTo) {
+                    selector.select(this::process, 100);
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+            } finally {
+                for (SocketChannel channel : channels) {
+                    try {
+                        channel.close();
+                    } catch (IOException ignored) {
+                        // 关闭时忽略
+                    }
+                }
+            }
+        }
+
+        private void process(SelectionKey key) {
+            Client client = (Client) key.attachment();
+            try {
+                if (key.isWritable()) {
+                    client.channel.write(client.out);
+                    if (!client.out.hasRemaining()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                }
+                if (key.isReadable()) {
+                    if (client.channel.read(client.in) < 0) {
+                        throw new IOException("服务端关闭了连接");
+                    }
+                    if (!client.in.hasRemaining()) {
+                        long now = System.nanoTime();
+                        long sentAt = client.in.getLong(Frames.HEADER_SIZE);
+                        if (sentAt >= measureFrom && now <= measureTo) {
+                            latency.record(now - sentAt);
+                            completed++;
+                        }
+                        client.in.clear();
+                        send(key);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                errors.incrementAndGet();
+                key.cancel();
+            }
+        }
+
+        private void send(SelectionKey key) {
+            Client client = (Client) key.attachment();
+            ByteBuffer out = client.out;
+            out.clear();
+            out.putInt(payloadSize).putLong(System.nanoTime());
+            out.position(Frames.HEADER_SIZE + payloadSize).flip();
+            try {
+                client.channel.write(out);
+                if (out.hasRemaining()) {
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                }
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                key.cancel();
+            }
+        }
+    }
+
+    private static final class Client {
+
+        final SocketChannel channel;
+
+        final ByteBuffer out;
+
+        final ByteBuffer in;
+
+        Client(SocketChannel channel, int payloadSize) {
+            this.channel = channel;
+            this.out = ByteBuffer.allocateDirect(Frames.HEADER_SIZE + payloadSize);
+            this.in = ByteBuffer.allocateDirect(Frames.HEADER_SIZE + payloadSize);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] connectionCounts = (args.length > 0 ? args[0] : "100,1000,5000").split(",");
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 5;
+        int payloadSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        System.out.printf("每轮 %d 秒，负载 %d 字节，客户端线程 %d，CPU %d 核%n",
+                seconds, payloadSize, threads, Runtime.getRuntime().availableProcessors());
+
+        for (String count : connectionCounts) {
+            int connections = Integer.parseInt(count.trim());
+
+            try (ReactorServer server = new ReactorServer((connection, frame) -> connection.send(frame))) {
+                int port = server.start(0);
+                Result result = run(new InetSocketAddress("127.0.0.1", port), connections, threads, payloadSize, seconds);
+                System.out.println("multi-reactor  " + result);
+                System.out.println("               " + server);
+            }
+
+            try (BlockingFrameServer server = new BlockingFrameServer(request -> request)) {
+                int port = server.start(0);
+                Result result = run(new InetSocketAddress("127.0.0.1", port), connections, threads, payloadSize, seconds);
+                System.out.println("BIO            " + result);
+            }
+        }
+    }
+}
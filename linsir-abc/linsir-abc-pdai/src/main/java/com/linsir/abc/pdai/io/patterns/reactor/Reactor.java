@@ -0,0 +1,410 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 一个 worker reactor：一个线程、一个 Selector、一个缓冲区池
+ *
+ * 说明：
+ * 1. 事件循环：select → 处理新连接和其他线程的发送/关闭请求 → 处理就绪的读写 → 统一 flush 本轮产生了输出的连接
+ * 2. 同一轮里一个连接的多个响应先攒在写缓冲里，最后一次 write 发出，减少系统调用
+ * 3. 读：有半包时读进连接自己的缓冲区，否则读进 reactor 共享的读缓冲区，切完帧后剩余的半包才复制到借来的缓冲区
+ * 4. 写：写缓冲写不完时注册 OP_WRITE，写完后取消；缓冲区与发送队列都空了就把写缓冲还回池
+ * 5. 其他线程提交任务后只在 wakeupPending 由 false 变 true 时调用一次 selector.wakeup()，避免唤醒风暴
+ */
+final class Reactor implements Runnable {
+
+    private final ReactorServer server;
+
+    private final Selector selector;
+
+    private final BufferPool pool;
+
+    private final ByteBuffer readBuffer;
+
+    private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Connection> requests = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+
+    private final List<Connection> dirty = new ArrayList<>();
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+
+    Reactor(ReactorServer server, int index, int pooledBuffers) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        this.pool = new BufferPool(server.maxFrameSize + Frames.HEADER_SIZE, pooledBuffers);
+        this.readBuffer = ByteBuffer.allocateDirect(server.maxFrameSize + Frames.HEADER_SIZE);
+        this.thread = new Thread(this, "reactor-" + index);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    BufferPool pool() {
+        return pool;
+    }
+
+    /**
+     * 由 acceptor 线程调用
+     */
+    void register(SocketChannel channel) {
+        registrations.add(channel);
+        wakeup();
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+    private void wakeup() {
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(this::process);
+                wakeupPending.set(false);
+                registerPending();
+                drainRequests();
+                flushDirty();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection) {
+                    doClose((Connection) key.attachment());
+                }
+            }
+            SocketChannel channel;
+            while ((channel = registrations.poll()) != null) {
+                closeQuietly(channel);
+            }
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+                // 关闭时忽略
+            }
+        }
+    }
+
+    private void process(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        if (!key.isValid()) {
+            // 本轮中被其他回调关闭
+            return;
+        }
+        try {
+            if (key.isWritable()) {
+                flush(connection);
+            }
+            if (key.isValid() && key.isReadable()) {
+                read(connection);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (!(e instanceof IOException)) {
+                server.errors.increment();
+            }
+            doClose(connection);
+        }
+    }
+
+    private void registerPending() {
+        SocketChannel channel;
+        while ((channel = registrations.poll()) != null) {
+            Connection connection = new Connection(channel, this);
+            try {
+                connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            } catch (IOException e) {
+                closeQuietly(channel);
+                continue;
+            }
+            server.connections.incrementAndGet();
+            try {
+                server.handler.onOpen(connection);
+            } catch (RuntimeException e) {
+                server.errors.increment();
+                doClose(connection);
+            }
+        }
+    }
+
+    private void drainRequests() {
+        Connection connection;
+        while ((connection = requests.poll()) != null) {
+            connection.flushRequested.set(false);
+            if (connection.closeRequested) {
+                doClose(connection);
+            } else {
+                markDirty(connection);
+            }
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        ByteBuffer buffer = connection.partial;
+        if (buffer == null) {
+            // 上一个连接可能因协议错误中途断开，共享读缓冲区里留有残余数据
+            buffer = readBuffer.clear();
+        }
+        int read = connection.channel.read(buffer);
+        if (read < 0) {
+            doClose(connection);
+            return;
+        }
+        if (read == 0) {
+            return;
+        }
+        server.bytesIn.add(read);
+        buffer.flip();
+        int maxFrameSize = server.maxFrameSize;
+        while (buffer.remaining() >= Frames.HEADER_SIZE && !connection.closed) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            Frames.checkLength(length, maxFrameSize);
+            if (buffer.remaining() < Frames.HEADER_SIZE + length) {
+                break;
+            }
+            int end = start + Frames.HEADER_SIZE + length;
+            int limit = buffer.limit();
+            buffer.limit(end).position(start + Frames.HEADER_SIZE);
+            server.framesIn.increment();
+            server.handler.onFrame(connection, buffer);
+            buffer.limit(limit).position(end);
+        }
+        if (connection.closed) {
+            readBuffer.clear();
+            return;
+        }
+        if (buffer == readBuffer) {
+            if (buffer.hasRemaining()) {
+                connection.partial = pool.acquire();
+                connection.partial.put(buffer);
+            }
+            readBuffer.clear();
+        } else {
+            buffer.compact();
+            if (buffer.position() == 0) {
+                pool.release(buffer);
+                connection.partial = null;
+            }
+        }
+        updateInterest(connection);
+    }
+
+    boolean send(Connection connection, ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length > server.maxFrameSize) {
+            throw new IllegalArgumentException("帧长度超过上限: " + length);
+        }
+        if (connection.closed || connection.closeRequested) {
+            return false;
+        }
+        int bytes = Frames.HEADER_SIZE + length;
+        // 先占用再检查，一次 addAndGet 完成：先读后加的两步之间其他线程也能通过检查，合起来超过上限
+        if (connection.pendingBytes.addAndGet(bytes) > server.maxPendingBytes) {
+            connection.pendingBytes.addAndGet(-bytes);
+            server.rejectedSends.increment();
+            return false;
+        }
+        server.framesOut.increment();
+        if (Thread.currentThread() == thread) {
+            if (connection.current == null && connection.queue.isEmpty()) {
+                if (connection.out == null) {
+                    connection.out = pool.acquire();
+                }
+                if (connection.out.remaining() >= bytes) {
+                    int position = payload.position();
+                    connection.out.putInt(length).put(payload);
+                    payload.position(position);
+                    markDirty(connection);
+                    return true;
+                }
+            }
+            connection.queue.add(copy(payload));
+            markDirty(connection);
+        } else {
+            connection.queue.add(copy(payload));
+            request(connection);
+        }
+        return true;
+    }
+
+    void close(Connection connection) {
+        if (Thread.currentThread() == thread) {
+            doClose(connection);
+        } else {
+            connection.closeRequested = true;
+            request(connection);
+        }
+    }
+
+    private void request(Connection connection) {
+        if (connection.flushRequested.compareAndSet(false, true)) {
+            requests.add(connection);
+            wakeup();
+        }
+    }
+
+    private void markDirty(Connection connection) {
+        if (!connection.dirty) {
+            connection.dirty = true;
+            dirty.add(connection);
+        }
+    }
+
+    private void flushDirty() {
+        // 关闭连接时 onClose 回调可能给别的连接发数据，列表会在遍历中变长，所以按下标遍历
+        for (int i = 0; i < dirty.size(); i++) {
+            Connection connection = dirty.get(i);
+            connection.dirty = false;
+            if (connection.closed) {
+                continue;
+            }
+            try {
+                flush(connection);
+            } catch (IOException e) {
+                doClose(connection);
+            }
+        }
+        dirty.clear();
+    }
+
+    private void flush(Connection connection) throws IOException {
+        while (true) {
+            ByteBuffer out = connection.out;
+            if (out == null) {
+                if (connection.current == null && connection.queue.isEmpty()) {
+                    break;
+                }
+                out = connection.out = pool.acquire();
+            }
+            fill(connection, out);
+            out.flip();
+            int written = connection.channel.write(out);
+            out.compact();
+            server.bytesOut.add(written);
+            connection.pendingBytes.addAndGet(-written);
+            if (out.position() > 0) {
+                // socket 发送缓冲区满了，等 OP_WRITE
+                break;
+            }
+            if (connection.current == null && connection.queue.isEmpty()) {
+                pool.release(out);
+                connection.out = null;
+                break;
+            }
+        }
+        updateInterest(connection);
+    }
+
+    /**
+     * 把发送队列里的帧尽量搬进写缓冲；一帧放不下时记在 current 里，下次从断点继续
+     */
+    private static void fill(Connection connection, ByteBuffer out) {
+        while (true) {
+            ByteBuffer payload = connection.current;
+            if (payload == null) {
+                payload = connection.queue.peek();
+                if (payload == null || out.remaining() < Frames.HEADER_SIZE) {
+                    return;
+                }
+                connection.queue.poll();
+                out.putInt(payload.remaining());
+                connection.current = payload;
+            }
+            int n = Math.min(out.remaining(), payload.remaining());
+            int limit = payload.limit();
+            payload.limit(payload.position() + n);
+            out.put(payload);
+            payload.limit(limit);
+            if (payload.hasRemaining()) {
+                return;
+            }
+            connection.current = null;
+        }
+    }
+
+    /**
+     * 按待发送字节数切换读暂停，并根据写缓冲是否有残留决定是否关注 OP_WRITE
+     */
+    private void updateInterest(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        long pending = connection.pendingBytes.get();
+        if (!connection.readPaused && pending > server.highWatermark) {
+            connection.readPaused = true;
+            server.readPauses.increment();
+        } else if (connection.readPaused && pending <= server.lowWatermark) {
+            connection.readPaused = false;
+        }
+        int ops = (connection.readPaused ? 0 : SelectionKey.OP_READ)
+                | (connection.out != null && connection.out.position() > 0 ? SelectionKey.OP_WRITE : 0);
+        if (connection.key.interestOps() != ops) {
+            connection.key.interestOps(ops);
+        }
+    }
+
+    private void doClose(Connection connection) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        connection.key.cancel();
+        closeQuietly(connection.channel);
+        if (connection.partial != null) {
+            pool.release(connection.partial);
+            connection.partial = null;
+        }
+        if (connection.out != null) {
+            pool.release(connection.out);
+            connection.out = null;
+        }
+        connection.current = null;
+        connection.queue.clear();
+        connection.pendingBytes.set(0);
+        server.connections.decrementAndGet();
+        try {
+            server.handler.onClose(connection);
+        } catch (RuntimeException e) {
+            server.errors.increment();
+        }
+    }
+
+    private static ByteBuffer copy(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(payload.position(), bytes);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 关闭时忽略
+        }
+    }
+}
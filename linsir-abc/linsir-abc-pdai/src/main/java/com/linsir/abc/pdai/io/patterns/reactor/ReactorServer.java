@@ -0,0 +1,255 @@
+package com.linsir.abc.pdai.io.patterns.reactor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多 reactor 的 NIO 服务端
+ *
+ * 说明：
+ * 1. 一个 acceptor 线程阻塞 accept，新连接轮询分给 N 个 worker reactor（默认 N = CPU 核数），之后连接的所有读写都在这个 reactor 线程上，
+ *    不会在线程间迁移；Java 无法把线程绑定到指定 CPU，这里能做到的是"连接绑定线程"，由操作系统调度线程
+ * 2. MultiplexedIODemo 是单线程 Selector，每次读都新分配 ByteBuffer；这里每个 reactor 有自己的直接缓冲区池，读写路径上不分配缓冲区
+ * 3. 协议为 4 字节长度前缀分帧（见 Frames），由 FrameHandler 处理，回调在 reactor 线程上执行
+ * 4. 每个连接有发送队列和高低水位：待发送字节超过高水位暂停读，低于低水位恢复；超过 maxPendingBytes 时 send 返回 false
+ *
+ * 使用：
+ * <pre>
+ * ReactorServer server = new ReactorServer((connection, frame) -&gt; connection.send(frame)).workers(4);
+ * int port = server.start(0);
+ * </pre>
+ */
+public final class ReactorServer implements Closeable {
+
+    final FrameHandler handler;
+
+    int maxFrameSize = Frames.DEFAULT_MAX_FRAME_SIZE;
+
+    long lowWatermark = 32 * 1024;
+
+    long highWatermark = 256 * 1024;
+
+    long maxPendingBytes = 4 * 1024 * 1024;
+
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    private int pooledBuffersPerReactor = 1024;
+
+    private ServerSocketChannel serverChannel;
+
+    private Reactor[] reactors;
+
+    private Thread acceptor;
+
+    // 统计
+
+    final AtomicInteger connections = new AtomicInteger();
+
+    final LongAdder accepted = new LongAdder();
+
+    final LongAdder framesIn = new LongAdder();
+
+    final LongAdder framesOut = new LongAdder();
+
+    final LongAdder bytesIn = new LongAdder();
+
+    final LongAdder bytesOut = new LongAdder();
+
+    final LongAdder readPauses = new LongAdder();
+
+    final LongAdder rejectedSends = new LongAdder();
+
+    final LongAdder errors = new LongAdder();
+
+
+    public ReactorServer(FrameHandler handler) {
+        this.handler = handler;
+    }
+
+    public ReactorServer workers(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("worker 数至少为 1: " + workers);
+        }
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * 最大帧长度（不含 4 字节帧头），同时决定池中缓冲区的大小
+     */
+    public ReactorServer maxFrameSize(int maxFrameSize) {
+        if (maxFrameSize < 1) {
+            throw new IllegalArgumentException("最大帧长度必须为正数: " + maxFrameSize);
+        }
+        this.maxFrameSize = maxFrameSize;
+        return this;
+    }
+
+    /**
+     * 每个 reactor 池中的缓冲区个数；只有存在半包或待发送数据的连接才占用缓冲区，池耗尽时临时分配
+     */
+    public ReactorServer pooledBuffersPerReactor(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("每个 reactor 的池化缓冲区至少 1 个: " + count);
+        }
+        this.pooledBuffersPerReactor = count;
+        return this;
+    }
+
+    /**
+     * 发送背压：待发送字节超过 high 时暂停读该连接，降到 low 以下恢复，超过 max 时拒绝发送
+     */
+    public ReactorServer writeWatermarks(long low, long high, long max) {
+        if (low < 0 || low > high || high > max) {
+            throw new IllegalArgumentException("水位必须满足 0 <= low <= high <= max");
+        }
+        this.lowWatermark = low;
+        this.highWatermark = high;
+        this.maxPendingBytes = max;
+        return this;
+    }
+
+    /**
+     * 启动服务，port 为 0 时由系统分配端口
+     *
+     * @return 实际监听的端口
+     */
+    public int start(int port) throws IOException {
+        if (serverChannel != null) {
+            throw new IllegalStateException("服务已启动");
+        }
+        reactors = new Reactor[workers];
+        for (int i = 0; i < workers; i++) {
+            reactors[i] = new Reactor(this, i, pooledBuffersPerReactor);
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(port), 4096);
+        for (Reactor reactor : reactors) {
+            reactor.start();
+        }
+        acceptor = new Thread(this::acceptLoop, "reactor-acceptor");
+        acceptor.start();
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    private void acceptLoop() {
+        int next = 0;
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                // 例如文件描述符耗尽，稍后重试
+                errors.increment();
+                sleepQuietly();
+                continue;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException e) {
+                errors.increment();
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                    // 关闭时忽略
+                }
+                continue;
+            }
+            accepted.increment();
+            reactors[next].register(channel);
+            next = next + 1 == reactors.length ? 0 : next + 1;
+        }
+    }
+
+    private static void sleepQuietly() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serverChannel == null) {
+            return;
+        }
+        serverChannel.close();
+        try {
+            acceptor.join();
+            for (Reactor reactor : reactors) {
+                reactor.shutdown();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int connections() {
+        return connections.get();
+    }
+
+    public long accepted() {
+        return accepted.sum();
+    }
+
+    public long framesIn() {
+        return framesIn.sum();
+    }
+
+    public long framesOut() {
+        return framesOut.sum();
+    }
+
+    public long bytesIn() {
+        return bytesIn.sum();
+    }
+
+    public long bytesOut() {
+        return bytesOut.sum();
+    }
+
+    /**
+     * 因背压暂停读的次数
+     */
+    public long readPauses() {
+        return readPauses.sum();
+    }
+
+    public long rejectedSends() {
+        return rejectedSends.sum();
+    }
+
+    public long errors() {
+        return errors.sum();
+    }
+
+    /**
+     * 所有 reactor 的缓冲区池耗尽后额外分配的次数
+     */
+    public long unpooledAllocations() {
+        long total = 0;
+        for (Reactor reactor : reactors) {
+            total += reactor.pool().unpooledAllocations();
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("连接 %d（累计 %d），收帧 %,d，发帧 %,d，读暂停 %d，拒绝发送 %d，池外分配 %d，错误 %d",
+                connections(), accepted(), framesIn(), framesOut(), readPauses(), rejectedSends(),
+                reactors == null ? 0 : unpooledAllocations(), errors());
+    }
+}
@@ -25,10 +25,12 @@ public class DirectByteBufferDemo {
             // 分配直接缓冲区
             ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
             
-            // 读取数据到直接缓冲区，然后写入目标通道
+            // 读取数据到直接缓冲区，然后写入目标通道；write 可能只写出一部分，需要循环直到写完
             while (sourceChannel.read(buffer) != -1) {
                 buffer.flip();
-                destChannel.write(buffer);
+                while (buffer.hasRemaining()) {
+                    destChannel.write(buffer);
+                }
                 buffer.clear();
             }
         }
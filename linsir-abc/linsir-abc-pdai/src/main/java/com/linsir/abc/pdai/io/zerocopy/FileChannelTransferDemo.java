@@ -1,5 +1,6 @@
 package com.linsir.abc.pdai.io.zerocopy;
 
+import java.io.EOFException;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -21,13 +22,14 @@ public class FileChannelTransferDemo {
              FileOutputStream fos = new FileOutputStream(destPath);
              FileChannel sourceChannel = fis.getChannel();
              FileChannel destChannel = fos.getChannel()) {
-            // 使用transferTo方法实现零拷贝
+            // 使用transferTo方法实现零拷贝，单次调用可能只传输一部分，需要循环直到传完
             long position = 0;
             long size = sourceChannel.size();
             while (position < size) {
                 long transferred = sourceChannel.transferTo(position, size - position, destChannel);
-                if (transferred == 0) {
-                    break;
+                if (transferred == 0 && sourceChannel.size() < size) {
+                    // 返回 0 说明已经读到文件末尾，源文件在复制过程中被截断
+                    throw new EOFException("源文件在复制过程中被截断: " + sourcePath);
                 }
                 position += transferred;
             }
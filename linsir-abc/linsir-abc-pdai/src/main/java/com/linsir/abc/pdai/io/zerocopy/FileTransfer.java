@@ -0,0 +1,430 @@
+package com.linsir.abc.pdai.io.zerocopy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+/**
+ * 大文件复制/传输工具
+ *
+ * 说明：
+ * 1. MAPPED：按 windowSize 滑动映射源文件和目标文件，每个窗口复制完立即解除映射，不受单次 map 2GB 的限制，也不会把整个文件钉在内存里
+ * 2. TRANSFER_TO / TRANSFER_FROM：循环调用直到整个区间传完（单次调用可能只传一部分，Linux 上一次最多约 2GB），
+ *    返回 0 时检查源文件是否被截断，截断则抛 EOFException；没有截断却连续 MAX_ZERO_TRANSFERS 次没有进展
+ *    （目标写不进去、文件系统不支持等）时，本窗口剩余部分退回缓冲区复制，不会原地空转
+ * 3. DIRECT_BUFFER：一块 1MB 直接缓冲区做带位置的 read/write，作为非零拷贝的对照
+ * 4. parallelism > 1 且文件不小于 parallelThreshold 时，把文件按窗口对齐切成若干区间并行复制；
+ *    每个任务打开自己的通道，因为 transferTo 写目标、transferFrom 读源时用的是通道的当前位置
+ * 5. 可选边复制边计算 CRC32：映射窗口直接交给 CRC32.update(ByteBuffer)，不经过堆；并行时各区间分别计算，再用 zlib 的
+ *    crc32_combine 按顺序合并，结果与对整个文件计算 CRC32 相同
+ * 6. 目标文件预先设为源文件大小，多个区间可以同时写，也不会在映射时反复扩展文件
+ */
+public final class FileTransfer {
+
+    public enum Strategy {
+        TRANSFER_TO, TRANSFER_FROM, MAPPED, DIRECT_BUFFER
+    }
+
+    public static final long DEFAULT_WINDOW_SIZE = 64L << 20;
+
+    public static final long DEFAULT_PARALLEL_THRESHOLD = 256L << 20;
+
+    private static final int DIRECT_BUFFER_SIZE = 1 << 20;
+
+    private static final int MAX_ZERO_TRANSFERS = 3;
+
+    private static final Object UNSAFE;
+
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 拿不到时退回由 GC 回收映射
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private Strategy strategy = Strategy.TRANSFER_TO;
+
+    private long windowSize = DEFAULT_WINDOW_SIZE;
+
+    private int parallelism = 1;
+
+    private long parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    private boolean checksum;
+
+
+    public FileTransfer strategy(Strategy strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+
+    /**
+     * 映射窗口大小，同时也是 transferTo/transferFrom 单次请求的上限和并行区间的对齐单位
+     */
+    public FileTransfer windowSize(long windowSize) {
+        if (windowSize <= 0 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("窗口大小必须在 (0, 2GB) 之间: " + windowSize);
+        }
+        this.windowSize = windowSize;
+        return this;
+    }
+
+    /**
+     * 并行复制的线程数和触发并行的最小文件大小
+     */
+    public FileTransfer parallel(int parallelism, long parallelThreshold) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("并行度至少为 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.parallelThreshold = parallelThreshold;
+        return this;
+    }
+
+    /**
+     * 是否边复制边计算 CRC32
+     */
+    public FileTransfer checksum(boolean checksum) {
+        this.checksum = checksum;
+        return this;
+    }
+
+    public Result copy(Path source, Path target) throws IOException {
+        long start = System.nanoTime();
+        long size = Files.size(source);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            out.truncate(size);
+            if (size > 0 && out.size() < size) {
+                out.write(ByteBuffer.allocate(1), size - 1);
+            }
+        }
+
+        List<long[]> ranges = split(size);
+        long crc;
+        if (ranges.size() == 1) {
+            crc = copyRange(source, target, 0, size);
+        } else {
+            crc = copyParallel(source, target, ranges);
+        }
+        return new Result(strategy, size, ranges.size(), checksum ? crc : -1, System.nanoTime() - start);
+    }
+
+    /**
+     * 按窗口对齐把 [0, size) 切成不超过 parallelism 个区间
+     */
+    private List<long[]> split(long size) {
+        List<long[]> ranges = new ArrayList<>();
+        if (parallelism == 1 || size < parallelThreshold) {
+            ranges.add(new long[]{0, size});
+            return ranges;
+        }
+        long windows = (size + windowSize - 1) / windowSize;
+        long windowsPerRange = (windows + parallelism - 1) / parallelism;
+        for (long from = 0; from < size; from += windowsPerRange * windowSize) {
+            ranges.add(new long[]{from, Math.min(size, from + windowsPerRange * windowSize)});
+        }
+        return ranges;
+    }
+
+    private long copyParallel(Path source, Path target, List<long[]> ranges) throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, ranges.size()));
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (long[] range : ranges) {
+                futures.add(pool.submit(() -> copyRange(source, target, range[0], range[1])));
+            }
+            long crc = 0;
+            for (int i = 0; i < futures.size(); i++) {
+                long rangeCrc = futures.get(i).get();
+                long[] range = ranges.get(i);
+                crc = i == 0 ? rangeCrc : crc32Combine(crc, rangeCrc, range[1] - range[0]);
+            }
+            return crc;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("并行复制被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("并行复制失败", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * 复制 [from, to) 区间，返回该区间的 CRC32（未开启校验时为 0）
+     */
+    private long copyRange(Path source, Path target, long from, long to) throws IOException {
+        CRC32 crc = checksum ? new CRC32() : null;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            switch (strategy) {
+                case TRANSFER_TO -> transferTo(in, out, from, to, crc);
+                case TRANSFER_FROM -> transferFrom(in, out, from, to, crc);
+                case MAPPED -> mapped(in, out, from, to, crc);
+                default -> directBuffer(in, out, from, to, crc);
+            }
+        }
+        return crc == null ? 0 : crc.getValue();
+    }
+
+    private void transferTo(FileChannel in, FileChannel out, long from, long to, CRC32 crc) throws IOException {
+        out.position(from);
+        for (long position = from; position < to; ) {
+            long count = Math.min(windowSize, to - position);
+            update(crc, in, position, count);
+            long end = position + count;
+            int zeroTransfers = 0;
+            while (position < end) {
+                long transferred = in.transferTo(position, end - position, out);
+                if (transferred > 0) {
+                    zeroTransfers = 0;
+                } else {
+                    checkNotTruncated(in, end);
+                    if (++zeroTransfers >= MAX_ZERO_TRANSFERS) {
+                        // 窗口的 CRC 已经算过，这里只复制；缓冲区复制按位置读写，不移动通道位置，需要手动对齐
+                        directBuffer(in, out, position, end, null);
+                        out.position(end);
+                        transferred = end - position;
+                    }
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private void transferFrom(FileChannel in, FileChannel out, long from, long to, CRC32 crc) throws IOException {
+        in.position(from);
+        for (long position = from; position < to; ) {
+            long count = Math.min(windowSize, to - position);
+            update(crc, in, position, count);
+            long end = position + count;
+            int zeroTransfers = 0;
+            while (position < end) {
+                long transferred = out.transferFrom(in, position, end - position);
+                if (transferred > 0) {
+                    zeroTransfers = 0;
+                } else {
+                    checkNotTruncated(in, end);
+                    if (++zeroTransfers >= MAX_ZERO_TRANSFERS) {
+                        // 窗口的 CRC 已经算过，这里只复制；缓冲区复制按位置读写，不移动通道位置，需要手动对齐
+                        directBuffer(in, out, position, end, null);
+                        in.position(end);
+                        transferred = end - position;
+                    }
+                }
+                position += transferred;
+            }
+        }
+    }
+
+    private void mapped(FileChannel in, FileChannel out, long from, long to, CRC32 crc) throws IOException {
+        for (long position = from; position < to; position += windowSize) {
+            long count = Math.min(windowSize, to - position);
+            MappedByteBuffer src = in.map(FileChannel.MapMode.READ_ONLY, position, count);
+            MappedByteBuffer dst = out.map(FileChannel.MapMode.READ_WRITE, position, count);
+            try {
+                if (crc != null) {
+                    crc.update(src.duplicate());
+                }
+                dst.put(src);
+            } finally {
+                unmap(src);
+                unmap(dst);
+            }
+        }
+    }
+
+    private void directBuffer(FileChannel in, FileChannel out, long from, long to, CRC32 crc) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(DIRECT_BUFFER_SIZE, Math.max(1, to - from)));
+        for (long position = from; position < to; ) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), to - position));
+            int read = in.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("源文件在复制过程中被截断，位置 " + position);
+            }
+            buffer.flip();
+            if (crc != null) {
+                crc.update(buffer.duplicate());
+            }
+            long at = position;
+            while (buffer.hasRemaining()) {
+                at += out.write(buffer, at);
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * transferTo/transferFrom 是零拷贝的，数据不经过用户态；需要校验时单独映射同一窗口计算 CRC32，只多读一遍页缓存
+     */
+    private static void update(CRC32 crc, FileChannel in, long position, long count) throws IOException {
+        if (crc == null) {
+            return;
+        }
+        MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, count);
+        try {
+            crc.update(window);
+        } finally {
+            unmap(window);
+        }
+    }
+
+    private static void checkNotTruncated(FileChannel in, long end) throws IOException {
+        if (in.size() < end) {
+            throw new EOFException("源文件在复制过程中被截断，当前大小 " + in.size());
+        }
+    }
+
+    /**
+     * 立即解除映射；拿不到 Unsafe.invokeCleaner 时交给 GC
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch (ReflectiveOperationException ignored) {
+            // 交给 GC
+        }
+    }
+
+    /**
+     * zlib crc32_combine：已知 A 段 CRC、B 段 CRC 和 B 段长度，求 A+B 的 CRC；
+     * 本质是把 crc1 乘以"补 len2 个零字节"对应的 GF(2) 矩阵，矩阵按 len2 的二进制位反复平方
+     */
+    static long crc32Combine(long crc1, long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32];
+        long[] odd = new long[32];
+        // 补一个零比特的算子
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // 补两个零比特、四个零比特（半个字节）
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+        do {
+            // 第一次平方得到补一个零字节的算子
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            len2 >>>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            len2 >>>= 1;
+        } while (len2 != 0);
+        return (crc1 ^ crc2) & 0xFFFFFFFFL;
+    }
+
+    private static long gf2MatrixTimes(long[] matrix, long vector) {
+        long sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) {
+                sum ^= matrix[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(matrix, matrix[n]);
+        }
+    }
+
+    /**
+     * 一次复制的结果
+     */
+    public static final class Result {
+
+        private final Strategy strategy;
+
+        private final long bytes;
+
+        private final int ranges;
+
+        private final long crc32;
+
+        private final long nanos;
+
+        Result(Strategy strategy, long bytes, int ranges, long crc32, long nanos) {
+            this.strategy = strategy;
+            this.bytes = bytes;
+            this.ranges = ranges;
+            this.crc32 = crc32;
+            this.nanos = nanos;
+        }
+
+        public Strategy strategy() {
+            return strategy;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        /**
+         * 并行复制的区间数，顺序复制时为 1
+         */
+        public int ranges() {
+            return ranges;
+        }
+
+        /**
+         * 整个文件的 CRC32，未开启校验时为 -1
+         */
+        public long crc32() {
+            return crc32;
+        }
+
+        public long millis() {
+            return nanos / 1_000_000;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : bytes / 1048576.0 / (nanos / 1e9);
+        }
+    }
+}
@@ -1,10 +1,7 @@
 package com.linsir.abc.pdai.io.zerocopy;
 
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 
 /**
  * 使用MappedByteBuffer实现内存映射零拷贝
@@ -13,23 +10,15 @@ public class MappedByteBufferDemo {
 
     /**
      * 使用MappedByteBuffer复制文件
+     * 一次 map 整个文件在超过 2GB 时会失败，并且映射在 GC 之前一直占着整个文件；这里按 64MB 窗口滑动映射，复制完一个窗口立即解除映射
      * @param sourcePath 源文件路径
      * @param destPath 目标文件路径
      * @throws IOException 可能的IO异常
      */
     public static void copyFile(String sourcePath, String destPath) throws IOException {
-        try (FileInputStream fis = new FileInputStream(sourcePath);
-             FileOutputStream fos = new FileOutputStream(destPath);
-             FileChannel sourceChannel = fis.getChannel();
-             FileChannel destChannel = fos.getChannel()) {
-            // 使用内存映射
-            long size = sourceChannel.size();
-            MappedByteBuffer sourceBuffer = sourceChannel.map(FileChannel.MapMode.READ_ONLY, 0, size);
-            MappedByteBuffer destBuffer = destChannel.map(FileChannel.MapMode.READ_WRITE, 0, size);
-            
-            // 直接从源缓冲区复制到目标缓冲区
-            destBuffer.put(sourceBuffer);
-        }
+        new FileTransfer()
+                .strategy(FileTransfer.Strategy.MAPPED)
+                .copy(Path.of(sourcePath), Path.of(destPath));
     }
 
     /**
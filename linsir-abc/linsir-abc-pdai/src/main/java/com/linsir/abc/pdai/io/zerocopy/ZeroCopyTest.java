@@ -1,102 +1,143 @@
 package com.linsir.abc.pdai.io.zerocopy;
 
-import java.io.*;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.zip.CRC32;
 
 /**
- * 零拷贝测试主类，用于测试不同零拷贝实现方式的性能
+ * 零拷贝测试主类：按 文件大小 × 复制方式 的矩阵测试吞吐
+ *
+ * 运行：java ... ZeroCopyTest [文件大小列表，单位 MB，逗号分隔，默认 1,64,512]，例如 1,64,512,3072 可以覆盖 2GB 以上
+ *
+ * 说明：
+ * 1. 每个组合重复 3 次取最快一次（1GB 以上只跑 1 次），源文件刚写完，基本都在页缓存中，测的是内存带宽和系统调用开销
+ * 2. 每次复制后用 CRC32 校验目标文件与源文件一致；开启边复制边校验的组合还会核对复制过程中算出的 CRC32
+ * 3. 并行组合的线程数为 CPU 核数（至少 2），区间按 16MB 窗口对齐
  */
 public class ZeroCopyTest {
 
-    private static final String TEST_FILE = "test_large_file.txt";
-    private static final String DEST_FILE_TRADITIONAL = "dest_traditional.txt";
-    private static final String DEST_FILE_TRANSFER = "dest_transfer.txt";
-    private static final String DEST_FILE_MAPPED = "dest_mapped.txt";
-    private static final String DEST_FILE_DIRECT = "dest_direct.txt";
-    private static final long FILE_SIZE = 1024 * 1024 * 10; // 10MB测试文件
+    private static final int PARALLELISM = Math.max(2, Runtime.getRuntime().availableProcessors());
 
-    public static void main(String[] args) {
+    private static final long PARALLEL_WINDOW = 16L << 20;
+
+    public static void main(String[] args) throws IOException {
+        String[] sizes = (args.length > 0 ? args[0] : "1,64,512").split(",");
+        Path dir = Files.createTempDirectory("zerocopy");
         try {
-            // 创建测试文件
-            createTestFile();
-            System.out.println("测试文件创建完成，大小: " + FILE_SIZE / (1024 * 1024) + "MB");
-            
-            // 测试传统IO方式
-            System.out.println("\n测试传统IO方式...");
-            long traditionalTime = TraditionalIODemo.testPerformance(TEST_FILE, DEST_FILE_TRADITIONAL);
-            System.out.println("传统IO方式耗时: " + traditionalTime + "ms");
-            
-            // 测试FileChannel.transferTo方式
-            System.out.println("\n测试FileChannel.transferTo方式...");
-            long transferTime = FileChannelTransferDemo.testPerformance(TEST_FILE, DEST_FILE_TRANSFER);
-            System.out.println("FileChannel.transferTo方式耗时: " + transferTime + "ms");
-            
-            // 测试MappedByteBuffer方式
-            System.out.println("\n测试MappedByteBuffer方式...");
-            long mappedTime = MappedByteBufferDemo.testPerformance(TEST_FILE, DEST_FILE_MAPPED);
-            System.out.println("MappedByteBuffer方式耗时: " + mappedTime + "ms");
-            
-            // 测试DirectByteBuffer方式
-            System.out.println("\n测试DirectByteBuffer方式...");
-            long directTime = DirectByteBufferDemo.testPerformance(TEST_FILE, DEST_FILE_DIRECT);
-            System.out.println("DirectByteBuffer方式耗时: " + directTime + "ms");
-            
-            // 性能对比
-            System.out.println("\n性能对比:");
-            System.out.println("传统IO方式: " + traditionalTime + "ms");
-            System.out.println("FileChannel.transferTo方式: " + transferTime + "ms (" + String.format("%.2f%%", (1 - (double)transferTime / traditionalTime) * 100) + " 提升)");
-            System.out.println("MappedByteBuffer方式: " + mappedTime + "ms (" + String.format("%.2f%%", (1 - (double)mappedTime / traditionalTime) * 100) + " 提升)");
-            System.out.println("DirectByteBuffer方式: " + directTime + "ms (" + String.format("%.2f%%", (1 - (double)directTime / traditionalTime) * 100) + " 提升)");
-            
-            // 清理测试文件
-            cleanTestFiles();
-            System.out.println("\n测试文件清理完成");
-            
-        } catch (IOException e) {
-            e.printStackTrace();
+            for (String size : sizes) {
+                runSize(dir, Long.parseLong(size.trim()) << 20);
+            }
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(dir);
+        }
+        System.out.println("\n测试文件清理完成");
+    }
+
+    private static void runSize(Path dir, long fileSize) throws IOException {
+        Path source = dir.resolve("source.dat");
+        Path target = dir.resolve("target.dat");
+        createTestFile(source, fileSize);
+        long expectedCrc = crc32(source);
+        System.out.printf("%n文件大小: %,d MB%n", fileSize >> 20);
+        System.out.printf("%-28s %10s %10s %6s%n", "复制方式", "耗时(ms)", "MB/s", "区间");
+
+        List<Case> cases = new ArrayList<>();
+        cases.add(new Case("传统IO (4KB 流)", null));
+        cases.add(new Case("DirectByteBuffer (1MB)", new FileTransfer().strategy(FileTransfer.Strategy.DIRECT_BUFFER)));
+        cases.add(new Case("transferTo", new FileTransfer().strategy(FileTransfer.Strategy.TRANSFER_TO)));
+        cases.add(new Case("transferFrom", new FileTransfer().strategy(FileTransfer.Strategy.TRANSFER_FROM)));
+        cases.add(new Case("mmap 64MB 滑动窗口", new FileTransfer().strategy(FileTransfer.Strategy.MAPPED)));
+        cases.add(new Case("transferTo 并行", parallel(FileTransfer.Strategy.TRANSFER_TO)));
+        cases.add(new Case("mmap 并行", parallel(FileTransfer.Strategy.MAPPED)));
+        cases.add(new Case("transferTo + CRC32", new FileTransfer().strategy(FileTransfer.Strategy.TRANSFER_TO).checksum(true)));
+        cases.add(new Case("mmap + CRC32", new FileTransfer().strategy(FileTransfer.Strategy.MAPPED).checksum(true)));
+        cases.add(new Case("mmap 并行 + CRC32", parallel(FileTransfer.Strategy.MAPPED).checksum(true)));
+
+        int repeats = fileSize >= (1L << 30) ? 1 : 3;
+        for (Case c : cases) {
+            long best = Long.MAX_VALUE;
+            int ranges = 1;
+            for (int i = 0; i < repeats; i++) {
+                Files.deleteIfExists(target);
+                long start = System.nanoTime();
+                if (c.transfer == null) {
+                    TraditionalIODemo.copyFile(source.toString(), target.toString());
+                } else {
+                    FileTransfer.Result result = c.transfer.copy(source, target);
+                    ranges = result.ranges();
+                    if (result.crc32() != -1 && result.crc32() != expectedCrc) {
+                        throw new IllegalStateException(c.name + " 复制过程中计算的 CRC32 不正确");
+                    }
+                }
+                best = Math.min(best, System.nanoTime() - start);
+                if (crc32(target) != expectedCrc) {
+                    throw new IllegalStateException(c.name + " 复制结果与源文件不一致");
+                }
+            }
+            System.out.printf("%-28s %10.1f %10.0f %6d%n", c.name, best / 1e6, (fileSize / 1048576.0) / (best / 1e9), ranges);
         }
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+    }
+
+    private static FileTransfer parallel(FileTransfer.Strategy strategy) {
+        return new FileTransfer().strategy(strategy).windowSize(PARALLEL_WINDOW).parallel(PARALLELISM, 0);
     }
 
     /**
      * 创建测试文件
      * @throws IOException 可能的IO异常
      */
-    private static void createTestFile() throws IOException {
-        try (FileOutputStream fos = new FileOutputStream(TEST_FILE);
-             BufferedOutputStream bos = new BufferedOutputStream(fos)) {
+    private static void createTestFile(Path path, long fileSize) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 20)) {
             Random random = new Random();
-            byte[] buffer = new byte[1024];
+            byte[] buffer = new byte[1 << 16];
             long written = 0;
-            
-            while (written < FILE_SIZE) {
+            while (written < fileSize) {
                 random.nextBytes(buffer);
-                int toWrite = (int) Math.min(buffer.length, FILE_SIZE - written);
-                bos.write(buffer, 0, toWrite);
+                int toWrite = (int) Math.min(buffer.length, fileSize - written);
+                out.write(buffer, 0, toWrite);
                 written += toWrite;
             }
-            bos.flush();
         }
     }
 
-    /**
-     * 清理测试文件
-     */
-    private static void cleanTestFiles() {
-        deleteFile(TEST_FILE);
-        deleteFile(DEST_FILE_TRADITIONAL);
-        deleteFile(DEST_FILE_TRANSFER);
-        deleteFile(DEST_FILE_MAPPED);
-        deleteFile(DEST_FILE_DIRECT);
+    private static long crc32(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
     }
 
-    /**
-     * 删除文件
-     * @param fileName 文件名
-     */
-    private static void deleteFile(String fileName) {
-        File file = new File(fileName);
-        if (file.exists()) {
-            file.delete();
+    private static final class Case {
+
+        final String name;
+
+        final FileTransfer transfer;
+
+        Case(String name, FileTransfer transfer) {
+            this.name = name;
+            this.transfer = transfer;
         }
     }
 }
@@ -1,5 +1,14 @@
 package com.linsir.abc.pdai.structure.dataStructure;
 
+import com.linsir.abc.pdai.structure.dataStructure.bplustree.BPlusTreeCursor;
+import com.linsir.abc.pdai.structure.dataStructure.bplustree.DiskBPlusTree;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
 /**
  * B+树示例代码
  * 
@@ -747,6 +756,40 @@ public class BPlusTreeDemo {
         fileIndex.rangeQuery(1005, 1010);
     }
 
+    /**
+     * 磁盘 B+ 树索引示例
+     * 
+     * 内存版 B+ 树的节点是堆上对象，叶子的 next 指针也是对象引用；
+     * bplustree 包中的 DiskBPlusTree 把节点放到定长页中，通过缓冲池读写内存映射文件，叶子用页号串成链表
+     */
+    public void diskBPlusTreeIndex() throws IOException {
+        System.out.println("\n=== 磁盘B+树索引示例 ===");
+
+        Path file = Files.createTempFile("bplustree-demo", ".idx");
+        Files.delete(file);
+        try (DiskBPlusTree index = DiskBPlusTree.open(file)) {
+            int[] primaryKeys = {101, 102, 103, 104, 105, 106, 107, 108, 109, 110};
+            for (int key : primaryKeys) {
+                index.put(key, ("row-" + key).getBytes(StandardCharsets.UTF_8));
+            }
+
+            byte[] row = index.get(105);
+            System.out.println("查找主键 105: " + (row != null ? new String(row, StandardCharsets.UTF_8) : "未找到"));
+
+            System.out.print("查询主键在103到108之间的记录: ");
+            try (BPlusTreeCursor cursor = index.range(103, 109)) {
+                while (cursor.hasNext()) {
+                    Map.Entry<byte[], byte[]> entry = cursor.next();
+                    System.out.print(DiskBPlusTree.decodeLong(entry.getKey()) + "=" + new String(entry.getValue(), StandardCharsets.UTF_8) + " ");
+                }
+            }
+            System.out.println();
+            System.out.println("索引统计: " + index.stats());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
     /**
      * B+树与B树的比较
      */
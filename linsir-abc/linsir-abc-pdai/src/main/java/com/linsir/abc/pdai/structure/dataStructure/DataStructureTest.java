@@ -1,5 +1,7 @@
 package com.linsir.abc.pdai.structure.dataStructure;
 
+import java.io.IOException;
+
 /**
  * 数据结构测试类
  * 
@@ -111,6 +113,9 @@ public class DataStructureTest {
         
         // 测试Java内置HashMap
         hashMapDemo.testJavaHashMap();
+
+        // 测试原始类型哈希表
+        hashMapDemo.testPrimitiveMaps();
         
         // 测试哈希表应用
         hashMapDemo.hashMapApplications();
@@ -149,6 +154,9 @@ public class DataStructureTest {
         
         // 测试VL树性能
         vlTreeDemo.performanceComparison();
+
+        // 测试按需分配的vEB与y-fast trie
+        vlTreeDemo.largeUniverseSets();
     }
 
     /**
@@ -200,6 +208,13 @@ public class DataStructureTest {
         
         // 测试B+树应用
         bPlusTreeDemo.bPlusTreeApplications();
+
+        // 测试磁盘B+树索引
+        try {
+            bPlusTreeDemo.diskBPlusTreeIndex();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
         
         // 测试B+树与B树的比较
         bPlusTreeDemo.compareWithBTree();
@@ -260,5 +275,12 @@ public class DataStructureTest {
         
         // 测试Trie树性能
         trieTreeDemo.trieTreePerformance();
+
+        // 测试压缩前缀树
+        try {
+            trieTreeDemo.radixTrieExample();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 }
@@ -1,5 +1,8 @@
 package com.linsir.abc.pdai.structure.dataStructure;
 
+import com.linsir.abc.pdai.structure.dataStructure.primitive.LongLongHashMap;
+import com.linsir.abc.pdai.structure.dataStructure.primitive.ObjectIntHashMap;
+
 /**
  * 哈希表示例代码
  * 
@@ -47,13 +50,17 @@ public class HashMapDemo {
 
         /**
          * 哈希函数
+         *
+         * 直接使用 String 缓存的 hashCode（不再每次 toCharArray 复制一份字符数组），高 16 位异或到低位后按 2 的幂容量取掩码；
+         * Math.abs(Integer.MIN_VALUE) 仍是负数，用取模会得到负下标
          */
         private int hash(String key) {
-            int hash = 0;
-            for (char c : key.toCharArray()) {
-                hash = 31 * hash + c;
-            }
-            return Math.abs(hash) % capacity;
+            return hash(key, capacity);
+        }
+
+        private static int hash(String key, int capacity) {
+            int h = key.hashCode();
+            return (h ^ (h >>> 16)) & (capacity - 1);
         }
 
         /**
@@ -185,7 +192,7 @@ public class HashMapDemo {
                 HashNode current = table[i];
                 while (current != null) {
                     HashNode next = current.next;
-                    int newIndex = Math.abs(hash(current.key)) % newCapacity;
+                    int newIndex = hash(current.key, newCapacity);
                     
                     // 插入到新表的对应位置
                     current.next = newTable[newIndex];
@@ -306,6 +313,43 @@ public class HashMapDemo {
         map.forEach((k, v) -> System.out.println(k + ": " + v));
     }
 
+    /**
+     * 原始类型哈希表示例
+     *
+     * 链地址法每个条目都是一个 HashNode 对象，java.util.HashMap 还要把 long/int 装箱；
+     * primitive 包中的开放寻址哈希表把键值直接放在数组里，没有条目对象，也没有装箱
+     */
+    public void testPrimitiveMaps() {
+        System.out.println("\n=== 原始类型哈希表示例 ===");
+
+        // 用户ID -> 最后登录时间
+        LongLongHashMap lastLogin = LongLongHashMap.onHeap(16, -1);
+        lastLogin.put(10001L, 1700000000000L);
+        lastLogin.put(10002L, 1700000360000L);
+        lastLogin.put(0L, 1700000720000L);
+        System.out.println("用户10001最后登录时间: " + lastLogin.get(10001L));
+        System.out.println("用户0最后登录时间: " + lastLogin.get(0L));
+        System.out.println("用户10003最后登录时间: " + lastLogin.get(10003L) + "（不存在时返回 noEntryValue）");
+        lastLogin.remove(10002L);
+        System.out.println("删除用户10002后大小: " + lastLogin.size());
+
+        // 堆外存储，不占用 Java 堆
+        LongLongHashMap offHeap = LongLongHashMap.offHeap(1000, 0);
+        for (long i = 1; i <= 1000; i++) {
+            offHeap.addTo(i % 10, i);
+        }
+        System.out.println("堆外哈希表按 i % 10 分组求和，组0: " + offHeap.get(0) + "，表大小: " + offHeap.tableBytes() + " 字节");
+
+        // 单词计数
+        ObjectIntHashMap<String> wordCount = new ObjectIntHashMap<>();
+        for (String word : "the quick brown fox jumps over the lazy dog the end".split(" ")) {
+            wordCount.addTo(word, 1);
+        }
+        System.out.print("单词计数: ");
+        wordCount.forEach((word, count) -> System.out.print(word + "=" + count + " "));
+        System.out.println();
+    }
+
     /**
      * 哈希表应用示例
      */
@@ -1,5 +1,7 @@
 package com.linsir.abc.pdai.structure.dataStructure;
 
+import com.linsir.abc.pdai.structure.dataStructure.rtree.RStarTree;
+
 /**
  * R树示例代码
  * 
@@ -497,6 +499,30 @@ public class RTreeDemo {
         // 打印R树结构
         System.out.println("\nR树结构:");
         spatialDB.print();
+
+        // 示例3：最近邻查询
+        System.out.println("\n示例3：最近邻查询");
+        String[] cities = {"北京", "上海", "广州", "武汉", "成都", "南京", "杭州", "西安"};
+        double[] boxes = {
+                116.4, 39.9, 116.5, 40.0,
+                121.4, 31.2, 121.5, 31.3,
+                113.3, 23.1, 113.4, 23.2,
+                114.3, 30.6, 114.4, 30.7,
+                104.1, 30.7, 104.2, 30.8,
+                118.7, 32.0, 118.8, 32.1,
+                120.1, 30.2, 120.2, 30.3,
+                108.9, 34.2, 109.0, 34.3
+        };
+        int[] ids = new int[cities.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i;
+        }
+        RStarTree cityIndex = RStarTree.bulkLoad(boxes, ids, 4);
+        System.out.print("距离合肥(117.2, 31.8)最近的3个城市:");
+        for (int id : cityIndex.nearest(117.2, 31.8, 3)) {
+            System.out.print(" " + cities[id]);
+        }
+        System.out.println();
     }
 
     /**
@@ -543,10 +569,85 @@ public class RTreeDemo {
             System.out.println();
         }
         
+        compareWithRStarTree(100_000, 10_000);
+
         // 分析结果
         System.out.println("性能分析:");
         System.out.println("1. 随着R树阶数的增加，树的高度减少，查询性能提高");
         System.out.println("2. 阶数过大可能会导致插入性能下降，因为分裂操作变得更复杂");
         System.out.println("3. 实际应用中，R树的阶数通常根据空间对象的大小和查询模式来确定");
+        System.out.println("4. 数据预先已知时，STR批量加载比逐条插入快得多，节点接近满载、重叠小，查询也更快");
+        System.out.println("5. 100万矩形规模的对比见 rtree.RStarTreeBenchmark");
+    }
+
+    /**
+     * 同一份数据上对比：本类的简单R树逐条插入、R*-树逐条插入、STR批量加载的构建耗时与窗口查询吞吐
+     */
+    private void compareWithRStarTree(int n, int queries) {
+        System.out.println("构建方式对比（" + n + "个矩形，节点容量16，" + queries + "次窗口查询）:");
+        java.util.Random random = new java.util.Random(42);
+        double[] boxes = new double[n * 4];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            double x = random.nextDouble() * 10000;
+            double y = random.nextDouble() * 10000;
+            boxes[i * 4] = x;
+            boxes[i * 4 + 1] = y;
+            boxes[i * 4 + 2] = x + random.nextDouble() * 10;
+            boxes[i * 4 + 3] = y + random.nextDouble() * 10;
+            ids[i] = i;
+        }
+        double[] windows = new double[queries * 2];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = random.nextDouble() * 9800;
+        }
+
+        long start = System.nanoTime();
+        RTree simple = new RTree(16);
+        for (int i = 0; i < n; i++) {
+            simple.insert(new Rectangle(boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3]), i);
+        }
+        long simpleBuild = System.nanoTime() - start;
+        start = System.nanoTime();
+        long simpleResults = 0;
+        for (int i = 0; i < queries; i++) {
+            double x = windows[i * 2];
+            double y = windows[i * 2 + 1];
+            simpleResults += simple.search(new Rectangle(x, y, x + 200, y + 200)).size();
+        }
+        long simpleQuery = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        RStarTree rStar = new RStarTree(16);
+        for (int i = 0; i < n; i++) {
+            rStar.insert(boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3], i);
+        }
+        long rStarBuild = System.nanoTime() - start;
+        long rStarQuery = timeWindows(rStar, windows, queries);
+
+        start = System.nanoTime();
+        RStarTree packed = RStarTree.bulkLoad(boxes, ids, 16);
+        long packedBuild = System.nanoTime() - start;
+        long packedQuery = timeWindows(packed, windows, queries);
+
+        System.out.printf("  简单R树逐条插入: 构建 %4d ms，查询 %4d ms（共 %d 个结果）%n",
+                simpleBuild / 1_000_000, simpleQuery / 1_000_000, simpleResults);
+        System.out.printf("  R*-树逐条插入:   构建 %4d ms，查询 %4d ms%n", rStarBuild / 1_000_000, rStarQuery / 1_000_000);
+        System.out.printf("  STR批量加载:     构建 %4d ms，查询 %4d ms%n", packedBuild / 1_000_000, packedQuery / 1_000_000);
+        System.out.println();
+    }
+
+    private long timeWindows(RStarTree tree, double[] windows, int queries) {
+        long start = System.nanoTime();
+        long results = 0;
+        for (int i = 0; i < queries; i++) {
+            double x = windows[i * 2];
+            double y = windows[i * 2 + 1];
+            results += tree.count(x, y, x + 200, y + 200);
+        }
+        if (results < 0) {
+            System.out.println(results);
+        }
+        return System.nanoTime() - start;
     }
 }
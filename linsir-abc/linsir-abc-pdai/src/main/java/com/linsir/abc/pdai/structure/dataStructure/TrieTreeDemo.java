@@ -1,5 +1,13 @@
 package com.linsir.abc.pdai.structure.dataStructure;
 
+import com.linsir.abc.pdai.structure.dataStructure.trie.MappedRadixTrie;
+import com.linsir.abc.pdai.structure.dataStructure.trie.RadixTrie;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+
 /**
  * Trie树（前缀树）示例代码
  * 
@@ -516,4 +524,43 @@ public class TrieTreeDemo {
         System.out.println("3. Trie树的空间复杂度较高，因为需要为每个字符创建节点");
         System.out.println("4. 对于处理大量字符串的场景，Trie树是一种非常有效的数据结构");
     }
+
+    /**
+     * 压缩前缀树示例：任意 Unicode 键、惰性前缀遍历、内存映射加载
+     */
+    public void radixTrieExample() throws IOException {
+        System.out.println("\n=== 压缩前缀树示例 ===");
+
+        RadixTrie trie = new RadixTrie();
+        String[] words = {"数据", "数据结构", "数据库", "数组", "data", "database", "datum", "café", "🚀rocket"};
+        for (int i = 0; i < words.length; i++) {
+            trie.put(words[i], i);
+        }
+        System.out.println("单词数量: " + trie.size() + "，节点数量: " + trie.nodeCount());
+        System.out.println("以\"数据\"开头的前 2 个单词: " + trie.complete("数据", 2));
+        System.out.println("以\"dat\"开头的单词: " + trie.complete("dat", 10));
+
+        // 迭代器按需生成结果，找到第一个满足条件的单词就停止
+        Iterator<String> it = trie.prefixIterator("");
+        while (it.hasNext()) {
+            String word = it.next();
+            if (word.length() > 6) {
+                System.out.println("第一个长度大于 6 的单词: " + word);
+                break;
+            }
+        }
+
+        trie.remove("数据结构");
+        System.out.println("删除\"数据结构\"后节点数量: " + trie.nodeCount());
+
+        Path file = Files.createTempFile("radix-trie", ".bin");
+        try {
+            trie.writeTo(file);
+            MappedRadixTrie mapped = MappedRadixTrie.open(file);
+            System.out.println("序列化文件大小: " + mapped.fileSize() + " 字节");
+            System.out.println("映射后查找\"café\": " + mapped.get("café", -1) + "，以\"🚀\"开头: " + mapped.complete("🚀", 10));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 }
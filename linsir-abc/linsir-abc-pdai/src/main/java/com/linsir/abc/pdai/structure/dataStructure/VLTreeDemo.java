@@ -1,5 +1,8 @@
 package com.linsir.abc.pdai.structure.dataStructure;
 
+import com.linsir.abc.pdai.structure.dataStructure.veb.LazyVebSet;
+import com.linsir.abc.pdai.structure.dataStructure.veb.YFastTrie;
+
 /**
  * Van Emde Boas树（VL树）示例代码
  * 
@@ -33,17 +36,26 @@ public class VLTreeDemo {
             this.max = -1;
             
             if (u > 2) {
-                int sqrtU = (int) Math.sqrt(u);
-                this.summary = new VEBNode(sqrtU);
-                this.cluster = new VEBNode[sqrtU];
-                for (int i = 0; i < sqrtU; i++) {
-                    this.cluster[i] = new VEBNode(sqrtU);
+                // u = 2^k 时分成 2^⌈k/2⌉ 个大小为 2^⌊k/2⌋ 的子集群，k 为奇数时两者不相等
+                int upperSqrt = upperSqrt(u);
+                this.summary = new VEBNode(upperSqrt);
+                this.cluster = new VEBNode[upperSqrt];
+                for (int i = 0; i < upperSqrt; i++) {
+                    this.cluster[i] = new VEBNode(lowerSqrt(u));
                 }
             } else {
                 this.summary = null;
                 this.cluster = null;
             }
         }
+
+        static int upperSqrt(int u) {
+            return 1 << ((Integer.numberOfTrailingZeros(u) + 1) / 2);
+        }
+
+        static int lowerSqrt(int u) {
+            return 1 << (Integer.numberOfTrailingZeros(u) / 2);
+        }
     }
 
     /**
@@ -63,27 +75,24 @@ public class VLTreeDemo {
         }
 
         /**
-         * 计算高位
+         * 计算高位（按当前节点的大小计算，而不是根节点）
          */
-        private int high(int x) {
-            int sqrtU = (int) Math.sqrt(root.u);
-            return x / sqrtU;
+        private int high(VEBNode node, int x) {
+            return x / VEBNode.lowerSqrt(node.u);
         }
 
         /**
          * 计算低位
          */
-        private int low(int x) {
-            int sqrtU = (int) Math.sqrt(root.u);
-            return x % sqrtU;
+        private int low(VEBNode node, int x) {
+            return x % VEBNode.lowerSqrt(node.u);
         }
 
         /**
          * 合并高位和低位
          */
-        private int index(int high, int low) {
-            int sqrtU = (int) Math.sqrt(root.u);
-            return high * sqrtU + low;
+        private int index(VEBNode node, int high, int low) {
+            return high * VEBNode.lowerSqrt(node.u) + low;
         }
 
         /**
@@ -93,7 +102,10 @@ public class VLTreeDemo {
             if (x < 0 || x >= universeSize) {
                 throw new IllegalArgumentException("x must be in [0, " + (universeSize - 1) + "]");
             }
-            insert(root, x);
+            // 递归插入假定 x 不在树中，重复插入会破坏 min 不下放的约定
+            if (!search(x)) {
+                insert(root, x);
+            }
         }
 
         /**
@@ -113,8 +125,8 @@ public class VLTreeDemo {
             }
 
             if (node.u > 2) {
-                int high = high(x);
-                int low = low(x);
+                int high = high(node, x);
+                int low = low(node, x);
                 
                 if (node.cluster[high].min == -1) {
                     insert(node.summary, high);
@@ -134,7 +146,9 @@ public class VLTreeDemo {
             if (x < 0 || x >= universeSize) {
                 throw new IllegalArgumentException("x must be in [0, " + (universeSize - 1) + "]");
             }
-            delete(root, x);
+            if (search(x)) {
+                delete(root, x);
+            }
         }
 
         /**
@@ -147,36 +161,35 @@ public class VLTreeDemo {
                 return;
             }
 
+            if (node.u == 2) {
+                // 0 和 1 都在，删掉一个后只剩另一个（u = 2 的节点没有 summary）
+                node.min = x == 0 ? 1 : 0;
+                node.max = node.min;
+                return;
+            }
+
             if (node.min == x) {
                 int firstCluster = minimum(node.summary);
-                x = index(firstCluster, minimum(node.cluster[firstCluster]));
+                x = index(node, firstCluster, minimum(node.cluster[firstCluster]));
                 node.min = x;
             }
 
-            if (node.u > 2) {
-                int high = high(x);
-                int low = low(x);
-                delete(node.cluster[high], low);
-                
-                if (node.cluster[high].min == -1) {
-                    delete(node.summary, high);
-                    if (x == node.max) {
-                        int summaryMax = maximum(node.summary);
-                        if (summaryMax == -1) {
-                            node.max = node.min;
-                        } else {
-                            node.max = index(summaryMax, maximum(node.cluster[summaryMax]));
-                        }
+            int high = high(node, x);
+            int low = low(node, x);
+            delete(node.cluster[high], low);
+
+            if (node.cluster[high].min == -1) {
+                delete(node.summary, high);
+                if (x == node.max) {
+                    int summaryMax = maximum(node.summary);
+                    if (summaryMax == -1) {
+                        node.max = node.min;
+                    } else {
+                        node.max = index(node, summaryMax, maximum(node.cluster[summaryMax]));
                     }
-                } else if (x == node.max) {
-                    node.max = index(high, maximum(node.cluster[high]));
-                }
-            } else {
-                if (x == 1) {
-                    node.max = 0;
-                } else {
-                    node.max = 1;
                 }
+            } else if (x == node.max) {
+                node.max = index(node, high, maximum(node.cluster[high]));
             }
         }
 
@@ -202,7 +215,7 @@ public class VLTreeDemo {
                 return false;
             }
 
-            return search(node.cluster[high(x)], low(x));
+            return search(node.cluster[high(node, x)], low(node, x));
         }
 
         /**
@@ -259,13 +272,13 @@ public class VLTreeDemo {
                 return node.max;
             }
 
-            int high = high(x);
-            int low = low(x);
+            int high = high(node, x);
+            int low = low(node, x);
             int minLow = node.cluster[high].min;
 
             if (minLow != -1 && low > minLow) {
                 int offset = predecessor(node.cluster[high], low);
-                return offset != -1 ? index(high, offset) : -1;
+                return offset != -1 ? index(node, high, offset) : -1;
             } else {
                 int predCluster = predecessor(node.summary, high);
                 if (predCluster == -1) {
@@ -276,7 +289,7 @@ public class VLTreeDemo {
                     }
                 } else {
                     int offset = maximum(node.cluster[predCluster]);
-                    return index(predCluster, offset);
+                    return index(node, predCluster, offset);
                 }
             }
         }
@@ -307,20 +320,20 @@ public class VLTreeDemo {
                 return node.min;
             }
 
-            int high = high(x);
-            int low = low(x);
+            int high = high(node, x);
+            int low = low(node, x);
             int maxLow = node.cluster[high].max;
 
             if (maxLow != -1 && low < maxLow) {
                 int offset = successor(node.cluster[high], low);
-                return offset != -1 ? index(high, offset) : -1;
+                return offset != -1 ? index(node, high, offset) : -1;
             } else {
                 int succCluster = successor(node.summary, high);
                 if (succCluster == -1) {
                     return -1;
                 } else {
                     int offset = minimum(node.cluster[succCluster]);
-                    return index(succCluster, offset);
+                    return index(node, succCluster, offset);
                 }
             }
         }
@@ -351,8 +364,8 @@ public class VLTreeDemo {
                 return;
             }
 
-            for (int i = 0; i < (int) Math.sqrt(node.u); i++) {
-                printElements(node.cluster[i], base + i * (int) Math.sqrt(node.u));
+            for (int i = 0; i < node.cluster.length; i++) {
+                printElements(node.cluster[i], base + i * VEBNode.lowerSqrt(node.u));
             }
         }
     }
@@ -534,4 +547,35 @@ public class VLTreeDemo {
         System.out.println("VL树: " + vebPredecessorSuccessorTime + " ns");
         System.out.println("HashMap: 不支持直接的前驱后继操作");
     }
+
+    /**
+     * 大值域整数集合：按需分配的vEB与y-fast trie
+     */
+    public void largeUniverseSets() {
+        System.out.println("\n=== 大值域整数集合示例 ===");
+
+        // 值域 2^40：上面的 VEBTree 需要预先分配全部子集群，这里只为实际插入的元素分配
+        LazyVebSet orderIds = new LazyVebSet(40);
+        long base = 1L << 39;
+        for (long i = 0; i < 1000; i++) {
+            orderIds.add(base + i * 1_000_003L);
+        }
+        long probe = base + 500_000_000L;
+        System.out.println("LazyVebSet 元素数量: " + orderIds.size() + "，最小值: " + orderIds.min() + "，最大值: " + orderIds.max());
+        System.out.println(probe + " 的前驱: " + orderIds.predecessor(probe) + "，后继: " + orderIds.successor(probe));
+        orderIds.remove(orderIds.successor(probe));
+        System.out.println("删除后继后新的后继: " + orderIds.successor(probe));
+
+        // 值域 2^63 的稀疏集合：纳秒时间戳
+        YFastTrie timestamps = new YFastTrie();
+        java.util.Random random = new java.util.Random(42);
+        long now = 1_700_000_000_000_000_000L;
+        for (int i = 0; i < 10_000; i++) {
+            timestamps.add(now + (random.nextLong() & 0xFFFF_FFFFFFL));
+        }
+        long query = now + 0x8000_000000L;
+        System.out.println("YFastTrie 元素数量: " + timestamps.size() + "，桶数量: " + timestamps.bucketCount());
+        System.out.println(query + " 之前最近的时间戳: " + timestamps.predecessor(query) + "，之后最近的时间戳: " + timestamps.successor(query));
+        System.out.println("百万级元素的内存与后继查询吞吐对比见 veb.VebBenchmark");
+    }
 }
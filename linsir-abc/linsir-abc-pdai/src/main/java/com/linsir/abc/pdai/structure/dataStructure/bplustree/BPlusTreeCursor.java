@@ -0,0 +1,78 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * 范围游标：沿叶子链表顺序遍历 [from, to) 内的键值对
+ *
+ * 说明：
+ * 1. 游标固定当前叶子页，换页时释放上一页，遍历结束或 close() 时释放最后一页
+ * 2. 游标打开期间不要修改树，否则遍历结果未定义
+ */
+public final class BPlusTreeCursor implements Iterator<Map.Entry<byte[], byte[]>>, AutoCloseable {
+
+    private final BufferPool pool;
+
+    private final byte[] to;
+
+    private NodePage leaf;
+
+    private int index;
+
+    private Map.Entry<byte[], byte[]> next;
+
+
+    BPlusTreeCursor(BufferPool pool, NodePage leaf, int index, byte[] to) {
+        this.pool = pool;
+        this.leaf = leaf;
+        this.index = index;
+        this.to = to;
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map.Entry<byte[], byte[]> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Map.Entry<byte[], byte[]> current = next;
+        advance();
+        return current;
+    }
+
+    @Override
+    public void close() {
+        if (leaf != null) {
+            pool.unpin(leaf, false);
+            leaf = null;
+        }
+        next = null;
+    }
+
+    private void advance() {
+        while (leaf != null) {
+            if (index < leaf.count()) {
+                if (to != null && leaf.compareKey(index, to) >= 0) {
+                    close();
+                    return;
+                }
+                next = new AbstractMap.SimpleImmutableEntry<>(leaf.key(index), leaf.value(index));
+                index++;
+                return;
+            }
+            long nextLeaf = leaf.link();
+            pool.unpin(leaf, false);
+            leaf = nextLeaf == PageFile.NO_PAGE ? null : pool.fetch(nextLeaf);
+            index = 0;
+        }
+        next = null;
+    }
+}
@@ -0,0 +1,151 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 缓冲池：固定数量的页帧 + Clock（近似 LRU）淘汰
+ *
+ * 说明：
+ * 1. fetch/newPage 返回的页处于固定（pin）状态，用完必须 unpin，被固定的页不会被淘汰
+ * 2. 每个页帧有一个访问位，命中时置位；时钟指针扫描时清除访问位，遇到未固定且访问位为 0 的页即淘汰
+ * 3. 淘汰脏页时先写回页文件，flush 时写回全部脏页
+ * 4. 非线程安全，由 DiskBPlusTree 保证单线程访问
+ */
+final class BufferPool {
+
+    private final PageFile file;
+
+    private final NodePage[] frames;
+
+    private final int[] pins;
+
+    private final boolean[] referenced;
+
+    private final boolean[] dirty;
+
+    private final Map<Long, Integer> pageTable;
+
+    private int hand;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    private long writes;
+
+
+    BufferPool(PageFile file, int capacity) {
+        if (capacity < 8) {
+            throw new IllegalArgumentException("缓冲池至少需要 8 个页帧: " + capacity);
+        }
+        this.file = file;
+        this.frames = new NodePage[capacity];
+        this.pins = new int[capacity];
+        this.referenced = new boolean[capacity];
+        this.dirty = new boolean[capacity];
+        this.pageTable = new HashMap<>(capacity * 2);
+        for (int i = 0; i < capacity; i++) {
+            frames[i] = new NodePage(i, file.pageSize());
+        }
+    }
+
+    /**
+     * 取页并固定
+     */
+    NodePage fetch(long pageId) {
+        Integer frame = pageTable.get(pageId);
+        if (frame != null) {
+            hits++;
+            pins[frame]++;
+            referenced[frame] = true;
+            return frames[frame];
+        }
+        misses++;
+        NodePage page = frames[victim()];
+        file.read(pageId, page.data);
+        install(page, pageId, false);
+        return page;
+    }
+
+    /**
+     * 分配新页并固定，页内容初始化为指定类型的空节点
+     */
+    NodePage newPage(byte type) {
+        NodePage page = frames[victim()];
+        long pageId = file.allocate();
+        page.init(type);
+        install(page, pageId, true);
+        return page;
+    }
+
+    void unpin(NodePage page, boolean modified) {
+        if (pins[page.frame] <= 0) {
+            throw new IllegalStateException("页未被固定: " + page.pageId);
+        }
+        pins[page.frame]--;
+        if (modified) {
+            dirty[page.frame] = true;
+        }
+    }
+
+    /**
+     * 写回所有脏页
+     */
+    void flush() {
+        for (NodePage page : frames) {
+            if (dirty[page.frame]) {
+                writeBack(page);
+            }
+        }
+    }
+
+    String stats() {
+        long total = hits + misses;
+        return String.format("frames=%d, hits=%d, misses=%d, hitRatio=%.2f%%, evictions=%d, writes=%d",
+                frames.length, hits, misses, total == 0 ? 0 : hits * 100.0 / total, evictions, writes);
+    }
+
+    private void install(NodePage page, long pageId, boolean isDirty) {
+        page.pageId = pageId;
+        pageTable.put(pageId, page.frame);
+        pins[page.frame] = 1;
+        referenced[page.frame] = true;
+        dirty[page.frame] = isDirty;
+    }
+
+    private int victim() {
+        // 最多扫描两圈：第一圈清访问位，第二圈必能找到未固定的页
+        for (int scanned = 0; scanned < 2 * frames.length; scanned++) {
+            int frame = hand;
+            hand = hand + 1 == frames.length ? 0 : hand + 1;
+            NodePage page = frames[frame];
+            if (page.pageId == PageFile.NO_PAGE) {
+                return frame;
+            }
+            if (pins[frame] > 0) {
+                continue;
+            }
+            if (referenced[frame]) {
+                referenced[frame] = false;
+                continue;
+            }
+            if (dirty[frame]) {
+                writeBack(page);
+            }
+            pageTable.remove(page.pageId);
+            page.pageId = PageFile.NO_PAGE;
+            evictions++;
+            return frame;
+        }
+        throw new IllegalStateException("缓冲池的页帧全部被固定");
+    }
+
+    private void writeBack(NodePage page) {
+        file.write(page.pageId, page.data);
+        dirty[page.frame] = false;
+        writes++;
+    }
+}
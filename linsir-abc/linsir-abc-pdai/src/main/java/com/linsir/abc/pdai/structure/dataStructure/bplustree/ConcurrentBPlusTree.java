@@ -0,0 +1,571 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于乐观锁耦合（Optimistic Lock Coupling）的并发 B+ 树，键为 long
+ *
+ * 说明：
+ * 1. 每个节点有一个版本号：bit1 为写锁位，bit0 为废弃位，其余位是版本计数
+ *    - 读：读版本号（未加锁、未废弃）-> 读节点数据 -> 校验版本号未变，变了就从根重试，读路径上不写任何共享内存
+ *    - 写：CAS 把"读到的版本号"升级为写锁，解锁时版本号 +2（废弃时 +3）
+ * 2. 下降时始终只持有父子两个节点的版本号（锁耦合），子节点指针在校验父节点版本后才算有效
+ * 3. 插入时对路径上已满的内部节点提前分裂，保证叶子分裂时父节点一定有空间，只需锁住父子两层
+ * 4. 叶子元素过少时与同一父节点下的相邻叶子合并：锁住父节点和两个叶子，右叶子标记为废弃，读到废弃节点的线程会重试；
+ *    内部节点不做合并，根节点只剩一个子节点时下移
+ * 5. 数据读写与版本校验之间按 StampedLock.validate 的方式加 acquire 屏障
+ */
+public class ConcurrentBPlusTree<V> {
+
+    /**
+     * 范围遍历回调，只会收到已通过版本校验的数据
+     */
+    public interface EntryVisitor<V> {
+        void visit(long key, V value);
+    }
+
+    private static final long RESTART = -1L;
+
+    private final int leafCapacity;
+
+    private final int innerCapacity;
+
+    private final int mergeThreshold;
+
+    private final LongAdder size = new LongAdder();
+
+    private volatile Node root;
+
+
+    public ConcurrentBPlusTree() {
+        this(64, 64);
+    }
+
+    public ConcurrentBPlusTree(int leafCapacity, int innerCapacity) {
+        if (leafCapacity < 4 || innerCapacity < 4) {
+            throw new IllegalArgumentException("节点容量至少为 4");
+        }
+        this.leafCapacity = leafCapacity;
+        this.innerCapacity = innerCapacity;
+        this.mergeThreshold = leafCapacity / 4;
+        this.root = new Leaf(leafCapacity);
+    }
+
+    public long size() {
+        return size.sum();
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        restart:
+        while (true) {
+            Node node = root;
+            long version = node.readLock();
+            if (version == RESTART || node != root) {
+                continue;
+            }
+            while (node instanceof Inner inner) {
+                Node child = inner.children[inner.childIndex(key)];
+                long childVersion = child == null ? RESTART : child.readLock();
+                // 先拿子节点版本再校验父节点：子节点指针有效，且此后子节点的分裂必然会被子节点版本检测到
+                if (childVersion == RESTART || !inner.validate(version)) {
+                    continue restart;
+                }
+                node = child;
+                version = childVersion;
+            }
+            Leaf leaf = (Leaf) node;
+            int index = leaf.lowerBound(key);
+            Object value = index < leaf.count && leaf.keys[index] == key ? leaf.values[index] : null;
+            if (!leaf.validate(version)) {
+                continue;
+            }
+            return (V) value;
+        }
+    }
+
+    /**
+     * 插入或覆盖
+     *
+     * @return 旧值，不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        restart:
+        while (true) {
+            Node node = root;
+            long version = node.readLock();
+            if (version == RESTART || node != root) {
+                continue;
+            }
+            Inner parent = null;
+            long parentVersion = 0;
+
+            while (node instanceof Inner inner) {
+                if (inner.count == innerCapacity) {
+                    // 提前分裂已满的内部节点
+                    if (!lockPair(parent, parentVersion, inner, version)) {
+                        continue restart;
+                    }
+                    long separator = inner.keys[inner.count / 2];
+                    Inner right = inner.split();
+                    installSplit(parent, inner, separator, right);
+                    continue restart;
+                }
+                if (parent != null && !parent.validate(parentVersion)) {
+                    continue restart;
+                }
+                Node child = inner.children[inner.childIndex(key)];
+                long childVersion = child == null ? RESTART : child.readLock();
+                if (childVersion == RESTART || !inner.validate(version)) {
+                    continue restart;
+                }
+                parent = inner;
+                parentVersion = version;
+                node = child;
+                version = childVersion;
+            }
+
+            Leaf leaf = (Leaf) node;
+            int index = leaf.lowerBound(key);
+            boolean exists = index < leaf.count && leaf.keys[index] == key;
+            if (!exists && leaf.count == leafCapacity) {
+                if (!lockPair(parent, parentVersion, leaf, version)) {
+                    continue;
+                }
+                Leaf right = leaf.split();
+                installSplit(parent, leaf, right.keys[0], right);
+                continue;
+            }
+
+            if (!leaf.tryUpgrade(version)) {
+                continue;
+            }
+            if (parent != null && !parent.validate(parentVersion)) {
+                leaf.writeUnlock();
+                continue;
+            }
+            Object old = null;
+            if (exists) {
+                old = leaf.values[index];
+                leaf.values[index] = value;
+            } else {
+                leaf.insert(index, key, value);
+                size.increment();
+            }
+            leaf.writeUnlock();
+            return (V) old;
+        }
+    }
+
+    /**
+     * @return 被删除的值，不存在时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        restart:
+        while (true) {
+            Node node = root;
+            long version = node.readLock();
+            if (version == RESTART || node != root) {
+                continue;
+            }
+            Inner parent = null;
+            long parentVersion = 0;
+            while (node instanceof Inner inner) {
+                if (parent != null && !parent.validate(parentVersion)) {
+                    continue restart;
+                }
+                Node child = inner.children[inner.childIndex(key)];
+                long childVersion = child == null ? RESTART : child.readLock();
+                if (childVersion == RESTART || !inner.validate(version)) {
+                    continue restart;
+                }
+                parent = inner;
+                parentVersion = version;
+                node = child;
+                version = childVersion;
+            }
+
+            Leaf leaf = (Leaf) node;
+            int index = leaf.lowerBound(key);
+            if (index >= leaf.count || leaf.keys[index] != key) {
+                if (!leaf.validate(version)) {
+                    continue;
+                }
+                return null;
+            }
+            if (!leaf.tryUpgrade(version)) {
+                continue;
+            }
+            Object old = leaf.values[index];
+            leaf.remove(index);
+            size.decrement();
+            boolean underflow = leaf.count < mergeThreshold;
+            leaf.writeUnlock();
+            if (underflow && parent != null) {
+                tryMerge(key);
+            }
+            return (V) old;
+        }
+    }
+
+    /**
+     * 按键升序遍历 [fromInclusive, toExclusive)
+     *
+     * 每个叶子先把命中的数据拷到局部缓冲区，校验版本通过后再回调；校验失败时从下一个未回调的键重新定位
+     */
+    @SuppressWarnings("unchecked")
+    public void range(long fromInclusive, long toExclusive, EntryVisitor<V> visitor) {
+        long[] keys = new long[leafCapacity];
+        Object[] values = new Object[leafCapacity];
+        long next = fromInclusive;
+
+        restart:
+        while (next < toExclusive) {
+            Node node = root;
+            long version = node.readLock();
+            if (version == RESTART || node != root) {
+                continue;
+            }
+            while (node instanceof Inner inner) {
+                Node child = inner.children[inner.childIndex(next)];
+                long childVersion = child == null ? RESTART : child.readLock();
+                if (childVersion == RESTART || !inner.validate(version)) {
+                    continue restart;
+                }
+                node = child;
+                version = childVersion;
+            }
+
+            Leaf leaf = (Leaf) node;
+            while (true) {
+                int n = 0;
+                boolean done = false;
+                int count = leaf.count;
+                for (int i = leaf.lowerBound(next); i < count; i++) {
+                    long key = leaf.keys[i];
+                    if (key >= toExclusive) {
+                        done = true;
+                        break;
+                    }
+                    keys[n] = key;
+                    values[n++] = leaf.values[i];
+                }
+                Leaf nextLeaf = leaf.next;
+                if (!leaf.validate(version)) {
+                    continue restart;
+                }
+                for (int i = 0; i < n; i++) {
+                    visitor.visit(keys[i], (V) values[i]);
+                    values[i] = null;
+                }
+                if (n > 0) {
+                    if (keys[n - 1] == Long.MAX_VALUE) {
+                        return;
+                    }
+                    next = keys[n - 1] + 1;
+                }
+                if (done || nextLeaf == null) {
+                    return;
+                }
+                leaf = nextLeaf;
+                version = leaf.readLock();
+                if (version == RESTART) {
+                    continue restart;
+                }
+            }
+        }
+    }
+
+    /**
+     * 把 key 所在的叶子和同一父节点下的相邻叶子合并；锁竞争失败或合并后放不下时直接放弃，
+     * 合并只是为了回收空间，不影响正确性
+     */
+    private void tryMerge(long key) {
+        Node node = root;
+        long version = node.readLock();
+        if (version == RESTART || node != root) {
+            return;
+        }
+        Inner parent = null;
+        long parentVersion = 0;
+        while (node instanceof Inner inner) {
+            Node child = inner.children[inner.childIndex(key)];
+            long childVersion = child == null ? RESTART : child.readLock();
+            if (childVersion == RESTART || !inner.validate(version)) {
+                return;
+            }
+            parent = inner;
+            parentVersion = version;
+            node = child;
+            version = childVersion;
+        }
+        if (parent == null) {
+            return;
+        }
+
+        int index = parent.childIndex(key);
+        int count = parent.count;
+        if (count == 0 || !parent.validate(parentVersion)) {
+            return;
+        }
+        // 取 (children[i], children[i + 1]) 这一对，右侧合并进左侧
+        int leftIndex = index < count ? index : index - 1;
+        Node leftNode = parent.children[leftIndex];
+        Node rightNode = parent.children[leftIndex + 1];
+        if (!(leftNode instanceof Leaf left) || !(rightNode instanceof Leaf right) || !parent.validate(parentVersion)) {
+            return;
+        }
+        long leftVersion = left.readLock();
+        long rightVersion = right.readLock();
+        if (leftVersion == RESTART || rightVersion == RESTART
+                || left.count + right.count > leafCapacity * 3 / 4) {
+            return;
+        }
+        if (!parent.tryUpgrade(parentVersion)) {
+            return;
+        }
+        if (!left.tryUpgrade(leftVersion)) {
+            parent.writeUnlock();
+            return;
+        }
+        if (!right.tryUpgrade(rightVersion)) {
+            left.writeUnlock();
+            parent.writeUnlock();
+            return;
+        }
+
+        left.absorb(right);
+        parent.removeChild(leftIndex);
+        right.writeUnlockObsolete();
+        left.writeUnlock();
+
+        // 根节点只剩一个子节点时树高减一
+        if (parent == root && parent.count == 0) {
+            root = left;
+            parent.writeUnlockObsolete();
+        } else {
+            parent.writeUnlock();
+        }
+    }
+
+    /**
+     * 同时把父节点和当前节点升级为写锁；parent 为空时 node 必须仍然是根
+     */
+    private boolean lockPair(Inner parent, long parentVersion, Node node, long version) {
+        if (parent != null && !parent.tryUpgrade(parentVersion)) {
+            return false;
+        }
+        if (!node.tryUpgrade(version)) {
+            if (parent != null) {
+                parent.writeUnlock();
+            }
+            return false;
+        }
+        if (parent == null && node != root) {
+            node.writeUnlock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 把分裂出的右节点挂到父节点（或新根）上，并释放 lockPair 加的锁
+     */
+    private void installSplit(Inner parent, Node left, long separator, Node right) {
+        if (parent == null) {
+            Inner newRoot = new Inner(innerCapacity);
+            newRoot.children[0] = left;
+            newRoot.keys[0] = separator;
+            newRoot.children[1] = right;
+            newRoot.count = 1;
+            root = newRoot;
+        } else {
+            parent.insert(separator, right);
+        }
+        left.writeUnlock();
+        if (parent != null) {
+            parent.writeUnlock();
+        }
+    }
+
+    private abstract static class Node {
+
+        private static final VarHandle VERSION;
+
+        static {
+            try {
+                VERSION = MethodHandles.lookup().findVarHandle(Node.class, "version", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private volatile long version = 4;
+
+        final long[] keys;
+
+        int count;
+
+        Node(int capacity) {
+            this.keys = new long[capacity];
+        }
+
+        /**
+         * @return 未加锁且未废弃时返回版本号，否则返回 RESTART
+         */
+        long readLock() {
+            long v = (long) VERSION.getAcquire(this);
+            return (v & 3) != 0 ? RESTART : v;
+        }
+
+        boolean validate(long v) {
+            VarHandle.acquireFence();
+            return version == v;
+        }
+
+        boolean tryUpgrade(long v) {
+            return VERSION.compareAndSet(this, v, v + 2);
+        }
+
+        void writeUnlock() {
+            VERSION.getAndAdd(this, 2L);
+        }
+
+        void writeUnlockObsolete() {
+            VERSION.getAndAdd(this, 3L);
+        }
+
+        /**
+         * 第一个 >= key 的下标
+         */
+        int lowerBound(long key) {
+            int low = 0;
+            int high = Math.min(count, keys.length);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    private static final class Leaf extends Node {
+
+        final Object[] values;
+
+        volatile Leaf next;
+
+        Leaf(int capacity) {
+            super(capacity);
+            this.values = new Object[capacity];
+        }
+
+        void insert(int index, long key, Object value) {
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(values, index, values, index + 1, count - index);
+            keys[index] = key;
+            values[index] = value;
+            count++;
+        }
+
+        void remove(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            System.arraycopy(values, index + 1, values, index, count - index - 1);
+            values[--count] = null;
+        }
+
+        Leaf split() {
+            Leaf right = new Leaf(keys.length);
+            int mid = count / 2;
+            int moved = count - mid;
+            System.arraycopy(keys, mid, right.keys, 0, moved);
+            System.arraycopy(values, mid, right.values, 0, moved);
+            Arrays.fill(values, mid, count, null);
+            right.count = moved;
+            right.next = next;
+            count = mid;
+            next = right;
+            return right;
+        }
+
+        void absorb(Leaf right) {
+            System.arraycopy(right.keys, 0, keys, count, right.count);
+            System.arraycopy(right.values, 0, values, count, right.count);
+            count += right.count;
+            next = right.next;
+        }
+    }
+
+    private static final class Inner extends Node {
+
+        final Node[] children;
+
+        Inner(int capacity) {
+            super(capacity);
+            this.children = new Node[capacity + 1];
+        }
+
+        /**
+         * 分隔键等于右子树的最小键，相等时走右侧
+         */
+        int childIndex(long key) {
+            int low = 0;
+            int high = Math.min(count, keys.length);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] <= key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        void insert(long separator, Node right) {
+            int index = childIndex(separator);
+            System.arraycopy(keys, index, keys, index + 1, count - index);
+            System.arraycopy(children, index + 1, children, index + 2, count - index);
+            keys[index] = separator;
+            children[index + 1] = right;
+            count++;
+        }
+
+        /**
+         * 删除 keys[index] 及其右侧子节点 children[index + 1]
+         */
+        void removeChild(int index) {
+            System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+            System.arraycopy(children, index + 2, children, index + 1, count - index - 1);
+            children[count] = null;
+            count--;
+        }
+
+        /**
+         * keys[count / 2] 上移到父节点，右半部分移到新节点
+         */
+        Inner split() {
+            Inner right = new Inner(keys.length);
+            int mid = count / 2;
+            int movedKeys = count - mid - 1;
+            System.arraycopy(keys, mid + 1, right.keys, 0, movedKeys);
+            System.arraycopy(children, mid + 1, right.children, 0, movedKeys + 1);
+            Arrays.fill(children, mid + 1, count + 1, null);
+            right.count = movedKeys;
+            count = mid;
+            return right;
+        }
+    }
+}
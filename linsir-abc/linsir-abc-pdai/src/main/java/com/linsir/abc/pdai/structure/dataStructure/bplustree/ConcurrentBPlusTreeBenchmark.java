@@ -0,0 +1,206 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 并发 B+ 树的 JMH 基准：混合读写负载下，线程数从 1 增加到 CPU 核数时的吞吐变化
+ *
+ * 运行：java -cp ... ConcurrentBPlusTreeBenchmark [最大线程数，默认 CPU 核数]
+ *
+ * 说明：
+ * 1. olc：ConcurrentBPlusTree；rwlock：ReentrantReadWriteLock 保护的 TreeMap（粗粒度锁）；skiplist：ConcurrentSkipListMap
+ * 2. 预先装入 100 万个键，每次操作随机选键，按 readRatio 决定 get 还是 put/remove（写操作一半插入一半删除，树的规模保持稳定）
+ * 3. 正式压测前先跑一遍多线程正确性校验
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentBPlusTreeBenchmark {
+
+    private static final int KEY_SPACE = 2_000_000;
+
+    @Param({"olc", "rwlock", "skiplist"})
+    public String impl;
+
+    @Param({"0.9", "0.5"})
+    public double readRatio;
+
+    private ConcurrentBPlusTree<Long> olc;
+
+    private TreeMap<Long, Long> treeMap;
+
+    private ReentrantReadWriteLock rwLock;
+
+    private ConcurrentSkipListMap<Long, Long> skipList;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        olc = new ConcurrentBPlusTree<>();
+        treeMap = new TreeMap<>();
+        rwLock = new ReentrantReadWriteLock();
+        skipList = new ConcurrentSkipListMap<>();
+        for (long key = 0; key < KEY_SPACE; key += 2) {
+            switch (impl) {
+                case "olc" -> olc.put(key, key);
+                case "rwlock" -> treeMap.put(key, key);
+                default -> skipList.put(key, key);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long key = random.nextLong(KEY_SPACE);
+        double op = random.nextDouble();
+        if (op < readRatio) {
+            return get(key);
+        }
+        return op < readRatio + (1 - readRatio) / 2 ? put(key) : remove(key);
+    }
+
+    private Long get(long key) {
+        switch (impl) {
+            case "olc":
+                return olc.get(key);
+            case "rwlock":
+                rwLock.readLock().lock();
+                try {
+                    return treeMap.get(key);
+                } finally {
+                    rwLock.readLock().unlock();
+                }
+            default:
+                return skipList.get(key);
+        }
+    }
+
+    private Long put(long key) {
+        switch (impl) {
+            case "olc":
+                return olc.put(key, key);
+            case "rwlock":
+                rwLock.writeLock().lock();
+                try {
+                    return treeMap.put(key, key);
+                } finally {
+                    rwLock.writeLock().unlock();
+                }
+            default:
+                return skipList.put(key, key);
+        }
+    }
+
+    private Long remove(long key) {
+        switch (impl) {
+            case "olc":
+                return olc.remove(key);
+            case "rwlock":
+                rwLock.writeLock().lock();
+                try {
+                    return treeMap.remove(key);
+                } finally {
+                    rwLock.writeLock().unlock();
+                }
+            default:
+                return skipList.remove(key);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = Math.max(1, args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors());
+        verify(Math.max(4, maxThreads));
+
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            Options options = new OptionsBuilder()
+                    .include(ConcurrentBPlusTreeBenchmark.class.getSimpleName() + ".mixed")
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+            if (threads == maxThreads) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 多线程正确性校验：每个线程写自己的键段（插入后删除四分之三，触发叶子合并），同时有线程不停做范围扫描检查有序性，
+     * 最后检查每个键的存在性和 size
+     */
+    private static void verify(int threads) throws InterruptedException {
+        ConcurrentBPlusTree<Long> tree = new ConcurrentBPlusTree<>(16, 16);
+        int perThread = 200_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicLong errors = new AtomicLong();
+
+        Thread scanner = new Thread(() -> {
+            while (done.getCount() > 0) {
+                long[] previous = {Long.MIN_VALUE};
+                tree.range(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> {
+                    if (key <= previous[0] || value != key) {
+                        errors.incrementAndGet();
+                    }
+                    previous[0] = key;
+                });
+            }
+        });
+        scanner.start();
+
+        for (int t = 0; t < threads; t++) {
+            int base = t;
+            new Thread(() -> {
+                for (long i = 0; i < perThread; i++) {
+                    long key = i * threads + base;
+                    tree.put(key, key);
+                }
+                for (long i = 0; i < perThread; i++) {
+                    long key = i * threads + base;
+                    if (i % 4 != 3 && tree.remove(key) == null) {
+                        errors.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        done.await();
+        scanner.join();
+
+        for (long key = 0; key < (long) perThread * threads; key++) {
+            boolean expected = (key / threads) % 4 == 3;
+            if ((tree.get(key) != null) != expected) {
+                errors.incrementAndGet();
+            }
+        }
+        long expectedSize = (long) perThread * threads / 4;
+        if (errors.get() > 0 || tree.size() != expectedSize) {
+            throw new IllegalStateException("并发校验失败：errors=" + errors.get() + ", size=" + tree.size());
+        }
+        System.out.println("并发校验通过：" + threads + " 个写线程 + 1 个扫描线程，size=" + tree.size());
+    }
+}
@@ -0,0 +1,421 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于磁盘页的 B+ 树索引
+ *
+ * 说明：
+ * 1. 在 BPlusTreeDemo 的内存版 B+ 树基础上演进：节点是页文件中的定长页，通过缓冲池访问，叶子用页号串成链表
+ * 2. 键和值都是 byte[]，键按无符号字节序比较；long 键用 encodeLong 编码为保序的 8 字节大端序
+ * 3. 节点满的判断按字节而不是按键个数，分裂时按字节对半分，变长键值也能保持页利用率
+ * 4. 删除只从叶子中移除，不做合并（与很多数据库的惰性删除一致），空叶子仍留在链表中
+ * 5. 支持对空树从有序输入批量加载：自底向上逐层填满页，比逐条插入快一个数量级且页更满
+ * 6. 非线程安全
+ */
+public class DiskBPlusTree implements Closeable {
+
+    public static final int DEFAULT_PAGE_SIZE = 4096;
+
+    public static final int DEFAULT_POOL_PAGES = 1024;
+
+    private final PageFile file;
+
+    private final BufferPool pool;
+
+    // 单个键值对的上限：保证任意一页分裂后两半都能放下
+    private final int maxCellSize;
+
+
+    private DiskBPlusTree(PageFile file, int poolPages) {
+        this.file = file;
+        this.pool = new BufferPool(file, poolPages);
+        this.maxCellSize = (file.pageSize() - NodePage.HEADER) / 4 - 2;
+    }
+
+    public static DiskBPlusTree open(Path path) throws IOException {
+        return open(path, DEFAULT_PAGE_SIZE, DEFAULT_POOL_PAGES);
+    }
+
+    /**
+     * @param pageSize  页大小
+     * @param poolPages 缓冲池页帧数，内存占用约为 pageSize * poolPages
+     */
+    public static DiskBPlusTree open(Path path, int pageSize, int poolPages) throws IOException {
+        return new DiskBPlusTree(PageFile.open(path, pageSize), poolPages);
+    }
+
+    /**
+     * long 编码为 8 字节大端序并翻转符号位，使无符号字节序与 long 的大小顺序一致
+     */
+    public static byte[] encodeLong(long value) {
+        long v = value ^ Long.MIN_VALUE;
+        byte[] bytes = new byte[8];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte) v;
+            v >>>= 8;
+        }
+        return bytes;
+    }
+
+    public static long decodeLong(byte[] bytes) {
+        long v = 0;
+        for (int i = 0; i < 8; i++) {
+            v = (v << 8) | (bytes[i] & 0xFF);
+        }
+        return v ^ Long.MIN_VALUE;
+    }
+
+    public long size() {
+        return file.size();
+    }
+
+    public int height() {
+        return file.height();
+    }
+
+    public byte[] get(long key) {
+        return get(encodeLong(key));
+    }
+
+    public byte[] get(byte[] key) {
+        if (file.root() == PageFile.NO_PAGE) {
+            return null;
+        }
+        NodePage leaf = findLeaf(key, null);
+        int index = leaf.search(key);
+        byte[] value = index >= 0 ? leaf.value(index) : null;
+        pool.unpin(leaf, false);
+        return value;
+    }
+
+    public byte[] put(long key, byte[] value) {
+        return put(encodeLong(key), value);
+    }
+
+    /**
+     * 插入或覆盖
+     *
+     * @return 旧值，不存在时返回 null
+     */
+    public byte[] put(byte[] key, byte[] value) {
+        checkEntry(key, value);
+        if (file.root() == PageFile.NO_PAGE) {
+            NodePage root = pool.newPage(NodePage.LEAF);
+            file.root(root.pageId);
+            file.height(1);
+            pool.unpin(root, true);
+        }
+
+        long[] path = new long[file.height()];
+        NodePage leaf = findLeaf(key, path);
+        int index = leaf.search(key);
+        byte[] old = null;
+        if (index >= 0) {
+            old = leaf.value(index);
+            leaf.remove(index);
+        } else {
+            index = -index - 1;
+            file.size(file.size() + 1);
+        }
+
+        if (leaf.insertLeaf(index, key, value)) {
+            pool.unpin(leaf, true);
+        } else {
+            splitLeaf(leaf, index, key, value, path, file.height() - 1);
+        }
+        return old;
+    }
+
+    public byte[] delete(long key) {
+        return delete(encodeLong(key));
+    }
+
+    /**
+     * @return 被删除的值，不存在时返回 null
+     */
+    public byte[] delete(byte[] key) {
+        if (file.root() == PageFile.NO_PAGE) {
+            return null;
+        }
+        NodePage leaf = findLeaf(key, null);
+        int index = leaf.search(key);
+        if (index < 0) {
+            pool.unpin(leaf, false);
+            return null;
+        }
+        byte[] old = leaf.value(index);
+        leaf.remove(index);
+        file.size(file.size() - 1);
+        pool.unpin(leaf, true);
+        return old;
+    }
+
+    public BPlusTreeCursor range(long fromInclusive, long toExclusive) {
+        return range(encodeLong(fromInclusive), encodeLong(toExclusive));
+    }
+
+    /**
+     * 范围查询 [fromInclusive, toExclusive)，参数为 null 表示不限
+     */
+    public BPlusTreeCursor range(byte[] fromInclusive, byte[] toExclusive) {
+        if (file.root() == PageFile.NO_PAGE) {
+            return new BPlusTreeCursor(pool, null, 0, toExclusive);
+        }
+        NodePage leaf;
+        int index;
+        if (fromInclusive == null) {
+            leaf = pool.fetch(file.root());
+            while (!leaf.isLeaf()) {
+                long child = leaf.child(0);
+                pool.unpin(leaf, false);
+                leaf = pool.fetch(child);
+            }
+            index = 0;
+        } else {
+            leaf = findLeaf(fromInclusive, null);
+            index = leaf.search(fromInclusive);
+            index = index >= 0 ? index : -index - 1;
+        }
+        return new BPlusTreeCursor(pool, leaf, index, toExclusive);
+    }
+
+    /**
+     * 从严格递增的有序输入批量加载，只能用于空树
+     *
+     * @param fillFactor 页填充率 (0, 1]，预留空间可以减少之后随机插入引起的分裂
+     */
+    public void bulkLoad(Iterator<? extends Map.Entry<byte[], byte[]>> sorted, double fillFactor) {
+        if (file.root() != PageFile.NO_PAGE) {
+            throw new IllegalStateException("只能对空树批量加载");
+        }
+        if (fillFactor <= 0 || fillFactor > 1) {
+            throw new IllegalArgumentException("填充率必须在 (0, 1] 之间: " + fillFactor);
+        }
+        int budget = (int) ((file.pageSize() - NodePage.HEADER) * fillFactor);
+
+        // 当前层每个节点的页号及其子树的最小键
+        List<Long> pageIds = new ArrayList<>();
+        List<byte[]> firstKeys = new ArrayList<>();
+        NodePage leaf = null;
+        int used = 0;
+        byte[] previous = null;
+        long count = 0;
+        while (sorted.hasNext()) {
+            Map.Entry<byte[], byte[]> entry = sorted.next();
+            byte[] key = entry.getKey();
+            byte[] value = entry.getValue();
+            checkEntry(key, value);
+            if (previous != null && Arrays.compareUnsigned(previous, key) >= 0) {
+                throw new IllegalArgumentException("批量加载要求键严格递增");
+            }
+            int need = NodePage.leafCellSize(key, value) + 2;
+            if (leaf == null || used + need > budget) {
+                NodePage next = pool.newPage(NodePage.LEAF);
+                if (leaf != null) {
+                    leaf.setLink(next.pageId);
+                    pool.unpin(leaf, true);
+                }
+                leaf = next;
+                used = 0;
+                pageIds.add(leaf.pageId);
+                firstKeys.add(key);
+            }
+            leaf.insertLeaf(leaf.count(), key, value);
+            used += need;
+            previous = key;
+            count++;
+        }
+        if (leaf == null) {
+            return;
+        }
+        pool.unpin(leaf, true);
+
+        int height = 1;
+        while (pageIds.size() > 1) {
+            List<Long> upperIds = new ArrayList<>();
+            List<byte[]> upperKeys = new ArrayList<>();
+            NodePage node = null;
+            used = 0;
+            for (int i = 0; i < pageIds.size(); i++) {
+                int need = NodePage.innerCellSize(firstKeys.get(i)) + 2;
+                // 最后一个子页尽量并入当前节点，避免产生只有最左子页、没有分隔键的内部节点
+                boolean last = i == pageIds.size() - 1;
+                if (node != null && (used + need <= budget || last)
+                        && node.insertInner(node.count(), firstKeys.get(i), pageIds.get(i))) {
+                    used += need;
+                    continue;
+                }
+                if (node != null) {
+                    pool.unpin(node, true);
+                }
+                node = pool.newPage(NodePage.INNER);
+                node.setLink(pageIds.get(i));
+                used = 0;
+                upperIds.add(node.pageId);
+                upperKeys.add(firstKeys.get(i));
+            }
+            pool.unpin(node, true);
+            pageIds = upperIds;
+            firstKeys = upperKeys;
+            height++;
+        }
+        file.root(pageIds.get(0));
+        file.height(height);
+        file.size(count);
+    }
+
+    /**
+     * 脏页写回并刷盘
+     */
+    public void flush() {
+        pool.flush();
+        file.writeMeta();
+        file.force();
+    }
+
+    public String stats() {
+        return "size=" + file.size() + ", height=" + file.height() + ", pages=" + file.pageCount() + ", " + pool.stats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        pool.flush();
+        file.close();
+    }
+
+    /**
+     * 从根下降到叶子，返回固定的叶子页；path 不为空时记录沿途内部节点的页号
+     */
+    private NodePage findLeaf(byte[] key, long[] path) {
+        NodePage page = pool.fetch(file.root());
+        int depth = 0;
+        while (!page.isLeaf()) {
+            if (path != null) {
+                path[depth++] = page.pageId;
+            }
+            long child = page.child(page.childIndex(key));
+            pool.unpin(page, false);
+            page = pool.fetch(child);
+        }
+        return page;
+    }
+
+    private void splitLeaf(NodePage leaf, int index, byte[] key, byte[] value, long[] path, int depth) {
+        int n = leaf.count() + 1;
+        byte[][] keys = new byte[n][];
+        byte[][] values = new byte[n][];
+        int total = 0;
+        for (int i = 0, j = 0; i < n; i++) {
+            if (i == index) {
+                keys[i] = key;
+                values[i] = value;
+            } else {
+                keys[i] = leaf.key(j);
+                values[i] = leaf.value(j);
+                j++;
+            }
+            total += NodePage.leafCellSize(keys[i], values[i]) + 2;
+        }
+        int mid = 0;
+        for (int half = 0; mid < n - 1 && half < total / 2; mid++) {
+            half += NodePage.leafCellSize(keys[mid], values[mid]) + 2;
+        }
+        mid = Math.max(mid, 1);
+
+        NodePage right = pool.newPage(NodePage.LEAF);
+        right.setLink(leaf.link());
+        long next = right.pageId;
+        leaf.init(NodePage.LEAF);
+        leaf.setLink(next);
+        for (int i = 0; i < mid; i++) {
+            leaf.insertLeaf(i, keys[i], values[i]);
+        }
+        for (int i = mid; i < n; i++) {
+            right.insertLeaf(i - mid, keys[i], values[i]);
+        }
+        long leftId = leaf.pageId;
+        pool.unpin(leaf, true);
+        pool.unpin(right, true);
+        insertIntoParent(path, depth, leftId, keys[mid], next);
+    }
+
+    /**
+     * 把分隔键和右子页插入 path[depth - 1]，depth 为 0 时生成新根
+     */
+    private void insertIntoParent(long[] path, int depth, long left, byte[] separator, long right) {
+        if (depth == 0) {
+            NodePage root = pool.newPage(NodePage.INNER);
+            root.setLink(left);
+            root.insertInner(0, separator, right);
+            file.root(root.pageId);
+            file.height(file.height() + 1);
+            pool.unpin(root, true);
+            return;
+        }
+        NodePage parent = pool.fetch(path[depth - 1]);
+        int index = parent.childIndex(separator);
+        if (parent.insertInner(index, separator, right)) {
+            pool.unpin(parent, true);
+        } else {
+            splitInner(parent, index, separator, right, path, depth - 1);
+        }
+    }
+
+    private void splitInner(NodePage node, int index, byte[] key, long rightChild, long[] path, int depth) {
+        int n = node.count() + 1;
+        byte[][] keys = new byte[n][];
+        long[] children = new long[n + 1];
+        children[0] = node.child(0);
+        int total = 0;
+        for (int i = 0, j = 0; i < n; i++) {
+            if (i == index) {
+                keys[i] = key;
+                children[i + 1] = rightChild;
+            } else {
+                keys[i] = node.key(j);
+                children[i + 1] = node.child(j + 1);
+                j++;
+            }
+            total += NodePage.innerCellSize(keys[i]) + 2;
+        }
+        // keys[mid] 上移到父节点，左右两半各至少保留一个键
+        int mid = 0;
+        for (int half = 0; mid < n - 2 && half < total / 2; mid++) {
+            half += NodePage.innerCellSize(keys[mid]) + 2;
+        }
+        mid = Math.max(mid, 1);
+
+        NodePage right = pool.newPage(NodePage.INNER);
+        right.setLink(children[mid + 1]);
+        for (int i = mid + 1; i < n; i++) {
+            right.insertInner(i - mid - 1, keys[i], children[i + 1]);
+        }
+        node.init(NodePage.INNER);
+        node.setLink(children[0]);
+        for (int i = 0; i < mid; i++) {
+            node.insertInner(i, keys[i], children[i + 1]);
+        }
+        long leftId = node.pageId;
+        long rightId = right.pageId;
+        pool.unpin(node, true);
+        pool.unpin(right, true);
+        insertIntoParent(path, depth, leftId, keys[mid], rightId);
+    }
+
+    private void checkEntry(byte[] key, byte[] value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("键和值不能为 null");
+        }
+        if (NodePage.leafCellSize(key, value) > maxCellSize) {
+            throw new IllegalArgumentException("键值对过大，当前页大小下最多 " + maxCellSize + " 字节");
+        }
+    }
+}
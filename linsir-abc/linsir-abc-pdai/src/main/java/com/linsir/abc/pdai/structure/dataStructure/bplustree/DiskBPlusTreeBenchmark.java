@@ -0,0 +1,198 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+/**
+ * 磁盘 B+ 树与 TreeMap 的点查、范围查询对比
+ *
+ * 运行：java -Xmx3g ... DiskBPlusTreeBenchmark [键数量，默认 10000000] [缓冲池页帧数，默认 16384]
+ *
+ * 说明：
+ * 1. B+ 树从有序输入批量加载，TreeMap 顺序插入，键为 0..n-1，值为 8 字节
+ * 2. 点查随机取 100 万个键，范围查询随机取 1 万个起点、每次扫 100 个键
+ * 3. 另建一棵树随机插入 100 万个键，验证逐条插入的分裂路径以及游标的有序性
+ * 4. 关闭后重新打开，验证数据持久化
+ */
+public class DiskBPlusTreeBenchmark {
+
+    private static final int POINT_LOOKUPS = 1_000_000;
+
+    private static final int RANGE_QUERIES = 10_000;
+
+    private static final int RANGE_LENGTH = 100;
+
+    private static final int RANDOM_INSERTS = 1_000_000;
+
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int poolPages = args.length > 1 ? Integer.parseInt(args[1]) : 16384;
+        Path indexFile = Files.createTempFile("bplustree", ".idx");
+        Path randomFile = Files.createTempFile("bplustree-random", ".idx");
+        Files.delete(indexFile);
+        Files.delete(randomFile);
+        try {
+            run(indexFile, randomFile, n, poolPages);
+        } finally {
+            Files.deleteIfExists(indexFile);
+            Files.deleteIfExists(randomFile);
+        }
+    }
+
+    private static void run(Path indexFile, Path randomFile, int n, int poolPages) throws Exception {
+        System.out.println("键数量: " + n + "，页大小: " + DiskBPlusTree.DEFAULT_PAGE_SIZE + "，缓冲池页帧: " + poolPages);
+
+        long start = System.nanoTime();
+        try (DiskBPlusTree tree = DiskBPlusTree.open(indexFile, DiskBPlusTree.DEFAULT_PAGE_SIZE, poolPages)) {
+            tree.bulkLoad(sequence(n), 0.9);
+            tree.flush();
+            System.out.printf("B+树批量加载: %d ms，树高 %d，文件 %d MB%n",
+                    millis(start), tree.height(), Files.size(indexFile) >> 20);
+
+            start = System.nanoTime();
+            NavigableMap<Long, Long> treeMap = new TreeMap<>();
+            for (long i = 0; i < n; i++) {
+                treeMap.put(i, i * 31);
+            }
+            System.out.printf("TreeMap 插入: %d ms%n", millis(start));
+
+            // 预热一轮再计时
+            pointLookups(tree, treeMap, n, 1);
+            long[] point = pointLookups(tree, treeMap, n, 2);
+            System.out.printf("点查 %d 次: B+树 %.1f ns/op，TreeMap %.1f ns/op%n",
+                    POINT_LOOKUPS, (double) point[0] / POINT_LOOKUPS, (double) point[1] / POINT_LOOKUPS);
+
+            rangeQueries(tree, treeMap, n, 3);
+            long[] range = rangeQueries(tree, treeMap, n, 4);
+            System.out.printf("范围查询 %d 次（每次 %d 个键）: B+树 %.1f us/op，TreeMap %.1f us/op%n",
+                    RANGE_QUERIES, RANGE_LENGTH, range[0] / 1000.0 / RANGE_QUERIES, range[1] / 1000.0 / RANGE_QUERIES);
+            System.out.println("B+树统计: " + tree.stats());
+        }
+
+        try (DiskBPlusTree tree = DiskBPlusTree.open(indexFile, DiskBPlusTree.DEFAULT_PAGE_SIZE, poolPages)) {
+            long key = n / 2;
+            byte[] value = tree.get(key);
+            check(tree.size() == n && value != null && DiskBPlusTree.decodeLong(value) == key * 31, "重新打开后数据不一致");
+            System.out.println("重新打开后校验通过，size=" + tree.size());
+        }
+
+        randomInserts(randomFile, poolPages);
+    }
+
+    private static long[] pointLookups(DiskBPlusTree tree, NavigableMap<Long, Long> treeMap, int n, long seed) {
+        long[] keys = new Random(seed).longs(POINT_LOOKUPS, 0, n).toArray();
+
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (long key : keys) {
+            checksum += DiskBPlusTree.decodeLong(tree.get(key));
+        }
+        long treeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long expected = 0;
+        for (long key : keys) {
+            expected += treeMap.get(key);
+        }
+        long mapNanos = System.nanoTime() - start;
+
+        check(checksum == expected, "点查结果不一致");
+        return new long[]{treeNanos, mapNanos};
+    }
+
+    private static long[] rangeQueries(DiskBPlusTree tree, NavigableMap<Long, Long> treeMap, int n, long seed) {
+        long[] starts = new Random(seed).longs(RANGE_QUERIES, 0, Math.max(1, n - RANGE_LENGTH)).toArray();
+
+        long start = System.nanoTime();
+        long checksum = 0;
+        for (long from : starts) {
+            try (BPlusTreeCursor cursor = tree.range(from, from + RANGE_LENGTH)) {
+                while (cursor.hasNext()) {
+                    checksum += DiskBPlusTree.decodeLong(cursor.next().getValue());
+                }
+            }
+        }
+        long treeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long expected = 0;
+        for (long from : starts) {
+            for (Long value : treeMap.subMap(from, true, from + RANGE_LENGTH, false).values()) {
+                expected += value;
+            }
+        }
+        long mapNanos = System.nanoTime() - start;
+
+        check(checksum == expected, "范围查询结果不一致");
+        return new long[]{treeNanos, mapNanos};
+    }
+
+    private static void randomInserts(Path file, int poolPages) throws Exception {
+        Random random = new Random(42);
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        long start = System.nanoTime();
+        try (DiskBPlusTree tree = DiskBPlusTree.open(file, DiskBPlusTree.DEFAULT_PAGE_SIZE, poolPages)) {
+            for (int i = 0; i < RANDOM_INSERTS; i++) {
+                long key = random.nextLong();
+                tree.put(key, DiskBPlusTree.encodeLong(i));
+                expected.put(key, (long) i);
+            }
+            System.out.printf("随机插入 %d 个键: %d ms，树高 %d%n", RANDOM_INSERTS, millis(start), tree.height());
+
+            // 删除一半，再顺序遍历全部键，和 TreeMap 对比
+            Iterator<Long> it = expected.keySet().iterator();
+            while (it.hasNext()) {
+                long key = it.next();
+                if ((key & 1) == 0) {
+                    check(tree.delete(key) != null, "删除失败");
+                    it.remove();
+                }
+            }
+            Iterator<Map.Entry<Long, Long>> expectedEntries = expected.entrySet().iterator();
+            try (BPlusTreeCursor cursor = tree.range((byte[]) null, null)) {
+                while (cursor.hasNext()) {
+                    Map.Entry<byte[], byte[]> entry = cursor.next();
+                    Map.Entry<Long, Long> e = expectedEntries.next();
+                    check(DiskBPlusTree.decodeLong(entry.getKey()) == e.getKey()
+                            && DiskBPlusTree.decodeLong(entry.getValue()) == e.getValue(), "游标顺序不一致");
+                }
+            }
+            check(!expectedEntries.hasNext() && tree.size() == expected.size(), "游标遍历数量不一致");
+            System.out.println("随机插入 + 删除后全量遍历校验通过，size=" + tree.size());
+        }
+    }
+
+    private static Iterator<Map.Entry<byte[], byte[]>> sequence(int n) {
+        return new Iterator<>() {
+            private long next;
+
+            @Override
+            public boolean hasNext() {
+                return next < n;
+            }
+
+            @Override
+            public Map.Entry<byte[], byte[]> next() {
+                long key = next++;
+                return new AbstractMap.SimpleImmutableEntry<>(DiskBPlusTree.encodeLong(key), DiskBPlusTree.encodeLong(key * 31));
+            }
+        };
+    }
+
+    private static long millis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * 节点页：直接在缓冲池页帧的字节数组上读写的 slotted page
+ *
+ * 页格式：
+ * <pre>
+ * | type(1) | 保留(1) | count(2) | cellStart(2) | 保留(2) | link(8) | slot[0..count) 每个 2 字节 | 空闲 | cell 区 |
+ * </pre>
+ * 1. slot 按键有序保存 cell 的偏移，cell 从页尾向前分配
+ * 2. 叶子 cell：keyLen(2) valueLen(2) key value；link 为下一个叶子的页号
+ * 3. 内部 cell：keyLen(2) child(8) key，child 是键右侧的子页；link 为最左子页
+ * 4. 删除只移除 slot，cell 空间在空闲不足时通过整理回收
+ */
+final class NodePage {
+
+    static final byte LEAF = 1;
+
+    static final byte INNER = 2;
+
+    static final int HEADER = 16;
+
+    private static final int TYPE = 0;
+
+    private static final int COUNT = 2;
+
+    private static final int CELL_START = 4;
+
+    private static final int LINK = 8;
+
+    private static final int LEAF_CELL_HEADER = 4;
+
+    private static final int INNER_CELL_HEADER = 10;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    // 缓冲池内的页帧下标
+    final int frame;
+
+    final byte[] data;
+
+    long pageId = PageFile.NO_PAGE;
+
+
+    NodePage(int frame, int pageSize) {
+        this.frame = frame;
+        this.data = new byte[pageSize];
+    }
+
+    void init(byte type) {
+        Arrays.fill(data, (byte) 0);
+        data[TYPE] = type;
+        setCount(0);
+        setCellStart(data.length);
+        setLink(PageFile.NO_PAGE);
+    }
+
+    boolean isLeaf() {
+        return data[TYPE] == LEAF;
+    }
+
+    int count() {
+        return getShort(COUNT);
+    }
+
+    long link() {
+        return getLong(LINK);
+    }
+
+    void setLink(long pageId) {
+        putLong(LINK, pageId);
+    }
+
+    static int leafCellSize(byte[] key, byte[] value) {
+        return LEAF_CELL_HEADER + key.length + value.length;
+    }
+
+    static int innerCellSize(byte[] key) {
+        return INNER_CELL_HEADER + key.length;
+    }
+
+    /**
+     * 二分查找
+     *
+     * @return 找到时返回下标，否则返回 -(插入点) - 1
+     */
+    int search(byte[] key) {
+        int low = 0;
+        int high = count() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareKey(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * 内部节点中 key 所在的子页下标：分隔键等于右子树的最小键，相等时走右侧
+     */
+    int childIndex(byte[] key) {
+        int index = search(key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * 内部节点第 index 个子页，index 范围 [0, count]
+     */
+    long child(int index) {
+        return index == 0 ? link() : getLong(slot(index - 1) + 2);
+    }
+
+    int compareKey(int index, byte[] key) {
+        int cell = slot(index);
+        int keyLen = getShort(cell);
+        int keyStart = cell + (isLeaf() ? LEAF_CELL_HEADER : INNER_CELL_HEADER);
+        return Arrays.compareUnsigned(data, keyStart, keyStart + keyLen, key, 0, key.length);
+    }
+
+    byte[] key(int index) {
+        int cell = slot(index);
+        int keyStart = cell + (isLeaf() ? LEAF_CELL_HEADER : INNER_CELL_HEADER);
+        return Arrays.copyOfRange(data, keyStart, keyStart + getShort(cell));
+    }
+
+    byte[] value(int index) {
+        int cell = slot(index);
+        int valueStart = cell + LEAF_CELL_HEADER + getShort(cell);
+        return Arrays.copyOfRange(data, valueStart, valueStart + getShort(cell + 2));
+    }
+
+    /**
+     * 在叶子第 index 个位置插入键值对，空间不足时返回 false
+     */
+    boolean insertLeaf(int index, byte[] key, byte[] value) {
+        int cell = allocate(leafCellSize(key, value));
+        if (cell < 0) {
+            return false;
+        }
+        putShort(cell, key.length);
+        putShort(cell + 2, value.length);
+        System.arraycopy(key, 0, data, cell + LEAF_CELL_HEADER, key.length);
+        System.arraycopy(value, 0, data, cell + LEAF_CELL_HEADER + key.length, value.length);
+        insertSlot(index, cell);
+        return true;
+    }
+
+    /**
+     * 在内部节点第 index 个位置插入分隔键及其右子页，空间不足时返回 false
+     */
+    boolean insertInner(int index, byte[] key, long rightChild) {
+        int cell = allocate(innerCellSize(key));
+        if (cell < 0) {
+            return false;
+        }
+        putShort(cell, key.length);
+        putLong(cell + 2, rightChild);
+        System.arraycopy(key, 0, data, cell + INNER_CELL_HEADER, key.length);
+        insertSlot(index, cell);
+        return true;
+    }
+
+    void remove(int index) {
+        int count = count();
+        int at = HEADER + 2 * index;
+        System.arraycopy(data, at + 2, data, at, 2 * (count - index - 1));
+        setCount(count - 1);
+    }
+
+    /**
+     * 按 cell 占用计算的已用字节数（不含页头），用于分裂时按字节对半分
+     */
+    int cellSize(int index) {
+        return cellSize(data, slot(index), isLeaf());
+    }
+
+    private static int cellSize(byte[] bytes, int cell, boolean leaf) {
+        return leaf
+                ? LEAF_CELL_HEADER + getShort(bytes, cell) + getShort(bytes, cell + 2)
+                : INNER_CELL_HEADER + getShort(bytes, cell);
+    }
+
+    int usedBytes() {
+        int used = 0;
+        for (int i = 0, n = count(); i < n; i++) {
+            used += cellSize(i) + 2;
+        }
+        return used;
+    }
+
+    private int allocate(int cellSize) {
+        int count = count();
+        int free = getShort(CELL_START) - HEADER - 2 * count;
+        if (free < cellSize + 2) {
+            if (data.length - HEADER - usedBytes() < cellSize + 2) {
+                return -1;
+            }
+            compact();
+        }
+        int cell = getShort(CELL_START) - cellSize;
+        setCellStart(cell);
+        return cell;
+    }
+
+    /**
+     * 整理 cell 区，回收删除留下的空洞
+     */
+    private void compact() {
+        byte[] copy = data.clone();
+        int count = count();
+        boolean leaf = isLeaf();
+        int end = data.length;
+        for (int i = 0; i < count; i++) {
+            int cell = getShort(copy, HEADER + 2 * i);
+            int size = cellSize(copy, cell, leaf);
+            end -= size;
+            System.arraycopy(copy, cell, data, end, size);
+            putShort(HEADER + 2 * i, end);
+        }
+        setCellStart(end);
+    }
+
+    private void insertSlot(int index, int cell) {
+        int count = count();
+        int at = HEADER + 2 * index;
+        System.arraycopy(data, at, data, at + 2, 2 * (count - index));
+        putShort(at, cell);
+        setCount(count + 1);
+    }
+
+    private int slot(int index) {
+        return getShort(HEADER + 2 * index);
+    }
+
+    private void setCount(int count) {
+        putShort(COUNT, count);
+    }
+
+    private void setCellStart(int cellStart) {
+        // 32KB 页的 cellStart 初始值 32768 超出 short，按 0 表示页尾
+        putShort(CELL_START, cellStart == data.length ? 0 : cellStart);
+    }
+
+    private int getShort(int offset) {
+        if (offset == CELL_START) {
+            int value = getShort(data, offset);
+            return value == 0 ? data.length : value;
+        }
+        return getShort(data, offset);
+    }
+
+    private static int getShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private void putShort(int offset, int value) {
+        data[offset] = (byte) (value >>> 8);
+        data[offset + 1] = (byte) value;
+    }
+
+    private long getLong(int offset) {
+        return (long) LONG.get(data, offset);
+    }
+
+    private void putLong(int offset, long value) {
+        LONG.set(data, offset, value);
+    }
+}
@@ -0,0 +1,210 @@
+package com.linsir.abc.pdai.structure.dataStructure.bplustree;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 定长页文件
+ *
+ * 说明：
+ * 1. 文件按 pageSize 切分为页，页号从 0 开始，第 0 页是元数据页
+ * 2. 文件按 64MB 分段做内存映射（单个 MappedByteBuffer 最大 2GB），段大小是页大小的整数倍，页不会跨段
+ * 3. 读写页都是对映射区的一次内存拷贝，没有 read/write 系统调用；脏页由操作系统或 force() 回写
+ * 4. 元数据页记录：魔数、页大小、根页号、已分配页数、键值对数量、树高
+ */
+final class PageFile implements Closeable {
+
+    static final long NO_PAGE = -1L;
+
+    private static final long MAGIC = 0x4C494E5342505431L; // "LINSBPT1"
+
+    private static final int SEGMENT_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+
+    private final int pageSize;
+
+    private final int pagesPerSegment;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    private long pageCount;
+
+    private long root;
+
+    private long size;
+
+    private int height;
+
+
+    private PageFile(FileChannel channel, int pageSize) {
+        this.channel = channel;
+        this.pageSize = pageSize;
+        this.pagesPerSegment = SEGMENT_SIZE / pageSize;
+    }
+
+    /**
+     * 打开页文件，文件不存在时创建
+     *
+     * @param pageSize 页大小，2 的幂，范围 [512, 32768]；打开已有文件时必须与创建时一致
+     */
+    static PageFile open(Path path, int pageSize) throws IOException {
+        if (pageSize < 512 || pageSize > 32768 || Integer.bitCount(pageSize) != 1) {
+            throw new IllegalArgumentException("页大小必须是 [512, 32768] 之间的 2 的幂: " + pageSize);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PageFile file = new PageFile(channel, pageSize);
+        try {
+            if (channel.size() == 0) {
+                file.pageCount = 1;
+                file.root = NO_PAGE;
+                file.ensureMapped(1);
+                file.writeMeta();
+            } else {
+                file.ensureMapped(1);
+                file.readMeta();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return file;
+    }
+
+    int pageSize() {
+        return pageSize;
+    }
+
+    long pageCount() {
+        return pageCount;
+    }
+
+    long root() {
+        return root;
+    }
+
+    void root(long root) {
+        this.root = root;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void size(long size) {
+        this.size = size;
+    }
+
+    int height() {
+        return height;
+    }
+
+    void height(int height) {
+        this.height = height;
+    }
+
+    /**
+     * 在文件末尾分配一个新页
+     */
+    long allocate() {
+        long pageId = pageCount;
+        ensureMappedUnchecked(pageId + 1);
+        pageCount++;
+        return pageId;
+    }
+
+    void read(long pageId, byte[] dst) {
+        checkPage(pageId);
+        segment(pageId).get(offset(pageId), dst, 0, pageSize);
+    }
+
+    void write(long pageId, byte[] src) {
+        checkPage(pageId);
+        segment(pageId).put(offset(pageId), src, 0, pageSize);
+    }
+
+    void writeMeta() {
+        ByteBuffer meta = ByteBuffer.allocate(pageSize);
+        meta.putLong(MAGIC)
+                .putInt(pageSize)
+                .putLong(root)
+                .putLong(pageCount)
+                .putLong(size)
+                .putInt(height);
+        segments.get(0).put(0, meta.array(), 0, pageSize);
+    }
+
+    /**
+     * 把映射区的修改刷到磁盘
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * 映射区在 GC 回收 MappedByteBuffer 之前不会解除映射，这里只保证数据落盘并关闭通道
+     */
+    @Override
+    public void close() throws IOException {
+        writeMeta();
+        force();
+        segments.clear();
+        channel.close();
+    }
+
+    private void readMeta() {
+        ByteBuffer meta = segments.get(0).duplicate();
+        if (meta.getLong() != MAGIC) {
+            throw new IllegalStateException("不是 B+ 树页文件");
+        }
+        int storedPageSize = meta.getInt();
+        if (storedPageSize != pageSize) {
+            throw new IllegalArgumentException("页大小不一致，文件为 " + storedPageSize + "，参数为 " + pageSize);
+        }
+        root = meta.getLong();
+        pageCount = meta.getLong();
+        size = meta.getLong();
+        height = meta.getInt();
+        ensureMappedUnchecked(pageCount);
+    }
+
+    private void ensureMapped(long pages) throws IOException {
+        long needed = (pages + pagesPerSegment - 1) / pagesPerSegment;
+        while (segments.size() < needed) {
+            // READ_WRITE 映射超出文件长度时会自动扩展文件
+            segments.add(channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE));
+        }
+    }
+
+    private void ensureMappedUnchecked(long pages) {
+        try {
+            ensureMapped(pages);
+        } catch (IOException e) {
+            throw new UncheckedIOException("映射页文件失败", e);
+        }
+    }
+
+    private MappedByteBuffer segment(long pageId) {
+        return segments.get((int) (pageId / pagesPerSegment));
+    }
+
+    private int offset(long pageId) {
+        return (int) (pageId % pagesPerSegment) * pageSize;
+    }
+
+    private void checkPage(long pageId) {
+        if (pageId <= 0 || pageId >= pageCount) {
+            throw new IllegalArgumentException("页号越界: " + pageId);
+        }
+    }
+}
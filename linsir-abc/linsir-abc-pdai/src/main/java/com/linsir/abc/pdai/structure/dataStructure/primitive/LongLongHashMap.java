@@ -0,0 +1,385 @@
+package com.linsir.abc.pdai.structure.dataStructure.primitive;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * long -> long 开放寻址哈希表
+ *
+ * 说明：
+ * 1. 线性探测 + 2 的幂容量，槽位由 Fibonacci 哈希（乘黄金分割常数取高位）直接得到，不用取模
+ * 2. 键和值交错存放在同一个数组里（key0 value0 key1 value1 ...），一次探测只碰一条缓存行，没有每个条目的对象头
+ * 3. 键 0 表示空槽，真正的键 0 单独存放；删除时把后面同一探测链上的元素回移（backward shift），不需要墓碑
+ * 4. 可选堆外存储：offHeap 版本把表放在 DirectByteBuffer 中，不占 Java 堆、不参与 GC 扫描；
+ *    堆外内存受 -XX:MaxDirectMemorySize 限制，随 map 对象被 GC 回收而释放
+ * 5. 非线程安全
+ */
+public class LongLongHashMap {
+
+    /**
+     * 遍历回调
+     */
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    public static final float DEFAULT_LOAD_FACTOR = 0.6f;
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+    private static final int MAX_HEAP_CAPACITY = 1 << 29;
+
+    private static final int MAX_OFF_HEAP_CAPACITY = 1 << 26;
+
+    private final long noEntryValue;
+
+    private final float loadFactor;
+
+    private final boolean offHeap;
+
+    private Slots slots;
+
+    private int mask;
+
+    private int shift;
+
+    private int resizeAt;
+
+    private int size;
+
+    private boolean hasZeroKey;
+
+    private long zeroValue;
+
+
+    private LongLongHashMap(int expectedSize, float loadFactor, long noEntryValue, boolean offHeap) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize 不能为负: " + expectedSize);
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("loadFactor 必须在 (0, 1) 之间: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.noEntryValue = noEntryValue;
+        this.offHeap = offHeap;
+        allocate(capacityFor(expectedSize, loadFactor));
+    }
+
+    public LongLongHashMap() {
+        this(16, DEFAULT_LOAD_FACTOR, 0L, false);
+    }
+
+    /**
+     * 堆内存储
+     *
+     * @param noEntryValue 键不存在时 get/put/remove 的返回值
+     */
+    public static LongLongHashMap onHeap(int expectedSize, long noEntryValue) {
+        return new LongLongHashMap(expectedSize, DEFAULT_LOAD_FACTOR, noEntryValue, false);
+    }
+
+    /**
+     * 堆外存储，容量上限 2^26 个槽位
+     */
+    public static LongLongHashMap offHeap(int expectedSize, long noEntryValue) {
+        return new LongLongHashMap(expectedSize, DEFAULT_LOAD_FACTOR, noEntryValue, true);
+    }
+
+    public long noEntryValue() {
+        return noEntryValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 表占用的字节数（不含对象头）
+     */
+    public long tableBytes() {
+        return (long) (mask + 1) * 16;
+    }
+
+    public long get(long key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : noEntryValue;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = slots.key(i);
+            if (k == key) {
+                return slots.value(i);
+            }
+            if (k == 0) {
+                return noEntryValue;
+            }
+        }
+    }
+
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = slots.key(i);
+            if (k == key) {
+                return true;
+            }
+            if (k == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return 旧值，不存在时返回 noEntryValue
+     */
+    public long put(long key, long value) {
+        if (key == 0) {
+            long old = hasZeroKey ? zeroValue : noEntryValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return old;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = slots.key(i);
+            if (k == key) {
+                long old = slots.value(i);
+                slots.setValue(i, value);
+                return old;
+            }
+            if (k == 0) {
+                slots.set(i, key, value);
+                if (++size > resizeAt) {
+                    rehash((mask + 1) << 1);
+                }
+                return noEntryValue;
+            }
+        }
+    }
+
+    /**
+     * 累加，键不存在时从 0 开始
+     *
+     * @return 累加后的值
+     */
+    public long addTo(long key, long delta) {
+        if (key == 0) {
+            put(0, (hasZeroKey ? zeroValue : 0) + delta);
+            return zeroValue;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = slots.key(i);
+            if (k == key) {
+                long value = slots.value(i) + delta;
+                slots.setValue(i, value);
+                return value;
+            }
+            if (k == 0) {
+                slots.set(i, key, delta);
+                if (++size > resizeAt) {
+                    rehash((mask + 1) << 1);
+                }
+                return delta;
+            }
+        }
+    }
+
+    /**
+     * @return 被删除的值，不存在时返回 noEntryValue
+     */
+    public long remove(long key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return noEntryValue;
+            }
+            hasZeroKey = false;
+            size--;
+            return zeroValue;
+        }
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            long k = slots.key(i);
+            if (k == key) {
+                long old = slots.value(i);
+                shiftBack(i);
+                size--;
+                return old;
+            }
+            if (k == 0) {
+                return noEntryValue;
+            }
+        }
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        for (int i = 0; i <= mask; i++) {
+            long k = slots.key(i);
+            if (k != 0) {
+                consumer.accept(k, slots.value(i));
+            }
+        }
+    }
+
+    public void clear() {
+        slots.clear();
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    /**
+     * 删除 gap 处的元素后，把后续探测链上"可以回到更靠前位置"的元素依次前移填补空位
+     */
+    private void shiftBack(int gap) {
+        for (int j = (gap + 1) & mask; ; j = (j + 1) & mask) {
+            long k = slots.key(j);
+            if (k == 0) {
+                break;
+            }
+            int home = slot(k);
+            // gap 位于 [home, j) 的环形区间内时，j 处的元素可以移到 gap
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                slots.set(gap, k, slots.value(j));
+                gap = j;
+            }
+        }
+        slots.set(gap, 0, 0);
+    }
+
+    private int slot(long key) {
+        return (int) ((key * GOLDEN) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        slots = offHeap ? new DirectSlots(capacity) : new HeapSlots(capacity);
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int capacity) {
+        if (capacity > (offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_HEAP_CAPACITY)) {
+            throw new IllegalStateException("超出最大容量: " + size);
+        }
+        Slots old = slots;
+        int oldCapacity = mask + 1;
+        allocate(capacity);
+        for (int i = 0; i < oldCapacity; i++) {
+            long k = old.key(i);
+            if (k != 0) {
+                int j = slot(k);
+                while (slots.key(j) != 0) {
+                    j = (j + 1) & mask;
+                }
+                slots.set(j, k, old.value(i));
+            }
+        }
+    }
+
+    private int capacityFor(int expectedSize, float loadFactor) {
+        long needed = Math.max(8, (long) Math.ceil(expectedSize / (double) loadFactor) + 1);
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        if (capacity > (offHeap ? MAX_OFF_HEAP_CAPACITY : MAX_HEAP_CAPACITY)) {
+            throw new IllegalArgumentException("expectedSize 过大: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+
+    /**
+     * 槽位存储：堆内 long[] 或堆外 DirectByteBuffer
+     */
+    private abstract static class Slots {
+
+        abstract long key(int slot);
+
+        abstract long value(int slot);
+
+        abstract void set(int slot, long key, long value);
+
+        abstract void setValue(int slot, long value);
+
+        abstract void clear();
+    }
+
+    private static final class HeapSlots extends Slots {
+
+        private final long[] table;
+
+        HeapSlots(int capacity) {
+            this.table = new long[capacity * 2];
+        }
+
+        @Override
+        long key(int slot) {
+            return table[slot << 1];
+        }
+
+        @Override
+        long value(int slot) {
+            return table[(slot << 1) + 1];
+        }
+
+        @Override
+        void set(int slot, long key, long value) {
+            table[slot << 1] = key;
+            table[(slot << 1) + 1] = value;
+        }
+
+        @Override
+        void setValue(int slot, long value) {
+            table[(slot << 1) + 1] = value;
+        }
+
+        @Override
+        void clear() {
+            Arrays.fill(table, 0L);
+        }
+    }
+
+    private static final class DirectSlots extends Slots {
+
+        private final ByteBuffer table;
+
+        DirectSlots(int capacity) {
+            // allocateDirect 分配的内存已清零
+            this.table = ByteBuffer.allocateDirect(capacity * 16).order(ByteOrder.nativeOrder());
+        }
+
+        @Override
+        long key(int slot) {
+            return table.getLong(slot << 4);
+        }
+
+        @Override
+        long value(int slot) {
+            return table.getLong((slot << 4) + 8);
+        }
+
+        @Override
+        void set(int slot, long key, long value) {
+            table.putLong(slot << 4, key);
+            table.putLong((slot << 4) + 8, value);
+        }
+
+        @Override
+        void setValue(int slot, long value) {
+            table.putLong((slot << 4) + 8, value);
+        }
+
+        @Override
+        void clear() {
+            for (int i = 0, n = table.capacity(); i < n; i += 8) {
+                table.putLong(i, 0L);
+            }
+        }
+    }
+}
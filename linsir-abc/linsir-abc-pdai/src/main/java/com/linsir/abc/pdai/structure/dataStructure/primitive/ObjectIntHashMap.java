@@ -0,0 +1,246 @@
+package com.linsir.abc.pdai.structure.dataStructure.primitive;
+
+import java.util.Arrays;
+
+/**
+ * 对象 -> int 开放寻址哈希表
+ *
+ * 说明：
+ * 1. 与 LongLongHashMap 相同的线性探测 + backward shift 删除
+ * 2. 槽位由 hashCode 乘黄金分割常数取高位得到，低质量的 hashCode（如连续整数）也能打散
+ * 3. 每个槽位的哈希值和值交错存放在 int 数组中，探测冲突时先比较哈希值，不必为 equals 去访问键对象（多一次缓存未命中）
+ * 4. 值是 int，没有 Integer 装箱，也没有 HashMap.Node 这样的条目对象；addTo 适合计数场景
+ * 5. 不允许 null 键，非线程安全
+ */
+public class ObjectIntHashMap<K> {
+
+    /**
+     * 遍历回调
+     */
+    public interface EntryConsumer<K> {
+        void accept(K key, int value);
+    }
+
+    public static final float DEFAULT_LOAD_FACTOR = 0.6f;
+
+    private static final int GOLDEN = 0x9E3779B9;
+
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private final int noEntryValue;
+
+    private final float loadFactor;
+
+    private Object[] keys;
+
+    // hash0 value0 hash1 value1 ...
+    private int[] slots;
+
+    private int mask;
+
+    private int shift;
+
+    private int resizeAt;
+
+    private int size;
+
+
+    public ObjectIntHashMap() {
+        this(16, 0);
+    }
+
+    /**
+     * @param noEntryValue 键不存在时 get/put/remove 的返回值
+     */
+    public ObjectIntHashMap(int expectedSize, int noEntryValue) {
+        this(expectedSize, DEFAULT_LOAD_FACTOR, noEntryValue);
+    }
+
+    public ObjectIntHashMap(int expectedSize, float loadFactor, int noEntryValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize 不能为负: " + expectedSize);
+        }
+        if (!(loadFactor > 0 && loadFactor < 1)) {
+            throw new IllegalArgumentException("loadFactor 必须在 (0, 1) 之间: " + loadFactor);
+        }
+        this.loadFactor = loadFactor;
+        this.noEntryValue = noEntryValue;
+        long needed = Math.max(8, (long) Math.ceil(expectedSize / (double) loadFactor) + 1);
+        long capacity = Long.highestOneBit(needed - 1) << 1;
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize 过大: " + expectedSize);
+        }
+        allocate((int) capacity);
+    }
+
+    public int noEntryValue() {
+        return noEntryValue;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int get(K key) {
+        int i = indexOf(key);
+        return i < 0 ? noEntryValue : slots[(i << 1) + 1];
+    }
+
+    public int getOrDefault(K key, int defaultValue) {
+        int i = indexOf(key);
+        return i < 0 ? defaultValue : slots[(i << 1) + 1];
+    }
+
+    public boolean containsKey(K key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return 旧值，不存在时返回 noEntryValue
+     */
+    public int put(K key, int value) {
+        int hash = hash(key);
+        for (int i = hash >>> shift; ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == null) {
+                insert(i, key, hash, value);
+                return noEntryValue;
+            }
+            if (k == key || (slots[i << 1] == hash && k.equals(key))) {
+                int old = slots[(i << 1) + 1];
+                slots[(i << 1) + 1] = value;
+                return old;
+            }
+        }
+    }
+
+    /**
+     * 累加，键不存在时从 0 开始
+     *
+     * @return 累加后的值
+     */
+    public int addTo(K key, int delta) {
+        int hash = hash(key);
+        for (int i = hash >>> shift; ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == null) {
+                insert(i, key, hash, delta);
+                return delta;
+            }
+            if (k == key || (slots[i << 1] == hash && k.equals(key))) {
+                return slots[(i << 1) + 1] += delta;
+            }
+        }
+    }
+
+    /**
+     * @return 被删除的值，不存在时返回 noEntryValue
+     */
+    public int remove(K key) {
+        int i = indexOf(key);
+        if (i < 0) {
+            return noEntryValue;
+        }
+        int old = slots[(i << 1) + 1];
+        shiftBack(i);
+        size--;
+        return old;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super K> consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                consumer.accept((K) keys[i], slots[(i << 1) + 1]);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, null);
+        Arrays.fill(slots, 0);
+        size = 0;
+    }
+
+    private int indexOf(Object key) {
+        int hash = hash(key);
+        for (int i = hash >>> shift; ; i = (i + 1) & mask) {
+            Object k = keys[i];
+            if (k == null) {
+                return -1;
+            }
+            if (k == key || (slots[i << 1] == hash && k.equals(key))) {
+                return i;
+            }
+        }
+    }
+
+    private void insert(int i, Object key, int hash, int value) {
+        keys[i] = key;
+        slots[i << 1] = hash;
+        slots[(i << 1) + 1] = value;
+        if (++size > resizeAt) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    private void shiftBack(int gap) {
+        for (int j = (gap + 1) & mask; ; j = (j + 1) & mask) {
+            Object k = keys[j];
+            if (k == null) {
+                break;
+            }
+            int home = slots[j << 1] >>> shift;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                keys[gap] = k;
+                slots[gap << 1] = slots[j << 1];
+                slots[(gap << 1) + 1] = slots[(j << 1) + 1];
+                gap = j;
+            }
+        }
+        keys[gap] = null;
+        slots[gap << 1] = 0;
+        slots[(gap << 1) + 1] = 0;
+    }
+
+    /**
+     * 乘黄金分割常数打散，取高位作为槽位；null 键在这里抛出 NullPointerException
+     */
+    private static int hash(Object key) {
+        return key.hashCode() * GOLDEN;
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        slots = new int[capacity * 2];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = Math.min(capacity - 1, (int) (capacity * loadFactor));
+    }
+
+    private void rehash(int capacity) {
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalStateException("超出最大容量: " + size);
+        }
+        Object[] oldKeys = keys;
+        int[] oldSlots = slots;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            Object k = oldKeys[i];
+            if (k != null) {
+                int hash = oldSlots[i << 1];
+                int j = hash >>> shift;
+                while (keys[j] != null) {
+                    j = (j + 1) & mask;
+                }
+                keys[j] = k;
+                slots[j << 1] = hash;
+                slots[(j << 1) + 1] = oldSlots[(i << 1) + 1];
+            }
+        }
+    }
+}
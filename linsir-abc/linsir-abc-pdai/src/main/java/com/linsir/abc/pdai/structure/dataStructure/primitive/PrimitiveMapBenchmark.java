@@ -0,0 +1,311 @@
+package com.linsir.abc.pdai.structure.dataStructure.primitive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.ref.Reference;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 原始类型哈希表与 java.util.HashMap 的对比
+ *
+ * 运行：java -cp ... PrimitiveMapBenchmark
+ *
+ * 说明：
+ * 1. 先输出每个条目的内存占用（构建 100 万个条目前后的堆/堆外内存差值），再用 JMH 测 get/put 吞吐
+ * 2. get 按打乱后的顺序取键，全部命中（"key-i" 的 hashCode 是连续的，顺序访问会让 HashMap 的桶也被顺序访问，结果偏乐观）；
+ *    put 每次调用从空表（默认初始容量）插入全部键，包含扩容开销
+ * 3. ObjectIntHashMap 与 HashMap&lt;String, Integer&gt; 对比时键字符串预先创建，不计入内存
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveMapBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private long[] longKeys;
+
+    private String[] stringKeys;
+
+    private long[] longProbes;
+
+    private String[] stringProbes;
+
+    private HashMap<Long, Long> boxedLongMap;
+
+    private LongLongHashMap heapLongMap;
+
+    private LongLongHashMap offHeapLongMap;
+
+    private HashMap<String, Integer> boxedStringMap;
+
+    private ObjectIntHashMap<String> stringIntMap;
+
+    private int cursor;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        longKeys = randomLongs(size, 42);
+        stringKeys = strings(size);
+        boxedLongMap = new HashMap<>();
+        heapLongMap = LongLongHashMap.onHeap(0, -1);
+        offHeapLongMap = LongLongHashMap.offHeap(0, -1);
+        boxedStringMap = new HashMap<>();
+        stringIntMap = new ObjectIntHashMap<>(0, -1);
+        longProbes = longKeys.clone();
+        stringProbes = stringKeys.clone();
+        Random random = new Random(7);
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long longKey = longProbes[i];
+            longProbes[i] = longProbes[j];
+            longProbes[j] = longKey;
+            String stringKey = stringProbes[i];
+            stringProbes[i] = stringProbes[j];
+            stringProbes[j] = stringKey;
+        }
+        for (int i = 0; i < size; i++) {
+            boxedLongMap.put(longKeys[i], (long) i);
+            heapLongMap.put(longKeys[i], i);
+            offHeapLongMap.put(longKeys[i], i);
+            boxedStringMap.put(stringKeys[i], i);
+            stringIntMap.put(stringKeys[i], i);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long longGetHashMap() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += boxedLongMap.get(nextLongKey());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long longGetHeap() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += heapLongMap.get(nextLongKey());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long longGetOffHeap() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += offHeapLongMap.get(nextLongKey());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long stringGetHashMap() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += boxedStringMap.get(nextStringKey());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long stringGetObjectInt() {
+        long sum = 0;
+        for (int i = 0; i < BATCH; i++) {
+            sum += stringIntMap.get(nextStringKey());
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public Object longPutHashMap() {
+        HashMap<Long, Long> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(longKeys[i], (long) i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object longPutHeap() {
+        LongLongHashMap map = new LongLongHashMap();
+        for (int i = 0; i < size; i++) {
+            map.put(longKeys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object longPutOffHeap() {
+        LongLongHashMap map = LongLongHashMap.offHeap(0, 0);
+        for (int i = 0; i < size; i++) {
+            map.put(longKeys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object stringPutHashMap() {
+        HashMap<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(stringKeys[i], i);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public Object stringPutObjectInt() {
+        ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(stringKeys[i], i);
+        }
+        return map;
+    }
+
+    private long nextLongKey() {
+        int i = cursor++;
+        if (cursor == size) {
+            cursor = 0;
+        }
+        return longProbes[i];
+    }
+
+    private String nextStringKey() {
+        int i = cursor++;
+        if (cursor == size) {
+            cursor = 0;
+        }
+        return stringProbes[i];
+    }
+
+    public static void main(String[] args) throws Exception {
+        memoryPerEntry(1_000_000);
+        new Runner(new OptionsBuilder()
+                .include(PrimitiveMapBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * 构建 n 个条目前后的内存差值 / n
+     */
+    private static void memoryPerEntry(int n) throws InterruptedException {
+        long[] longKeys = randomLongs(n, 7);
+        String[] stringKeys = strings(n);
+
+        System.out.println("每个条目的内存占用（" + n + " 个条目）:");
+        report("HashMap<Long, Long>", n, false, () -> {
+            Map<Long, Long> map = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                map.put(longKeys[i], (long) i);
+            }
+            return map;
+        });
+        report("LongLongHashMap（堆内）", n, false, () -> {
+            LongLongHashMap map = new LongLongHashMap();
+            for (int i = 0; i < n; i++) {
+                map.put(longKeys[i], i);
+            }
+            return map;
+        });
+        report("LongLongHashMap（堆外）", n, true, () -> {
+            LongLongHashMap map = LongLongHashMap.offHeap(0, 0);
+            for (int i = 0; i < n; i++) {
+                map.put(longKeys[i], i);
+            }
+            return map;
+        });
+        report("HashMap<String, Integer>", n, false, () -> {
+            Map<String, Integer> map = new HashMap<>();
+            for (int i = 0; i < n; i++) {
+                map.put(stringKeys[i], i);
+            }
+            return map;
+        });
+        report("ObjectIntHashMap<String>", n, false, () -> {
+            ObjectIntHashMap<String> map = new ObjectIntHashMap<>();
+            for (int i = 0; i < n; i++) {
+                map.put(stringKeys[i], i);
+            }
+            return map;
+        });
+    }
+
+    private static void report(String name, int n, boolean offHeap, Supplier<Object> builder) throws InterruptedException {
+        long before = used(offHeap);
+        Object map = builder.get();
+        long after = used(offHeap);
+        System.out.printf("  %-28s %6.1f 字节/条目%n", name, (after - before) / (double) n);
+        // 测量结束前保持 map 可达
+        Reference.reachabilityFence(map);
+    }
+
+    /**
+     * 多次 GC 后的堆内存占用；堆外内存要等扩容时丢弃的旧 DirectByteBuffer 被 Cleaner 释放
+     */
+    private static long used(boolean offHeap) throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        if (!offHeap) {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory();
+        }
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if ("direct".equals(pool.getName())) {
+                return pool.getMemoryUsed();
+            }
+        }
+        return 0;
+    }
+
+    private static long[] randomLongs(int n, long seed) {
+        Random random = new Random(seed);
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = random.nextLong();
+        }
+        return keys;
+    }
+
+    private static String[] strings(int n) {
+        String[] keys = new String[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = "key-" + i;
+        }
+        return keys;
+    }
+}
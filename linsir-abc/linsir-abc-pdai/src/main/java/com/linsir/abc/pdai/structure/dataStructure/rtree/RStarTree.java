@@ -0,0 +1,598 @@
+package com.linsir.abc.pdai.structure.dataStructure.rtree;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * 二维 R*-树
+ *
+ * 说明：
+ * 1. 节点用原始数组存放条目：boxes 按 minX, minY, maxX, maxY 交错存放，叶子节点存 int 数据 ID，内部节点存子节点引用，
+ *    不为每个条目创建 Rectangle 对象，也不装箱数据
+ * 2. bulkLoad 使用 STR（Sort-Tile-Recursive）打包：按中心 x 排序切成 ⌈√P⌉ 个竖条，每个竖条内按中心 y 排序后按节点容量装满，
+ *    再对上一层节点的 MBR 重复这一过程，得到几乎满载、重叠很小的树
+ * 3. insert 使用 R* 启发式：
+ *    - 选择子树：子节点是叶子时选重叠增量最小的条目，否则选面积增量最小的条目
+ *    - 分裂：按两个轴分别以下界、上界排序，选边长（margin）之和最小的轴，再在该轴上选重叠最小、面积和最小的分割点
+ *    （未实现 R* 的强制重插入）
+ * 4. search 通过回调输出结果，不物化 List；nearest 使用优先队列做 best-first 搜索，按距离从近到远返回 k 个数据 ID
+ * 5. 非线程安全
+ */
+public class RStarTree {
+
+    public static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final int maxEntries;
+
+    private final int minEntries;
+
+    private Node root;
+
+    private int size;
+
+    private int height = 1;
+
+
+    public RStarTree() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public RStarTree(int maxEntries) {
+        if (maxEntries < 4) {
+            throw new IllegalArgumentException("maxEntries 至少为 4: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        // R* 论文建议最小填充为 40%
+        this.minEntries = Math.max(2, (int) (maxEntries * 0.4));
+        this.root = new Node(true, maxEntries);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /**
+     * STR 批量加载
+     *
+     * @param boxes 每 4 个元素为一个矩形：minX, minY, maxX, maxY
+     * @param ids   与矩形一一对应的数据 ID
+     */
+    public static RStarTree bulkLoad(double[] boxes, int[] ids, int maxEntries) {
+        int n = ids.length;
+        if (boxes.length != n * 4) {
+            throw new IllegalArgumentException("boxes 长度应为 ids 长度的 4 倍");
+        }
+        RStarTree tree = new RStarTree(maxEntries);
+        if (n == 0) {
+            return tree;
+        }
+        Node[] level = tree.pack(boxes, n, ids, null, true);
+        int height = 1;
+        while (level.length > 1) {
+            double[] levelBoxes = new double[level.length * 4];
+            for (int i = 0; i < level.length; i++) {
+                level[i].mbr(levelBoxes, i);
+            }
+            level = tree.pack(levelBoxes, level.length, null, level, false);
+            height++;
+        }
+        tree.root = level[0];
+        tree.size = n;
+        tree.height = height;
+        return tree;
+    }
+
+    public void insert(double minX, double minY, double maxX, double maxY, int id) {
+        if (minX > maxX || minY > maxY) {
+            throw new IllegalArgumentException("非法矩形: [" + minX + ", " + minY + "] - [" + maxX + ", " + maxY + "]");
+        }
+        Node sibling = insert(root, minX, minY, maxX, maxY, id);
+        if (sibling != null) {
+            Node newRoot = new Node(false, maxEntries);
+            newRoot.addChild(root);
+            newRoot.addChild(sibling);
+            root = newRoot;
+            height++;
+        }
+        size++;
+    }
+
+    /**
+     * 窗口查询，与窗口相交（含边界接触）的数据 ID 依次交给 consumer
+     */
+    public void search(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        if (size == 0) {
+            return;
+        }
+        Node[] stack = new Node[height * maxEntries + 1];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            Node node = stack[--top];
+            double[] b = node.boxes;
+            for (int i = 0, p = 0; i < node.count; i++, p += 4) {
+                if (b[p] <= maxX && b[p + 2] >= minX && b[p + 1] <= maxY && b[p + 3] >= minY) {
+                    if (node.leaf) {
+                        consumer.accept(node.ids[i]);
+                    } else {
+                        stack[top++] = node.children[i];
+                    }
+                }
+            }
+        }
+    }
+
+    public int count(double minX, double minY, double maxX, double maxY) {
+        int[] count = new int[1];
+        search(minX, minY, maxX, maxY, id -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * k 近邻查询：返回距离点 (x, y) 最近的 k 个矩形的数据 ID，按距离升序；点在矩形内时距离为 0
+     */
+    public int[] nearest(double x, double y, int k) {
+        int[] result = new int[Math.min(k, size)];
+        if (result.length == 0) {
+            return result;
+        }
+        MinHeap heap = new MinHeap(64);
+        heap.push(0, root, -1);
+        int found = 0;
+        while (found < result.length && !heap.isEmpty()) {
+            Node node = heap.topNode();
+            int id = heap.topId();
+            heap.pop();
+            if (node == null) {
+                // 弹出的是数据条目，它比队列中所有节点和条目都近
+                result[found++] = id;
+                continue;
+            }
+            double[] b = node.boxes;
+            for (int i = 0, p = 0; i < node.count; i++, p += 4) {
+                double distance = distanceSq(x, y, b[p], b[p + 1], b[p + 2], b[p + 3]);
+                if (node.leaf) {
+                    heap.push(distance, null, node.ids[i]);
+                } else {
+                    heap.push(distance, node.children[i], -1);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 所有节点的平均填充率，用于比较批量加载与逐条插入的树质量
+     */
+    public double fillFactor() {
+        long[] totals = new long[2];
+        fill(root, totals);
+        return (double) totals[0] / (totals[1] * maxEntries);
+    }
+
+    private void fill(Node node, long[] totals) {
+        totals[0] += node.count;
+        totals[1]++;
+        if (!node.leaf) {
+            for (int i = 0; i < node.count; i++) {
+                fill(node.children[i], totals);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- STR
+
+    /**
+     * 把一层条目打包成节点，条目来自 ids（叶子层）或 children（内部层）
+     */
+    private Node[] pack(double[] boxes, int n, int[] ids, Node[] children, boolean leaf) {
+        int nodeCount = (n + maxEntries - 1) / maxEntries;
+        int slices = (int) Math.ceil(Math.sqrt(nodeCount));
+        int sliceSize = slices * maxEntries;
+
+        int[] order = sortByCenter(boxes, n, 0, null, 0, n);
+        Node[] nodes = new Node[nodeCount];
+        int nodeIndex = 0;
+        for (int sliceStart = 0; sliceStart < n; sliceStart += sliceSize) {
+            int sliceEnd = Math.min(n, sliceStart + sliceSize);
+            int[] slice = sortByCenter(boxes, n, 1, order, sliceStart, sliceEnd);
+            for (int i = 0; i < slice.length; i += maxEntries) {
+                Node node = new Node(leaf, maxEntries);
+                int end = Math.min(slice.length, i + maxEntries);
+                for (int j = i; j < end; j++) {
+                    int entry = slice[j];
+                    System.arraycopy(boxes, entry * 4, node.boxes, node.count * 4, 4);
+                    if (leaf) {
+                        node.ids[node.count] = ids[entry];
+                    } else {
+                        node.children[node.count] = children[entry];
+                    }
+                    node.count++;
+                }
+                nodes[nodeIndex++] = node;
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * 按矩形中心在某个轴上的坐标排序，返回条目下标；order 为空时对 0..n-1 排序，否则对 order[from, to) 排序
+     * <p>
+     * 把中心坐标转成可比较的 float 位放在高 32 位、条目下标放在低 32 位，用原始类型排序，避免比较器和装箱
+     */
+    private static int[] sortByCenter(double[] boxes, int n, int axis, int[] order, int from, int to) {
+        long[] keys = new long[to - from];
+        for (int i = from; i < to; i++) {
+            int entry = order == null ? i : order[i];
+            float center = (float) ((boxes[entry * 4 + axis] + boxes[entry * 4 + axis + 2]) * 0.5);
+            int bits = Float.floatToRawIntBits(center);
+            bits ^= (bits >> 31) & 0x7FFFFFFF;
+            keys[i - from] = ((long) bits << 32) | (entry & 0xFFFFFFFFL);
+        }
+        if (keys.length > 1 << 16) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        int[] sorted = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            sorted[i] = (int) keys[i];
+        }
+        return sorted;
+    }
+
+    // ---------------------------------------------------------------- 插入
+
+    /**
+     * 返回分裂出的兄弟节点，没有分裂时返回 null
+     */
+    private Node insert(Node node, double minX, double minY, double maxX, double maxY, int id) {
+        if (node.leaf) {
+            node.addEntry(minX, minY, maxX, maxY, id);
+        } else {
+            int index = chooseSubtree(node, minX, minY, maxX, maxY);
+            Node child = node.children[index];
+            Node sibling = insert(child, minX, minY, maxX, maxY, id);
+            if (sibling == null) {
+                node.enlarge(index, minX, minY, maxX, maxY);
+            } else {
+                child.mbr(node.boxes, index);
+                node.addChild(sibling);
+            }
+        }
+        return node.count > maxEntries ? split(node) : null;
+    }
+
+    private int chooseSubtree(Node node, double minX, double minY, double maxX, double maxY) {
+        double[] b = node.boxes;
+        boolean childrenAreLeaves = node.children[0].leaf;
+        int best = 0;
+        double bestOverlap = Double.POSITIVE_INFINITY;
+        double bestEnlargement = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (int i = 0, p = 0; i < node.count; i++, p += 4) {
+            double area = area(b[p], b[p + 1], b[p + 2], b[p + 3]);
+            double uMinX = Math.min(b[p], minX);
+            double uMinY = Math.min(b[p + 1], minY);
+            double uMaxX = Math.max(b[p + 2], maxX);
+            double uMaxY = Math.max(b[p + 3], maxY);
+            double enlargement = area(uMinX, uMinY, uMaxX, uMaxY) - area;
+            double overlap = 0;
+            if (childrenAreLeaves) {
+                // 重叠增量：扩大后的矩形与其余兄弟的重叠面积之和减去扩大前的
+                for (int j = 0, q = 0; j < node.count; j++, q += 4) {
+                    if (j != i) {
+                        overlap += overlap(uMinX, uMinY, uMaxX, uMaxY, b[q], b[q + 1], b[q + 2], b[q + 3])
+                                - overlap(b[p], b[p + 1], b[p + 2], b[p + 3], b[q], b[q + 1], b[q + 2], b[q + 3]);
+                    }
+                }
+            }
+            if (overlap < bestOverlap
+                    || overlap == bestOverlap && (enlargement < bestEnlargement
+                    || enlargement == bestEnlargement && area < bestArea)) {
+                best = i;
+                bestOverlap = overlap;
+                bestEnlargement = enlargement;
+                bestArea = area;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * R* 分裂：node 中有 maxEntries + 1 个条目，前一组留在 node，后一组移到返回的新节点
+     */
+    private Node split(Node node) {
+        int total = node.count;
+        double[] b = node.boxes;
+        int distributions = total - 2 * minEntries + 1;
+
+        int bestAxis = 0;
+        double bestMargin = Double.POSITIVE_INFINITY;
+        for (int axis = 0; axis < 2; axis++) {
+            double margin = 0;
+            for (int upper = 0; upper < 2; upper++) {
+                int[] order = sortEntries(b, total, axis + upper * 2);
+                double[] prefix = prefixMbrs(b, order, false);
+                double[] suffix = prefixMbrs(b, order, true);
+                for (int k = 0; k < distributions; k++) {
+                    int split = minEntries + k;
+                    margin += margin(prefix, split - 1) + margin(suffix, split);
+                }
+            }
+            if (margin < bestMargin) {
+                bestMargin = margin;
+                bestAxis = axis;
+            }
+        }
+
+        int[] bestOrder = null;
+        int bestSplit = 0;
+        double bestOverlap = Double.POSITIVE_INFINITY;
+        double bestArea = Double.POSITIVE_INFINITY;
+        for (int upper = 0; upper < 2; upper++) {
+            int[] order = sortEntries(b, total, bestAxis + upper * 2);
+            double[] prefix = prefixMbrs(b, order, false);
+            double[] suffix = prefixMbrs(b, order, true);
+            for (int k = 0; k < distributions; k++) {
+                int split = minEntries + k;
+                int p = (split - 1) * 4;
+                int q = split * 4;
+                double overlap = overlap(prefix[p], prefix[p + 1], prefix[p + 2], prefix[p + 3],
+                        suffix[q], suffix[q + 1], suffix[q + 2], suffix[q + 3]);
+                double area = area(prefix[p], prefix[p + 1], prefix[p + 2], prefix[p + 3])
+                        + area(suffix[q], suffix[q + 1], suffix[q + 2], suffix[q + 3]);
+                if (overlap < bestOverlap || overlap == bestOverlap && area < bestArea) {
+                    bestOverlap = overlap;
+                    bestArea = area;
+                    bestOrder = order;
+                    bestSplit = split;
+                }
+            }
+        }
+
+        // 按选中的顺序重排条目
+        double[] boxes = b.clone();
+        int[] ids = node.leaf ? node.ids.clone() : null;
+        Node[] children = node.leaf ? null : node.children.clone();
+        Node sibling = new Node(node.leaf, maxEntries);
+        node.count = 0;
+        for (int i = 0; i < total; i++) {
+            int entry = bestOrder[i];
+            Node target = i < bestSplit ? node : sibling;
+            System.arraycopy(boxes, entry * 4, target.boxes, target.count * 4, 4);
+            if (node.leaf) {
+                target.ids[target.count] = ids[entry];
+            } else {
+                target.children[target.count] = children[entry];
+            }
+            target.count++;
+        }
+        if (!node.leaf) {
+            Arrays.fill(node.children, node.count, total, null);
+        }
+        return sibling;
+    }
+
+    /**
+     * 按 boxes 中第 coordinate 个坐标（0 minX、1 minY、2 maxX、3 maxY）对条目做插入排序，条目数很少
+     */
+    private static int[] sortEntries(double[] boxes, int count, int coordinate) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            int entry = i;
+            double key = boxes[entry * 4 + coordinate];
+            int j = i - 1;
+            while (j >= 0 && boxes[order[j] * 4 + coordinate] > key) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = entry;
+        }
+        return order;
+    }
+
+    /**
+     * 前缀（或后缀）MBR：结果第 i 项是 order[0..i]（或 order[i..]）的 MBR
+     */
+    private static double[] prefixMbrs(double[] boxes, int[] order, boolean reverse) {
+        int count = order.length;
+        double[] mbrs = new double[count * 4];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int step = 0; step < count; step++) {
+            int i = reverse ? count - 1 - step : step;
+            int p = order[i] * 4;
+            minX = Math.min(minX, boxes[p]);
+            minY = Math.min(minY, boxes[p + 1]);
+            maxX = Math.max(maxX, boxes[p + 2]);
+            maxY = Math.max(maxY, boxes[p + 3]);
+            mbrs[i * 4] = minX;
+            mbrs[i * 4 + 1] = minY;
+            mbrs[i * 4 + 2] = maxX;
+            mbrs[i * 4 + 3] = maxY;
+        }
+        return mbrs;
+    }
+
+    private static double margin(double[] mbrs, int i) {
+        int p = i * 4;
+        return (mbrs[p + 2] - mbrs[p]) + (mbrs[p + 3] - mbrs[p + 1]);
+    }
+
+    private static double area(double minX, double minY, double maxX, double maxY) {
+        return (maxX - minX) * (maxY - minY);
+    }
+
+    private static double overlap(double aMinX, double aMinY, double aMaxX, double aMaxY,
+                                  double bMinX, double bMinY, double bMaxX, double bMaxY) {
+        double w = Math.min(aMaxX, bMaxX) - Math.max(aMinX, bMinX);
+        double h = Math.min(aMaxY, bMaxY) - Math.max(aMinY, bMinY);
+        return w > 0 && h > 0 ? w * h : 0;
+    }
+
+    private static double distanceSq(double x, double y, double minX, double minY, double maxX, double maxY) {
+        double dx = x < minX ? minX - x : (x > maxX ? x - maxX : 0);
+        double dy = y < minY ? minY - y : (y > maxY ? y - maxY : 0);
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * 节点：多预留一个条目位置，溢出后再分裂
+     */
+    private static final class Node {
+
+        final boolean leaf;
+
+        final double[] boxes;
+
+        final int[] ids;
+
+        final Node[] children;
+
+        int count;
+
+        Node(boolean leaf, int maxEntries) {
+            this.leaf = leaf;
+            this.boxes = new double[(maxEntries + 1) * 4];
+            this.ids = leaf ? new int[maxEntries + 1] : null;
+            this.children = leaf ? null : new Node[maxEntries + 1];
+        }
+
+        void addEntry(double minX, double minY, double maxX, double maxY, int id) {
+            int p = count * 4;
+            boxes[p] = minX;
+            boxes[p + 1] = minY;
+            boxes[p + 2] = maxX;
+            boxes[p + 3] = maxY;
+            ids[count++] = id;
+        }
+
+        void addChild(Node child) {
+            child.mbr(boxes, count);
+            children[count++] = child;
+        }
+
+        void enlarge(int index, double minX, double minY, double maxX, double maxY) {
+            int p = index * 4;
+            boxes[p] = Math.min(boxes[p], minX);
+            boxes[p + 1] = Math.min(boxes[p + 1], minY);
+            boxes[p + 2] = Math.max(boxes[p + 2], maxX);
+            boxes[p + 3] = Math.max(boxes[p + 3], maxY);
+        }
+
+        /**
+         * 把本节点的 MBR 写到 target 的第 index 个条目位置
+         */
+        void mbr(double[] target, int index) {
+            double minX = Double.POSITIVE_INFINITY;
+            double minY = Double.POSITIVE_INFINITY;
+            double maxX = Double.NEGATIVE_INFINITY;
+            double maxY = Double.NEGATIVE_INFINITY;
+            for (int i = 0, p = 0; i < count; i++, p += 4) {
+                minX = Math.min(minX, boxes[p]);
+                minY = Math.min(minY, boxes[p + 1]);
+                maxX = Math.max(maxX, boxes[p + 2]);
+                maxY = Math.max(maxY, boxes[p + 3]);
+            }
+            int q = index * 4;
+            target[q] = minX;
+            target[q + 1] = minY;
+            target[q + 2] = maxX;
+            target[q + 3] = maxY;
+        }
+    }
+
+    /**
+     * k 近邻使用的二叉最小堆，距离、节点、数据 ID 分别存放在并行数组中
+     */
+    private static final class MinHeap {
+
+        private double[] keys;
+
+        private Node[] nodes;
+
+        private int[] ids;
+
+        private int size;
+
+        MinHeap(int capacity) {
+            keys = new double[capacity];
+            nodes = new Node[capacity];
+            ids = new int[capacity];
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        Node topNode() {
+            return nodes[0];
+        }
+
+        int topId() {
+            return ids[0];
+        }
+
+        void push(double key, Node node, int id) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nodes = Arrays.copyOf(nodes, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (keys[parent] <= key) {
+                    break;
+                }
+                move(parent, i);
+                i = parent;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            ids[i] = id;
+        }
+
+        void pop() {
+            int last = --size;
+            double key = keys[last];
+            Node node = nodes[last];
+            int id = ids[last];
+            nodes[last] = null;
+            if (last == 0) {
+                return;
+            }
+            int i = 0;
+            while (true) {
+                int child = i * 2 + 1;
+                if (child >= last) {
+                    break;
+                }
+                if (child + 1 < last && keys[child + 1] < keys[child]) {
+                    child++;
+                }
+                if (key <= keys[child]) {
+                    break;
+                }
+                move(child, i);
+                i = child;
+            }
+            keys[i] = key;
+            nodes[i] = node;
+            ids[i] = id;
+        }
+
+        private void move(int from, int to) {
+            keys[to] = keys[from];
+            nodes[to] = nodes[from];
+            ids[to] = ids[from];
+        }
+    }
+}
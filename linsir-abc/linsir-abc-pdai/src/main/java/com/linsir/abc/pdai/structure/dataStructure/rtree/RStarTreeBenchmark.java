@@ -0,0 +1,169 @@
+package com.linsir.abc.pdai.structure.dataStructure.rtree;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * R*-树批量加载与逐条插入的构建耗时、查询吞吐对比
+ *
+ * 运行：java -Xmx2g ... RStarTreeBenchmark [矩形数量，默认 1000000] [节点容量，默认 16]
+ *
+ * 说明：
+ * 1. 矩形左下角均匀分布在 100000 x 100000 的平面上，边长 0~10
+ * 2. 同一份数据分别用 STR 批量加载和 R* 逐条插入建树，比较构建耗时、树高和节点填充率
+ * 3. 查询吞吐：小窗口（100 x 100）、大窗口（1000 x 1000）各 10 万次，k=10 近邻查询 10 万次，预热一轮后计时
+ * 4. 随机抽取窗口查询和近邻查询与暴力扫描的结果比对
+ */
+public class RStarTreeBenchmark {
+
+    private static final double WORLD = 100_000;
+
+    private static final double MAX_SIDE = 10;
+
+    private static final int QUERIES = 100_000;
+
+    private static final int K = 10;
+
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxEntries = args.length > 1 ? Integer.parseInt(args[1]) : RStarTree.DEFAULT_MAX_ENTRIES;
+        System.out.println("矩形数量: " + n + "，节点容量: " + maxEntries);
+
+        Random random = new Random(42);
+        double[] boxes = new double[n * 4];
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) {
+            double x = random.nextDouble() * WORLD;
+            double y = random.nextDouble() * WORLD;
+            boxes[i * 4] = x;
+            boxes[i * 4 + 1] = y;
+            boxes[i * 4 + 2] = x + random.nextDouble() * MAX_SIDE;
+            boxes[i * 4 + 3] = y + random.nextDouble() * MAX_SIDE;
+            ids[i] = i;
+        }
+
+        long start = System.nanoTime();
+        RStarTree packed = RStarTree.bulkLoad(boxes, ids, maxEntries);
+        long bulkNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        RStarTree incremental = new RStarTree(maxEntries);
+        for (int i = 0; i < n; i++) {
+            incremental.insert(boxes[i * 4], boxes[i * 4 + 1], boxes[i * 4 + 2], boxes[i * 4 + 3], i);
+        }
+        long insertNanos = System.nanoTime() - start;
+
+        System.out.printf("STR 批量加载: %5d ms，树高 %d，填充率 %.0f%%%n",
+                bulkNanos / 1_000_000, packed.height(), packed.fillFactor() * 100);
+        System.out.printf("R* 逐条插入:  %5d ms，树高 %d，填充率 %.0f%%%n",
+                insertNanos / 1_000_000, incremental.height(), incremental.fillFactor() * 100);
+
+        verify(packed, boxes, 200);
+        verify(incremental, boxes, 200);
+
+        double[][] smallWindows = windows(QUERIES, 100, 7);
+        double[][] largeWindows = windows(QUERIES, 1000, 8);
+        double[][] points = windows(QUERIES, 0, 9);
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            windowQueries("STR", packed, smallWindows, "100x100", print);
+            windowQueries("R*", incremental, smallWindows, "100x100", print);
+            windowQueries("STR", packed, largeWindows, "1000x1000", print);
+            windowQueries("R*", incremental, largeWindows, "1000x1000", print);
+            nearestQueries("STR", packed, points, print);
+            nearestQueries("R*", incremental, points, print);
+        }
+    }
+
+    private static void windowQueries(String name, RStarTree tree, double[][] windows, String size, boolean print) {
+        long results = 0;
+        long start = System.nanoTime();
+        for (double[] w : windows) {
+            results += tree.count(w[0], w[1], w[2], w[3]);
+        }
+        long nanos = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("窗口查询 %-9s %-3s: %8.0f 次/秒，平均 %.1f 个结果%n", size, name,
+                    windows.length / (nanos / 1e9), (double) results / windows.length);
+        }
+    }
+
+    private static void nearestQueries(String name, RStarTree tree, double[][] points, boolean print) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (double[] p : points) {
+            sink += tree.nearest(p[0], p[1], K)[0];
+        }
+        long nanos = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%d 近邻查询         %-3s: %8.0f 次/秒%n", K, name, points.length / (nanos / 1e9));
+        }
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+    }
+
+    /**
+     * 与暴力扫描比对窗口查询的结果集合，以及近邻查询的距离序列
+     */
+    private static void verify(RStarTree tree, double[] boxes, int samples) {
+        int n = boxes.length / 4;
+        double[][] windows = windows(samples, 500, 11);
+        for (double[] w : windows) {
+            int[] expected = new int[n];
+            int count = 0;
+            for (int i = 0; i < n; i++) {
+                int p = i * 4;
+                if (boxes[p] <= w[2] && boxes[p + 2] >= w[0] && boxes[p + 1] <= w[3] && boxes[p + 3] >= w[1]) {
+                    expected[count++] = i;
+                }
+            }
+            int[] actual = new int[count + 1];
+            int[] found = new int[1];
+            tree.search(w[0], w[1], w[2], w[3], id -> {
+                if (found[0] < actual.length) {
+                    actual[found[0]] = id;
+                }
+                found[0]++;
+            });
+            Arrays.sort(actual, 0, Math.min(found[0], actual.length));
+            if (found[0] != count || !Arrays.equals(expected, 0, count, actual, 0, count)) {
+                throw new IllegalStateException("窗口查询结果与暴力扫描不一致");
+            }
+
+            double x = w[0];
+            double y = w[1];
+            double[] distances = new double[n];
+            for (int i = 0; i < n; i++) {
+                int p = i * 4;
+                distances[i] = distanceSq(x, y, boxes, p);
+            }
+            Arrays.sort(distances);
+            int[] nearest = tree.nearest(x, y, K);
+            for (int i = 0; i < K; i++) {
+                if (distanceSq(x, y, boxes, nearest[i] * 4) != distances[i]) {
+                    throw new IllegalStateException("近邻查询结果与暴力扫描不一致");
+                }
+            }
+        }
+        System.out.println("校验通过: " + samples + " 次窗口查询和近邻查询与暴力扫描一致");
+    }
+
+    private static double distanceSq(double x, double y, double[] boxes, int p) {
+        double dx = Math.max(0, Math.max(boxes[p] - x, x - boxes[p + 2]));
+        double dy = Math.max(0, Math.max(boxes[p + 1] - y, y - boxes[p + 3]));
+        return dx * dx + dy * dy;
+    }
+
+    private static double[][] windows(int count, double side, long seed) {
+        Random random = new Random(seed);
+        double[][] windows = new double[count][];
+        for (int i = 0; i < count; i++) {
+            double x = random.nextDouble() * (WORLD - side);
+            double y = random.nextDouble() * (WORLD - side);
+            windows[i] = new double[]{x, y, x + side, y + side};
+        }
+        return windows;
+    }
+}
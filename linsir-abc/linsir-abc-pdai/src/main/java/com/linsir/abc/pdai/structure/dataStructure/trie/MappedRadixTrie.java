@@ -0,0 +1,346 @@
+package com.linsir.abc.pdai.structure.dataStructure.trie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 内存映射的只读压缩前缀树
+ *
+ * 说明：
+ * 1. 文件由 RadixTrie.writeTo 生成，open 只做 mmap 和文件头校验，不反序列化，启动耗时与词典大小无关
+ * 2. 查询直接在映射区上按偏移读取，节点不在堆上，GC 不需要扫描；页面按需由操作系统换入
+ * 3. 只使用绝对位置读取，不修改 buffer 的 position，多个线程可以并发查询
+ *
+ * 文件格式（小端）：
+ * <pre>
+ * header : magic(int) version(int) size(int) nodeCount(int) rootOffset(int) reserved(int)
+ * node   : flags(byte) labelLength(varint) childCount(varint) [value(int)，仅终止节点]
+ *          label(char * labelLength) firstChars(char * childCount) childOffsets(int * childCount)
+ * </pre>
+ * 子节点的首字符有序且连续存放，查找子节点时在 firstChars 上二分，不需要读取子节点本身。
+ */
+public class MappedRadixTrie {
+
+    static final int MAGIC = 0x52445854;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 24;
+
+    private static final int FLAG_TERMINAL = 1;
+
+    private final MappedByteBuffer buffer;
+
+    private final int size;
+
+    private final int nodeCount;
+
+    private final int rootOffset;
+
+    private MappedRadixTrie(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("不是 RadixTrie 文件");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("不支持的文件版本: " + buffer.getInt(4));
+        }
+        this.size = buffer.getInt(8);
+        this.nodeCount = buffer.getInt(12);
+        this.rootOffset = buffer.getInt(16);
+    }
+
+    public static MappedRadixTrie open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            // 映射建立后关闭通道不影响映射区
+            return new MappedRadixTrie(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public long fileSize() {
+        return buffer.capacity();
+    }
+
+    public boolean contains(String key) {
+        NodeView node = find(key);
+        return node != null && node.terminal;
+    }
+
+    public int get(String key, int defaultValue) {
+        NodeView node = find(key);
+        return node != null && node.terminal ? node.value : defaultValue;
+    }
+
+    public Iterator<String> prefixIterator(String prefix) {
+        NodeView node = new NodeView();
+        node.read(buffer, rootOffset);
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        int i = 0;
+        while (i < prefix.length()) {
+            int childOffset = node.child(buffer, prefix.charAt(i));
+            if (childOffset < 0) {
+                return new PrefixIterator(null, path);
+            }
+            node.read(buffer, childOffset);
+            int common = node.commonPrefix(buffer, prefix, i);
+            if (common < node.labelLength && i + common < prefix.length()) {
+                return new PrefixIterator(null, path);
+            }
+            node.appendLabel(buffer, path);
+            i += common;
+        }
+        return new PrefixIterator(node, path);
+    }
+
+    public List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        Iterator<String> it = prefixIterator(prefix);
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    private NodeView find(String key) {
+        NodeView node = new NodeView();
+        node.read(buffer, rootOffset);
+        int i = 0;
+        while (i < key.length()) {
+            int childOffset = node.child(buffer, key.charAt(i));
+            if (childOffset < 0) {
+                return null;
+            }
+            node.read(buffer, childOffset);
+            if (key.length() - i < node.labelLength || node.commonPrefix(buffer, key, i) != node.labelLength) {
+                return null;
+            }
+            i += node.labelLength;
+        }
+        return node;
+    }
+
+    static int nodeSize(int labelLength, int childCount, boolean terminal) {
+        return 1 + varIntSize(labelLength) + varIntSize(childCount) + (terminal ? 4 : 0)
+                + labelLength * 2 + childCount * 6;
+    }
+
+    static void writeHeader(ByteBuffer out, int size, int nodeCount) {
+        out.putInt(MAGIC).putInt(VERSION).putInt(size).putInt(nodeCount).putInt(HEADER_SIZE).putInt(0);
+    }
+
+    static void writeNode(ByteBuffer out, boolean terminal, int value, char[] label, char[] firstChars, int[] childOffsets) {
+        out.put((byte) (terminal ? FLAG_TERMINAL : 0));
+        putVarInt(out, label.length);
+        putVarInt(out, firstChars.length);
+        if (terminal) {
+            out.putInt(value);
+        }
+        for (char c : label) {
+            out.putChar(c);
+        }
+        for (char c : firstChars) {
+            out.putChar(c);
+        }
+        for (int offset : childOffsets) {
+            out.putInt(offset);
+        }
+    }
+
+    private static int varIntSize(int value) {
+        int bytes = 1;
+        while ((value >>>= 7) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    /**
+     * 解析后的节点头，记录各字段在映射区中的位置；可复用以避免每层分配对象
+     */
+    private static final class NodeView {
+
+        boolean terminal;
+
+        int value;
+
+        int labelLength;
+
+        int labelPos;
+
+        int childCount;
+
+        int firstCharPos;
+
+        int childOffsetPos;
+
+        void read(ByteBuffer buffer, int offset) {
+            int pos = offset;
+            terminal = (buffer.get(pos++) & FLAG_TERMINAL) != 0;
+            int result = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(pos++);
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            labelLength = result;
+            result = 0;
+            shift = 0;
+            do {
+                b = buffer.get(pos++);
+                result |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            childCount = result;
+            if (terminal) {
+                value = buffer.getInt(pos);
+                pos += 4;
+            } else {
+                value = 0;
+            }
+            labelPos = pos;
+            firstCharPos = labelPos + labelLength * 2;
+            childOffsetPos = firstCharPos + childCount * 2;
+        }
+
+        /**
+         * 返回首字符为 c 的子节点偏移，不存在时返回 -1
+         */
+        int child(ByteBuffer buffer, char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = buffer.getChar(firstCharPos + mid * 2);
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return buffer.getInt(childOffsetPos + mid * 4);
+                }
+            }
+            return -1;
+        }
+
+        int commonPrefix(ByteBuffer buffer, String key, int from) {
+            int max = Math.min(labelLength, key.length() - from);
+            int i = 0;
+            while (i < max && buffer.getChar(labelPos + i * 2) == key.charAt(from + i)) {
+                i++;
+            }
+            return i;
+        }
+
+        void appendLabel(ByteBuffer buffer, StringBuilder path) {
+            for (int i = 0; i < labelLength; i++) {
+                path.append(buffer.getChar(labelPos + i * 2));
+            }
+        }
+    }
+
+    /**
+     * 与 RadixTrie 中的迭代器相同的深度优先遍历，栈帧只保存整数，避免为每个节点创建对象
+     */
+    private final class PrefixIterator implements Iterator<String> {
+
+        // 每帧：子节点偏移表位置、子节点数、下一个子节点下标、路径长度
+        private int[] frames = new int[64];
+
+        private int depth;
+
+        private final StringBuilder path;
+
+        private final NodeView view = new NodeView();
+
+        private String next;
+
+        PrefixIterator(NodeView start, StringBuilder path) {
+            this.path = path;
+            if (start != null) {
+                push(start);
+                if (start.terminal) {
+                    next = path.toString();
+                    return;
+                }
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String current = next;
+            advance();
+            return current;
+        }
+
+        private void push(NodeView node) {
+            if ((depth + 1) * 4 > frames.length) {
+                frames = Arrays.copyOf(frames, frames.length * 2);
+            }
+            int base = depth * 4;
+            frames[base] = node.childOffsetPos;
+            frames[base + 1] = node.childCount;
+            frames[base + 2] = 0;
+            frames[base + 3] = path.length();
+            depth++;
+        }
+
+        private void advance() {
+            while (depth > 0) {
+                int base = (depth - 1) * 4;
+                if (frames[base + 2] == frames[base + 1]) {
+                    depth--;
+                    continue;
+                }
+                int childOffset = buffer.getInt(frames[base] + frames[base + 2] * 4);
+                frames[base + 2]++;
+                view.read(buffer, childOffset);
+                path.setLength(frames[base + 3]);
+                view.appendLabel(buffer, path);
+                push(view);
+                if (view.terminal) {
+                    next = path.toString();
+                    return;
+                }
+            }
+            next = null;
+        }
+    }
+}
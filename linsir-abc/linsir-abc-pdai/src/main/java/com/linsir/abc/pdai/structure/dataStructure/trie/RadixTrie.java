@@ -0,0 +1,397 @@
+package com.linsir.abc.pdai.structure.dataStructure.trie;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 压缩前缀树（Radix / Patricia Trie）
+ *
+ * 说明：
+ * 1. 与 TrieTreeDemo 每个节点一个字符、固定 26 个子节点数组不同，这里每条边是一段字符串，只有一个子节点的链被压缩成一条边
+ * 2. 键按 UTF-16 码元处理，任意 Unicode 字符串（包括代理对）都可以作为键；代理对被拆在两条边上也不影响拼接结果
+ * 3. 子节点按边的首字符有序存放在数组里，查找子节点用二分查找，遍历顺序就是字典序（按码元比较，与 String.compareTo 一致）
+ * 4. 前缀匹配返回惰性迭代器，取多少算多少，不会先把所有结果放进 List
+ * 5. writeTo 序列化为紧凑的只读格式，由 MappedRadixTrie 通过内存映射直接查询，启动时不需要重建树
+ * 6. 每个键可以带一个 int 值（例如词频），非线程安全
+ */
+public class RadixTrie {
+
+    private static final char[] EMPTY = new char[0];
+
+    private final Node root = new Node(EMPTY);
+
+    private int size;
+
+    private int nodeCount = 1;
+
+
+    public int size() {
+        return size;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public boolean add(String key) {
+        return put(key, 0);
+    }
+
+    /**
+     * 插入或覆盖键的值
+     *
+     * @return 键之前不存在时返回 true
+     */
+    public boolean put(String key, int value) {
+        Node node = root;
+        int i = 0;
+        int length = key.length();
+        while (true) {
+            if (i == length) {
+                boolean added = !node.terminal;
+                if (added) {
+                    node.terminal = true;
+                    size++;
+                }
+                node.value = value;
+                return added;
+            }
+            int index = node.find(key.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(key.substring(i).toCharArray());
+                leaf.terminal = true;
+                leaf.value = value;
+                node.insertChild(-index - 1, leaf);
+                nodeCount++;
+                size++;
+                return true;
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length) {
+                // 在公共前缀处拆分边
+                Node middle = new Node(Arrays.copyOf(child.label, common));
+                child.label = Arrays.copyOfRange(child.label, common, child.label.length);
+                middle.insertChild(0, child);
+                node.children[index] = middle;
+                nodeCount++;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+    }
+
+    public boolean contains(String key) {
+        Node node = find(key);
+        return node != null && node.terminal;
+    }
+
+    public int get(String key, int defaultValue) {
+        Node node = find(key);
+        return node != null && node.terminal ? node.value : defaultValue;
+    }
+
+    /**
+     * 删除键，并把删除后只剩一个子节点的非终止节点与子节点合并，保持压缩
+     */
+    public boolean remove(String key) {
+        Node parent = null;
+        int parentIndex = -1;
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.find(key.charAt(i));
+            if (index < 0) {
+                return false;
+            }
+            Node child = node.children[index];
+            if (!regionMatches(child.label, key, i)) {
+                return false;
+            }
+            parent = node;
+            parentIndex = index;
+            node = child;
+            i += child.label.length;
+        }
+        if (!node.terminal) {
+            return false;
+        }
+        node.terminal = false;
+        node.value = 0;
+        size--;
+        if (node == root) {
+            return true;
+        }
+        if (node.childCount == 0) {
+            parent.removeChild(parentIndex);
+            nodeCount--;
+            if (parent != root && !parent.terminal && parent.childCount == 1) {
+                parent.mergeWithOnlyChild();
+                nodeCount--;
+            }
+        } else if (node.childCount == 1) {
+            node.mergeWithOnlyChild();
+            nodeCount--;
+        }
+        return true;
+    }
+
+    /**
+     * 按字典序惰性遍历以 prefix 开头的键
+     */
+    public Iterator<String> prefixIterator(String prefix) {
+        Node node = root;
+        StringBuilder path = new StringBuilder(prefix.length() + 16);
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.find(prefix.charAt(i));
+            if (index < 0) {
+                return new PrefixIterator(null, path);
+            }
+            Node child = node.children[index];
+            int common = commonPrefix(child.label, prefix, i);
+            if (common < child.label.length && i + common < prefix.length()) {
+                // prefix 在边的中间与边分叉
+                return new PrefixIterator(null, path);
+            }
+            path.append(child.label);
+            node = child;
+            i += common;
+        }
+        return new PrefixIterator(node, path);
+    }
+
+    /**
+     * 自动补全：最多返回 limit 个以 prefix 开头的键
+     */
+    public List<String> complete(String prefix, int limit) {
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        Iterator<String> it = prefixIterator(prefix);
+        while (result.size() < limit && it.hasNext()) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    /**
+     * 序列化为 MappedRadixTrie 的文件格式
+     */
+    public void writeTo(Path path) throws IOException {
+        // 按层序给节点分配偏移，上层节点集中在文件头部，查询时的页访问更集中；同一节点的子节点在层序中连续
+        List<Node> order = new ArrayList<>(nodeCount);
+        int[] firstChild = new int[nodeCount];
+        order.add(root);
+        for (int i = 0; i < order.size(); i++) {
+            Node node = order.get(i);
+            firstChild[i] = order.size();
+            for (int c = 0; c < node.childCount; c++) {
+                order.add(node.children[c]);
+            }
+        }
+        int[] offsets = new int[order.size()];
+        long total = MappedRadixTrie.HEADER_SIZE;
+        for (int i = 0; i < order.size(); i++) {
+            Node node = order.get(i);
+            offsets[i] = (int) total;
+            total += MappedRadixTrie.nodeSize(node.label.length, node.childCount, node.terminal);
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalStateException("序列化结果超过 2GB");
+            }
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) total).order(ByteOrder.LITTLE_ENDIAN);
+        MappedRadixTrie.writeHeader(buffer, size, nodeCount);
+        for (int i = 0; i < order.size(); i++) {
+            Node node = order.get(i);
+            int[] childOffsets = new int[node.childCount];
+            char[] firstChars = new char[node.childCount];
+            for (int c = 0; c < node.childCount; c++) {
+                childOffsets[c] = offsets[firstChild[i] + c];
+                firstChars[c] = node.children[c].label[0];
+            }
+            MappedRadixTrie.writeNode(buffer, node.terminal, node.value, node.label, firstChars, childOffsets);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private Node find(String key) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int index = node.find(key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            if (!regionMatches(child.label, key, i)) {
+                return null;
+            }
+            node = child;
+            i += child.label.length;
+        }
+        return node;
+    }
+
+    private static int commonPrefix(char[] label, String key, int from) {
+        int max = Math.min(label.length, key.length() - from);
+        int i = 0;
+        while (i < max && label[i] == key.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean regionMatches(char[] label, String key, int from) {
+        return key.length() - from >= label.length && commonPrefix(label, key, from) == label.length;
+    }
+
+    private static final class Node {
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        char[] label;
+
+        boolean terminal;
+
+        int value;
+
+        Node[] children = NO_CHILDREN;
+
+        int childCount;
+
+        Node(char[] label) {
+            this.label = label;
+        }
+
+        int find(char c) {
+            int low = 0;
+            int high = childCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].label[0];
+                if (midChar < c) {
+                    low = mid + 1;
+                } else if (midChar > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void insertChild(int index, Node child) {
+            if (childCount == children.length) {
+                children = Arrays.copyOf(children, Math.max(2, childCount * 2));
+            }
+            System.arraycopy(children, index, children, index + 1, childCount - index);
+            children[index] = child;
+            childCount++;
+        }
+
+        void removeChild(int index) {
+            System.arraycopy(children, index + 1, children, index, childCount - index - 1);
+            children[--childCount] = null;
+        }
+
+        /**
+         * 非终止节点只剩一个子节点时，把子节点的边拼到自己的边上
+         */
+        void mergeWithOnlyChild() {
+            Node child = children[0];
+            char[] merged = Arrays.copyOf(label, label.length + child.label.length);
+            System.arraycopy(child.label, 0, merged, label.length, child.label.length);
+            label = merged;
+            terminal = child.terminal;
+            value = child.value;
+            children = child.children;
+            childCount = child.childCount;
+        }
+    }
+
+    /**
+     * 深度优先的惰性前缀迭代器，栈中每一帧记录节点、下一个要访问的子节点和该节点路径的长度
+     */
+    private static final class PrefixIterator implements Iterator<String> {
+
+        private final ArrayDeque<Frame> stack = new ArrayDeque<>();
+
+        private final StringBuilder path;
+
+        private String next;
+
+        PrefixIterator(Node start, StringBuilder path) {
+            this.path = path;
+            if (start != null) {
+                stack.push(new Frame(start, path.length()));
+                if (start.terminal) {
+                    next = path.toString();
+                    return;
+                }
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public String next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            String current = next;
+            advance();
+            return current;
+        }
+
+        private void advance() {
+            while (!stack.isEmpty()) {
+                Frame frame = stack.peek();
+                if (frame.nextChild == frame.node.childCount) {
+                    stack.pop();
+                    continue;
+                }
+                Node child = frame.node.children[frame.nextChild++];
+                path.setLength(frame.pathLength);
+                path.append(child.label);
+                stack.push(new Frame(child, path.length()));
+                if (child.terminal) {
+                    next = path.toString();
+                    return;
+                }
+            }
+            next = null;
+        }
+
+        private static final class Frame {
+            final Node node;
+            final int pathLength;
+            int nextChild;
+
+            Frame(Node node, int pathLength) {
+                this.node = node;
+                this.pathLength = pathLength;
+            }
+        }
+    }
+}
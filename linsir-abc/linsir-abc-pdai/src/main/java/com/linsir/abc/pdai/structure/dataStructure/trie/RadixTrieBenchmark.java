@@ -0,0 +1,240 @@
+package com.linsir.abc.pdai.structure.dataStructure.trie;
+
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 压缩前缀树的内存占用与自动补全延迟
+ *
+ * 运行：java -Xmx4g ... RadixTrieBenchmark [单词数量，默认 1000000]
+ *
+ * 说明：
+ * 1. 词典为合成数据：英文音节词、中文词、带重音符号和表情（代理对）的词混合，共享前缀的比例接近真实词表
+ * 2. 内存对比 TreeSet&lt;String&gt;（计入字符串本身）、RadixTrie 堆内占用、MappedRadixTrie 的文件大小与堆内占用
+ * 3. 启动耗时对比：从单词列表重建 RadixTrie 与 mmap 打开序列化文件
+ * 4. 自动补全：从随机单词取 1~4 个字符作为前缀，每次取前 10 个补全结果，统计 p50/p99 延迟
+ * 5. 三种实现的补全结果逐条比对，保证顺序一致
+ */
+public class RadixTrieBenchmark {
+
+    private static final int QUERIES = 200_000;
+
+    private static final int LIMIT = 10;
+
+    private static final String[] SYLLABLES = {
+            "a", "ba", "be", "ca", "co", "de", "di", "er", "fa", "ge", "ha", "in", "ka", "la", "le", "li", "ma",
+            "me", "mi", "na", "ne", "no", "or", "pa", "pe", "ra", "re", "ri", "ro", "sa", "se", "si", "ta", "te",
+            "ti", "to", "un", "va", "ve", "za", "tion", "ing", "ment", "ness", "able", "pre", "con", "str"
+    };
+
+    private static final String[] DECORATED = {"é", "ü", "ñ", "ø", "ß", "😀", "🚀", "𝄞"};
+
+
+    public static void main(String[] args) throws Exception {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] words = dictionary(n, 42);
+        System.out.println("单词数量: " + n + "，平均长度: "
+                + String.format("%.1f", Arrays.stream(words).mapToInt(String::length).average().orElse(0)) + " 个 UTF-16 码元");
+
+        Path file = Files.createTempFile("radix-trie", ".bin");
+        try {
+            run(words, file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void run(String[] words, Path file) throws Exception {
+        long before = usedHeap();
+        NavigableSet<String> treeSet = new TreeSet<>();
+        for (String word : words) {
+            // 复制字符串，让 TreeSet 的占用包含字符串本身
+            treeSet.add(new String(word));
+        }
+        long treeSetBytes = usedHeap() - before;
+
+        before = usedHeap();
+        long start = System.nanoTime();
+        RadixTrie trie = new RadixTrie();
+        for (int i = 0; i < words.length; i++) {
+            trie.put(words[i], i);
+        }
+        long buildNanos = System.nanoTime() - start;
+        long trieBytes = usedHeap() - before;
+
+        start = System.nanoTime();
+        trie.writeTo(file);
+        long writeNanos = System.nanoTime() - start;
+
+        before = usedHeap();
+        start = System.nanoTime();
+        MappedRadixTrie mapped = MappedRadixTrie.open(file);
+        long openNanos = System.nanoTime() - start;
+        long mappedBytes = usedHeap() - before;
+
+        System.out.println("内存占用:");
+        System.out.printf("  %-22s %8.1f MB  %6.1f 字节/单词%n", "TreeSet<String>", mb(treeSetBytes), (double) treeSetBytes / words.length);
+        System.out.printf("  %-22s %8.1f MB  %6.1f 字节/单词，节点 %d%n", "RadixTrie（堆内）", mb(trieBytes),
+                (double) trieBytes / words.length, trie.nodeCount());
+        System.out.printf("  %-22s %8.1f MB  %6.1f 字节/单词，堆内 %d KB%n", "MappedRadixTrie（文件）", mb(mapped.fileSize()),
+                (double) mapped.fileSize() / words.length, Math.max(0, mappedBytes) >> 10);
+        System.out.printf("启动: 重建 RadixTrie %d ms，序列化 %d ms，mmap 打开 %.3f ms%n",
+                buildNanos / 1_000_000, writeNanos / 1_000_000, openNanos / 1e6);
+
+        String[] prefixes = prefixes(words, QUERIES, 7);
+        verify(treeSet, trie, mapped, prefixes);
+
+        // 预热一轮再计时
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            report("TreeSet.tailSet", print, latencies(prefixes, p -> completeTreeSet(treeSet, p, LIMIT).size()));
+            report("RadixTrie", print, latencies(prefixes, p -> trie.complete(p, LIMIT).size()));
+            report("MappedRadixTrie", print, latencies(prefixes, p -> mapped.complete(p, LIMIT).size()));
+        }
+
+        for (int round = 0; round < 2; round++) {
+            int hits = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < QUERIES; i++) {
+                if (mapped.contains(words[(int) ((i * 7919L) % words.length)])) {
+                    hits++;
+                }
+            }
+            if (round == 1) {
+                System.out.printf("MappedRadixTrie 精确查找: %.1f ns/op（命中 %d）%n",
+                        (System.nanoTime() - start) / (double) QUERIES, hits);
+            }
+        }
+        Reference.reachabilityFence(treeSet);
+        Reference.reachabilityFence(trie);
+    }
+
+    private static void verify(NavigableSet<String> treeSet, RadixTrie trie, MappedRadixTrie mapped, String[] prefixes) {
+        for (int i = 0; i < 10_000; i++) {
+            String prefix = prefixes[i];
+            List<String> expected = completeTreeSet(treeSet, prefix, LIMIT);
+            if (!expected.equals(trie.complete(prefix, LIMIT)) || !expected.equals(mapped.complete(prefix, LIMIT))) {
+                throw new IllegalStateException("补全结果不一致: " + prefix);
+            }
+        }
+        if (trie.size() != treeSet.size() || mapped.size() != treeSet.size()) {
+            throw new IllegalStateException("单词数量不一致");
+        }
+        System.out.println("校验通过: 10000 个前缀的补全结果一致");
+    }
+
+    private static List<String> completeTreeSet(NavigableSet<String> set, String prefix, int limit) {
+        List<String> result = new ArrayList<>(limit);
+        Iterator<String> it = set.tailSet(prefix, true).iterator();
+        while (result.size() < limit && it.hasNext()) {
+            String word = it.next();
+            if (!word.startsWith(prefix)) {
+                break;
+            }
+            result.add(word);
+        }
+        return result;
+    }
+
+    private static long[] latencies(String[] prefixes, Query query) {
+        long[] nanos = new long[prefixes.length];
+        long sink = 0;
+        for (int i = 0; i < prefixes.length; i++) {
+            long start = System.nanoTime();
+            sink += query.run(prefixes[i]);
+            nanos[i] = System.nanoTime() - start;
+        }
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        return nanos;
+    }
+
+    private static void report(String name, boolean print, long[] nanos) {
+        if (!print) {
+            return;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("自动补全 %-16s p50 %6.2f us，p99 %7.2f us，平均 %6.2f us%n", name,
+                nanos[nanos.length / 2] / 1000.0, nanos[(int) (nanos.length * 0.99)] / 1000.0,
+                Arrays.stream(nanos).average().orElse(0) / 1000.0);
+    }
+
+    /**
+     * 合成词典：70% 英文音节词、20% 中文词、10% 带重音符号或表情的词
+     */
+    static String[] dictionary(int n, long seed) {
+        Random random = new Random(seed);
+        Set<String> words = new HashSet<>(n * 2);
+        StringBuilder sb = new StringBuilder();
+        while (words.size() < n) {
+            sb.setLength(0);
+            int kind = random.nextInt(10);
+            if (kind < 7) {
+                int syllables = 2 + random.nextInt(4);
+                for (int i = 0; i < syllables; i++) {
+                    // 平方分布让常见音节更集中，形成共享前缀
+                    int index = (int) (Math.pow(random.nextDouble(), 2) * SYLLABLES.length);
+                    sb.append(SYLLABLES[index]);
+                }
+            } else if (kind < 9) {
+                int chars = 2 + random.nextInt(3);
+                for (int i = 0; i < chars; i++) {
+                    sb.append((char) (0x4E00 + (int) (Math.pow(random.nextDouble(), 2) * 3000)));
+                }
+            } else {
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                sb.append(DECORATED[random.nextInt(DECORATED.length)]);
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            words.add(sb.toString());
+        }
+        String[] result = words.toArray(new String[0]);
+        // HashSet 的迭代顺序与插入顺序无关，再打乱一次保证可重复
+        Arrays.sort(result);
+        for (int i = result.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String tmp = result[i];
+            result[i] = result[j];
+            result[j] = tmp;
+        }
+        return result;
+    }
+
+    private static String[] prefixes(String[] words, int count, long seed) {
+        Random random = new Random(seed);
+        String[] prefixes = new String[count];
+        for (int i = 0; i < count; i++) {
+            String word = words[random.nextInt(words.length)];
+            prefixes[i] = word.substring(0, Math.min(word.length(), 1 + random.nextInt(4)));
+        }
+        return prefixes;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static double mb(long bytes) {
+        return bytes / 1024.0 / 1024.0;
+    }
+
+    private interface Query {
+        int run(String prefix);
+    }
+}
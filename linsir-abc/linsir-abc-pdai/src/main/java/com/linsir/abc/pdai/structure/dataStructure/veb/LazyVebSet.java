@@ -0,0 +1,441 @@
+package com.linsir.abc.pdai.structure.dataStructure.veb;
+
+/**
+ * 按需分配的 van Emde Boas 集合
+ *
+ * 说明：
+ * 1. VLTreeDemo 中的 VEBNode 在构造时递归创建全部子集群，内存为 O(U)；这里子集群只在插入时创建，存放在每个节点自己的
+ *    开放寻址哈希表中，删空后立即释放，内存与元素个数相关而不是与值域相关，值域可以到 2^63
+ * 2. 值域 ≤ 64 的底层节点直接用一个 long 位图表示，最小值、最大值、前驱、后继都是一两条位运算，递归在 6 位处终止
+ * 3. 与教科书实现一致，每个节点的最小值不下放到子集群，因此向空集群插入、从单元素集群删除都是 O(1)，
+ *    插入、删除、前驱、后继均为 O(log log U)（哈希表查找按期望 O(1) 计）
+ * 4. 键为 [0, 2^bits) 内的 long，不存在时返回 -1；非线程安全
+ */
+public class LazyVebSet {
+
+    public static final long NONE = -1;
+
+    /**
+     * 位图节点能覆盖的最大位数
+     */
+    private static final int LEAF_BITS = 6;
+
+    private final int bits;
+
+    private final Node root;
+
+    private int size;
+
+
+    public LazyVebSet(int bits) {
+        if (bits < 1 || bits > 63) {
+            throw new IllegalArgumentException("bits 取值范围为 1~63: " + bits);
+        }
+        this.bits = bits;
+        this.root = Node.create(bits);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean add(long x) {
+        checkRange(x);
+        if (root.contains(x)) {
+            return false;
+        }
+        root.insert(x);
+        size++;
+        return true;
+    }
+
+    public boolean remove(long x) {
+        checkRange(x);
+        if (!root.contains(x)) {
+            return false;
+        }
+        root.delete(x);
+        size--;
+        return true;
+    }
+
+    public boolean contains(long x) {
+        return inRange(x) && root.contains(x);
+    }
+
+    public long min() {
+        return root.min();
+    }
+
+    public long max() {
+        return root.max();
+    }
+
+    /**
+     * 大于 x 的最小元素
+     */
+    public long successor(long x) {
+        if (x < 0) {
+            return root.min();
+        }
+        return inRange(x) ? root.successor(x) : NONE;
+    }
+
+    /**
+     * 小于 x 的最大元素
+     */
+    public long predecessor(long x) {
+        if (x > maxKey()) {
+            return root.max();
+        }
+        return x > 0 ? root.predecessor(x) : NONE;
+    }
+
+    private long maxKey() {
+        return (1L << bits) - 1;
+    }
+
+    private boolean inRange(long x) {
+        return x >= 0 && x <= maxKey();
+    }
+
+    private void checkRange(long x) {
+        if (!inRange(x)) {
+            throw new IllegalArgumentException("x 超出值域 [0, 2^" + bits + "): " + x);
+        }
+    }
+
+    private abstract static class Node {
+
+        static Node create(int bits) {
+            return bits <= LEAF_BITS ? new Leaf() : new Branch(bits);
+        }
+
+        abstract boolean isEmpty();
+
+        abstract long min();
+
+        abstract long max();
+
+        abstract boolean contains(long x);
+
+        /**
+         * 调用方保证 x 不在集合中
+         */
+        abstract void insert(long x);
+
+        /**
+         * 调用方保证 x 在集合中
+         */
+        abstract void delete(long x);
+
+        abstract long successor(long x);
+
+        abstract long predecessor(long x);
+    }
+
+    /**
+     * 值域 ≤ 64 的位图节点
+     */
+    private static final class Leaf extends Node {
+
+        long bitmap;
+
+        @Override
+        boolean isEmpty() {
+            return bitmap == 0;
+        }
+
+        @Override
+        long min() {
+            return bitmap == 0 ? NONE : Long.numberOfTrailingZeros(bitmap);
+        }
+
+        @Override
+        long max() {
+            return bitmap == 0 ? NONE : 63 - Long.numberOfLeadingZeros(bitmap);
+        }
+
+        @Override
+        boolean contains(long x) {
+            return (bitmap & (1L << x)) != 0;
+        }
+
+        @Override
+        void insert(long x) {
+            bitmap |= 1L << x;
+        }
+
+        @Override
+        void delete(long x) {
+            bitmap &= ~(1L << x);
+        }
+
+        @Override
+        long successor(long x) {
+            // -2L << x 是高于第 x 位的所有位，x = 63 时为 0
+            long higher = bitmap & (-2L << x);
+            return higher == 0 ? NONE : Long.numberOfTrailingZeros(higher);
+        }
+
+        @Override
+        long predecessor(long x) {
+            long lower = bitmap & ((1L << x) - 1);
+            return lower == 0 ? NONE : 63 - Long.numberOfLeadingZeros(lower);
+        }
+    }
+
+    /**
+     * 值域 2^bits 的递归节点：高 bits - lowBits 位选择子集群，低 lowBits 位是子集群内的键；summary 记录非空子集群的编号
+     */
+    private static final class Branch extends Node {
+
+        private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+        // 只存位数，lowBits、lowMask 现算，单元素的子集群很多，节点越小越省内存
+        final byte bits;
+
+        long min = NONE;
+
+        long max = NONE;
+
+        Node summary;
+
+        // 子集群哈希表：线性探测，values 为 null 表示空槽
+        long[] keys;
+
+        Node[] clusters;
+
+        int clusterCount;
+
+        Branch(int bits) {
+            this.bits = (byte) bits;
+        }
+
+        private int lowBits() {
+            return bits >>> 1;
+        }
+
+        private long lowMask() {
+            return (1L << (bits >>> 1)) - 1;
+        }
+
+        @Override
+        boolean isEmpty() {
+            return min == NONE;
+        }
+
+        @Override
+        long min() {
+            return min;
+        }
+
+        @Override
+        long max() {
+            return max;
+        }
+
+        @Override
+        boolean contains(long x) {
+            if (x == min || x == max) {
+                return true;
+            }
+            if (min == NONE) {
+                return false;
+            }
+            Node cluster = find(x >>> lowBits());
+            return cluster != null && cluster.contains(x & lowMask());
+        }
+
+        @Override
+        void insert(long x) {
+            if (min == NONE) {
+                min = max = x;
+                return;
+            }
+            if (x < min) {
+                long tmp = min;
+                min = x;
+                x = tmp;
+            }
+            if (x > max) {
+                max = x;
+            }
+            int lowBits = lowBits();
+            long high = x >>> lowBits;
+            Node cluster = find(high);
+            if (cluster == null) {
+                cluster = Node.create(lowBits);
+                put(high, cluster);
+                if (summary == null) {
+                    summary = Node.create(bits - lowBits);
+                }
+                summary.insert(high);
+            }
+            cluster.insert(x & lowMask());
+        }
+
+        @Override
+        void delete(long x) {
+            if (min == max) {
+                min = max = NONE;
+                return;
+            }
+            int lowBits = lowBits();
+            if (x == min) {
+                // 把第一个子集群的最小值提上来作为新的 min，再从子集群中删除它
+                long firstHigh = summary.min();
+                x = (firstHigh << lowBits) | find(firstHigh).min();
+                min = x;
+            }
+            long high = x >>> lowBits;
+            Node cluster = find(high);
+            cluster.delete(x & lowMask());
+            if (cluster.isEmpty()) {
+                remove(high);
+                summary.delete(high);
+                if (summary.isEmpty()) {
+                    summary = null;
+                }
+                if (x == max) {
+                    if (summary == null) {
+                        max = min;
+                    } else {
+                        long lastHigh = summary.max();
+                        max = (lastHigh << lowBits) | find(lastHigh).max();
+                    }
+                }
+            } else if (x == max) {
+                max = (high << lowBits) | cluster.max();
+            }
+        }
+
+        @Override
+        long successor(long x) {
+            if (min == NONE) {
+                return NONE;
+            }
+            if (x < min) {
+                return min;
+            }
+            int lowBits = lowBits();
+            long high = x >>> lowBits;
+            long low = x & lowMask();
+            Node cluster = find(high);
+            if (cluster != null && low < cluster.max()) {
+                return (high << lowBits) | cluster.successor(low);
+            }
+            long nextHigh = summary == null ? NONE : summary.successor(high);
+            return nextHigh == NONE ? NONE : (nextHigh << lowBits) | find(nextHigh).min();
+        }
+
+        @Override
+        long predecessor(long x) {
+            if (min == NONE) {
+                return NONE;
+            }
+            if (x > max) {
+                return max;
+            }
+            int lowBits = lowBits();
+            long high = x >>> lowBits;
+            long low = x & lowMask();
+            Node cluster = find(high);
+            if (cluster != null && low > cluster.min()) {
+                return (high << lowBits) | cluster.predecessor(low);
+            }
+            long prevHigh = summary == null ? NONE : summary.predecessor(high);
+            if (prevHigh == NONE) {
+                return x > min ? min : NONE;
+            }
+            return (prevHigh << lowBits) | find(prevHigh).max();
+        }
+
+        private int slot(long key) {
+            return (int) ((key * GOLDEN) >>> (64 - Integer.numberOfTrailingZeros(keys.length)));
+        }
+
+        private Node find(long key) {
+            if (keys == null) {
+                return null;
+            }
+            int mask = keys.length - 1;
+            for (int i = slot(key); ; i = (i + 1) & mask) {
+                Node cluster = clusters[i];
+                if (cluster == null) {
+                    return null;
+                }
+                if (keys[i] == key) {
+                    return cluster;
+                }
+            }
+        }
+
+        private void put(long key, Node cluster) {
+            if (keys == null) {
+                keys = new long[2];
+                clusters = new Node[2];
+            } else if ((clusterCount + 1) * 4 > keys.length * 3) {
+                rehash(keys.length * 2);
+            }
+            int mask = keys.length - 1;
+            int i = slot(key);
+            while (clusters[i] != null) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            clusters[i] = cluster;
+            clusterCount++;
+        }
+
+        private void remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key);
+            while (keys[i] != key || clusters[i] == null) {
+                i = (i + 1) & mask;
+            }
+            clusterCount--;
+            if (clusterCount == 0) {
+                keys = null;
+                clusters = null;
+                return;
+            }
+            // backward shift：把同一探测链上后面的元素回移，不留墓碑
+            int gap = i;
+            for (int j = (gap + 1) & mask; clusters[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j]);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    keys[gap] = keys[j];
+                    clusters[gap] = clusters[j];
+                    gap = j;
+                }
+            }
+            clusters[gap] = null;
+            if (keys.length > 8 && clusterCount * 8 < keys.length) {
+                rehash(keys.length / 2);
+            }
+        }
+
+        private void rehash(int capacity) {
+            long[] oldKeys = keys;
+            Node[] oldClusters = clusters;
+            keys = new long[capacity];
+            clusters = new Node[capacity];
+            int mask = capacity - 1;
+            for (int j = 0; j < oldKeys.length; j++) {
+                if (oldClusters[j] != null) {
+                    int i = slot(oldKeys[j]);
+                    while (clusters[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[j];
+                    clusters[i] = oldClusters[j];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.linsir.abc.pdai.structure.dataStructure.veb;
+
+import java.lang.ref.Reference;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * LazyVebSet、YFastTrie 与 TreeSet&lt;Long&gt;、BitSet 的内存占用和后继查询吞吐对比
+ *
+ * 运行：java -Xmx4g ... VebBenchmark [元素数量，默认 1000000]
+ *
+ * 说明：
+ * 1. 稠密场景：值域 2^24，随机取 n 个不同的键，BitSet 可用
+ * 2. 稀疏场景：值域 2^63，随机取 n 个键，BitSet 无法表示
+ * 3. 内存为构建前后多次 GC 后的堆占用差值 / n
+ * 4. 后继查询：200 万个随机探测值，预热一轮后计时；所有实现的结果先与 TreeSet.higher 比对
+ */
+public class VebBenchmark {
+
+    private static final int PROBES = 2_000_000;
+
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        run("稠密（值域 2^24）", n, 24);
+        run("稀疏（值域 2^63）", n, 63);
+    }
+
+    private static void run(String name, int n, int bits) throws InterruptedException {
+        long[] keys = distinctKeys(n, bits, 42);
+        long[] probes = new long[PROBES];
+        Random random = new Random(7);
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = random.nextLong() >>> (64 - bits);
+        }
+        System.out.println(name + "，" + n + " 个元素:");
+
+        TreeSet<Long> treeSet = build("TreeSet<Long>", n, () -> {
+            TreeSet<Long> set = new TreeSet<>();
+            for (long key : keys) {
+                set.add(key);
+            }
+            return set;
+        });
+        BitSet bitSet = bits <= 31 ? build("BitSet", n, () -> {
+            BitSet set = new BitSet(1 << bits);
+            for (long key : keys) {
+                set.set((int) key);
+            }
+            return set;
+        }) : null;
+        LazyVebSet veb = build("LazyVebSet", n, () -> {
+            LazyVebSet set = new LazyVebSet(bits);
+            for (long key : keys) {
+                set.add(key);
+            }
+            return set;
+        });
+        YFastTrie yFast = build("YFastTrie", n, () -> {
+            YFastTrie set = new YFastTrie();
+            for (long key : keys) {
+                set.add(key);
+            }
+            return set;
+        });
+
+        LongUnaryOperator treeSetSuccessor = x -> {
+            Long higher = treeSet.higher(x);
+            return higher == null ? -1 : higher;
+        };
+        LongUnaryOperator bitSetSuccessor = bitSet == null ? null
+                : x -> x + 1 < (1L << bits) ? bitSet.nextSetBit((int) x + 1) : -1;
+        verify(probes, treeSetSuccessor, bitSetSuccessor, veb::successor, yFast::successor);
+
+        for (int round = 0; round < 2; round++) {
+            boolean print = round == 1;
+            measure("TreeSet.higher", probes, treeSetSuccessor, print);
+            if (bitSetSuccessor != null) {
+                measure("BitSet.nextSetBit", probes, bitSetSuccessor, print);
+            }
+            measure("LazyVebSet.successor", probes, veb::successor, print);
+            measure("YFastTrie.successor", probes, yFast::successor, print);
+        }
+        System.out.println();
+    }
+
+    private static void verify(long[] probes, LongUnaryOperator expected, LongUnaryOperator... actual) {
+        for (int i = 0; i < 100_000; i++) {
+            long x = probes[i];
+            long result = expected.applyAsLong(x);
+            for (LongUnaryOperator op : actual) {
+                if (op != null && op.applyAsLong(x) != result) {
+                    throw new IllegalStateException("后继查询结果不一致: " + x);
+                }
+            }
+        }
+    }
+
+    private static void measure(String name, long[] probes, LongUnaryOperator successor, boolean print) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (long x : probes) {
+            sink += successor.applyAsLong(x);
+        }
+        long nanos = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("  后继查询 %-22s %6.1f ns/op%n", name, (double) nanos / probes.length);
+        }
+        if (sink == 42) {
+            System.out.println(sink);
+        }
+    }
+
+    private static <T> T build(String name, int n, Supplier<T> builder) throws InterruptedException {
+        long before = usedHeap();
+        long start = System.nanoTime();
+        T set = builder.get();
+        long nanos = System.nanoTime() - start;
+        long after = usedHeap();
+        System.out.printf("  %-22s 构建 %5d ms，内存 %6.1f 字节/元素%n", name, nanos / 1_000_000, (after - before) / (double) n);
+        Reference.reachabilityFence(set);
+        return set;
+    }
+
+    private static long[] distinctKeys(int n, int bits, long seed) {
+        Random random = new Random(seed);
+        BitSet seenSmall = bits <= 31 ? new BitSet(1 << bits) : null;
+        HashSet<Long> seenLarge = bits <= 31 ? null : new HashSet<>(n * 2);
+        long[] keys = new long[n];
+        int count = 0;
+        while (count < n) {
+            long key = random.nextLong() >>> (64 - bits);
+            boolean fresh = seenSmall != null ? !seenSmall.get((int) key) : seenLarge.add(key);
+            if (fresh) {
+                if (seenSmall != null) {
+                    seenSmall.set((int) key);
+                }
+                keys[count++] = key;
+            }
+        }
+        return keys;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
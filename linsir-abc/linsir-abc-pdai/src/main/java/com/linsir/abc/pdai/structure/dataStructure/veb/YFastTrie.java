@@ -0,0 +1,336 @@
+package com.linsir.abc.pdai.structure.dataStructure.veb;
+
+import com.linsir.abc.pdai.structure.dataStructure.primitive.LongLongHashMap;
+
+import java.util.Arrays;
+
+/**
+ * y-fast trie：值域 [0, 2^63) 的有序 long 集合
+ *
+ * 说明：
+ * 1. 元素按值分成若干有序桶（long[]，大小在 B/4 ~ 2B 之间，B = 64），每个桶用一个代表值 rep 标识，桶内元素都 ≥ rep 且小于下一个桶的 rep
+ * 2. 代表值存放在 x-fast trie 中：63 层前缀各用一个 LongLongHashMap 保存，二分查找层号即可找到与查询值最长的公共前缀，
+ *    只需 O(log 63) 次哈希查找；缺一个孩子的前缀节点保存“后代指针”（只有左子树时为左子树最大值，只有右子树时为右子树最小值）
+ * 3. 前驱/后继：先在 x-fast trie 中定位桶 O(log log U)，再在桶内二分 O(log B) = O(log log U)
+ * 4. 代表值只有 n/B 个，x-fast trie 每个代表值占 63 个前缀的空间被桶分摊，总内存 O(n)；桶是连续 long 数组，没有每个元素的对象
+ * 5. 不存在时返回 -1；非线程安全
+ */
+public class YFastTrie {
+
+    public static final long NONE = -1;
+
+    private static final int W = 63;
+
+    private static final int B = 64;
+
+    /**
+     * level[i] 存放长度为 i 的前缀；前缀节点的值为后代指针，level[W] 的值为桶编号
+     */
+    private final LongLongHashMap[] level = new LongLongHashMap[W + 1];
+
+    private Bucket[] buckets = new Bucket[16];
+
+    private int[] freeIds = new int[16];
+
+    private int freeCount;
+
+    private int nextId;
+
+    private Bucket first;
+
+    private int size;
+
+
+    public YFastTrie() {
+        for (int i = 0; i <= W; i++) {
+            level[i] = LongLongHashMap.onHeap(i < 10 ? 1 << i : 16, NONE);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int bucketCount() {
+        return level[W].size();
+    }
+
+    public boolean add(long x) {
+        checkRange(x);
+        Bucket bucket = bucketFor(x);
+        if (bucket == null) {
+            if (first == null) {
+                Bucket created = new Bucket(x, new long[2 * B + 1]);
+                created.keys[created.size++] = x;
+                addRep(created, null);
+                size++;
+                return true;
+            }
+            // 比所有元素都小：降低第一个桶的代表值
+            bucket = first;
+            removeRep(bucket);
+            bucket.rep = x;
+            addRep(bucket, null);
+        }
+        int pos = Arrays.binarySearch(bucket.keys, 0, bucket.size, x);
+        if (pos >= 0) {
+            return false;
+        }
+        pos = -pos - 1;
+        System.arraycopy(bucket.keys, pos, bucket.keys, pos + 1, bucket.size - pos);
+        bucket.keys[pos] = x;
+        bucket.size++;
+        size++;
+        if (bucket.size > 2 * B) {
+            split(bucket);
+        }
+        return true;
+    }
+
+    public boolean remove(long x) {
+        if (x < 0) {
+            return false;
+        }
+        Bucket bucket = bucketFor(x);
+        if (bucket == null) {
+            return false;
+        }
+        int pos = Arrays.binarySearch(bucket.keys, 0, bucket.size, x);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(bucket.keys, pos + 1, bucket.keys, pos, bucket.size - pos - 1);
+        bucket.size--;
+        size--;
+        if (bucket.size == 0) {
+            removeRep(bucket);
+        } else if (bucket.size < B / 4 && bucket.next != null && bucket.size + bucket.next.size <= 2 * B) {
+            // 与后一个桶合并，保证代表值的数量保持在 O(n / B)
+            Bucket next = bucket.next;
+            System.arraycopy(next.keys, 0, bucket.keys, bucket.size, next.size);
+            bucket.size += next.size;
+            removeRep(next);
+        }
+        return true;
+    }
+
+    public boolean contains(long x) {
+        if (x < 0) {
+            return false;
+        }
+        Bucket bucket = bucketFor(x);
+        return bucket != null && Arrays.binarySearch(bucket.keys, 0, bucket.size, x) >= 0;
+    }
+
+    public long min() {
+        return first == null ? NONE : first.keys[0];
+    }
+
+    /**
+     * 大于 x 的最小元素
+     */
+    public long successor(long x) {
+        if (x < 0) {
+            return min();
+        }
+        Bucket bucket = bucketFor(x);
+        if (bucket == null) {
+            return min();
+        }
+        int pos = upperBound(bucket, x);
+        if (pos < bucket.size) {
+            return bucket.keys[pos];
+        }
+        return bucket.next == null ? NONE : bucket.next.keys[0];
+    }
+
+    /**
+     * 小于 x 的最大元素
+     */
+    public long predecessor(long x) {
+        if (x <= 0) {
+            return NONE;
+        }
+        Bucket bucket = bucketFor(x);
+        if (bucket == null) {
+            return NONE;
+        }
+        int pos = lowerBound(bucket, x) - 1;
+        if (pos >= 0) {
+            return bucket.keys[pos];
+        }
+        return bucket.prev == null ? NONE : bucket.prev.keys[bucket.prev.size - 1];
+    }
+
+    /**
+     * 代表值 ≤ x 的最后一个桶
+     */
+    private Bucket bucketFor(long x) {
+        if (first == null) {
+            return null;
+        }
+        long id = level[W].get(x);
+        if (id != NONE) {
+            return buckets[(int) id];
+        }
+        // 二分查找与 x 公共前缀最长的层；level[0] 在非空时总是存在
+        int low = 0;
+        int high = W - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (level[mid].containsKey(x >>> (W - mid))) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        long descendant = level[low].get(x >>> (W - low));
+        Bucket bucket = buckets[(int) level[W].get(descendant)];
+        // x 在这一层的下一位为 1：缺右子树，后代指针是左子树最大值，即 x 的前驱；否则后代指针是 x 的后继
+        return ((x >>> (W - low - 1)) & 1) == 1 ? bucket : bucket.prev;
+    }
+
+    private void split(Bucket bucket) {
+        long[] keys = new long[2 * B + 1];
+        int moved = bucket.size - B;
+        System.arraycopy(bucket.keys, B, keys, 0, moved);
+        Bucket right = new Bucket(keys[0], keys);
+        right.size = moved;
+        bucket.size = B;
+        addRep(right, bucket);
+    }
+
+    /**
+     * 把桶插入到 prev 之后（prev 为 null 时插到最前），并把它的代表值加入 x-fast trie
+     */
+    private void addRep(Bucket bucket, Bucket prev) {
+        bucket.prev = prev;
+        bucket.next = prev == null ? first : prev.next;
+        if (bucket.next != null) {
+            bucket.next.prev = bucket;
+        }
+        if (prev == null) {
+            first = bucket;
+        } else {
+            prev.next = bucket;
+        }
+        bucket.id = allocateId();
+        buckets[bucket.id] = bucket;
+
+        long rep = bucket.rep;
+        level[W].put(rep, bucket.id);
+        for (int i = 0; i < W; i++) {
+            long prefix = rep >>> (W - i);
+            if (!level[i].containsKey(prefix)) {
+                level[i].put(prefix, rep);
+            }
+        }
+        // 新节点的后代指针就是 rep；已有节点若只有一个孩子，rep 必然落在那个孩子里，按需更新最大/最小值
+        for (int i = 0; i < W; i++) {
+            long prefix = rep >>> (W - i);
+            boolean left = level[i + 1].containsKey(prefix << 1);
+            boolean right = level[i + 1].containsKey((prefix << 1) | 1);
+            if (left != right) {
+                long descendant = level[i].get(prefix);
+                long updated = left ? Math.max(descendant, rep) : Math.min(descendant, rep);
+                if (updated != descendant) {
+                    level[i].put(prefix, updated);
+                }
+            }
+        }
+    }
+
+    /**
+     * 从链表和 x-fast trie 中删除桶的代表值
+     */
+    private void removeRep(Bucket bucket) {
+        long rep = bucket.rep;
+        long prevRep = bucket.prev == null ? NONE : bucket.prev.rep;
+        long nextRep = bucket.next == null ? NONE : bucket.next.rep;
+        level[W].remove(rep);
+        for (int i = W - 1; i >= 0; i--) {
+            long prefix = rep >>> (W - i);
+            boolean left = level[i + 1].containsKey(prefix << 1);
+            boolean right = level[i + 1].containsKey((prefix << 1) | 1);
+            if (!left && !right) {
+                level[i].remove(prefix);
+                continue;
+            }
+            if (left && right) {
+                continue;
+            }
+            long side = (rep >>> (W - i - 1)) & 1;
+            long descendant = level[i].get(prefix);
+            // rep 所在的子树被删空，或者 rep 正是后代指针：新的左子树最大值是 rep 的前一个代表值，右子树最小值是后一个
+            if (left && (side == 1 || descendant == rep)) {
+                level[i].put(prefix, prevRep);
+            } else if (right && (side == 0 || descendant == rep)) {
+                level[i].put(prefix, nextRep);
+            }
+        }
+
+        if (bucket.prev == null) {
+            first = bucket.next;
+        } else {
+            bucket.prev.next = bucket.next;
+        }
+        if (bucket.next != null) {
+            bucket.next.prev = bucket.prev;
+        }
+        buckets[bucket.id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = bucket.id;
+    }
+
+    private int allocateId() {
+        if (freeCount > 0) {
+            return freeIds[--freeCount];
+        }
+        if (nextId == buckets.length) {
+            buckets = Arrays.copyOf(buckets, nextId * 2);
+        }
+        return nextId++;
+    }
+
+    private static int upperBound(Bucket bucket, long x) {
+        int pos = Arrays.binarySearch(bucket.keys, 0, bucket.size, x);
+        return pos >= 0 ? pos + 1 : -pos - 1;
+    }
+
+    private static int lowerBound(Bucket bucket, long x) {
+        int pos = Arrays.binarySearch(bucket.keys, 0, bucket.size, x);
+        return pos >= 0 ? pos : -pos - 1;
+    }
+
+    private static void checkRange(long x) {
+        if (x < 0) {
+            throw new IllegalArgumentException("x 超出值域 [0, 2^63): " + x);
+        }
+    }
+
+    private static final class Bucket {
+
+        long rep;
+
+        final long[] keys;
+
+        int size;
+
+        int id;
+
+        Bucket prev;
+
+        Bucket next;
+
+        Bucket(long rep, long[] keys) {
+            this.rep = rep;
+            this.keys = keys;
+        }
+    }
+}
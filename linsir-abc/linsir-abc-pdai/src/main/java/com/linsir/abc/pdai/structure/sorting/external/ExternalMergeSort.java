@@ -0,0 +1,325 @@
+package com.linsir.abc.pdai.structure.sorting.external;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 外部归并排序：对超出堆大小的定长记录文件排序
+ *
+ * 说明：
+ * 1. 记录定长，排序键是记录内 keyOffset 处的 8 字节大端有符号 long（与 DataOutputStream.writeLong 一致）
+ * 2. 生成顺串：按内存预算一次读入尽量多的记录，提取键后用 KeyIndexSort（MergeSort 的 fork/join 版本）并行排序下标，
+ *    再按下标顺序写出到临时文件；记录本身只在写出时搬动一次
+ * 3. 归并：败者树做 k 路归并，每个顺串两块直接缓冲区轮换，由 I/O 线程预读；顺串数超过路数时按输入顺序分组做多趟归并
+ * 4. 内存预算同时约束两个阶段：生成顺串时为 两块 I/O 缓冲区 + 每条记录 (recordSize + 24) 字节，
+ *    归并时为 路数 × 2 块读缓冲区 + 1 块写缓冲区，直接缓冲区也计入预算
+ * 5. 所有读写都经过固定大小的直接缓冲区：对堆数组直接调用 FileChannel.read 时，JDK 会按请求大小临时分配同样大的直接内存
+ * 6. 排序是稳定的；排序过程中可以通过 metrics() 从其他线程查看进度
+ */
+public final class ExternalMergeSort {
+
+    public static final int DEFAULT_IO_BUFFER_SIZE = 1 << 20;
+
+    // 内存中每条记录的额外开销：键、下标及其归并临时数组
+    private static final int PER_RECORD_OVERHEAD = 8 + 4 + 8 + 4;
+
+    private static final VarHandle LONG_BE = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final int recordSize;
+
+    private final int keyOffset;
+
+    private final long memoryBudget;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private int ioBufferSize = DEFAULT_IO_BUFFER_SIZE;
+
+    private Path tempDirectory;
+
+    private volatile ExternalSortMetrics metrics = new ExternalSortMetrics();
+
+
+    /**
+     * @param recordSize   记录长度，至少 8 字节
+     * @param keyOffset    排序键在记录内的偏移
+     * @param memoryBudget 内存预算（字节）
+     */
+    public ExternalMergeSort(int recordSize, int keyOffset, long memoryBudget) {
+        if (recordSize < 8) {
+            throw new IllegalArgumentException("记录长度至少为 8 字节: " + recordSize);
+        }
+        if (keyOffset < 0 || keyOffset > recordSize - 8) {
+            throw new IllegalArgumentException("键偏移超出记录范围: " + keyOffset);
+        }
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("内存预算必须为正数: " + memoryBudget);
+        }
+        this.recordSize = recordSize;
+        this.keyOffset = keyOffset;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * 生成顺串时内存排序的并行度，默认为 CPU 核数
+     */
+    public ExternalMergeSort parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("并行度至少为 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 单块 I/O 缓冲区大小，会向下取整为记录长度的整数倍
+     */
+    public ExternalMergeSort ioBufferSize(int ioBufferSize) {
+        if (ioBufferSize < recordSize) {
+            throw new IllegalArgumentException("I/O 缓冲区不能小于一条记录: " + ioBufferSize);
+        }
+        this.ioBufferSize = ioBufferSize;
+        return this;
+    }
+
+    /**
+     * 临时顺串文件所在目录，默认为系统临时目录
+     */
+    public ExternalMergeSort tempDirectory(Path tempDirectory) {
+        this.tempDirectory = tempDirectory;
+        return this;
+    }
+
+    /**
+     * 最近一次（或正在进行的）排序的指标
+     */
+    public ExternalSortMetrics metrics() {
+        return metrics;
+    }
+
+    /**
+     * 把 input 排序后写到 output，output 已存在时覆盖
+     */
+    public ExternalSortMetrics sort(Path input, Path output) throws IOException {
+        long inputBytes = Files.size(input);
+        if (inputBytes % recordSize != 0) {
+            throw new IllegalArgumentException("文件大小 " + inputBytes + " 不是记录长度 " + recordSize + " 的整数倍");
+        }
+        int block = Math.max(1, Math.min(ioBufferSize, Integer.MAX_VALUE - 8) / recordSize) * recordSize;
+        long records = inputBytes / recordSize;
+        int recordsPerRun = recordsPerRun(block, records);
+        int fanIn = fanIn(block);
+        int expectedRuns = (int) ((records + recordsPerRun - 1) / recordsPerRun);
+
+        ExternalSortMetrics current = new ExternalSortMetrics();
+        current.start(inputBytes, records, expectedRuns, passes(expectedRuns, fanIn), fanIn);
+        metrics = current;
+
+        List<Path> runs = new ArrayList<>();
+        try {
+            long start = System.nanoTime();
+            generateRuns(input, recordsPerRun, block, runs, current);
+            current.runGenerationDone(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            if (runs.isEmpty()) {
+                Files.deleteIfExists(output);
+                Files.createFile(output);
+            } else if (runs.size() == 1) {
+                Files.move(runs.remove(0), output, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                merge(runs, output, fanIn, block, current);
+            }
+            current.done(System.nanoTime() - start);
+            return current;
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private int recordsPerRun(int block, long records) {
+        long available = memoryBudget - 2L * block;
+        long perRun = Math.min(available / (recordSize + PER_RECORD_OVERHEAD), (Integer.MAX_VALUE - 8) / recordSize);
+        if (perRun < 1) {
+            throw new IllegalArgumentException("内存预算 " + memoryBudget + " 字节放不下两块 I/O 缓冲区和一条记录");
+        }
+        return (int) Math.min(perRun, Math.max(1, records));
+    }
+
+    private int fanIn(int block) {
+        long fanIn = (memoryBudget - block) / (2L * block);
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("内存预算 " + memoryBudget + " 字节不足以做两路归并，请调小 I/O 缓冲区");
+        }
+        return (int) Math.min(fanIn, 4096);
+    }
+
+    static int passes(int runs, int fanIn) {
+        int passes = 0;
+        for (int n = runs; n > 1; n = (n + fanIn - 1) / fanIn) {
+            passes++;
+        }
+        return passes;
+    }
+
+    private void generateRuns(Path input, int recordsPerRun, int block, List<Path> runs, ExternalSortMetrics metrics)
+            throws IOException {
+        byte[] records = new byte[recordsPerRun * recordSize];
+        long[] keys = new long[recordsPerRun];
+        int[] index = new int[recordsPerRun];
+        long[] keyTemp = new long[recordsPerRun];
+        int[] indexTemp = new int[recordsPerRun];
+        ByteBuffer in = ByteBuffer.allocateDirect(block);
+        ByteBuffer out = ByteBuffer.allocateDirect(block);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            int filled;
+            while ((filled = readFully(channel, in, records, metrics)) > 0) {
+                int n = filled / recordSize;
+                for (int i = 0; i < n; i++) {
+                    keys[i] = (long) LONG_BE.get(records, i * recordSize + keyOffset);
+                    index[i] = i;
+                }
+                KeyIndexSort.sort(keys, index, keyTemp, indexTemp, n, pool);
+
+                Path run = createTempFile();
+                runs.add(run);
+                try (FileChannel target = openForWrite(run)) {
+                    out.clear();
+                    for (int i = 0; i < n; i++) {
+                        if (out.remaining() < recordSize) {
+                            flush(target, out, metrics);
+                        }
+                        out.put(records, index[i] * recordSize, recordSize);
+                    }
+                    flush(target, out, metrics);
+                }
+                metrics.runWritten();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * 经直接缓冲区把 records 读满或读到文件末尾，返回读入的字节数
+     */
+    private static int readFully(FileChannel channel, ByteBuffer in, byte[] records, ExternalSortMetrics metrics)
+            throws IOException {
+        int filled = 0;
+        while (filled < records.length) {
+            in.clear();
+            in.limit(Math.min(in.capacity(), records.length - filled));
+            int read = channel.read(in);
+            if (read < 0) {
+                break;
+            }
+            in.flip();
+            in.get(records, filled, read);
+            filled += read;
+        }
+        metrics.addBytesRead(filled);
+        return filled;
+    }
+
+    /**
+     * 多趟归并：每趟把相邻的 fanIn 个顺串合并为一个，直到剩余顺串不超过 fanIn，最后一趟直接写到 output
+     */
+    private void merge(List<Path> runs, Path output, int fanIn, int block, ExternalSortMetrics metrics) throws IOException {
+        ExecutorService io = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "external-sort-io");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ByteBuffer out = ByteBuffer.allocateDirect(block);
+        try {
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                try {
+                    for (int from = 0; from < runs.size(); from += fanIn) {
+                        List<Path> group = runs.subList(from, Math.min(from + fanIn, runs.size()));
+                        Path target = createTempFile();
+                        merged.add(target);
+                        mergeGroup(group, target, block, io, out, metrics);
+                        for (Path run : group) {
+                            Files.delete(run);
+                        }
+                    }
+                } catch (IOException | RuntimeException e) {
+                    runs.addAll(merged);
+                    throw e;
+                }
+                runs.clear();
+                runs.addAll(merged);
+                metrics.passDone();
+            }
+            mergeGroup(runs, output, block, io, out, metrics);
+            metrics.passDone();
+        } finally {
+            io.shutdownNow();
+        }
+    }
+
+    private void mergeGroup(List<Path> group, Path target, int block, ExecutorService io, ByteBuffer out,
+                            ExternalSortMetrics metrics) throws IOException {
+        RunReader[] readers = new RunReader[group.size()];
+        try {
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new RunReader(group.get(i), recordSize, keyOffset, block, io, metrics);
+            }
+            LoserTree tree = new LoserTree(readers);
+            try (FileChannel channel = openForWrite(target)) {
+                out.clear();
+                for (int winner; (winner = tree.winner()) >= 0; ) {
+                    if (out.remaining() < recordSize) {
+                        flush(channel, out, metrics);
+                    }
+                    readers[winner].copyTo(out);
+                    tree.advanceWinner();
+                }
+                flush(channel, out, metrics);
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                if (reader != null) {
+                    reader.close();
+                }
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer out, ExternalSortMetrics metrics) throws IOException {
+        out.flip();
+        int bytes = out.remaining();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+        metrics.addBytesWritten(bytes);
+    }
+
+    private Path createTempFile() throws IOException {
+        return tempDirectory == null
+                ? Files.createTempFile("sort-run-", ".tmp")
+                : Files.createTempFile(tempDirectory, "sort-run-", ".tmp");
+    }
+
+    private static FileChannel openForWrite(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+}
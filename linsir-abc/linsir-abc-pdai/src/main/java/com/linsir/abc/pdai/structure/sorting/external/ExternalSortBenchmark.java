@@ -0,0 +1,146 @@
+package com.linsir.abc.pdai.structure.sorting.external;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * 外部归并排序的吞吐与正确性测试
+ *
+ * 运行：java -Xmx256m ... ExternalSortBenchmark [记录数，默认 10000000] [记录长度，默认 100] [内存预算 MB，默认 64]
+ *
+ * 说明：
+ * 1. 记录布局：前 8 字节是随机键（只取 2^20 种取值，制造大量重复键），随后 8 字节是记录在输入中的序号，其余字节由序号生成
+ * 2. 默认 1GB 输入、64MB 预算，另外用 1/8 的预算和 64KB 缓冲区跑一次，路数不够时会走多趟归并
+ * 3. 校验：输出大小不变；(键, 序号) 严格递增，即有序且稳定；每条记录的填充字节与序号一致；序号之和等于 0 + 1 + ... + (n - 1)
+ * 4. 排序过程中由后台线程每秒打印一次进度
+ */
+public class ExternalSortBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long records = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        int recordSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        long budget = (args.length > 2 ? Long.parseLong(args[2]) : 64) << 20;
+
+        Path input = Files.createTempFile("external-sort-input", ".dat");
+        Path output = Files.createTempFile("external-sort-output", ".dat");
+        try {
+            long start = System.nanoTime();
+            generate(input, records, recordSize);
+            System.out.printf("生成输入: %,d 条 × %d 字节 = %,d MB，%d ms%n",
+                    records, recordSize, Files.size(input) >> 20, millis(start));
+
+            run("默认配置", new ExternalMergeSort(recordSize, 0, budget), input, output, records, recordSize);
+            run("单线程", new ExternalMergeSort(recordSize, 0, budget).parallelism(1), input, output, records, recordSize);
+            run("小预算多趟归并", new ExternalMergeSort(recordSize, 0, budget / 8).ioBufferSize(64 << 10),
+                    input, output, records, recordSize);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+    }
+
+    private static void run(String name, ExternalMergeSort sorter, Path input, Path output, long records, int recordSize)
+            throws IOException {
+        Thread reporter = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(1000);
+                    System.out.println("  " + sorter.metrics());
+                }
+            } catch (InterruptedException ignored) {
+                // 排序结束
+            }
+        });
+        reporter.setDaemon(true);
+        reporter.start();
+
+        long start = System.nanoTime();
+        ExternalSortMetrics metrics;
+        try {
+            metrics = sorter.sort(input, output);
+        } finally {
+            reporter.interrupt();
+        }
+        long elapsed = millis(start);
+        verify(output, records, recordSize);
+        System.out.printf("%s: %d ms，%.0f MB/s，%s%n", name, elapsed,
+                (metrics.inputBytes() / 1048576.0) / Math.max(1, elapsed) * 1000, metrics);
+    }
+
+    private static void generate(Path path, long records, int recordSize) throws IOException {
+        SplittableRandom random = new SplittableRandom(42);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(recordSize * 8192);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long i = 0; i < records; i++) {
+                if (buffer.remaining() < recordSize) {
+                    write(channel, buffer);
+                }
+                buffer.putLong(random.nextLong(1 << 20) - (1 << 19));
+                putPayload(buffer, i, recordSize);
+            }
+            write(channel, buffer);
+        }
+    }
+
+    private static void putPayload(ByteBuffer buffer, long sequence, int recordSize) {
+        buffer.putLong(sequence);
+        for (int j = 16; j < recordSize; j++) {
+            buffer.put((byte) (sequence * 31 + j));
+        }
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void verify(Path path, long records, int recordSize) throws IOException {
+        if (Files.size(path) != records * recordSize) {
+            throw new IllegalStateException("输出大小不一致: " + Files.size(path));
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(recordSize * 8192);
+        long previousKey = Long.MIN_VALUE;
+        long previousSequence = -1;
+        long sequenceSum = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) > 0 || buffer.position() > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= recordSize) {
+                    int at = buffer.position();
+                    long key = buffer.getLong();
+                    long sequence = buffer.getLong();
+                    if (key < previousKey || (key == previousKey && sequence <= previousSequence)) {
+                        throw new IllegalStateException("输出无序或不稳定，序号 " + sequence);
+                    }
+                    for (int j = 16; j < recordSize; j++) {
+                        if (buffer.get() != (byte) (sequence * 31 + j)) {
+                            throw new IllegalStateException("记录内容损坏，偏移 " + at);
+                        }
+                    }
+                    previousKey = key;
+                    previousSequence = sequence;
+                    sequenceSum += sequence;
+                }
+                buffer.compact();
+                if (buffer.position() > 0 && channel.position() == channel.size()) {
+                    throw new IllegalStateException("文件末尾有不完整记录");
+                }
+            }
+        }
+        if (sequenceSum != records * (records - 1) / 2) {
+            throw new IllegalStateException("记录有丢失或重复");
+        }
+    }
+
+    private static long millis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,154 @@
+package com.linsir.abc.pdai.structure.sorting.external;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 外部排序的进度指标，排序过程中可以从其他线程读取
+ *
+ * 说明：
+ * 1. 顺串个数在开始前就能由输入大小和内存预算算出，进而得到归并趟数，因此总 I/O 量可以预先估计
+ * 2. 进度 = 已写出字节 / (输入大小 × (1 + 归并趟数))：生成顺串写一遍，每趟归并再写一遍
+ * 3. 字节计数用 AtomicLong，预读线程和排序线程都会更新
+ */
+public final class ExternalSortMetrics {
+
+    public enum Phase {
+        NOT_STARTED, RUN_GENERATION, MERGE, DONE
+    }
+
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    private volatile Phase phase = Phase.NOT_STARTED;
+
+    private volatile long inputBytes;
+
+    private volatile long records;
+
+    private volatile int expectedRuns;
+
+    private volatile int expectedPasses;
+
+    private volatile int runs;
+
+    private volatile int mergePasses;
+
+    private volatile int fanIn;
+
+    private volatile long runGenerationNanos;
+
+    private volatile long mergeNanos;
+
+
+    void start(long inputBytes, long records, int expectedRuns, int expectedPasses, int fanIn) {
+        this.inputBytes = inputBytes;
+        this.records = records;
+        this.expectedRuns = expectedRuns;
+        this.expectedPasses = expectedPasses;
+        this.fanIn = fanIn;
+        this.phase = Phase.RUN_GENERATION;
+    }
+
+    void addBytesRead(long bytes) {
+        bytesRead.addAndGet(bytes);
+    }
+
+    void addBytesWritten(long bytes) {
+        bytesWritten.addAndGet(bytes);
+    }
+
+    void runWritten() {
+        runs++;
+    }
+
+    void runGenerationDone(long nanos) {
+        runGenerationNanos = nanos;
+        phase = Phase.MERGE;
+    }
+
+    void passDone() {
+        mergePasses++;
+    }
+
+    void done(long mergeNanos) {
+        this.mergeNanos = mergeNanos;
+        phase = Phase.DONE;
+    }
+
+    public Phase phase() {
+        return phase;
+    }
+
+    public long inputBytes() {
+        return inputBytes;
+    }
+
+    public long records() {
+        return records;
+    }
+
+    public long bytesRead() {
+        return bytesRead.get();
+    }
+
+    public long bytesWritten() {
+        return bytesWritten.get();
+    }
+
+    /**
+     * 已生成的初始顺串个数
+     */
+    public int runs() {
+        return runs;
+    }
+
+    public int expectedRuns() {
+        return expectedRuns;
+    }
+
+    /**
+     * 已完成的归并趟数（只有一个顺串时为 0）
+     */
+    public int mergePasses() {
+        return mergePasses;
+    }
+
+    public int expectedPasses() {
+        return expectedPasses;
+    }
+
+    /**
+     * 每趟归并最多同时合并的顺串数
+     */
+    public int fanIn() {
+        return fanIn;
+    }
+
+    public long runGenerationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(runGenerationNanos);
+    }
+
+    public long mergeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(mergeNanos);
+    }
+
+    /**
+     * 估计的完成比例，范围 [0, 1]
+     */
+    public double progress() {
+        if (phase == Phase.DONE) {
+            return 1.0;
+        }
+        long total = inputBytes * (1L + expectedPasses);
+        return total == 0 ? 0.0 : Math.min(1.0, (double) bytesWritten.get() / total);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("阶段 %s，进度 %.1f%%，记录 %,d，顺串 %d/%d，归并 %d/%d 趟（路数 %d），读 %,d MB，写 %,d MB，生成顺串 %d ms，归并 %d ms",
+                phase, progress() * 100, records, runs, expectedRuns, mergePasses, expectedPasses, fanIn,
+                bytesRead() >> 20, bytesWritten() >> 20, runGenerationMillis(), mergeMillis());
+    }
+}
@@ -0,0 +1,121 @@
+package com.linsir.abc.pdai.structure.sorting.external;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 按 long 键对记录下标做稳定排序，用于生成初始顺串
+ *
+ * 说明：
+ * 1. 与 MergeSort 同样是自顶向下归并：先把区间复制到临时数组再合并回来，键与下标两个数组同步移动
+ * 2. 两半作为 fork/join 子任务并行排序，区间小于叶子大小后在当前线程内递归，32 个以下用插入排序
+ * 3. 左半最大键不大于右半最小键时跳过合并，已部分有序的输入接近 O(n)
+ * 4. 相等键保持原下标顺序（稳定），外部排序的各个顺串按输入顺序合并，因此整体也是稳定的
+ */
+final class KeyIndexSort {
+
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private static final int MIN_LEAF_SIZE = 1 << 13;
+
+    private KeyIndexSort() {
+    }
+
+    /**
+     * 对 keys[0, n)、index[0, n) 排序，keyTemp、indexTemp 为同样长度的临时数组
+     */
+    static void sort(long[] keys, int[] index, long[] keyTemp, int[] indexTemp, int n, ForkJoinPool pool) {
+        if (n <= 1) {
+            return;
+        }
+        int leafSize = Math.max(MIN_LEAF_SIZE, n / (pool.getParallelism() << 2));
+        pool.invoke(new SortTask(keys, index, keyTemp, indexTemp, 0, n - 1, leafSize));
+    }
+
+    private static final class SortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] keys;
+        private final int[] index;
+        private final long[] keyTemp;
+        private final int[] indexTemp;
+        private final int left;
+        private final int right;
+        private final int leafSize;
+
+        SortTask(long[] keys, int[] index, long[] keyTemp, int[] indexTemp, int left, int right, int leafSize) {
+            this.keys = keys;
+            this.index = index;
+            this.keyTemp = keyTemp;
+            this.indexTemp = indexTemp;
+            this.left = left;
+            this.right = right;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (right - left < leafSize) {
+                mergeSort(keys, index, keyTemp, indexTemp, left, right);
+                return;
+            }
+            int mid = left + (right - left) / 2;
+            invokeAll(new SortTask(keys, index, keyTemp, indexTemp, left, mid, leafSize),
+                    new SortTask(keys, index, keyTemp, indexTemp, mid + 1, right, leafSize));
+            merge(keys, index, keyTemp, indexTemp, left, mid, right);
+        }
+    }
+
+    private static void mergeSort(long[] keys, int[] index, long[] keyTemp, int[] indexTemp, int left, int right) {
+        if (right - left < INSERTION_SORT_THRESHOLD) {
+            insertionSort(keys, index, left, right);
+            return;
+        }
+        int mid = left + (right - left) / 2;
+        mergeSort(keys, index, keyTemp, indexTemp, left, mid);
+        mergeSort(keys, index, keyTemp, indexTemp, mid + 1, right);
+        merge(keys, index, keyTemp, indexTemp, left, mid, right);
+    }
+
+    private static void merge(long[] keys, int[] index, long[] keyTemp, int[] indexTemp, int left, int mid, int right) {
+        if (keys[mid] <= keys[mid + 1]) {
+            return;
+        }
+        int length = right - left + 1;
+        System.arraycopy(keys, left, keyTemp, left, length);
+        System.arraycopy(index, left, indexTemp, left, length);
+
+        int i = left;
+        int j = mid + 1;
+        int k = left;
+        while (i <= mid && j <= right) {
+            // 相等时取左边，保证稳定
+            if (keyTemp[i] <= keyTemp[j]) {
+                keys[k] = keyTemp[i];
+                index[k++] = indexTemp[i++];
+            } else {
+                keys[k] = keyTemp[j];
+                index[k++] = indexTemp[j++];
+            }
+        }
+        // 右半剩余元素已经在原位
+        System.arraycopy(keyTemp, i, keys, k, mid - i + 1);
+        System.arraycopy(indexTemp, i, index, k, mid - i + 1);
+    }
+
+    private static void insertionSort(long[] keys, int[] index, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long key = keys[i];
+            int idx = index[i];
+            int j = i - 1;
+            while (j >= left && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                index[j + 1] = index[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            index[j + 1] = idx;
+        }
+    }
+}
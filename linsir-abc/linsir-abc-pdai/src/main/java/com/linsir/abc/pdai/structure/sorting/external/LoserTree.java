@@ -0,0 +1,81 @@
+package com.linsir.abc.pdai.structure.sorting.external;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * k 路归并的败者树
+ *
+ * 说明：
+ * 1. tree[1..k-1] 存放每场比赛的败者，tree[0] 是总冠军；取走冠军的记录后只需沿它的叶子到根重赛一次，比较 log2(k) 次
+ * 2. 与胜者树相比，重赛时只和父节点里的败者比较，不需要访问兄弟节点
+ * 3. 建树时所有内部节点先放一个虚拟的"最小"选手 k，再依次让每个真实选手向上比赛，把虚拟选手挤出去
+ * 4. 键相等时编号小的顺串获胜，各顺串按输入顺序编号，因此归并是稳定的；读完的顺串视为无穷大
+ */
+final class LoserTree {
+
+    private final RunReader[] runs;
+
+    private final int[] tree;
+
+
+    LoserTree(RunReader[] runs) {
+        this.runs = runs;
+        int k = runs.length;
+        this.tree = new int[k];
+        Arrays.fill(tree, k);
+        for (int i = k - 1; i >= 0; i--) {
+            replay(i);
+        }
+    }
+
+    /**
+     * 当前最小记录所在的顺串，全部读完时返回 -1
+     */
+    int winner() {
+        int winner = tree[0];
+        return runs[winner].exhausted() ? -1 : winner;
+    }
+
+    /**
+     * 输出冠军的当前记录并前进一条，然后重赛
+     */
+    void advanceWinner() throws IOException {
+        int winner = tree[0];
+        runs[winner].advance();
+        replay(winner);
+    }
+
+    private void replay(int run) {
+        int winner = run;
+        for (int t = (run + runs.length) >>> 1; t > 0; t >>>= 1) {
+            if (beats(tree[t], winner)) {
+                int loser = winner;
+                winner = tree[t];
+                tree[t] = loser;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    private boolean beats(int a, int b) {
+        int k = runs.length;
+        if (a == k) {
+            return true;
+        }
+        if (b == k) {
+            return false;
+        }
+        RunReader ra = runs[a];
+        RunReader rb = runs[b];
+        if (ra.exhausted()) {
+            return false;
+        }
+        if (rb.exhausted()) {
+            return true;
+        }
+        long ka = ra.key();
+        long kb = rb.key();
+        return ka < kb || (ka == kb && a < b);
+    }
+}
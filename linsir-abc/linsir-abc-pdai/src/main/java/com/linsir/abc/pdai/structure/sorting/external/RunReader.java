@@ -0,0 +1,187 @@
+package com.linsir.abc.pdai.structure.sorting.external;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * 顺串读取器：两块直接缓冲区轮换，消费一块的同时由 I/O 线程预读下一块
+ *
+ * 说明：
+ * 1. 缓冲区大小是记录长度的整数倍，记录不会跨缓冲区
+ * 2. 预读用带位置的 read(ByteBuffer, long)，同一时刻只有一个预读任务，读位置只由该任务修改，通过 Future 建立可见性
+ * 3. io 为 null 时退化为同步读取
+ */
+final class RunReader implements Closeable {
+
+    private final FileChannel channel;
+
+    private final long end;
+
+    private final int recordSize;
+
+    private final int keyOffset;
+
+    private final ExecutorService io;
+
+    private final ExternalSortMetrics metrics;
+
+    private ByteBuffer current;
+
+    private ByteBuffer next;
+
+    private Future<?> pending;
+
+    // next 中是否有已读入或正在读入的数据
+    private boolean hasNext;
+
+    private long position;
+
+    private long key;
+
+    private boolean exhausted;
+
+
+    RunReader(Path path, int recordSize, int keyOffset, int bufferSize, ExecutorService io, ExternalSortMetrics metrics)
+            throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.end = channel.size();
+        this.recordSize = recordSize;
+        this.keyOffset = keyOffset;
+        this.io = io;
+        this.metrics = metrics;
+        this.current = ByteBuffer.allocateDirect(bufferSize);
+        this.next = ByteBuffer.allocateDirect(bufferSize);
+        try {
+            fill(current);
+            prefetch();
+            loadKey();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    boolean exhausted() {
+        return exhausted;
+    }
+
+    /**
+     * 当前记录的排序键
+     */
+    long key() {
+        return key;
+    }
+
+    /**
+     * 把当前记录追加到 out，调用方保证 out 剩余空间足够
+     */
+    void copyTo(ByteBuffer out) {
+        int at = current.position();
+        out.put(out.position(), current, at, recordSize);
+        out.position(out.position() + recordSize);
+    }
+
+    void advance() throws IOException {
+        current.position(current.position() + recordSize);
+        if (!current.hasRemaining()) {
+            swap();
+        }
+        loadKey();
+    }
+
+    private void loadKey() {
+        if (current.hasRemaining()) {
+            key = current.getLong(current.position() + keyOffset);
+        } else {
+            exhausted = true;
+        }
+    }
+
+    private void swap() throws IOException {
+        if (!hasNext) {
+            current.limit(0);
+            return;
+        }
+        if (pending != null) {
+            await(pending);
+            pending = null;
+        }
+        ByteBuffer consumed = current;
+        current = next;
+        next = consumed;
+        prefetch();
+    }
+
+    private void prefetch() throws IOException {
+        hasNext = position < end;
+        if (!hasNext) {
+            return;
+        }
+        ByteBuffer target = next;
+        if (io == null) {
+            fill(target);
+            return;
+        }
+        pending = io.submit(() -> {
+            try {
+                fill(target);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * 从 position 起读满 buffer 或读到文件末尾，读完后 buffer 处于可读状态
+     */
+    private void fill(ByteBuffer buffer) throws IOException {
+        buffer.clear();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+        }
+        buffer.flip();
+        metrics.addBytesRead(buffer.remaining());
+    }
+
+    private static void await(Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待预读时被中断");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("预读失败", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (pending != null) {
+            // 关闭通道前等预读结束，避免 I/O 线程读已关闭的通道
+            try {
+                pending.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                // 关闭时忽略预读错误
+            }
+        }
+        channel.close();
+    }
+}
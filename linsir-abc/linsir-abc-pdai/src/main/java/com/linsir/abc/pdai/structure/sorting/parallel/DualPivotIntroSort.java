@@ -0,0 +1,308 @@
+package com.linsir.abc.pdai.structure.sorting.parallel;
+
+/**
+ * 双枢轴内省排序
+ *
+ * 说明：
+ * 1. 主体是 Yaroslavskiy 双枢轴快速排序：取 5 个样本排序后用第 2、4 个作为枢轴，一次划分成三段，比单枢轴少约 20% 的元素交换
+ * 2. 两个枢轴相等时（重复元素多）退化为三路划分，避免大量相等元素导致的 O(n²)
+ * 3. 内省：递归深度超过 2·log2(n) 时改用堆排序，最坏情况仍为 O(n log n)
+ * 4. 长度小于 INSERTION_SORT_THRESHOLD 的区间用插入排序，小区间上常数更小
+ * 5. int 与 long 各一份实现（与 JDK 相同的做法，避免装箱和泛型带来的间接调用）；不稳定，原地排序
+ */
+public final class DualPivotIntroSort {
+
+    static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private DualPivotIntroSort() {
+    }
+
+    /**
+     * 对 [from, to) 排序
+     */
+    public static void sort(int[] a, int from, int to) {
+        checkRange(a.length, from, to);
+        int n = to - from;
+        if (n > 1) {
+            sort(a, from, to - 1, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+        }
+    }
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    private static void sort(int[] a, int left, int right, int depth) {
+        while (right - left >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            // 在 1/7 间隔的 5 个位置取样并排好序，取第 2、4 个作为两个枢轴
+            int length = right - left + 1;
+            int seventh = (length >>> 3) + (length >>> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSample(a, e1, e2, e3, e4, e5);
+
+            if (a[e2] == a[e4]) {
+                // 两个枢轴相等说明重复元素多，改用三路划分，等于枢轴的元素一次到位
+                int pivot = a[e3];
+                int lt = left;
+                int gt = right;
+                int i = left;
+                while (i <= gt) {
+                    if (a[i] < pivot) {
+                        swap(a, lt++, i++);
+                    } else if (a[i] > pivot) {
+                        swap(a, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(a, left, lt - 1, depth);
+                left = gt + 1;
+                continue;
+            }
+
+            swap(a, e2, left);
+            swap(a, e4, right);
+            int pivot1 = a[left];
+            int pivot2 = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            for (int k = less; k <= great; k++) {
+                if (a[k] < pivot1) {
+                    swap(a, k, less++);
+                } else if (a[k] > pivot2) {
+                    while (k < great && a[great] > pivot2) {
+                        great--;
+                    }
+                    swap(a, k, great--);
+                    if (a[k] < pivot1) {
+                        swap(a, k, less++);
+                    }
+                }
+            }
+            swap(a, left, less - 1);
+            swap(a, right, great + 1);
+
+            // 递归较小的两段，中间段（pivot1 ≤ x ≤ pivot2）在循环中继续处理
+            sort(a, left, less - 2, depth);
+            sort(a, great + 2, right, depth);
+            left = less;
+            right = great;
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSample(int[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] index = {e1, e2, e3, e4, e5};
+        for (int i = 1; i < 5; i++) {
+            int value = a[index[i]];
+            int j = i - 1;
+            while (j >= 0 && a[index[j]] > value) {
+                a[index[j + 1]] = a[index[j]];
+                j--;
+            }
+            a[index[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(int[] a, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(int[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] a, int base, int i, int n) {
+        int value = a[base + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && a[base + child + 1] > a[base + child]) {
+                child++;
+            }
+            if (a[base + child] <= value) {
+                break;
+            }
+            a[base + i] = a[base + child];
+            i = child;
+        }
+        a[base + i] = value;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    public static void sort(long[] a, int from, int to) {
+        checkRange(a.length, from, to);
+        int n = to - from;
+        if (n > 1) {
+            sort(a, from, to - 1, 2 * (31 - Integer.numberOfLeadingZeros(n)));
+        }
+    }
+
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    private static void sort(long[] a, int left, int right, int depth) {
+        while (right - left >= INSERTION_SORT_THRESHOLD) {
+            if (depth-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            // 在 1/7 间隔的 5 个位置取样并排好序，取第 2、4 个作为两个枢轴
+            int length = right - left + 1;
+            int seventh = (length >>> 3) + (length >>> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSample(a, e1, e2, e3, e4, e5);
+
+            if (a[e2] == a[e4]) {
+                // 两个枢轴相等说明重复元素多，改用三路划分，等于枢轴的元素一次到位
+                long pivot = a[e3];
+                int lt = left;
+                int gt = right;
+                int i = left;
+                while (i <= gt) {
+                    if (a[i] < pivot) {
+                        swap(a, lt++, i++);
+                    } else if (a[i] > pivot) {
+                        swap(a, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                sort(a, left, lt - 1, depth);
+                left = gt + 1;
+                continue;
+            }
+
+            swap(a, e2, left);
+            swap(a, e4, right);
+            long pivot1 = a[left];
+            long pivot2 = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            for (int k = less; k <= great; k++) {
+                if (a[k] < pivot1) {
+                    swap(a, k, less++);
+                } else if (a[k] > pivot2) {
+                    while (k < great && a[great] > pivot2) {
+                        great--;
+                    }
+                    swap(a, k, great--);
+                    if (a[k] < pivot1) {
+                        swap(a, k, less++);
+                    }
+                }
+            }
+            swap(a, left, less - 1);
+            swap(a, right, great + 1);
+
+            // 递归较小的两段，中间段（pivot1 ≤ x ≤ pivot2）在循环中继续处理
+            sort(a, left, less - 2, depth);
+            sort(a, great + 2, right, depth);
+            left = less;
+            right = great;
+        }
+        insertionSort(a, left, right);
+    }
+
+    private static void sortSample(long[] a, int e1, int e2, int e3, int e4, int e5) {
+        int[] index = {e1, e2, e3, e4, e5};
+        for (int i = 1; i < 5; i++) {
+            long value = a[index[i]];
+            int j = i - 1;
+            while (j >= 0 && a[index[j]] > value) {
+                a[index[j + 1]] = a[index[j]];
+                j--;
+            }
+            a[index[j + 1]] = value;
+        }
+    }
+
+    private static void insertionSort(long[] a, int left, int right) {
+        for (int i = left + 1; i <= right; i++) {
+            long value = a[i];
+            int j = i - 1;
+            while (j >= left && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static void heapSort(long[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int base, int i, int n) {
+        long value = a[base + i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && a[base + child + 1] > a[base + child]) {
+                child++;
+            }
+            if (a[base + child] <= value) {
+                break;
+            }
+            a[base + i] = a[base + child];
+            i = child;
+        }
+        a[base + i] = value;
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+
+    static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IllegalArgumentException("非法区间 [" + from + ", " + to + ")，数组长度 " + length);
+        }
+    }
+}
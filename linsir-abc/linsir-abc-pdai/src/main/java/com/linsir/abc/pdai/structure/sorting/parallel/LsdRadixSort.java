@@ -0,0 +1,279 @@
+package com.linsir.abc.pdai.structure.sorting.parallel;
+
+import java.util.Arrays;
+
+/**
+ * LSD 基数排序
+ *
+ * 说明：
+ * 1. 与 RadixSort 按十进制位、每轮新建 output 数组不同，这里按 8 位一个字节分桶，int 4 轮、long 8 轮，
+ *    一次遍历同时统计所有字节的直方图，之后每轮只做一次分发
+ * 2. 某个字节上所有键都相同（直方图只有一个非空桶）时跳过这一轮，小范围整数通常只需要一两轮
+ * 3. 有符号数把最高字节的符号位取反，float 转成可比较的 int 位（负数翻转全部位，正数只翻转符号位），排完再转回；
+ *    NaN 统一为规范 NaN 排在最后，-0.0 排在 0.0 之前，与 Arrays.sort 一致
+ * 4. 键值排序：同时移动一个 int 值数组（例如原始下标），排序稳定；argsort 返回排序后的下标
+ * 5. 临时缓冲区保存在实例中，多次排序时复用，不再每次分配；实例非线程安全，每个线程使用自己的实例
+ */
+public class LsdRadixSort {
+
+    private static final int RADIX = 256;
+
+    private int[] intScratch = new int[0];
+
+    private long[] longScratch = new long[0];
+
+    private int[] valueScratch = new int[0];
+
+    // float 转换后的键
+    private int[] floatKeys = new int[0];
+
+    private final int[] counts = new int[8 * RADIX];
+
+
+    public void sort(int[] a) {
+        sort(a, null, a.length);
+    }
+
+    /**
+     * 对 a 的前 length 个元素排序
+     */
+    public void sort(int[] a, int length) {
+        sort(a, null, length);
+    }
+
+    public void sort(long[] a) {
+        sort(a, null, a.length);
+    }
+
+    public void sort(long[] a, int length) {
+        sort(a, null, length);
+    }
+
+    public void sort(float[] a) {
+        sort(a, a.length);
+    }
+
+    public void sort(float[] a, int length) {
+        checkLength(a.length, length);
+        if (floatKeys.length < length) {
+            floatKeys = new int[length];
+        }
+        int[] bits = floatKeys;
+        for (int i = 0; i < length; i++) {
+            bits[i] = toSortableInt(a[i]);
+        }
+        sort(bits, null, length);
+        for (int i = 0; i < length; i++) {
+            a[i] = fromSortableInt(bits[i]);
+        }
+    }
+
+    /**
+     * 按 keys 排序，values 跟随移动，排序稳定
+     */
+    public void sort(int[] keys, int[] values, int length) {
+        checkLength(keys.length, length);
+        if (values != null) {
+            checkLength(values.length, length);
+        }
+        if (length < 2) {
+            return;
+        }
+        int[] count = histogram(keys, length);
+        int[] src = keys;
+        int[] dst = ensureIntScratch(length);
+        int[] srcValues = values;
+        int[] dstValues = values == null ? null : ensureValueScratch(length);
+        for (int pass = 0; pass < 4; pass++) {
+            int offset = pass * RADIX;
+            int shift = pass * 8;
+            int flip = pass == 3 ? 0x80 : 0;
+            if (skip(count, offset, length, ((src[0] >>> shift) & 0xFF) ^ flip)) {
+                continue;
+            }
+            toOffsets(count, offset);
+            for (int i = 0; i < length; i++) {
+                int bucket = offset + (((src[i] >>> shift) & 0xFF) ^ flip);
+                int pos = count[bucket]++;
+                dst[pos] = src[i];
+                if (dstValues != null) {
+                    dstValues[pos] = srcValues[i];
+                }
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+            if (dstValues != null) {
+                tmp = srcValues;
+                srcValues = dstValues;
+                dstValues = tmp;
+            }
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, length);
+            if (values != null) {
+                System.arraycopy(srcValues, 0, values, 0, length);
+            }
+        }
+    }
+
+    public void sort(long[] keys, int[] values, int length) {
+        checkLength(keys.length, length);
+        if (values != null) {
+            checkLength(values.length, length);
+        }
+        if (length < 2) {
+            return;
+        }
+        int[] count = histogram(keys, length);
+        long[] src = keys;
+        long[] dst = ensureLongScratch(length);
+        int[] srcValues = values;
+        int[] dstValues = values == null ? null : ensureValueScratch(length);
+        for (int pass = 0; pass < 8; pass++) {
+            int offset = pass * RADIX;
+            int shift = pass * 8;
+            int flip = pass == 7 ? 0x80 : 0;
+            if (skip(count, offset, length, ((int) (src[0] >>> shift) & 0xFF) ^ flip)) {
+                continue;
+            }
+            toOffsets(count, offset);
+            for (int i = 0; i < length; i++) {
+                int bucket = offset + (((int) (src[i] >>> shift) & 0xFF) ^ flip);
+                int pos = count[bucket]++;
+                dst[pos] = src[i];
+                if (dstValues != null) {
+                    dstValues[pos] = srcValues[i];
+                }
+            }
+            long[] tmp = src;
+            src = dst;
+            dst = tmp;
+            if (dstValues != null) {
+                int[] tmpValues = srcValues;
+                srcValues = dstValues;
+                dstValues = tmpValues;
+            }
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, length);
+            if (values != null) {
+                System.arraycopy(srcValues, 0, values, 0, length);
+            }
+        }
+    }
+
+    /**
+     * 返回使 keys 有序的下标排列，keys 本身不变；相等的键保持原来的先后顺序
+     */
+    public int[] argsort(int[] keys) {
+        int[] copy = keys.clone();
+        int[] index = identity(keys.length);
+        sort(copy, index, keys.length);
+        return index;
+    }
+
+    public int[] argsort(long[] keys) {
+        long[] copy = keys.clone();
+        int[] index = identity(keys.length);
+        sort(copy, index, keys.length);
+        return index;
+    }
+
+    /**
+     * 当前持有的临时缓冲区字节数
+     */
+    public long scratchBytes() {
+        return (long) intScratch.length * 4 + (long) longScratch.length * 8
+                + (long) valueScratch.length * 4 + (long) floatKeys.length * 4;
+    }
+
+    static int toSortableInt(float value) {
+        int bits = Float.floatToIntBits(value);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    static float fromSortableInt(int bits) {
+        return Float.intBitsToFloat(bits ^ ((bits >> 31) & 0x7FFFFFFF));
+    }
+
+    private int[] histogram(int[] keys, int length) {
+        int[] count = counts;
+        Arrays.fill(count, 0, 4 * RADIX, 0);
+        for (int i = 0; i < length; i++) {
+            int key = keys[i];
+            count[key & 0xFF]++;
+            count[RADIX + ((key >>> 8) & 0xFF)]++;
+            count[2 * RADIX + ((key >>> 16) & 0xFF)]++;
+            count[3 * RADIX + ((key >>> 24) ^ 0x80)]++;
+        }
+        return count;
+    }
+
+    private int[] histogram(long[] keys, int length) {
+        int[] count = counts;
+        Arrays.fill(count, 0);
+        for (int i = 0; i < length; i++) {
+            long key = keys[i];
+            for (int pass = 0; pass < 7; pass++) {
+                count[pass * RADIX + ((int) (key >>> (pass * 8)) & 0xFF)]++;
+            }
+            count[7 * RADIX + ((int) (key >>> 56) ^ 0x80)]++;
+        }
+        return count;
+    }
+
+    /**
+     * 这一字节上所有键都落在同一个桶时跳过
+     */
+    private static boolean skip(int[] count, int offset, int length, int firstBucket) {
+        return count[offset + firstBucket] == length;
+    }
+
+    /**
+     * 把计数转成每个桶的起始位置
+     */
+    private static void toOffsets(int[] count, int offset) {
+        int sum = 0;
+        for (int i = offset; i < offset + RADIX; i++) {
+            int c = count[i];
+            count[i] = sum;
+            sum += c;
+        }
+    }
+
+    private int[] ensureIntScratch(int length) {
+        if (intScratch.length < length) {
+            intScratch = new int[length];
+        }
+        return intScratch;
+    }
+
+    private long[] ensureLongScratch(int length) {
+        if (longScratch.length < length) {
+            longScratch = new long[length];
+        }
+        return longScratch;
+    }
+
+    private int[] ensureValueScratch(int length) {
+        if (valueScratch.length < length) {
+            valueScratch = new int[length];
+        }
+        return valueScratch;
+    }
+
+    private static int[] identity(int n) {
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        return index;
+    }
+
+    private static void checkLength(int arrayLength, int length) {
+        if (length < 0 || length > arrayLength) {
+            throw new IllegalArgumentException("length 超出数组长度: " + length + " > " + arrayLength);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package com.linsir.abc.pdai.structure.sorting.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/Join 并行归并排序
+ *
+ * 说明：
+ * 1. 与 MergeSort 相同的自顶向下分治，但两半作为 fork/join 子任务并行排序；叶子区间交给 DualPivotIntroSort
+ * 2. 原数组和一个等长缓冲区交替作为源和目标（ping-pong），每层只做一次合并，不像 MergeSort 那样每次先复制到临时数组
+ * 3. 合并本身也并行：取较长一段的中位数，在另一段中二分定位，拆成两个互不相交的合并任务，避免顶层合并成为 O(n) 的串行瓶颈
+ * 4. 叶子大小按 n / (4 × 并行度) 计算且不小于 MIN_LEAF_SIZE，任务数足够做负载均衡，又不会太碎
+ * 5. 额外内存为一个等长数组；叶子排序不稳定，因此整体不稳定（对原始类型没有影响）
+ */
+public final class ParallelMergeSort {
+
+    static final int MIN_LEAF_SIZE = 1 << 13;
+
+    private ParallelMergeSort() {
+    }
+
+    static int leafSize(int n, int parallelism) {
+        return Math.max(MIN_LEAF_SIZE, n / (Math.max(1, parallelism) << 2));
+    }
+
+    public static void sort(int[] a) {
+        sort(a, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(int[] a, ForkJoinPool pool) {
+        int n = a.length;
+        if (n <= MIN_LEAF_SIZE) {
+            DualPivotIntroSort.sort(a);
+            return;
+        }
+        int leaf = leafSize(n, pool.getParallelism());
+        pool.invoke(new IntSortTask(a, new int[n], 0, n, false, leaf));
+    }
+
+    /**
+     * 把 [lo, hi) 排好序放入 a（intoBuffer 为 false）或 buffer（intoBuffer 为 true）；
+     * 两半先排序到另一个数组，再合并回目标数组，每层只合并一次、不需要额外复制
+     */
+    private static final class IntSortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] buffer;
+        private final int lo;
+        private final int hi;
+        private final boolean intoBuffer;
+        private final int leaf;
+
+        IntSortTask(int[] a, int[] buffer, int lo, int hi, boolean intoBuffer, int leaf) {
+            this.a = a;
+            this.buffer = buffer;
+            this.lo = lo;
+            this.hi = hi;
+            this.intoBuffer = intoBuffer;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= leaf) {
+                DualPivotIntroSort.sort(a, lo, hi);
+                if (intoBuffer) {
+                    System.arraycopy(a, lo, buffer, lo, hi - lo);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new IntSortTask(a, buffer, lo, mid, !intoBuffer, leaf),
+                    new IntSortTask(a, buffer, mid, hi, !intoBuffer, leaf));
+            int[] from = intoBuffer ? a : buffer;
+            int[] to = intoBuffer ? buffer : a;
+            new IntMergeTask(from, lo, mid, mid, hi, to, lo, leaf).compute();
+        }
+    }
+
+    /**
+     * 把 src 中两段有序区间合并到 dst；区间较大时取较长一段的中位数，在另一段中二分定位，拆成两个独立的合并任务并行执行
+     */
+    private static final class IntMergeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int aLo;
+        private final int aHi;
+        private final int bLo;
+        private final int bHi;
+        private final int[] dst;
+        private final int dLo;
+        private final int leaf;
+
+        IntMergeTask(int[] src, int aLo, int aHi, int bLo, int bHi, int[] dst, int dLo, int leaf) {
+            this.src = src;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.bLo = bLo;
+            this.bHi = bHi;
+            this.dst = dst;
+            this.dLo = dLo;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            int aLo = this.aLo;
+            int aHi = this.aHi;
+            int bLo = this.bLo;
+            int bHi = this.bHi;
+            if ((aHi - aLo) + (bHi - bLo) <= leaf) {
+                merge(src, aLo, aHi, bLo, bHi, dst, dLo);
+                return;
+            }
+            if (aHi - aLo < bHi - bLo) {
+                int tmp = aLo;
+                aLo = bLo;
+                bLo = tmp;
+                tmp = aHi;
+                aHi = bHi;
+                bHi = tmp;
+            }
+            int aMid = (aLo + aHi) >>> 1;
+            int pivot = src[aMid];
+            int bMid = lowerBound(src, bLo, bHi, pivot);
+            int dMid = dLo + (aMid - aLo) + (bMid - bLo);
+            dst[dMid] = pivot;
+            invokeAll(new IntMergeTask(src, aLo, aMid, bLo, bMid, dst, dLo, leaf),
+                    new IntMergeTask(src, aMid + 1, aHi, bMid, bHi, dst, dMid + 1, leaf));
+        }
+    }
+
+    static void merge(int[] src, int aLo, int aHi, int bLo, int bHi, int[] dst, int d) {
+        int i = aLo;
+        int j = bLo;
+        while (i < aHi && j < bHi) {
+            dst[d++] = src[j] < src[i] ? src[j++] : src[i++];
+        }
+        System.arraycopy(src, i, dst, d, aHi - i);
+        System.arraycopy(src, j, dst, d + aHi - i, bHi - j);
+    }
+
+    private static int lowerBound(int[] a, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    public static void sort(long[] a) {
+        sort(a, ForkJoinPool.commonPool());
+    }
+
+    public static void sort(long[] a, ForkJoinPool pool) {
+        int n = a.length;
+        if (n <= MIN_LEAF_SIZE) {
+            DualPivotIntroSort.sort(a);
+            return;
+        }
+        int leaf = leafSize(n, pool.getParallelism());
+        pool.invoke(new LongSortTask(a, new long[n], 0, n, false, leaf));
+    }
+
+    /**
+     * 把 [lo, hi) 排好序放入 a（intoBuffer 为 false）或 buffer（intoBuffer 为 true）；
+     * 两半先排序到另一个数组，再合并回目标数组，每层只合并一次、不需要额外复制
+     */
+    private static final class LongSortTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final long[] buffer;
+        private final int lo;
+        private final int hi;
+        private final boolean intoBuffer;
+        private final int leaf;
+
+        LongSortTask(long[] a, long[] buffer, int lo, int hi, boolean intoBuffer, int leaf) {
+            this.a = a;
+            this.buffer = buffer;
+            this.lo = lo;
+            this.hi = hi;
+            this.intoBuffer = intoBuffer;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= leaf) {
+                DualPivotIntroSort.sort(a, lo, hi);
+                if (intoBuffer) {
+                    System.arraycopy(a, lo, buffer, lo, hi - lo);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LongSortTask(a, buffer, lo, mid, !intoBuffer, leaf),
+                    new LongSortTask(a, buffer, mid, hi, !intoBuffer, leaf));
+            long[] from = intoBuffer ? a : buffer;
+            long[] to = intoBuffer ? buffer : a;
+            new LongMergeTask(from, lo, mid, mid, hi, to, lo, leaf).compute();
+        }
+    }
+
+    /**
+     * 把 src 中两段有序区间合并到 dst；区间较大时取较长一段的中位数，在另一段中二分定位，拆成两个独立的合并任务并行执行
+     */
+    private static final class LongMergeTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long[] src;
+        private final int aLo;
+        private final int aHi;
+        private final int bLo;
+        private final int bHi;
+        private final long[] dst;
+        private final int dLo;
+        private final int leaf;
+
+        LongMergeTask(long[] src, int aLo, int aHi, int bLo, int bHi, long[] dst, int dLo, int leaf) {
+            this.src = src;
+            this.aLo = aLo;
+            this.aHi = aHi;
+            this.bLo = bLo;
+            this.bHi = bHi;
+            this.dst = dst;
+            this.dLo = dLo;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            int aLo = this.aLo;
+            int aHi = this.aHi;
+            int bLo = this.bLo;
+            int bHi = this.bHi;
+            if ((aHi - aLo) + (bHi - bLo) <= leaf) {
+                merge(src, aLo, aHi, bLo, bHi, dst, dLo);
+                return;
+            }
+            if (aHi - aLo < bHi - bLo) {
+                int tmp = aLo;
+                aLo = bLo;
+                bLo = tmp;
+                tmp = aHi;
+                aHi = bHi;
+                bHi = tmp;
+            }
+            int aMid = (aLo + aHi) >>> 1;
+            long pivot = src[aMid];
+            int bMid = lowerBound(src, bLo, bHi, pivot);
+            int dMid = dLo + (aMid - aLo) + (bMid - bLo);
+            dst[dMid] = pivot;
+            invokeAll(new LongMergeTask(src, aLo, aMid, bLo, bMid, dst, dLo, leaf),
+                    new LongMergeTask(src, aMid + 1, aHi, bMid, bHi, dst, dMid + 1, leaf));
+        }
+    }
+
+    static void merge(long[] src, int aLo, int aHi, int bLo, int bHi, long[] dst, int d) {
+        int i = aLo;
+        int j = bLo;
+        while (i < aHi && j < bHi) {
+            dst[d++] = src[j] < src[i] ? src[j++] : src[i++];
+        }
+        System.arraycopy(src, i, dst, d, aHi - i);
+        System.arraycopy(src, j, dst, d + aHi - i, bHi - j);
+    }
+
+    private static int lowerBound(long[] a, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,177 @@
+package com.linsir.abc.pdai.structure.sorting.parallel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 排序算法的 JMH 基准：规模从 1K 到 1 亿，与 Arrays.sort / Arrays.parallelSort 对比
+ *
+ * 运行：java -Xmx6g -cp ... SortBenchmark [规模列表，逗号分隔，默认全部]
+ *
+ * 说明：
+ * 1. 每次调用先把随机源数组复制到工作数组再排序，copy 基准单独测复制本身的开销，读结果时要减掉
+ * 2. 1 亿个 int 的源数组、工作数组、归并/基数排序的缓冲区各 400MB，fork 出的 JVM 堆给到 4g
+ * 3. argsort 对比的是"按键排序并带出原下标"：LSD 基数排序一次完成，Arrays.sort 需要先把键和下标打包进 long
+ * 4. 正式压测前先用同一份数据校验所有实现的结果一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SortBenchmark {
+
+    @Param({"1000", "100000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"random", "fewUnique"})
+    public String distribution;
+
+    private int[] source;
+
+    private int[] work;
+
+    private LsdRadixSort radixSort;
+
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        source = randomInts(size, distribution, 42);
+        work = new int[size];
+        radixSort = new LsdRadixSort();
+        // 预先把缓冲区撑到目标大小，不把第一次分配算进测量
+        radixSort.sort(source.clone());
+    }
+
+    @Benchmark
+    public int[] copy() {
+        System.arraycopy(source, 0, work, 0, size);
+        return work;
+    }
+
+    @Benchmark
+    public int[] arraysSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        Arrays.sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] arraysParallelSort() {
+        System.arraycopy(source, 0, work, 0, size);
+        Arrays.parallelSort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] forkJoinMerge() {
+        System.arraycopy(source, 0, work, 0, size);
+        ParallelMergeSort.sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] dualPivotIntro() {
+        System.arraycopy(source, 0, work, 0, size);
+        DualPivotIntroSort.sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] lsdRadix() {
+        System.arraycopy(source, 0, work, 0, size);
+        radixSort.sort(work);
+        return work;
+    }
+
+    @Benchmark
+    public int[] argsortRadix() {
+        return radixSort.argsort(source);
+    }
+
+    @Benchmark
+    public long[] argsortPacked() {
+        // 键翻转符号位后放高 32 位、下标放低 32 位，排序后低 32 位即为稳定的下标顺序
+        long[] packed = new long[size];
+        for (int i = 0; i < size; i++) {
+            packed[i] = ((long) (source[i] ^ Integer.MIN_VALUE) << 32) | i;
+        }
+        Arrays.sort(packed);
+        return packed;
+    }
+
+    static int[] randomInts(int n, String distribution, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] a = new int[n];
+        boolean fewUnique = "fewUnique".equals(distribution);
+        for (int i = 0; i < n; i++) {
+            a[i] = fewUnique ? random.nextInt(100) : random.nextInt();
+        }
+        return a;
+    }
+
+    public static void main(String[] args) throws Exception {
+        verify(1_000_003);
+
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.include(SortBenchmark.class.getSimpleName());
+        if (args.length > 0) {
+            builder.param("size", args[0].split(","));
+        }
+        Options options = builder.build();
+        new Runner(options).run();
+    }
+
+    /**
+     * 用同一份数据校验各实现与 Arrays.sort 一致，argsort 额外检查稳定性
+     */
+    private static void verify(int n) {
+        LsdRadixSort radixSort = new LsdRadixSort();
+        for (String distribution : new String[]{"random", "fewUnique"}) {
+            int[] source = randomInts(n, distribution, 7);
+            int[] expected = source.clone();
+            Arrays.sort(expected);
+
+            int[] a = source.clone();
+            ParallelMergeSort.sort(a);
+            check(Arrays.equals(a, expected), "forkJoinMerge");
+            a = source.clone();
+            DualPivotIntroSort.sort(a);
+            check(Arrays.equals(a, expected), "dualPivotIntro");
+            a = source.clone();
+            radixSort.sort(a);
+            check(Arrays.equals(a, expected), "lsdRadix");
+
+            int[] index = radixSort.argsort(source);
+            for (int i = 0; i < n; i++) {
+                check(source[index[i]] == expected[i], "argsort");
+                check(i == 0 || source[index[i - 1]] != source[index[i]] || index[i - 1] < index[i], "argsort 稳定性");
+            }
+        }
+        System.out.printf("校验通过：%,d 个元素，基数排序缓冲区 %,d 字节%n", n, radixSort.scratchBytes());
+    }
+
+    private static void check(boolean condition, String name) {
+        if (!condition) {
+            throw new IllegalStateException(name + " 结果与 Arrays.sort 不一致");
+        }
+    }
+}
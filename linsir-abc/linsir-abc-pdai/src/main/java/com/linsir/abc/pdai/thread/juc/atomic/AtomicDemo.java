@@ -1,5 +1,12 @@
 package com.linsir.abc.pdai.thread.juc.atomic;
 
+import com.linsir.abc.pdai.thread.juc.atomic.counter.LongCounter;
+import com.linsir.abc.pdai.thread.juc.atomic.counter.PeakRecorder;
+import com.linsir.abc.pdai.thread.juc.atomic.counter.PerThreadCounter;
+import com.linsir.abc.pdai.thread.juc.atomic.counter.ShardedHistogram;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -212,6 +219,8 @@ public class AtomicDemo {
     }
     
     // 7. 原子类的性能对比（与synchronized相比）
+    // 这里用 currentTimeMillis 粗略计时，没有预热，结果受 JIT 和线程启动影响很大；
+    // 1~64 线程下各种计数器的 JMH 对比见 counter.CounterBenchmark
     static class AtomicPerformanceDemo {
         private static int syncCounter = 0;
         private static AtomicInteger atomicCounter = new AtomicInteger(0);
@@ -274,6 +283,44 @@ public class AtomicDemo {
         }
     }
     
+    // 8. 计数器工具：分段计数、每线程计数、区间峰值、分片直方图
+    static class CounterToolkitDemo {
+        public static void test() {
+            System.out.println("8. 计数器工具示例:");
+            LongCounter striped = LongCounter.striped();
+            PerThreadCounter perThread = LongCounter.perThread(Duration.ofMillis(100));
+            PeakRecorder peak = new PeakRecorder();
+            ShardedHistogram latency = new ShardedHistogram();
+
+            Thread[] threads = new Thread[10];
+            for (int i = 0; i < threads.length; i++) {
+                threads[i] = new Thread(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        striped.increment();
+                        perThread.increment();
+                        // 模拟请求延迟（微秒）
+                        long micros = 100 + ThreadLocalRandom.current().nextInt(900);
+                        peak.record(micros);
+                        latency.record(micros);
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+            System.out.println("分段计数器: " + striped.sum());
+            System.out.println("每线程计数器: " + perThread.sum() + "（线程结束后槽位已合并，剩余槽位 " + perThread.threads() + "）");
+            System.out.println("本周期最大延迟: " + peak.getThenReset() + "us");
+            System.out.println("延迟分布: " + latency.snapshot());
+            System.out.println();
+        }
+    }
+
     public static void main(String[] args) {
         AtomicIntegerDemo.test();
         AtomicLongDemo.test();
@@ -282,5 +329,6 @@ public class AtomicDemo {
         AtomicStampedReferenceDemo.test();
         AtomicInMultiThreadDemo.test();
         AtomicPerformanceDemo.test();
+        CounterToolkitDemo.test();
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LongAdder 计数器
+ *
+ * 说明：
+ * 1. 无竞争时只 CAS 一个 base 字段；CAS 失败后才创建 Cell 数组（@Contended 填充），线程按探针值选 Cell，
+ *    再冲突就换探针、必要时把数组扩大一倍，上限是 CPU 核数
+ * 2. 与 StripedCounter 相比：槽位按需创建、会根据冲突调整，但第一次竞争时有扩容开销
+ */
+final class AdderCounter implements LongCounter {
+
+    private final LongAdder adder = new LongAdder();
+
+    @Override
+    public void add(long delta) {
+        adder.add(delta);
+    }
+
+    @Override
+    public void increment() {
+        adder.increment();
+    }
+
+    @Override
+    public long sum() {
+        return adder.sum();
+    }
+}
@@ -0,0 +1,21 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AtomicLong 计数器：基线，所有线程在同一个缓存行上做原子加
+ */
+final class AtomicLongCounter implements LongCounter {
+
+    private final AtomicLong value = new AtomicLong();
+
+    @Override
+    public void add(long delta) {
+        value.addAndGet(delta);
+    }
+
+    @Override
+    public long sum() {
+        return value.get();
+    }
+}
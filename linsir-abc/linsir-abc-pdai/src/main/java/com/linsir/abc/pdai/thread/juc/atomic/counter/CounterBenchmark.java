@@ -0,0 +1,188 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 计数器的 JMH 基准：线程数从 1 增加到 64 时各实现的吞吐
+ *
+ * 运行：java -cp ... CounterBenchmark [最大线程数，默认 64]
+ *
+ * 说明：
+ * 1. increment：所有线程对同一个计数器 +1，实现见 LongCounter（atomic / synchronized / lock / striped / adder / perThread）
+ * 2. record：所有线程向同一个直方图记录 1000~1100 之间的随机值（集中在少数几个桶，模拟延迟分布的热点），对比 1 个分片与 16 个分片
+ * 3. 每个线程数跑完后输出汇总表：总吞吐（百万次/秒）和相对单线程的倍数；
+ *    无竞争的实现应接近线性增长（受核数限制），竞争越激烈越早饱和甚至下降，倍数小于 1 说明加线程反而变慢
+ * 4. 线程数超过 CPU 核数后多出来的线程只是轮流运行，吞吐不会再增长；锁实现此时还会因为持锁线程被切走而明显下降
+ * 5. 正式压测前先校验每种实现在多线程下的结果精确
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+
+    static final String[] IMPLS = {"atomic", "synchronized", "lock", "striped", "adder", "perThread"};
+
+    @State(Scope.Benchmark)
+    public static class CounterState {
+
+        @Param({"atomic", "synchronized", "lock", "striped", "adder", "perThread"})
+        public String impl;
+
+        LongCounter counter;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            counter = create(impl);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class HistogramState {
+
+        @Param({"1", "16"})
+        public int shards;
+
+        ShardedHistogram histogram;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            histogram = new ShardedHistogram(shards);
+        }
+    }
+
+    @Benchmark
+    public void increment(CounterState state) {
+        state.counter.increment();
+    }
+
+    @Benchmark
+    public void record(HistogramState state) {
+        state.histogram.record(1000 + ThreadLocalRandom.current().nextInt(100));
+    }
+
+    static LongCounter create(String impl) {
+        return switch (impl) {
+            case "atomic" -> LongCounter.atomic();
+            case "synchronized" -> LongCounter.synchronizedCounter();
+            case "lock" -> LongCounter.reentrantLock();
+            case "striped" -> LongCounter.striped();
+            case "adder" -> LongCounter.adder();
+            case "perThread" -> LongCounter.perThread(Duration.ofSeconds(1));
+            default -> throw new IllegalArgumentException("未知实现: " + impl);
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        verify(8, 500_000);
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        Map<String, Map<Integer, Double>> table = new LinkedHashMap<>();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(CounterBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .verbosity(VerboseMode.SILENT)
+                    .build();
+            for (RunResult result : new Runner(options).run()) {
+                String label = result.getParams().getBenchmark().endsWith("increment")
+                        ? result.getParams().getParam("impl")
+                        : "histogram-" + result.getParams().getParam("shards");
+                table.computeIfAbsent(label, key -> new LinkedHashMap<>())
+                        .put(threads, result.getPrimaryResult().getScore());
+            }
+            System.out.printf("%d 线程完成%n", threads);
+        }
+        print(table, threadCounts);
+    }
+
+    private static void print(Map<String, Map<Integer, Double>> table, List<Integer> threadCounts) {
+        System.out.printf("%n总吞吐（百万次/秒），括号内为相对单线程的倍数，CPU %d 核%n", Runtime.getRuntime().availableProcessors());
+        // 中文字符占两列，表头按显示宽度少补两格
+        System.out.printf("%-12s", "实现");
+        for (int threads : threadCounts) {
+            System.out.printf("%16s", threads + " 线程");
+        }
+        System.out.println();
+        for (Map.Entry<String, Map<Integer, Double>> row : table.entrySet()) {
+            System.out.printf("%-14s", row.getKey());
+            double base = row.getValue().getOrDefault(1, Double.NaN);
+            for (int threads : threadCounts) {
+                double score = row.getValue().getOrDefault(threads, Double.NaN);
+                System.out.printf("%18s", String.format("%.1f (%.2fx)", score / 1e6, score / base));
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * 每种计数器、直方图在多线程下的结果必须精确
+     */
+    static void verify(int threads, int perThread) throws InterruptedException {
+        for (String impl : IMPLS) {
+            LongCounter counter = create(impl);
+            run(threads, () -> {
+                for (int i = 0; i < perThread; i++) {
+                    counter.increment();
+                }
+            });
+            long expected = (long) threads * perThread;
+            if (counter.sum() != expected) {
+                throw new IllegalStateException(impl + " 计数错误: " + counter.sum() + " != " + expected);
+            }
+        }
+        ShardedHistogram histogram = new ShardedHistogram(4);
+        run(threads, () -> {
+            for (int i = 1; i <= perThread; i++) {
+                histogram.record(i);
+            }
+        });
+        ShardedHistogram.Snapshot snapshot = histogram.snapshot();
+        long p50 = snapshot.valueAt(50);
+        if (snapshot.count() != (long) threads * perThread || snapshot.max() != perThread
+                || Math.abs(p50 - perThread / 2) > perThread / 16) {
+            throw new IllegalStateException("直方图错误: " + snapshot);
+        }
+        System.out.printf("并发校验通过：%d 个线程 × %d 次，直方图 %s%n", threads, perThread, snapshot);
+    }
+
+    private static void run(int threads, Runnable task) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(task);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.time.Duration;
+
+/**
+ * 多线程计数器
+ *
+ * 说明：
+ * 1. 写多读少的统计（请求数、字节数）只关心最终的和，不需要每次 add 都得到最新值，所以可以把写分散开，读的时候再汇总
+ * 2. 实现按写的竞争程度从高到低：
+ *    - synchronizedCounter / reentrantLock：所有线程抢一把锁（LockDemo 里的写法）
+ *    - atomic：AtomicLong，一个缓存行上的原子加，线程越多缓存行来回传递越频繁
+ *    - striped：固定个数的带填充槽位，线程按 id 散列到槽位上原子加
+ *    - adder：LongAdder，竞争时自动扩展槽位、线程冲突时换槽位
+ *    - perThread：每个线程独占一个槽位，单写者不需要原子指令，读时汇总所有线程的槽位，汇总结果按间隔缓存
+ * 3. sum 在并发 add 时不是某一时刻的精确快照，只保证停止写入后的结果精确
+ */
+public interface LongCounter {
+
+    void add(long delta);
+
+    default void increment() {
+        add(1);
+    }
+
+    long sum();
+
+    static LongCounter atomic() {
+        return new AtomicLongCounter();
+    }
+
+    static LongCounter synchronizedCounter() {
+        return new SynchronizedCounter();
+    }
+
+    static LongCounter reentrantLock() {
+        return new ReentrantLockCounter();
+    }
+
+    /**
+     * 槽位数为 CPU 核数的 2 倍向上取整为 2 的幂
+     */
+    static LongCounter striped() {
+        return new StripedCounter(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    static LongCounter adder() {
+        return new AdderCounter();
+    }
+
+    static PerThreadCounter perThread(Duration aggregateInterval) {
+        return new PerThreadCounter(aggregateInterval);
+    }
+}
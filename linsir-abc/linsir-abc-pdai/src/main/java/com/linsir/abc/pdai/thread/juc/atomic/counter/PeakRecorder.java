@@ -0,0 +1,31 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * 区间峰值记录：LongAccumulator(Math::max) 的包装，记录一个上报周期内的最大值（最大延迟、最大批量、最大并发数）
+ *
+ * 说明：
+ * 1. LongAccumulator 与 LongAdder 同样是分段的，record 只在值可能变大时才写：当前槽位已经不小于新值时 CAS 直接跳过，
+ *    大多数 record 只读不写
+ * 2. getThenReset 取出本周期的峰值并重置，应由单个上报线程调用；与 record 并发时，重置瞬间的记录可能算到下一周期
+ */
+public final class PeakRecorder {
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public void record(long value) {
+        max.accumulate(value);
+    }
+
+    /**
+     * 当前峰值，没有记录时返回 Long.MIN_VALUE
+     */
+    public long peak() {
+        return max.get();
+    }
+
+    public long getThenReset() {
+        return max.getThenReset();
+    }
+}
@@ -0,0 +1,142 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 每线程计数器，读时汇总，汇总结果按间隔缓存
+ *
+ * 说明：
+ * 1. 每个线程第一次 add 时登记一个自己独占的槽位（带缓存行填充），之后 add 只是"读自己的值、加、opaque 写回"，
+ *    单写者不需要 CAS 或 LOCK 前缀指令，没有任何线程间竞争
+ * 2. sum 遍历所有登记过的槽位求和；已经结束的线程的槽位值不会再变，汇总时并入 retired 并移除，线程池反复创建线程也不会无限增长
+ * 3. snapshot 返回缓存的汇总值，距上次汇总超过 aggregateInterval 才重新汇总：监控指标每秒采一次就够了，读的开销与线程数无关
+ * 4. 代价：读不是强一致的（opaque 保证最终能看到，但不保证与其他变量的先后顺序），每个线程每个计数器多占约 130 字节
+ */
+public final class PerThreadCounter implements LongCounter {
+
+    private final ThreadLocal<Cell> local = ThreadLocal.withInitial(this::register);
+
+    private final Queue<Cell> cells = new ConcurrentLinkedQueue<>();
+
+    private final long aggregateIntervalNanos;
+
+    private final Object aggregateLock = new Object();
+
+    // 以下字段在 aggregateLock 内修改
+
+    private long retired;
+
+    private volatile long cachedSum;
+
+    private volatile long cachedAt;
+
+
+    PerThreadCounter(Duration aggregateInterval) {
+        if (aggregateInterval.isNegative()) {
+            throw new IllegalArgumentException("汇总间隔不能为负数: " + aggregateInterval);
+        }
+        this.aggregateIntervalNanos = aggregateInterval.toNanos();
+        this.cachedAt = System.nanoTime() - aggregateIntervalNanos - 1;
+    }
+
+    private Cell register() {
+        Cell cell = new Cell(Thread.currentThread());
+        cells.add(cell);
+        return cell;
+    }
+
+    @Override
+    public void add(long delta) {
+        local.get().add(delta);
+    }
+
+    /**
+     * 立即汇总所有线程的值
+     */
+    @Override
+    public long sum() {
+        synchronized (aggregateLock) {
+            long sum = retired;
+            for (Iterator<Cell> iterator = cells.iterator(); iterator.hasNext(); ) {
+                Cell cell = iterator.next();
+                // 先判断存活再读值：isAlive 返回 false 之后，线程的所有写入都可见
+                boolean alive = cell.owner.isAlive();
+                long value = cell.get();
+                if (!alive) {
+                    retired += value;
+                    iterator.remove();
+                }
+                sum += value;
+            }
+            cachedSum = sum;
+            cachedAt = System.nanoTime();
+            return sum;
+        }
+    }
+
+    /**
+     * 最近一次汇总的值，超过汇总间隔才重新汇总
+     */
+    public long snapshot() {
+        if (System.nanoTime() - cachedAt < aggregateIntervalNanos) {
+            return cachedSum;
+        }
+        return sum();
+    }
+
+    /**
+     * 当前登记的（存活或尚未并入的）线程数
+     */
+    public int threads() {
+        return cells.size();
+    }
+
+    private static final class Cell extends CellRhsPadding {
+
+        private static final VarHandle VALUE;
+
+        static {
+            try {
+                VALUE = MethodHandles.lookup().findVarHandle(CellValue.class, "value", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final Thread owner;
+
+        Cell(Thread owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * 只有所属线程调用
+         */
+        void add(long delta) {
+            VALUE.setOpaque(this, (long) VALUE.get(this) + delta);
+        }
+
+        long get() {
+            return (long) VALUE.getOpaque(this);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class CellLhsPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class CellValue extends CellLhsPadding {
+        long value;
+    }
+
+    @SuppressWarnings("unused")
+    private static class CellRhsPadding extends CellValue {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+}
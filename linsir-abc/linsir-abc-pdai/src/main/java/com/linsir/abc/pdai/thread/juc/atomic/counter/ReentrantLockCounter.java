@@ -0,0 +1,33 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ReentrantLock 计数器：与 LockDemo.ReentrantLockDemo 的写法相同（非公平锁），竞争时线程在 AQS 队列里 park
+ */
+final class ReentrantLockCounter implements LongCounter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long value;
+
+    @Override
+    public void add(long delta) {
+        lock.lock();
+        try {
+            value += delta;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long sum() {
+        lock.lock();
+        try {
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 分片直方图：多线程记录延迟等非负整数，读时合并各分片后计算百分位
+ *
+ * 说明：
+ * 1. 桶按对数-线性划分（与 HdrHistogram 思路相同）：0~15 每个值一个桶，之后每个 2 的幂区间再等分 16 个桶，
+ *    相对误差不超过 1/16，覆盖整个 long 正数范围只需 960 个桶
+ * 2. 每个分片是一个 AtomicLongArray（桶计数 + 总和 + 最大值），线程按 id 散列到分片，不同分片互不竞争；
+ *    单分片时所有线程在同一组桶上原子加，热点桶（大部分请求落在同一延迟区间）竞争最激烈
+ * 3. snapshot 把所有分片的桶逐个相加，得到合并后的 Snapshot；并发记录时快照是近似的
+ * 4. 百分位返回所在桶的上界（偏保守，不会低估延迟）
+ */
+public final class ShardedHistogram {
+
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    static final int BUCKETS = (63 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private static final int SUM = BUCKETS;
+
+    private static final int MAX = BUCKETS + 1;
+
+    private final AtomicLongArray[] shards;
+
+    private final int mask;
+
+
+    public ShardedHistogram() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public ShardedHistogram(int shards) {
+        if (shards < 1 || shards > 1024) {
+            throw new IllegalArgumentException("分片数必须在 [1, 1024] 之间: " + shards);
+        }
+        int size = shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        this.mask = size - 1;
+        this.shards = new AtomicLongArray[size];
+        for (int i = 0; i < size; i++) {
+            this.shards[i] = new AtomicLongArray(BUCKETS + 2);
+        }
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("只能记录非负数: " + value);
+        }
+        AtomicLongArray shard = shards[ThreadHash.current() & mask];
+        shard.getAndIncrement(bucket(value));
+        shard.getAndAdd(SUM, value);
+        long max = shard.get(MAX);
+        while (value > max && !shard.weakCompareAndSetVolatile(MAX, max, value)) {
+            max = shard.get(MAX);
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        long sum = 0;
+        long max = 0;
+        for (AtomicLongArray shard : shards) {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] += shard.get(i);
+            }
+            sum += shard.get(SUM);
+            max = Math.max(max, shard.get(MAX));
+        }
+        return new Snapshot(counts, sum, max);
+    }
+
+    public int shards() {
+        return shards.length;
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    }
+
+    static long upperBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : lowerBound(bucket + 1) - 1;
+    }
+
+    /**
+     * 合并后的只读快照
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long sum;
+
+        private final long max;
+
+        Snapshot(long[] counts, long sum, long max) {
+            this.counts = counts;
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            this.count = total;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public double mean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+
+        public long max() {
+            return max;
+        }
+
+        /**
+         * @param percentile 0~100
+         */
+        public long valueAt(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("百分位必须在 [0, 100] 之间: " + percentile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("次数=%d, 平均=%.1f, p50=%d, p99=%d, p99.9=%d, 最大=%d", count, mean(), valueAt(50),
+                    valueAt(99), valueAt(99.9), max);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 固定槽位、带填充的分段计数器
+ *
+ * 说明：
+ * 1. 槽位个数在构造时确定（向上取整为 2 的幂），一次分配；线程按 id 散列到固定的槽位，用 getAndAdd（x86 上是 LOCK XADD，不会失败重试）
+ * 2. 槽位之间隔 128 字节（16 个 long）：64 字节避免伪共享，再多一倍是因为 Intel 的相邻缓存行预取会把成对的缓存行一起拉取；
+ *    数组开头也空出一段，避免第一个槽位与数组对象头共享缓存行
+ * 3. 多个线程散列到同一槽位时仍然是正确的，只是这个槽位上有竞争；线程数远大于槽位数时退化为每槽位一个 AtomicLong
+ * 4. sum 遍历所有槽位，槽位越多读越慢，适合写多读少
+ */
+public final class StripedCounter implements LongCounter {
+
+    private static final VarHandle CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private static final int STRIDE = 16;
+
+    private final long[] cells;
+
+    private final int mask;
+
+
+    public StripedCounter(int stripes) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("槽位数必须在 [1, 65536] 之间: " + stripes);
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.mask = size - 1;
+        this.cells = new long[(size + 1) * STRIDE];
+    }
+
+    @Override
+    public void add(long delta) {
+        CELLS.getAndAdd(cells, offset(ThreadHash.current() & mask), delta);
+    }
+
+    @Override
+    public long sum() {
+        long sum = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            sum += (long) CELLS.getVolatile(cells, offset(stripe));
+        }
+        return sum;
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    private static int offset(int stripe) {
+        return (stripe + 1) * STRIDE;
+    }
+}
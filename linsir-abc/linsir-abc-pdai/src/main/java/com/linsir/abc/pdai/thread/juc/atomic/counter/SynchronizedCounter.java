@@ -0,0 +1,19 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+/**
+ * synchronized 计数器：与 LockDemo.SynchronizedDemo 的写法相同，竞争时线程在监视器上排队
+ */
+final class SynchronizedCounter implements LongCounter {
+
+    private long value;
+
+    @Override
+    public synchronized void add(long delta) {
+        value += delta;
+    }
+
+    @Override
+    public synchronized long sum() {
+        return value;
+    }
+}
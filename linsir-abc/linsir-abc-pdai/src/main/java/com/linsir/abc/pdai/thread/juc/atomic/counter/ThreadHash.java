@@ -0,0 +1,15 @@
+package com.linsir.abc.pdai.thread.juc.atomic.counter;
+
+/**
+ * 线程到槽位的散列：线程 id 乘黄金分割常数后取高 32 位，相邻 id 的线程分散到不同槽位；
+ * 只读 Thread 的一个字段，比 ThreadLocal 查表便宜
+ */
+final class ThreadHash {
+
+    private ThreadHash() {
+    }
+
+    static int current() {
+        return (int) ((Thread.currentThread().getId() * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
@@ -1,5 +1,10 @@
 package com.linsir.abc.pdai.thread.juc.collections;
 
+import com.linsir.abc.pdai.thread.juc.collections.ring.RingBuffer;
+import com.linsir.abc.pdai.thread.juc.collections.ring.WaitStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -425,6 +430,8 @@ public class JUCCollectionsDemo {
     }
     
     // 10. 并发集合性能测试
+    // 以上队列都要加锁或为每个元素分配节点；预分配、无锁的环形缓冲区见 ring.RingBuffer，
+    // 与这些队列在 1~16 个生产者/消费者下的 JMH 对比见 ring.RingBufferBenchmark
     static class CollectionPerformanceTest {
         public static void test() {
             System.out.println("10. 并发集合性能测试:");
@@ -489,6 +496,59 @@ public class JUCCollectionsDemo {
         }
     }
     
+    // 11. 无锁环形缓冲区示例
+    static class RingBufferDemo {
+        public static void test() {
+            System.out.println("11. RingBuffer示例:");
+            // 3个生产者，1个消费者：多生产者单消费者用 mpsc
+            RingBuffer<Integer> ring = RingBuffer.mpsc(1000, WaitStrategy.yielding());
+            System.out.println("容量向上取整为2的幂: " + ring.capacity());
+
+            Thread[] producers = new Thread[3];
+            for (int i = 0; i < producers.length; i++) {
+                final int producerId = i;
+                producers[i] = new Thread(() -> {
+                    try {
+                        for (int j = 0; j < 10000; j++) {
+                            ring.put(producerId * 10000 + j);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+                producers[i].start();
+            }
+
+            // 消费者批量取出
+            List<Integer> batch = new ArrayList<>();
+            int total = 0;
+            int batches = 0;
+            long sum = 0;
+            while (total < 30000) {
+                int n = ring.drainTo(batch, 256);
+                if (n == 0) {
+                    Thread.yield();
+                    continue;
+                }
+                for (int value : batch) {
+                    sum += value;
+                }
+                batch.clear();
+                total += n;
+                batches++;
+            }
+            for (Thread producer : producers) {
+                try {
+                    producer.join();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+            System.out.println("消费元素数: " + total + "，批次数: " + batches + "，校验和正确: " + (sum == 29999L * 30000 / 2));
+            System.out.println();
+        }
+    }
+
     public static void main(String[] args) {
         ConcurrentHashMapDemo.test();
         ConcurrentLinkedQueueDemo.test();
@@ -500,5 +560,6 @@ public class JUCCollectionsDemo {
         SynchronousQueueDemo.test();
         LinkedTransferQueueDemo.test();
         CollectionPerformanceTest.test();
+        RingBufferDemo.test();
     }
 }
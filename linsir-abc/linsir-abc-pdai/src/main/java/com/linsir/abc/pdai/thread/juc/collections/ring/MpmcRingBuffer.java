@@ -0,0 +1,160 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.function.Consumer;
+
+/**
+ * 多生产者多消费者环形缓冲区（Vyukov 有界 MPMC 队列）
+ *
+ * 说明：
+ * 1. 每个槽位有一个序号 sequences[i]，初始为 i，表示"轮到位置为 i 的生产者写"
+ * 2. 生产者：读 tail = t，槽位序号 == t 时 CAS tail → t+1 抢到位置，写元素，把槽位序号 release 为 t+1（发布给消费者）；
+ *    槽位序号 < t 说明上一圈的元素还没被取走，缓冲区满
+ * 3. 消费者：读 head = h，槽位序号 == h+1 时 CAS head → h+1 抢到位置，读元素，把槽位序号 release 为 h+容量（交还给下一圈的生产者）；
+ *    槽位序号 < h+1 说明生产者还没发布，缓冲区空
+ * 4. 槽位序号就是生产者和消费者之间的屏障：CAS 只决定位置归属，元素是否可读/可写只看槽位序号，
+ *    所以抢到位置但还没写完的生产者不会让消费者读到半成品
+ * 5. drainTo 先数出从 head 开始连续已发布的槽位，一次 CAS 把 head 推进整批
+ * 6. 相邻槽位的序号在同一个缓存行，生产者和消费者离得近（缓冲区接近空或满）时有伪共享；
+ *    逐槽填充要多占 8 倍内存，这里没有做
+ */
+class MpmcRingBuffer<E> extends RingBuffer<E> {
+
+    static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle(long[].class);
+
+    final long[] sequences;
+
+    final Sequence head = new Sequence(0);
+
+    final Sequence tail = new Sequence(0);
+
+
+    MpmcRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+        this.sequences = new long[this.capacity];
+        for (int i = 0; i < this.capacity; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    @Override
+    public final boolean offer(E element) {
+        checkElement(element);
+        long t = tail.getAcquire();
+        while (true) {
+            int index = (int) t & mask;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+            long diff = sequence - t;
+            if (diff == 0) {
+                if (tail.compareAndSet(t, t + 1)) {
+                    elements[index] = element;
+                    SEQUENCES.setRelease(sequences, index, t + 1);
+                    return true;
+                }
+                t = tail.getAcquire();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                // 其他生产者已经抢走了这个位置
+                t = tail.getAcquire();
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        long h = head.getAcquire();
+        while (true) {
+            int index = (int) h & mask;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, index);
+            long diff = sequence - (h + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(h, h + 1)) {
+                    return consume(index, h);
+                }
+                h = head.getAcquire();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                h = head.getAcquire();
+            }
+        }
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int maxElements) {
+        checkMax(maxElements);
+        if (maxElements == 0) {
+            return 0;
+        }
+        while (true) {
+            long h = head.getAcquire();
+            int n = published(h, maxElements);
+            if (n == 0) {
+                long sequence = (long) SEQUENCES.getAcquire(sequences, (int) h & mask);
+                if (sequence - (h + 1) < 0) {
+                    return 0;
+                }
+                // 这个位置已被其他消费者取走，重新读 head
+                continue;
+            }
+            if (!head.compareAndSet(h, h + n)) {
+                continue;
+            }
+            int taken = 0;
+            try {
+                while (taken < n) {
+                    long position = h + taken;
+                    E element = consume((int) position & mask, position);
+                    taken++;
+                    consumer.accept(element);
+                }
+            } finally {
+                // 回调抛异常：整批位置已经归本线程，剩余槽位必须交还给生产者，否则缓冲区会卡死
+                while (taken < n) {
+                    long position = h + taken;
+                    consume((int) position & mask, position);
+                    taken++;
+                }
+            }
+            return n;
+        }
+    }
+
+    /**
+     * 从 h 开始连续已发布的槽位数，最多 maxElements 个
+     */
+    final int published(long h, int maxElements) {
+        int n = 0;
+        while (n < maxElements) {
+            long position = h + n;
+            long sequence = (long) SEQUENCES.getAcquire(sequences, (int) position & mask);
+            if (sequence != position + 1) {
+                break;
+            }
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * 读出位置 position 的元素并把槽位交还给下一圈的生产者；调用方必须已经拥有这个位置
+     */
+    final E consume(int index, long position) {
+        E element = elementAt(index);
+        elements[index] = null;
+        SEQUENCES.setRelease(sequences, index, position + capacity);
+        return element;
+    }
+
+    @Override
+    final long headSequence() {
+        return head.getAcquire();
+    }
+
+    @Override
+    final long tailSequence() {
+        return tail.getAcquire();
+    }
+}
@@ -0,0 +1,52 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import java.util.function.Consumer;
+
+/**
+ * 多生产者单消费者环形缓冲区
+ *
+ * 说明：
+ * 1. 生产者一侧与 MpmcRingBuffer 相同：CAS 抢占 tail，按槽位序号发布
+ * 2. 只有一个消费者，head 不需要 CAS：看到槽位已发布就直接读，读完 release 写 head
+ * 3. drainTo 逐个检查槽位序号（生产者可能乱序完成写入，位置 5 已发布不代表位置 4 已发布），遇到未发布的槽位就停止，
+ *    整批只写一次 head
+ */
+final class MpscRingBuffer<E> extends MpmcRingBuffer<E> {
+
+    MpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+    }
+
+    @Override
+    public E poll() {
+        long h = head.getPlain();
+        int index = (int) h & mask;
+        if ((long) SEQUENCES.getAcquire(sequences, index) != h + 1) {
+            return null;
+        }
+        E element = consume(index, h);
+        head.setRelease(h + 1);
+        return element;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int maxElements) {
+        checkMax(maxElements);
+        long h = head.getPlain();
+        int n = published(h, maxElements);
+        int taken = 0;
+        try {
+            while (taken < n) {
+                long position = h + taken;
+                E element = consume((int) position & mask, position);
+                taken++;
+                consumer.accept(element);
+            }
+        } finally {
+            if (taken > 0) {
+                head.setRelease(h + taken);
+            }
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,167 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * 无锁有界环形缓冲区（Disruptor 风格），作为 ArrayBlockingQueue / LinkedBlockingQueue / ConcurrentLinkedQueue 的补充
+ *
+ * 说明：
+ * 1. 槽位数组在构造时一次分配，之后循环复用：不像 LinkedBlockingQueue / ConcurrentLinkedQueue 每个元素分配一个节点，
+ *    也不像 ArrayBlockingQueue 所有操作都抢同一把锁
+ * 2. 生产者序号 tail 和消费者序号 head 只增不减，下标 = 序号 & (容量 - 1)，容量向上取整为 2 的幂；两个序号都做了缓存行填充（见 Sequence）
+ * 3. 按生产者/消费者数量选实现，约束越强越快：
+ *    - spsc：单生产者单消费者，只需 acquire/release，没有 CAS；双方各自缓存对方的序号，只在看起来满/空时才去读对方的缓存行
+ *    - mpsc：多生产者单消费者，生产者 CAS 抢占 tail；每个槽位带一个序号（序号屏障），槽位序号等于生产者的位置才可写，
+ *      写完把槽位序号 +1 发布给消费者，消费者看到槽位已发布才读，不会读到抢到位置但还没写完的槽位
+ *    - mpmc：多生产者多消费者，消费者也 CAS 抢占 head，读完把槽位序号设为 位置 + 容量，交还给下一圈的生产者（Vyukov 有界队列）
+ * 4. offer/poll 不阻塞；put/take 在满/空时按 WaitStrategy 等待，可被中断；drainTo 一次取走一批元素，mpmc 只 CAS 一次 head
+ * 5. 不允许 null 元素（poll 用 null 表示空）；size 是近似值
+ * 6. 实现约束由调用方保证：spsc 只能有一个线程 offer、一个线程 poll，否则数据会错乱
+ *
+ * 使用：
+ * <pre>
+ * RingBuffer&lt;Event&gt; ring = RingBuffer.mpsc(1024, WaitStrategy.yielding());
+ * ring.put(event);                                   // 多个生产者线程
+ * ring.drainTo(batch::add, 256);                     // 单个消费者线程，批量处理
+ * </pre>
+ */
+public abstract class RingBuffer<E> {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    final Object[] elements;
+
+    final int capacity;
+
+    final int mask;
+
+    final WaitStrategy waitStrategy;
+
+
+    RingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity < 2 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("容量必须在 [2, " + MAX_CAPACITY + "] 之间: " + capacity);
+        }
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new Object[this.capacity];
+        this.waitStrategy = Objects.requireNonNull(waitStrategy, "waitStrategy");
+    }
+
+    /**
+     * 单生产者单消费者
+     */
+    public static <E> RingBuffer<E> spsc(int capacity, WaitStrategy waitStrategy) {
+        return new SpscRingBuffer<>(capacity, waitStrategy);
+    }
+
+    /**
+     * 多生产者单消费者
+     */
+    public static <E> RingBuffer<E> mpsc(int capacity, WaitStrategy waitStrategy) {
+        return new MpscRingBuffer<>(capacity, waitStrategy);
+    }
+
+    /**
+     * 多生产者多消费者
+     */
+    public static <E> RingBuffer<E> mpmc(int capacity, WaitStrategy waitStrategy) {
+        return new MpmcRingBuffer<>(capacity, waitStrategy);
+    }
+
+    /**
+     * 放入一个元素，满时返回 false
+     */
+    public abstract boolean offer(E element);
+
+    /**
+     * 取出一个元素，空时返回 null
+     */
+    public abstract E poll();
+
+    /**
+     * 批量取出最多 maxElements 个元素交给 consumer，不等待
+     *
+     * 回调抛异常时：spsc/mpsc 中抛异常的元素视为已消费，其余留在缓冲区；mpmc 整批已被抢占，本批剩余元素丢弃
+     *
+     * @return 取出的元素个数
+     */
+    public abstract int drainTo(Consumer<? super E> consumer, int maxElements);
+
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        return drainTo(collection::add, maxElements);
+    }
+
+    /**
+     * 放入一个元素，满时按等待策略等待
+     */
+    public void put(E element) throws InterruptedException {
+        int attempts = 0;
+        while (!offer(element)) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            attempts = waitStrategy.idle(attempts);
+        }
+    }
+
+    /**
+     * 取出一个元素，空时按等待策略等待
+     */
+    public E take() throws InterruptedException {
+        int attempts = 0;
+        E element;
+        while ((element = poll()) == null) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            attempts = waitStrategy.idle(attempts);
+        }
+        return element;
+    }
+
+    /**
+     * 近似元素个数：并发修改时只保证在 [0, capacity] 之间
+     */
+    public int size() {
+        long head = headSequence();
+        long tail = tailSequence();
+        return (int) Math.max(0, Math.min(capacity, tail - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    abstract long headSequence();
+
+    abstract long tailSequence();
+
+    @SuppressWarnings("unchecked")
+    final E elementAt(int index) {
+        return (E) elements[index];
+    }
+
+    static void checkElement(Object element) {
+        if (element == null) {
+            throw new NullPointerException("不允许 null 元素");
+        }
+    }
+
+    static void checkMax(int maxElements) {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("批量大小不能为负数: " + maxElements);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{容量=" + capacity + ", 元素≈" + size() + "}";
+    }
+}
@@ -0,0 +1,290 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 环形缓冲区与 JDK 并发队列的 JMH 基准：生产者/消费者线程数从 1 增加到 16 时的传递吞吐
+ *
+ * 运行：java -cp ... RingBufferBenchmark [最大线程数，默认 16] [等待策略 spin/yield/park，默认 yield]
+ *
+ * 说明：
+ * 1. 每组 P 个生产者线程 offer、C 个消费者线程 poll 或 drainTo（每批最多 64 个），统计的是成功传递的元素数（offered / polled），
+ *    满/空导致的失败次数记为 misses，失败后按等待策略等一次；JMH 的 threadGroups 决定每组的 P 和 C
+ * 2. 组合为 P = C = 1, 2, 4, ..., 最大线程数，以及 P = 2..最大线程数、C = 1（多生产者单消费者）；
+ *    spsc 只参加 1:1，mpsc 只参加 C = 1，mpmc 和 JDK 队列参加所有组合
+ * 3. abq：ArrayBlockingQueue，一把锁；lbq：LinkedBlockingQueue，两把锁，每个元素一个节点；clq：ConcurrentLinkedQueue，无界无锁链表，
+ *    容量参数对它无效；所有实现都用 offer/poll（不阻塞）而不是 put/take，迭代结束时不会有线程卡在满/空上
+ * 4. 放入的始终是同一个对象，不测装箱和分配；每次迭代重建队列，clq 不会跨迭代堆积
+ * 5. 线程总数超过 CPU 核数时 spin 策略会互相抢时间片，结果主要反映调度而不是数据结构，这时用 yield 或 park
+ * 6. 正式压测前先跑一遍多线程正确性校验：不丢、不重、每个消费者看到的同一生产者的元素保持 FIFO
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RingBufferBenchmark {
+
+    private static final Integer ELEMENT = 42;
+
+    private static final int BATCH = 64;
+
+    @Param({"spsc", "mpsc", "mpmc", "abq", "lbq", "clq"})
+    public String impl;
+
+    @Param({"1024"})
+    public int capacity;
+
+    @Param({"poll", "drain"})
+    public String consume;
+
+    @Param({"yield"})
+    public String wait;
+
+    private RingBuffer<Integer> ring;
+
+    private Queue<Integer> queue;
+
+    private WaitStrategy waitStrategy;
+
+    private boolean drain;
+
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        waitStrategy = waitStrategy(wait);
+        drain = "drain".equals(consume);
+        ring = null;
+        queue = null;
+        switch (impl) {
+            case "spsc" -> ring = RingBuffer.spsc(capacity, waitStrategy);
+            case "mpsc" -> ring = RingBuffer.mpsc(capacity, waitStrategy);
+            case "mpmc" -> ring = RingBuffer.mpmc(capacity, waitStrategy);
+            case "abq" -> queue = new ArrayBlockingQueue<>(capacity);
+            case "lbq" -> queue = new LinkedBlockingQueue<>(capacity);
+            case "clq" -> queue = new ConcurrentLinkedQueue<>();
+            default -> throw new IllegalArgumentException("未知实现: " + impl);
+        }
+    }
+
+    /**
+     * 每个线程自己的计数，JMH 按每秒速率汇总所有线程
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        public long offered;
+
+        public long polled;
+
+        public long misses;
+
+        int attempts;
+
+        final List<Integer> batch = new ArrayList<>(BATCH);
+
+        final Consumer<Integer> sink = element -> polled++;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            offered = 0;
+            polled = 0;
+            misses = 0;
+            attempts = 0;
+        }
+    }
+
+    @Benchmark
+    @Group("transfer")
+    public void produce(Counters counters) {
+        boolean success = ring != null ? ring.offer(ELEMENT) : queue.offer(ELEMENT);
+        if (success) {
+            counters.offered++;
+            counters.attempts = 0;
+        } else {
+            counters.misses++;
+            counters.attempts = waitStrategy.idle(counters.attempts);
+        }
+    }
+
+    @Benchmark
+    @Group("transfer")
+    public void consume(Counters counters) {
+        int n;
+        if (!drain) {
+            n = (ring != null ? ring.poll() : queue.poll()) != null ? 1 : 0;
+            counters.polled += n;
+        } else if (ring != null) {
+            n = ring.drainTo(counters.sink, BATCH);
+        } else if (queue instanceof BlockingQueue) {
+            n = ((BlockingQueue<Integer>) queue).drainTo(counters.batch, BATCH);
+            counters.batch.clear();
+            counters.polled += n;
+        } else {
+            for (n = 0; n < BATCH && queue.poll() != null; n++) {
+                counters.polled++;
+            }
+        }
+        if (n > 0) {
+            counters.attempts = 0;
+        } else {
+            counters.misses++;
+            counters.attempts = waitStrategy.idle(counters.attempts);
+        }
+    }
+
+    static WaitStrategy waitStrategy(String name) {
+        return switch (name) {
+            case "spin" -> WaitStrategy.busySpin();
+            case "yield" -> WaitStrategy.yielding();
+            case "park" -> WaitStrategy.parking();
+            default -> throw new IllegalArgumentException("未知等待策略: " + name + "，可选 spin / yield / park");
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        String wait = args.length > 1 ? args[1] : "yield";
+        verify(WaitStrategy.yielding());
+
+        for (int producers = 1; producers <= maxThreads; producers *= 2) {
+            run(producers, producers, wait);
+            if (producers > 1) {
+                run(producers, 1, wait);
+            }
+        }
+    }
+
+    private static void run(int producers, int consumers, String wait) throws Exception {
+        List<String> impls = new ArrayList<>(List.of("mpmc", "abq", "lbq", "clq"));
+        if (consumers == 1) {
+            impls.add(0, "mpsc");
+        }
+        if (producers == 1 && consumers == 1) {
+            impls.add(0, "spsc");
+        }
+        System.out.printf("=== %d 个生产者 / %d 个消费者 ===%n", producers, consumers);
+        Options options = new OptionsBuilder()
+                .include(RingBufferBenchmark.class.getSimpleName() + ".transfer")
+                .param("impl", impls.toArray(new String[0]))
+                .param("wait", wait)
+                .threadGroups(producers, consumers)
+                .threads(producers + consumers)
+                .build();
+        new Runner(options).run();
+    }
+
+    /**
+     * 多线程正确性校验：4 个生产者各放入 20 万个递增的值，消费者交替用 poll 和 drainTo 取出；
+     * 每个值必须恰好出现一次，同一消费者看到的同一生产者的值必须递增
+     */
+    static void verify(WaitStrategy waitStrategy) throws InterruptedException {
+        verify("spsc", RingBuffer.spsc(256, waitStrategy), waitStrategy, 1, 1);
+        verify("mpsc", RingBuffer.mpsc(256, waitStrategy), waitStrategy, 4, 1);
+        verify("mpmc", RingBuffer.mpmc(256, waitStrategy), waitStrategy, 4, 4);
+    }
+
+    private static void verify(String name, RingBuffer<Long> ring, WaitStrategy waitStrategy, int producers,
+                               int consumers) throws InterruptedException {
+        int perProducer = 200_000;
+        long total = (long) perProducer * producers;
+        AtomicLongArray seen = new AtomicLongArray(producers * perProducer);
+        AtomicLong consumed = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(producers + consumers);
+
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perProducer; i++) {
+                        ring.put(base + i);
+                    }
+                } catch (InterruptedException e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        for (int c = 0; c < consumers; c++) {
+            new Thread(() -> {
+                long[] last = new long[producers];
+                Arrays.fill(last, -1);
+                Consumer<Long> check = value -> {
+                    int producer = (int) (value / perProducer);
+                    if (value <= last[producer] || seen.getAndIncrement(value.intValue()) != 0) {
+                        errors.incrementAndGet();
+                    }
+                    last[producer] = value;
+                };
+                int attempts = 0;
+                boolean useDrain = false;
+                while (consumed.get() < total) {
+                    int n;
+                    if (useDrain) {
+                        n = ring.drainTo(check, 32);
+                    } else {
+                        Long value = ring.poll();
+                        n = value == null ? 0 : 1;
+                        if (value != null) {
+                            check.accept(value);
+                        }
+                    }
+                    useDrain = !useDrain;
+                    if (n > 0) {
+                        consumed.addAndGet(n);
+                        attempts = 0;
+                    } else {
+                        attempts = waitStrategy.idle(attempts);
+                    }
+                }
+                done.countDown();
+            }).start();
+        }
+        if (!done.await(2, TimeUnit.MINUTES)) {
+            throw new IllegalStateException(name + " 校验超时：已消费 " + consumed.get() + " / " + total);
+        }
+        for (int i = 0; i < seen.length(); i++) {
+            if (seen.get(i) != 1) {
+                errors.incrementAndGet();
+            }
+        }
+        if (errors.get() > 0 || consumed.get() != total || !ring.isEmpty()) {
+            throw new IllegalStateException(name + " 并发校验失败：errors=" + errors.get() + ", consumed=" + consumed.get());
+        }
+        System.out.printf("%s 并发校验通过：%d 个生产者 / %d 个消费者，传递 %d 个元素%n", name, producers, consumers, total);
+    }
+}
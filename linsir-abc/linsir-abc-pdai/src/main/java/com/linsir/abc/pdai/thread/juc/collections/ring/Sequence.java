@@ -0,0 +1,67 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * 前后各填充 56 字节的序号，独占一个缓存行
+ *
+ * 说明：
+ * 1. 生产者序号和消费者序号被不同的线程频繁写，如果落在同一个缓存行（64 字节），一方写入会让另一方的缓存行失效（伪共享），
+ *    吞吐可以差几倍
+ * 2. JVM 按父类字段在前的顺序布局，借助继承把 value 夹在两组 long 字段之间，不依赖 @Contended（需要 -XX:-RestrictContended）
+ * 3. 读写用 VarHandle 的 acquire/release 语义，比 volatile 的全屏障便宜；需要竞争时用 compareAndSet
+ */
+class Sequence extends SequenceRhsPadding {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    Sequence(long initial) {
+        value = initial;
+    }
+
+    long getAcquire() {
+        return (long) VALUE.getAcquire(this);
+    }
+
+    /**
+     * 只有自己写的序号、或只作缓存用的序号才能用普通读写
+     */
+    long getPlain() {
+        return (long) VALUE.get(this);
+    }
+
+    void setPlain(long newValue) {
+        VALUE.set(this, newValue);
+    }
+
+    void setRelease(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+}
+
+@SuppressWarnings("unused")
+class SequenceLhsPadding {
+    long p01, p02, p03, p04, p05, p06, p07;
+}
+
+class SequenceValue extends SequenceLhsPadding {
+    volatile long value;
+}
+
+@SuppressWarnings("unused")
+class SequenceRhsPadding extends SequenceValue {
+    long p11, p12, p13, p14, p15, p16, p17;
+}
@@ -0,0 +1,101 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import java.util.function.Consumer;
+
+/**
+ * 单生产者单消费者环形缓冲区
+ *
+ * 说明：
+ * 1. tail 只由生产者写，head 只由消费者写，自己的序号普通读，对方的序号 acquire 读，发布用 release 写，没有 CAS
+ * 2. 槽位的写入发生在 tail.setRelease 之前，消费者 tail.getAcquire 之后读槽位，一定能看到完整的元素；
+ *    反过来消费者先把槽位置 null 再 head.setRelease，生产者看到新的 head 才会复用这个槽位
+ * 3. headCache / tailCache 是各自线程对对方序号的缓存：只有缓存显示满/空时才重新读对方的序号，
+ *    大部分操作不碰对方的缓存行
+ */
+final class SpscRingBuffer<E> extends RingBuffer<E> {
+
+    private final Sequence head = new Sequence(0);
+
+    private final Sequence tail = new Sequence(0);
+
+    // 生产者缓存的 head
+
+    private final Sequence headCache = new Sequence(0);
+
+    // 消费者缓存的 tail
+
+    private final Sequence tailCache = new Sequence(0);
+
+
+    SpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        super(capacity, waitStrategy);
+    }
+
+    @Override
+    public boolean offer(E element) {
+        checkElement(element);
+        long t = tail.getPlain();
+        if (t - headCache.getPlain() >= capacity) {
+            long h = head.getAcquire();
+            headCache.setPlain(h);
+            if (t - h >= capacity) {
+                return false;
+            }
+        }
+        elements[(int) t & mask] = element;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long h = head.getPlain();
+        if (h >= tailCache.getPlain()) {
+            long t = tail.getAcquire();
+            tailCache.setPlain(t);
+            if (h >= t) {
+                return null;
+            }
+        }
+        int index = (int) h & mask;
+        E element = elementAt(index);
+        elements[index] = null;
+        head.setRelease(h + 1);
+        return element;
+    }
+
+    @Override
+    public int drainTo(Consumer<? super E> consumer, int maxElements) {
+        checkMax(maxElements);
+        long h = head.getPlain();
+        long t = tail.getAcquire();
+        tailCache.setPlain(t);
+        int n = (int) Math.min(t - h, maxElements);
+        int taken = 0;
+        try {
+            while (taken < n) {
+                int index = (int) (h + taken) & mask;
+                E element = elementAt(index);
+                elements[index] = null;
+                taken++;
+                consumer.accept(element);
+            }
+        } finally {
+            // 整批只发布一次 head
+            if (taken > 0) {
+                head.setRelease(h + taken);
+            }
+        }
+        return taken;
+    }
+
+    @Override
+    long headSequence() {
+        return head.getAcquire();
+    }
+
+    @Override
+    long tailSequence() {
+        return tail.getAcquire();
+    }
+}
@@ -0,0 +1,64 @@
+package com.linsir.abc.pdai.thread.juc.collections.ring;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 环形缓冲区满（生产者）或空（消费者）时的等待方式
+ *
+ * 说明：
+ * 1. busySpin：一直自旋（Thread.onSpinWait），延迟最低，但每个等待线程占满一个核，只适合线程数不超过核数、且核可以独占的场景
+ * 2. yielding：先自旋 100 次，再 Thread.yield 让出时间片，延迟和 CPU 占用折中
+ * 3. parking：自旋、让出之后 LockSupport.parkNanos 睡眠，空闲时几乎不占 CPU，唤醒延迟在几十微秒到毫秒级；线程数超过核数时用它
+ * 4. 缓冲区本身不做唤醒通知，阻塞的 put/take 都是"检查 - 等待 - 再检查"，所以等待策略只决定两次检查之间做什么
+ */
+public interface WaitStrategy {
+
+    /**
+     * 等待一次
+     *
+     * @param attempts 本次阻塞调用中已经等待的次数，从 0 开始
+     * @return 新的等待次数，传给下一次调用
+     */
+    int idle(int attempts);
+
+    static WaitStrategy busySpin() {
+        return attempts -> {
+            Thread.onSpinWait();
+            return attempts + 1;
+        };
+    }
+
+    static WaitStrategy yielding() {
+        return attempts -> {
+            if (attempts < 100) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+            return attempts + 1;
+        };
+    }
+
+    static WaitStrategy parking() {
+        return parking(50_000);
+    }
+
+    /**
+     * @param parkNanos 每次睡眠的时长
+     */
+    static WaitStrategy parking(long parkNanos) {
+        if (parkNanos <= 0) {
+            throw new IllegalArgumentException("睡眠时长必须大于 0: " + parkNanos);
+        }
+        return attempts -> {
+            if (attempts < 100) {
+                Thread.onSpinWait();
+            } else if (attempts < 200) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(parkNanos);
+            }
+            return attempts + 1;
+        };
+    }
+}
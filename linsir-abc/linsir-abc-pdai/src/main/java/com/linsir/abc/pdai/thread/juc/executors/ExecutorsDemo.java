@@ -1,6 +1,11 @@
 package com.linsir.abc.pdai.thread.juc.executors;
 
+import com.linsir.abc.pdai.thread.juc.executors.fanout.Downstream;
+import com.linsir.abc.pdai.thread.juc.executors.fanout.FanOut;
+
+import java.time.Duration;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 /**
@@ -240,6 +245,8 @@ public class ExecutorsDemo {
     }
     
     // 7. ThreadPoolExecutor自定义线程池示例
+    // 这里的参数是静态写死的；生产上需要运行时调整线程数、按任务类型统计排队/执行时间时，
+    // 见 managed.ManagedThreadPool（Micrometer 指标）、AdaptivePoolController（自适应扩缩容）和 ExecutorAdminServer（动态配置端点）
     static class CustomThreadPoolDemo {
         public static void test() {
             System.out.println("7. ThreadPoolExecutor自定义线程池示例:");
@@ -291,6 +298,7 @@ public class ExecutorsDemo {
     }
     
     // 8. Future和Callable示例
+    // 这里依次 get 多个 Future；同时调用多个下游并统一超时、取消、对冲的写法见 12. FanOutDemo
     static class FutureCallableDemo {
         public static void test() {
             System.out.println("8. Future和Callable示例:");
@@ -473,6 +481,101 @@ public class ExecutorsDemo {
         }
     }
     
+    // 11. 执行策略：平台线程 / 固定线程池 / 虚拟线程
+    static class ThreadStrategyDemo {
+        public static void test() {
+            System.out.println("11. 执行策略示例（平台线程 / 固定线程池 / 虚拟线程）:");
+            System.out.println("虚拟线程" + (ThreadStrategy.virtualThreadsSupported() ? "可用" : "不可用，VIRTUAL 回退为平台线程（需要 Java 21+）"));
+            final int taskCount = 2000;
+            for (ThreadStrategy strategy : ThreadStrategy.values()) {
+                ExecutorService executor = strategy.newExecutor(100, "strategy-demo");
+                CountDownLatch latch = new CountDownLatch(taskCount);
+                long startTime = System.currentTimeMillis();
+                IntStream.range(0, taskCount).forEach(i -> executor.execute(() -> {
+                    try {
+                        // 模拟一次阻塞调用
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    latch.countDown();
+                }));
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+                System.out.println(strategy + "（实际 " + strategy.effective() + "）执行 " + taskCount + " 个阻塞任务耗时: "
+                        + (System.currentTimeMillis() - startTime) + "ms");
+                executor.shutdown();
+            }
+
+            // 在 synchronized 块内阻塞会让虚拟线程 pinned
+            PinningMonitor monitor = PinningMonitor.start(Duration.ofMillis(1));
+            ExecutorService executor = ThreadStrategy.VIRTUAL.newExecutor(1, "pinning-demo");
+            Object lock = new Object();
+            IntStream.range(0, 10).forEach(i -> executor.execute(() -> {
+                synchronized (lock) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }));
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+            }
+            monitor.close();
+            System.out.println("pinning 检测: " + monitor.report());
+            System.out.println();
+        }
+    }
+
+    // 12. 扇出/扇入：并行调用多个下游，按下游设置超时、舱壁和对冲请求
+    static class FanOutDemo {
+        public static void test() {
+            System.out.println("12. 扇出/扇入示例:");
+            ExecutorService executor = ThreadStrategy.VIRTUAL.newExecutor(1, "fanout-demo");
+            FanOut fanOut = new FanOut(executor);
+            Downstream redis = Downstream.named("redis").timeout(Duration.ofMillis(100)).maxConcurrent(16);
+            Downstream mysql = Downstream.named("mysql").timeout(Duration.ofMillis(100)).maxConcurrent(8)
+                    .hedgeAfter(Duration.ofMillis(30));
+            Downstream mongo = Downstream.named("mongo").timeout(Duration.ofMillis(50)).maxConcurrent(8);
+
+            long startTime = System.currentTimeMillis();
+            try (FanOut.Scope scope = fanOut.open(Duration.ofMillis(200))) {
+                FanOut.Branch<String> profile = scope.fork(redis, () -> {
+                    Thread.sleep(10);
+                    return "用户资料";
+                });
+                // 第一次调用很慢，30ms 后发出的对冲请求先返回
+                AtomicInteger mysqlCalls = new AtomicInteger();
+                FanOut.Branch<String> orders = scope.fork(mysql, () -> {
+                    Thread.sleep(mysqlCalls.incrementAndGet() == 1 ? 500 : 10);
+                    return "订单列表";
+                });
+                // 超时，使用降级值
+                FanOut.Branch<String> recommend = scope.fork(mongo, () -> {
+                    Thread.sleep(500);
+                    return "推荐列表";
+                });
+                scope.join();
+                System.out.println("redis: " + profile.get() + "，mysql: " + orders.get() + "（对冲请求胜出: "
+                        + orders.hedgeWon() + "），mongo: " + recommend.state() + " → " + recommend.getOrElse("默认推荐"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            System.out.println("总耗时: " + (System.currentTimeMillis() - startTime) + "ms（依次调用至少 1010ms）");
+            System.out.println("mysql 统计: " + mysql.stats());
+            executor.shutdownNow();
+            System.out.println();
+        }
+    }
+
     public static void main(String[] args) {
         FixedThreadPoolDemo.test();
         CachedThreadPoolDemo.test();
@@ -484,5 +587,7 @@ public class ExecutorsDemo {
         FutureCallableDemo.test();
         CompletableFutureDemo.test();
         ExecutorPerformanceTest.test();
+        ThreadStrategyDemo.test();
+        FanOutDemo.test();
     }
 }
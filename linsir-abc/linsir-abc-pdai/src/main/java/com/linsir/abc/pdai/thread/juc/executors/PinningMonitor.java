@@ -0,0 +1,198 @@
+package com.linsir.abc.pdai.thread.juc.executors;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 虚拟线程 pinning 检测：订阅 JFR 的 jdk.VirtualThreadPinned 事件，按发生位置汇总
+ *
+ * 说明：
+ * 1. 虚拟线程在 synchronized 块内阻塞、或栈上有本地方法帧时阻塞，无法从载体线程上卸载，载体线程被占住（pinned）；
+ *    载体线程默认只有 CPU 核数个，几个 pinned 的虚拟线程就能让其他虚拟线程全部等待
+ * 2. JFR 在虚拟线程 pinned 状态下阻塞超过阈值时产生 jdk.VirtualThreadPinned 事件，带栈；
+ *    这里按栈上第一个非 JDK 的帧汇总次数和总时长，栈中有 Native 帧时记为"本地方法"，否则记为"synchronized"
+ *    （运行时自带 pinnedReason 字段时以它为准）
+ * 3. 事件由 Java 21 起提供；Java 17 上 supported() 返回 false，监控不产生任何记录
+ * 4. 不改代码时也可以用 -Djdk.tracePinnedThreads=full（Java 21-23）让 JVM 在 pinning 时直接打印栈
+ *
+ * 使用：
+ * <pre>
+ * PinningMonitor monitor = PinningMonitor.start(Duration.ofMillis(1));
+ * ... 运行虚拟线程任务 ...
+ * monitor.close();
+ * System.out.println(monitor.report());
+ * </pre>
+ */
+public final class PinningMonitor implements AutoCloseable {
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private final RecordingStream stream;
+
+    private final LongAdder events = new LongAdder();
+
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+
+    private final AtomicReference<CountDownLatch> flushed = new AtomicReference<>();
+
+    private volatile boolean closed;
+
+
+    private PinningMonitor(RecordingStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 当前运行时是否会产生 jdk.VirtualThreadPinned 事件
+     */
+    public static boolean supported() {
+        if (!FlightRecorder.isAvailable()) {
+            return false;
+        }
+        for (EventType type : FlightRecorder.getFlightRecorder().getEventTypes()) {
+            if (EVENT.equals(type.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 开始监控
+     *
+     * @param threshold pinned 状态下阻塞超过该时长才记录，JDK 默认 20ms
+     */
+    public static PinningMonitor start(Duration threshold) {
+        if (!supported()) {
+            return new PinningMonitor(null);
+        }
+        RecordingStream stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        PinningMonitor monitor = new PinningMonitor(stream);
+        stream.onEvent(EVENT, monitor::record);
+        stream.onFlush(() -> {
+            CountDownLatch latch = monitor.flushed.get();
+            if (latch != null) {
+                latch.countDown();
+            }
+        });
+        stream.startAsync();
+        return monitor;
+    }
+
+    private void record(RecordedEvent event) {
+        events.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        sites.computeIfAbsent(site(event.getStackTrace()) + "（" + reason(event) + "）", key -> new Site()).add(event.getDuration());
+    }
+
+    private static String reason(RecordedEvent event) {
+        if (event.hasField("pinnedReason") && event.getString("pinnedReason") != null) {
+            return event.getString("pinnedReason");
+        }
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace != null) {
+            for (RecordedFrame frame : stackTrace.getFrames()) {
+                if ("Native".equals(frame.getType())) {
+                    return "本地方法";
+                }
+            }
+        }
+        return "synchronized";
+    }
+
+    /**
+     * 栈上第一个应用代码的帧；全是 JDK 帧时取栈顶
+     */
+    private static String site(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "未知位置";
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame chosen = frames.get(0);
+        for (RecordedFrame frame : frames) {
+            String className = frame.getMethod().getType().getName();
+            if (frame.isJavaFrame() && !className.startsWith("java.") && !className.startsWith("jdk.")
+                    && !className.startsWith("sun.")) {
+                chosen = frame;
+                break;
+            }
+        }
+        return chosen.getMethod().getType().getName() + "." + chosen.getMethod().getName() + ":" + chosen.getLineNumber();
+    }
+
+    public long events() {
+        return events.sum();
+    }
+
+    public Duration pinnedTime() {
+        return Duration.ofNanos(pinnedNanos.sum());
+    }
+
+    /**
+     * 停止监控；JFR 按批次把事件推给消费者，这里先等一次 flush，保证关闭前产生的事件都已计入
+     */
+    @Override
+    public void close() {
+        if (stream == null || closed) {
+            return;
+        }
+        closed = true;
+        CountDownLatch latch = new CountDownLatch(1);
+        flushed.set(latch);
+        try {
+            latch.await(3, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        stream.close();
+    }
+
+    /**
+     * 汇总报告：事件总数、pinned 总时长、按位置排序的前 10 项
+     */
+    public String report() {
+        if (stream == null) {
+            return "当前运行时没有 " + EVENT + " 事件（需要 Java 21+），无法检测 pinning";
+        }
+        if (events() == 0) {
+            return "未检测到 pinning";
+        }
+        return String.format("pinning %d 次，累计 %d ms%n", events(), pinnedTime().toMillis())
+                + sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Site> entry) -> entry.getValue().count.sum()).reversed())
+                .limit(10)
+                .map(entry -> String.format("  %6d 次 %8d ms  %s", entry.getValue().count.sum(),
+                        entry.getValue().nanos.sum() / 1_000_000, entry.getKey()))
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    private static final class Site {
+
+        final LongAdder count = new LongAdder();
+
+        final LongAdder nanos = new LongAdder();
+
+        void add(Duration duration) {
+            count.increment();
+            nanos.add(duration.toNanos());
+        }
+    }
+}
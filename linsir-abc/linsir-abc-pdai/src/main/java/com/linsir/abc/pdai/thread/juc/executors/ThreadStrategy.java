@@ -0,0 +1,98 @@
+package com.linsir.abc.pdai.thread.juc.executors;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞任务的执行策略：每任务一个平台线程、固定大小线程池、每任务一个虚拟线程
+ *
+ * 说明：
+ * 1. PLATFORM：缓存线程池，并发多少任务就有多少个平台线程（空闲 60 秒回收），与 BIODemo "每连接一个线程" 等价；
+ *    每个线程有独立的内核线程和栈，上万并发时受 ulimit -u 和内存约束
+ * 2. FIXED_POOL：固定 poolSize 个线程，超出的任务排队；阻塞任务（如长连接）会一直占住线程，排队的任务要等前面的结束
+ * 3. VIRTUAL：Executors.newVirtualThreadPerTaskExecutor()（Java 21 正式提供），阻塞时卸载载体线程，百万级并发只占堆内存；
+ *    编译目标是 Java 17，所以通过反射调用；运行时不支持（Java 17-18，或 19/20 未开启 --enable-preview）时回退到 PLATFORM，
+ *    用 effective() 可以查到实际生效的策略
+ * 4. 虚拟线程在 synchronized 块内或本地方法帧上阻塞时无法卸载（pinning），会占住载体线程，用 PinningMonitor 检测
+ */
+public enum ThreadStrategy {
+
+    PLATFORM,
+
+    FIXED_POOL,
+
+    VIRTUAL;
+
+    private static final Method NEW_VIRTUAL_EXECUTOR = findVirtualExecutorFactory();
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     */
+    public static boolean virtualThreadsSupported() {
+        return NEW_VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * 实际生效的策略：VIRTUAL 在不支持虚拟线程的运行时上回退为 PLATFORM
+     */
+    public ThreadStrategy effective() {
+        return this == VIRTUAL && !virtualThreadsSupported() ? PLATFORM : this;
+    }
+
+    /**
+     * 按名字解析，忽略大小写，"-" 与 "_" 等价，例如 fixed-pool
+     */
+    public static ThreadStrategy parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("未知的线程策略: " + name + "，可选 platform / fixed-pool / virtual");
+        }
+    }
+
+    /**
+     * 创建执行器
+     *
+     * @param poolSize   FIXED_POOL 的线程数，其他策略忽略
+     * @param namePrefix 平台线程的名字前缀，虚拟线程没有名字
+     */
+    public ExecutorService newExecutor(int poolSize, String namePrefix) {
+        switch (effective()) {
+            case FIXED_POOL:
+                if (poolSize < 1) {
+                    throw new IllegalArgumentException("线程池大小至少为 1: " + poolSize);
+                }
+                return Executors.newFixedThreadPool(poolSize, namedFactory(namePrefix));
+            case VIRTUAL:
+                try {
+                    return (ExecutorService) NEW_VIRTUAL_EXECUTOR.invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("创建虚拟线程执行器失败", e);
+                }
+            default:
+                return Executors.newCachedThreadPool(namedFactory(namePrefix));
+        }
+    }
+
+    private static ThreadFactory namedFactory(String namePrefix) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> new Thread(runnable, namePrefix + "-" + index.getAndIncrement());
+    }
+
+    /**
+     * Java 19/20 上方法存在但未开启预览时调用会抛 UnsupportedOperationException，所以试调用一次并关闭
+     */
+    private static Method findVirtualExecutorFactory() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.linsir.abc.pdai.thread.juc.executors;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程、固定线程池、虚拟线程执行大量并发阻塞任务的对比
+ *
+ * 运行：java ... ThreadStrategyBenchmark [并发数列表，默认 1000,10000,100000] [每个任务阻塞次数，默认 5] [每次阻塞毫秒数，默认 10]
+ *       [固定线程池大小，默认 256] [平台线程上限，默认 20000]
+ *
+ * 说明：
+ * 1. 每个任务模拟一个阻塞连接：循环若干次 Thread.sleep，相当于每次等一个网络往返；所有任务同时提交，统计全部完成的耗时
+ * 2. 理想耗时是 阻塞次数 × 阻塞时长；固定线程池的下限是 并发数 × 阻塞次数 × 阻塞时长 / 线程数，并发越高排队越久
+ * 3. 同时输出峰值线程数和全部提交后的堆增量：平台线程的栈在堆外（每个线程独立的内核线程和栈），虚拟线程的栈帧在堆上
+ * 4. 平台线程数超过上限时跳过该轮，避免碰到 ulimit -u 后 "unable to create native thread" 影响整个系统
+ * 5. VIRTUAL 额外跑一轮 pinned 模式：sleep 发生在 synchronized 块内，虚拟线程无法卸载，载体线程只有 CPU 核数个，
+ *    耗时退化成 并发数 × 阻塞次数 × 阻塞时长 / 核数；PinningMonitor 输出 pinning 的次数和位置
+ * 6. 运行时不支持虚拟线程时（Java 17-20）VIRTUAL 回退为平台线程，结果中标注实际策略
+ * 7. 真实 socket 上的对比见 io.patterns.aio.TransportBenchmark 的 bio-* 服务端，连接数受文件描述符上限约束，到不了 10 万
+ */
+public final class ThreadStrategyBenchmark {
+
+    private ThreadStrategyBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] counts = (args.length > 0 ? args[0] : "1000,10000,100000").split(",");
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        long sleepMillis = args.length > 2 ? Long.parseLong(args[2]) : 10;
+        int poolSize = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        int platformLimit = args.length > 4 ? Integer.parseInt(args[4]) : 20000;
+        System.out.printf("每个任务阻塞 %d 次 × %d ms，固定线程池 %d，平台线程上限 %d，CPU %d 核，虚拟线程%s%n",
+                rounds, sleepMillis, poolSize, platformLimit, Runtime.getRuntime().availableProcessors(),
+                ThreadStrategy.virtualThreadsSupported() ? "可用" : "不可用（回退为平台线程）");
+
+        for (String count : counts) {
+            int concurrency = Integer.parseInt(count.trim());
+            for (ThreadStrategy strategy : ThreadStrategy.values()) {
+                if (strategy.effective() == ThreadStrategy.PLATFORM && concurrency > platformLimit) {
+                    System.out.printf("%-26s 并发 %7d  跳过：超过平台线程上限%n", label(strategy, false), concurrency);
+                    continue;
+                }
+                run(strategy, concurrency, rounds, sleepMillis, poolSize, false);
+                if (strategy == ThreadStrategy.VIRTUAL) {
+                    run(strategy, concurrency, rounds, sleepMillis, poolSize, true);
+                }
+            }
+        }
+    }
+
+    private static void run(ThreadStrategy strategy, int concurrency, int rounds, long sleepMillis, int poolSize,
+                            boolean pinned) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        System.gc();
+        threads.resetPeakThreadCount();
+        long heapBefore = usedHeap();
+        PinningMonitor monitor = pinned ? PinningMonitor.start(Duration.ofMillis(1)) : null;
+        ExecutorService executor = strategy.newExecutor(poolSize, "blocking-task");
+        CountDownLatch done = new CountDownLatch(concurrency);
+        Runnable task = () -> {
+            try {
+                for (int i = 0; i < rounds; i++) {
+                    if (pinned) {
+                        Object lock = new Object();
+                        synchronized (lock) {
+                            Thread.sleep(sleepMillis);
+                        }
+                    } else {
+                        Thread.sleep(sleepMillis);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        };
+
+        long start = System.nanoTime();
+        int submitted = 0;
+        String failure = "";
+        try {
+            for (; submitted < concurrency; submitted++) {
+                executor.execute(task);
+            }
+        } catch (OutOfMemoryError e) {
+            failure = "  提交第 " + submitted + " 个任务失败: " + e.getMessage();
+            for (int i = submitted; i < concurrency; i++) {
+                done.countDown();
+            }
+        }
+        long heapAfterSubmit = usedHeap();
+        boolean finished = done.await(10, TimeUnit.MINUTES);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        System.out.printf("%-26s 并发 %7d  耗时 %7d ms（理想 %d ms）  峰值线程 %6d  提交后堆增量 %7.1f MB%s%s%n",
+                label(strategy, pinned), concurrency, elapsedMillis, rounds * sleepMillis, threads.getPeakThreadCount(),
+                (heapAfterSubmit - heapBefore) / (1024.0 * 1024), finished ? "" : "  超时", failure);
+        if (monitor != null) {
+            monitor.close();
+            System.out.println("                           " + monitor.report());
+        }
+    }
+
+    private static String label(ThreadStrategy strategy, boolean pinned) {
+        return strategy + (strategy.effective() != strategy ? "→" + strategy.effective() : "") + (pinned ? "(pinned)" : "");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
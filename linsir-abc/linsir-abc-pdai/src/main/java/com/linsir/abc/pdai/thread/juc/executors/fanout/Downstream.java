@@ -0,0 +1,202 @@
+package com.linsir.abc.pdai.thread.juc.executors.fanout;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个下游依赖（Redis、MySQL、Mongo ...）的调用策略：超时、舱壁、对冲请求，以及对应的统计
+ *
+ * 说明：
+ * 1. 超时：每次调用从 fork 开始计时，超时后分支以 TimeoutException 结束，正在执行的尝试被中断
+ * 2. 舱壁（bulkhead）：每个下游一个 Semaphore，同时在执行的尝试数不超过 maxConcurrent；
+ *    许可在尝试真正开始执行时非阻塞获取，拿不到立即以 RejectedExecutionException 失败，
+ *    一个下游变慢时只会占满自己的许可，不会拖住所有线程、拖垮其他下游
+ * 3. 对冲（hedged request）：调用超过对冲时延仍未返回时，再发一个相同的请求，先返回的为准，另一个被中断；
+ *    对冲时延可以固定（hedgeAfter），也可以取最近调用端到端耗时（超时按超时时间计）的百分位（hedgeAtPercentile，默认 p95，样本不足 20 个时不对冲）；
+ *    只有最慢的约 5% 的调用会多发一次，用很少的额外负载削掉长尾
+ * 4. 对冲预算：对冲次数超过调用次数的 maxHedgeRatio（默认 10%）时不再对冲，下游整体变慢时避免请求量翻倍雪上加霜
+ * 5. 对冲的请求同样占舱壁许可；被对冲的操作必须是幂等的（读请求），写请求不要开启对冲
+ * 6. 配置应在开始调用前完成，调用过程中只读
+ */
+public final class Downstream {
+
+    private static final int WINDOW_SIZE = 1024;
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final String name;
+
+    private long timeoutNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private int maxConcurrent = Integer.MAX_VALUE;
+
+    private Semaphore bulkhead = new Semaphore(Integer.MAX_VALUE);
+
+    private long fixedHedgeDelayNanos = -1;
+
+    private LatencyWindow latencies = new LatencyWindow(WINDOW_SIZE, 95, MIN_SAMPLES);
+
+    private boolean hedging;
+
+    private double maxHedgeRatio = 0.1;
+
+    final LongAdder calls = new LongAdder();
+
+    final LongAdder succeeded = new LongAdder();
+
+    final LongAdder failed = new LongAdder();
+
+    final LongAdder timeouts = new LongAdder();
+
+    final LongAdder rejected = new LongAdder();
+
+    final LongAdder cancelled = new LongAdder();
+
+    final LongAdder attempts = new LongAdder();
+
+    final AtomicLong hedges = new AtomicLong();
+
+    final LongAdder hedgeWins = new LongAdder();
+
+    final LongAdder abandoned = new LongAdder();
+
+
+    private Downstream(String name) {
+        this.name = name;
+    }
+
+    public static Downstream named(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("下游名称不能为空");
+        }
+        return new Downstream(name);
+    }
+
+    public Downstream timeout(Duration timeout) {
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("超时时间必须大于 0: " + timeout);
+        }
+        this.timeoutNanos = timeout.toNanos();
+        return this;
+    }
+
+    public Downstream maxConcurrent(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("最大并发数至少为 1: " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        return this;
+    }
+
+    /**
+     * 调用耗时超过最近窗口的 percentile 百分位时发出对冲请求
+     */
+    public Downstream hedgeAtPercentile(double percentile) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("对冲百分位必须在 (0, 100) 之间: " + percentile);
+        }
+        this.latencies = new LatencyWindow(WINDOW_SIZE, percentile, MIN_SAMPLES);
+        this.fixedHedgeDelayNanos = -1;
+        this.hedging = true;
+        return this;
+    }
+
+    /**
+     * 调用超过固定时延时发出对冲请求
+     */
+    public Downstream hedgeAfter(Duration delay) {
+        if (delay.isNegative() || delay.isZero()) {
+            throw new IllegalArgumentException("对冲时延必须大于 0: " + delay);
+        }
+        this.fixedHedgeDelayNanos = delay.toNanos();
+        this.hedging = true;
+        return this;
+    }
+
+    public Downstream maxHedgeRatio(double maxHedgeRatio) {
+        if (maxHedgeRatio <= 0 || maxHedgeRatio > 1) {
+            throw new IllegalArgumentException("对冲比例上限必须在 (0, 1] 之间: " + maxHedgeRatio);
+        }
+        this.maxHedgeRatio = maxHedgeRatio;
+        return this;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    long timeoutNanos() {
+        return timeoutNanos;
+    }
+
+    Semaphore bulkhead() {
+        return bulkhead;
+    }
+
+    void recordLatency(long nanos) {
+        latencies.record(nanos);
+    }
+
+    /**
+     * @return 本次调用的对冲时延（纳秒），不对冲时返回 -1
+     */
+    long hedgeDelayNanos() {
+        if (!hedging) {
+            return -1;
+        }
+        long delay = fixedHedgeDelayNanos >= 0 ? fixedHedgeDelayNanos : latencies.percentileNanos();
+        return delay < timeoutNanos ? delay : -1;
+    }
+
+    /**
+     * 对冲预算是否还有余量，有则占用一次
+     *
+     * 检查和占用用 CAS 合成一步：分开做时，多个线程同时看到预算有余量会一起对冲，对冲次数冲过上限
+     */
+    boolean tryHedge() {
+        while (true) {
+            long current = hedges.get();
+            if (current >= calls.sum() * maxHedgeRatio) {
+                return false;
+            }
+            if (hedges.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 当前正在执行的尝试数
+     */
+    public int inFlight() {
+        return maxConcurrent == Integer.MAX_VALUE ? -1 : maxConcurrent - bulkhead.availablePermits();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("failed", failed.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("cancelled", cancelled.sum());
+        stats.put("attempts", attempts.sum());
+        stats.put("hedges", hedges.get());
+        stats.put("hedgeWins", hedgeWins.sum());
+        stats.put("abandonedAttempts", abandoned.sum());
+        long delay = hedgeDelayNanos();
+        stats.put("hedgeDelayMs", delay < 0 ? null : delay / 1e6);
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return name + stats();
+    }
+}
@@ -0,0 +1,443 @@
+package com.linsir.abc.pdai.thread.juc.executors.fanout;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 结构化的并发扇出/扇入：一个请求同时调用多个下游，统一等待，作用域结束时没完成的分支全部取消
+ *
+ * 用法：
+ * <pre>
+ * try (FanOut.Scope scope = fanOut.open(Duration.ofMillis(200))) {
+ *     FanOut.Branch&lt;String&gt; profile = scope.fork(redis, () -&gt; redisClient.get(key));
+ *     FanOut.Branch&lt;Order&gt; order = scope.fork(mysql, () -&gt; orderDao.find(id));
+ *     scope.join();
+ *     return render(profile.getOrElse(DEFAULT_PROFILE), order.get());
+ * }
+ * </pre>
+ *
+ * 说明：
+ * 1. 与 CompletableFutureDemo 里"依次 get"相比，各下游同时执行，总耗时从各下游之和变成最慢的那个
+ * 2. 执行器可以是任意 Executor：虚拟线程（ThreadStrategy.VIRTUAL）、固定线程池或 ManagedThreadPool；
+ *    下游调用是阻塞的，虚拟线程最合适，平台线程池要按 并发请求数 × 下游数 估算线程数
+ * 3. 每个分支按 Downstream 的配置加超时、舱壁和对冲请求；分支的结果是第一个成功的尝试，
+ *    所有尝试都失败才算失败（只有一个尝试时就是它的失败）
+ * 4. 取消向下传播：分支结束（成功、超时、被取消）时，仍在执行的尝试用 Future.cancel(true) 中断，
+ *    对冲中输掉的请求、超时的请求不会继续占用线程和舱壁许可（前提是下游调用响应中断，如 Thread.sleep、可中断 IO）
+ * 5. 作用域：Scope 只能在创建它的线程中 fork / join；join 等到所有分支结束或整体截止时间；
+ *    joinFailFast 任一分支失败就取消其他分支并抛出；close 取消所有未完成的分支，分支不会比作用域活得更久；
+ *    等待时调用线程被中断，同样取消所有分支
+ * 6. JDK 21 的 StructuredTaskScope 提供了类似的作用域语义（预览），这里在 CompletableFuture 和 FutureTask 上实现，Java 17 可用
+ */
+public final class FanOut {
+
+    private final Executor executor;
+
+    public FanOut(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("执行器不能为空");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * @param deadline 整个扇出的截止时间，从现在开始计时
+     */
+    public Scope open(Duration deadline) {
+        if (deadline.isNegative() || deadline.isZero()) {
+            throw new IllegalArgumentException("截止时间必须大于 0: " + deadline);
+        }
+        return new Scope(System.nanoTime() + deadline.toNanos());
+    }
+
+    /**
+     * 分支的结束状态
+     */
+    public enum State {
+        RUNNING, SUCCEEDED, FAILED, TIMED_OUT, REJECTED, CANCELLED
+    }
+
+    /**
+     * 一次扇出的作用域
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final long deadlineNanos;
+
+        private final Thread owner = Thread.currentThread();
+
+        private final List<Call<?>> calls = new ArrayList<>();
+
+        private boolean closed;
+
+        private Scope(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public <T> Branch<T> fork(Downstream downstream, Callable<? extends T> task) {
+            checkOwner();
+            if (closed) {
+                throw new IllegalStateException("作用域已关闭");
+            }
+            Call<T> call = new Call<>(downstream, task);
+            calls.add(call);
+            call.start();
+            return call.branch;
+        }
+
+        /**
+         * 等待所有分支结束；超过整体截止时间时，未结束的分支以 TimeoutException 结束
+         */
+        public Scope join() throws InterruptedException {
+            checkOwner();
+            CompletableFuture<?> all = CompletableFuture.allOf(promises());
+            try {
+                all.get(remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                expire();
+            } catch (ExecutionException e) {
+                // allOf 在所有分支结束后才完成，分支失败的原因在各自的 Branch 里
+            } catch (InterruptedException e) {
+                cancelAll();
+                throw e;
+            }
+            return this;
+        }
+
+        /**
+         * 等待所有分支成功；任一分支失败（包括超时、被舱壁拒绝）时立即取消其他分支并抛出它的原因
+         */
+        public Scope joinFailFast() throws InterruptedException, ExecutionException {
+            checkOwner();
+            CompletableFuture<Object> firstFailure = new CompletableFuture<>();
+            for (Call<?> call : calls) {
+                call.done.whenComplete((value, error) -> {
+                    if (error != null) {
+                        firstFailure.completeExceptionally(unwrap(error));
+                    }
+                });
+            }
+            CompletableFuture<Object> done = CompletableFuture.anyOf(CompletableFuture.allOf(promises()), firstFailure);
+            try {
+                done.get(remainingNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                expire();
+                throw new ExecutionException(new TimeoutException("扇出超过整体截止时间"));
+            } catch (ExecutionException e) {
+                cancelAll();
+                throw e;
+            } catch (InterruptedException e) {
+                cancelAll();
+                throw e;
+            }
+            return this;
+        }
+
+        /**
+         * 取消所有未完成的分支
+         */
+        @Override
+        public void close() {
+            closed = true;
+            cancelAll();
+        }
+
+        private CompletableFuture<?>[] promises() {
+            CompletableFuture<?>[] promises = new CompletableFuture<?>[calls.size()];
+            for (int i = 0; i < promises.length; i++) {
+                promises[i] = calls.get(i).done;
+            }
+            return promises;
+        }
+
+        private long remainingNanos() {
+            return Math.max(0, deadlineNanos - System.nanoTime());
+        }
+
+        private void expire() {
+            for (Call<?> call : calls) {
+                call.promise.completeExceptionally(new TimeoutException("扇出超过整体截止时间"));
+            }
+        }
+
+        private void cancelAll() {
+            for (Call<?> call : calls) {
+                call.promise.cancel(false);
+            }
+        }
+
+        private void checkOwner() {
+            if (Thread.currentThread() != owner) {
+                throw new IllegalStateException("只能在创建作用域的线程中调用: " + owner.getName());
+            }
+        }
+    }
+
+    /**
+     * 一个分支的结果视图
+     */
+    public static final class Branch<T> {
+
+        private final Call<T> call;
+
+        private Branch(Call<T> call) {
+            this.call = call;
+        }
+
+        public boolean isDone() {
+            return call.done.isDone();
+        }
+
+        public State state() {
+            if (!call.done.isDone()) {
+                return State.RUNNING;
+            }
+            Throwable error = call.failure;
+            if (error == null) {
+                return State.SUCCEEDED;
+            }
+            if (error instanceof TimeoutException) {
+                return State.TIMED_OUT;
+            }
+            if (error instanceof RejectedExecutionException) {
+                return State.REJECTED;
+            }
+            if (error instanceof CancellationException) {
+                return State.CANCELLED;
+            }
+            return State.FAILED;
+        }
+
+        /**
+         * 成功时返回结果，否则抛出 CompletionException，原因是下游的异常、TimeoutException、RejectedExecutionException 或 CancellationException
+         */
+        public T get() {
+            if (!call.done.isDone()) {
+                throw new IllegalStateException("分支尚未结束，先调用 Scope.join");
+            }
+            return call.done.join();
+        }
+
+        /**
+         * 成功时返回结果，否则返回 fallback（降级值）
+         */
+        public T getOrElse(T fallback) {
+            return state() == State.SUCCEEDED ? call.done.join() : fallback;
+        }
+
+        /**
+         * 失败原因，成功或未结束时为 null
+         */
+        public Throwable exception() {
+            return call.failure;
+        }
+
+        /**
+         * 结果是否来自对冲请求
+         */
+        public boolean hedgeWon() {
+            return call.hedgeWon;
+        }
+
+        /**
+         * 从 fork 到结束的耗时，未结束时返回 -1
+         */
+        public long latencyNanos() {
+            return call.finishedAt == 0 ? -1 : call.finishedAt - call.startedAt;
+        }
+
+        public void cancel() {
+            call.promise.cancel(false);
+        }
+
+        public String downstream() {
+            return call.downstream.name();
+        }
+
+        @Override
+        public String toString() {
+            return call.downstream.name() + ":" + state();
+        }
+    }
+
+    /**
+     * 一次下游调用，可能包含一个主请求和一个对冲请求
+     */
+    private final class Call<T> {
+
+        final Downstream downstream;
+
+        final Callable<? extends T> task;
+
+        final CompletableFuture<T> promise = new CompletableFuture<>();
+
+        /**
+         * finish 执行完才完成，作用域和 Branch 都看它，保证看到的状态和统计已经更新
+         * （CompletableFuture 的回调按注册的逆序执行，直接等 promise 可能先于 finish 返回）
+         */
+        final CompletableFuture<T> done = promise.whenComplete((value, error) -> finish(error));
+
+        final Branch<T> branch = new Branch<>(this);
+
+        final List<Attempt> attempts = new CopyOnWriteArrayList<>();
+
+        final AtomicInteger running = new AtomicInteger();
+
+        final AtomicBoolean settled = new AtomicBoolean();
+
+        final long startedAt = System.nanoTime();
+
+        volatile long finishedAt;
+
+        volatile Throwable failure;
+
+        volatile boolean hedgeWon;
+
+        // 赢得 settled 的尝试是否为对冲请求；只有分支正常完成时 finish 才把它记为 hedgeWon
+        volatile boolean winnerIsHedge;
+
+        Call(Downstream downstream, Callable<? extends T> task) {
+            this.downstream = downstream;
+            this.task = task;
+        }
+
+        void start() {
+            downstream.calls.increment();
+            promise.orTimeout(downstream.timeoutNanos(), TimeUnit.NANOSECONDS);
+            launch(false);
+            long hedgeDelay = downstream.hedgeDelayNanos();
+            if (hedgeDelay >= 0) {
+                CompletableFuture.delayedExecutor(hedgeDelay, TimeUnit.NANOSECONDS, executor).execute(() -> {
+                    if (!promise.isDone() && downstream.tryHedge()) {
+                        launch(true);
+                    }
+                });
+            }
+        }
+
+        private void launch(boolean hedge) {
+            running.incrementAndGet();
+            downstream.attempts.increment();
+            Attempt attempt = new Attempt(hedge);
+            attempts.add(attempt);
+            try {
+                executor.execute(attempt.future);
+            } catch (RejectedExecutionException e) {
+                attempts.remove(attempt);
+                attemptFailed(e);
+            }
+            // 与 finish 并发：加入列表前分支已经结束时，finish 可能没看到这个尝试
+            if (promise.isDone()) {
+                attempt.future.cancel(true);
+            }
+        }
+
+        private void runAttempt(Attempt attempt) {
+            if (promise.isDone()) {
+                return;
+            }
+            if (!downstream.bulkhead().tryAcquire()) {
+                attempts.remove(attempt);
+                attemptFailed(new RejectedExecutionException("下游 " + downstream.name() + " 舱壁已满"));
+                return;
+            }
+            try {
+                T value = task.call();
+                // 先移出列表再完成分支，finish 取消其他尝试时不会中断当前线程
+                attempts.remove(attempt);
+                if (settled.compareAndSet(false, true)) {
+                    // orTimeout 不经过 settled，可能已经抢先以超时结束了分支，此时 complete 失败，这次成功不算数
+                    winnerIsHedge = attempt.hedge;
+                    if (!promise.complete(value)) {
+                        downstream.abandoned.increment();
+                    }
+                } else {
+                    downstream.abandoned.increment();
+                }
+            } catch (Throwable e) {
+                attempts.remove(attempt);
+                if (promise.isDone()) {
+                    // 分支已经结束，这个尝试是被中断的输家或超时后才返回
+                    downstream.abandoned.increment();
+                } else {
+                    attemptFailed(e);
+                }
+            } finally {
+                downstream.bulkhead().release();
+            }
+        }
+
+        private void attemptFailed(Throwable error) {
+            if (running.decrementAndGet() == 0) {
+                promise.completeExceptionally(error);
+            }
+        }
+
+        private void finish(Throwable error) {
+            finishedAt = System.nanoTime();
+            for (Attempt attempt : attempts) {
+                attempt.future.cancel(true);
+            }
+            // 百分位取分支从 fork 到结束的端到端耗时，而不是单个获胜尝试的耗时：
+            // 被对冲救回的慢调用、超时的调用都要进样本，否则 p95 偏乐观，对冲比例会远超 5%
+            if (error == null) {
+                // 正常完成只可能来自赢得 settled 的尝试，它在 complete 之前写入 winnerIsHedge
+                hedgeWon = winnerIsHedge;
+                downstream.recordLatency(finishedAt - startedAt);
+                downstream.succeeded.increment();
+                if (hedgeWon) {
+                    downstream.hedgeWins.increment();
+                }
+                return;
+            }
+            // 超时或取消后，仍在执行的尝试即使成功也不再采用
+            settled.set(true);
+            Throwable cause = unwrap(error);
+            failure = cause;
+            if (cause instanceof TimeoutException) {
+                downstream.recordLatency(downstream.timeoutNanos());
+                downstream.timeouts.increment();
+            } else if (cause instanceof RejectedExecutionException) {
+                // 舱壁拒绝和作用域取消没有真正等到下游，不计入耗时样本
+                downstream.rejected.increment();
+            } else if (cause instanceof CancellationException) {
+                downstream.cancelled.increment();
+            } else {
+                downstream.recordLatency(finishedAt - startedAt);
+                downstream.failed.increment();
+            }
+        }
+
+        /**
+         * 一次尝试；future.cancel(true) 中断正在执行它的线程
+         */
+        private final class Attempt {
+
+            final boolean hedge;
+
+            final FutureTask<Void> future = new FutureTask<>(() -> runAttempt(this), null);
+
+            Attempt(boolean hedge) {
+                this.hedge = hedge;
+            }
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,178 @@
+package com.linsir.abc.pdai.thread.juc.executors.fanout;
+
+import com.linsir.abc.pdai.thread.juc.atomic.counter.ShardedHistogram;
+import com.linsir.abc.pdai.thread.juc.executors.ThreadStrategy;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 扇出与对冲请求对尾延迟的影响：一个请求依次 / 并行调用 Redis、MySQL、Mongo 三个模拟下游
+ *
+ * 运行：java ... FanOutBenchmark [请求数，默认 5000] [并发客户端数，默认 32] [执行策略 platform/fixed-pool/virtual，默认 virtual]
+ *
+ * 说明：
+ * 1. 模拟下游：大部分调用耗时在基准值附近（±50%），少量调用（1%~3%）变慢 10~20 倍，模拟 GC 停顿、慢查询、网络重传；
+ *    每次调用独立抽样，同一个请求再发一次多半会走快路径，这正是对冲请求有效的前提
+ * 2. 三种方式：
+ *    sequential：在调用线程里依次调用三个下游（改造前的写法），耗时是三者之和，任何一个慢都会拖慢整个请求；
+ *    fan-out：FanOut 并行调用，耗时是三者最大值，但只要有一个下游慢，请求就慢，三个下游的长尾叠加；
+ *    fan-out + hedge：在 fan-out 基础上每个下游超过最近 p95 耗时未返回就再发一次，p99 接近 p95 + 一次正常耗时
+ * 3. 每种方式先预热（同时让对冲百分位有足够样本），再统计端到端耗时的 p50/p95/p99/p99.9/最大值，
+ *    以及实际发出的下游请求数（对冲带来的额外负载）和被中断的尝试数（取消传播：输掉的请求不再占用线程）
+ * 4. 下游调用用 Thread.sleep 模拟，响应中断；执行器默认使用虚拟线程，运行时不支持时回退为平台线程
+ */
+public final class FanOutBenchmark {
+
+    private FanOutBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        ThreadStrategy strategy = ThreadStrategy.parse(args.length > 2 ? args[2] : "virtual");
+        System.out.printf("请求数 %d，并发客户端 %d，执行策略 %s（实际 %s），CPU %d 核%n", requests, clients, strategy,
+                strategy.effective(), Runtime.getRuntime().availableProcessors());
+
+        for (String mode : new String[]{"sequential", "fan-out", "fan-out + hedge"}) {
+            SimulatedDependency redis = new SimulatedDependency("redis", 1, 0.01, 20);
+            SimulatedDependency mysql = new SimulatedDependency("mysql", 4, 0.03, 15);
+            SimulatedDependency mongo = new SimulatedDependency("mongo", 2, 0.02, 15);
+            boolean hedge = mode.endsWith("hedge");
+            Downstream[] downstreams = {downstream("redis", hedge), downstream("mysql", hedge), downstream("mongo", hedge)};
+            ExecutorService executor = strategy.newExecutor(clients * 6, "fanout");
+            FanOut fanOut = new FanOut(executor);
+            Request request = mode.equals("sequential")
+                    ? () -> {
+                        redis.call();
+                        mysql.call();
+                        mongo.call();
+                    }
+                    : () -> {
+                        try (FanOut.Scope scope = fanOut.open(Duration.ofSeconds(1))) {
+                            FanOut.Branch<String> a = scope.fork(downstreams[0], redis::call);
+                            FanOut.Branch<String> b = scope.fork(downstreams[1], mysql::call);
+                            FanOut.Branch<String> c = scope.fork(downstreams[2], mongo::call);
+                            scope.joinFailFast();
+                            a.get();
+                            b.get();
+                            c.get();
+                        }
+                    };
+
+            run(request, requests / 5, clients, new ShardedHistogram());
+            long callsBefore = redis.calls.sum() + mysql.calls.sum() + mongo.calls.sum();
+            long interruptedBefore = redis.interrupted.sum() + mysql.interrupted.sum() + mongo.interrupted.sum();
+            ShardedHistogram latency = new ShardedHistogram();
+            long elapsed = run(request, requests, clients, latency);
+            long calls = redis.calls.sum() + mysql.calls.sum() + mongo.calls.sum() - callsBefore;
+            long interrupted = redis.interrupted.sum() + mysql.interrupted.sum() + mongo.interrupted.sum() - interruptedBefore;
+
+            ShardedHistogram.Snapshot snapshot = latency.snapshot();
+            System.out.printf("%n%-16s 耗时(ms) p50 %6.1f  p95 %6.1f  p99 %6.1f  p99.9 %6.1f  最大 %6.1f  吞吐 %6.0f 请求/秒%n",
+                    mode, snapshot.valueAt(50) / 1e3, snapshot.valueAt(95) / 1e3, snapshot.valueAt(99) / 1e3,
+                    snapshot.valueAt(99.9) / 1e3, snapshot.max() / 1e3, requests * 1e9 / elapsed);
+            System.out.printf("%-16s 下游请求 %.2f 次/请求，被中断的尝试 %d%n", "", calls / 3.0 / requests, interrupted);
+            if (!mode.equals("sequential")) {
+                for (Downstream downstream : downstreams) {
+                    System.out.printf("%-16s %s%n", "", downstream);
+                }
+            }
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static Downstream downstream(String name, boolean hedge) {
+        Downstream downstream = Downstream.named(name)
+                .timeout(Duration.ofMillis(500))
+                .maxConcurrent(256);
+        return hedge ? downstream.hedgeAtPercentile(95) : downstream;
+    }
+
+    /**
+     * clients 个客户端线程循环发请求，直到总数达到 requests，返回耗时（纳秒）
+     */
+    private static long run(Request request, int requests, int clients, ShardedHistogram latency)
+            throws InterruptedException {
+        AtomicInteger remaining = new AtomicInteger(requests);
+        LongAdder failures = new LongAdder();
+        CountDownLatch done = new CountDownLatch(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            Thread client = new Thread(() -> {
+                try {
+                    while (remaining.getAndDecrement() > 0) {
+                        long begin = System.nanoTime();
+                        try {
+                            request.execute();
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                        latency.record((System.nanoTime() - begin) / 1000);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "client-" + i);
+            client.start();
+        }
+        done.await();
+        if (failures.sum() > 0) {
+            System.out.println("失败请求: " + failures.sum());
+        }
+        return System.nanoTime() - start;
+    }
+
+    @FunctionalInterface
+    private interface Request {
+
+        void execute() throws Exception;
+    }
+
+    /**
+     * 模拟下游：基准耗时 ±50%，以 slowProbability 的概率慢 slowFactor 倍
+     */
+    static final class SimulatedDependency {
+
+        final String name;
+
+        final long baseMicros;
+
+        final double slowProbability;
+
+        final int slowFactor;
+
+        final LongAdder calls = new LongAdder();
+
+        final LongAdder interrupted = new LongAdder();
+
+        SimulatedDependency(String name, long baseMillis, double slowProbability, int slowFactor) {
+            this.name = name;
+            this.baseMicros = baseMillis * 1000;
+            this.slowProbability = slowProbability;
+            this.slowFactor = slowFactor;
+        }
+
+        String call() throws InterruptedException {
+            calls.increment();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long micros = baseMicros / 2 + random.nextLong(baseMicros);
+            if (random.nextDouble() < slowProbability) {
+                micros *= slowFactor;
+            }
+            try {
+                TimeUnit.MICROSECONDS.sleep(micros);
+            } catch (InterruptedException e) {
+                interrupted.increment();
+                throw e;
+            }
+            return name + "-ok";
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.linsir.abc.pdai.thread.juc.executors.fanout;
+
+import java.util.Arrays;
+
+/**
+ * 最近若干次调用的耗时窗口，用于计算对冲请求的触发时机（如 p95）
+ *
+ * 说明：
+ * 1. 环形数组保存最近 size 个样本，新样本覆盖最旧的，下游变慢或恢复后百分位能跟着变化
+ * 2. 每记录 RECOMPUTE_EVERY 个样本才排序一次重新计算百分位，结果放在 volatile 字段里，
+ *    每次调用读百分位只是一次 volatile 读；记录在锁内，调用本身是毫秒级的，锁不是瓶颈
+ * 3. 样本数不足 minSamples 时返回 -1，调用方此时不做对冲（百分位不可信）
+ */
+final class LatencyWindow {
+
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final long[] samples;
+
+    private final double percentile;
+
+    private final int minSamples;
+
+    private int next;
+
+    private long recorded;
+
+    private volatile long cachedNanos = -1;
+
+
+    LatencyWindow(int size, double percentile, int minSamples) {
+        this.samples = new long[size];
+        this.percentile = percentile;
+        this.minSamples = Math.min(minSamples, size);
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        recorded++;
+        if (recorded >= minSamples && (recorded == minSamples || recorded % RECOMPUTE_EVERY == 0)) {
+            long[] sorted = Arrays.copyOf(samples, (int) Math.min(recorded, samples.length));
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+            cachedNanos = sorted[Math.max(0, index)];
+        }
+    }
+
+    /**
+     * @return 最近窗口内的百分位耗时（纳秒），样本不足时返回 -1
+     */
+    long percentileNanos() {
+        return cachedNanos;
+    }
+
+    double percentile() {
+        return percentile;
+    }
+}
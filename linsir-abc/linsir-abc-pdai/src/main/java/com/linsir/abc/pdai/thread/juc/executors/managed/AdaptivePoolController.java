@@ -0,0 +1,312 @@
+package com.linsir.abc.pdai.thread.juc.executors.managed;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 线程池自适应控制器：按采样窗口内的到达率、吞吐和排队时间调整 ManagedThreadPool 的核心线程数
+ *
+ * 说明：
+ * 1. 每个间隔取一次池的累计计数，差值得到窗口内的到达率 λ、吞吐 X、平均排队时间 W 和平均执行时间 S
+ * 2. 利特尔法则：同时在执行的任务数 = λ × S，要让线程利用率不超过 targetUtilization，需要 ceil(λ × S / targetUtilization) 个线程；
+ *    队列里有积压时再加上在一个间隔内消化积压所需的线程数 ceil(queue × S / interval)
+ * 3. 扩容：W 超过 targetQueueWait 时扩到上面的估算值（至少 +1，最多翻倍）；CPU 打满时时间片轮转会让 S 虚高，
+ *    翻倍的上限避免按虚高的估算一次扩出大量线程
+ * 4. 饱和检测：扩容后下一窗口排队仍超过目标、积压没有减少且吞吐提升不到 5%，
+ *    说明瓶颈不在线程数（CPU 打满、下游限流、锁竞争），撤销这次扩容并冷却若干个间隔，避免线程越加越多反而增加上下文切换
+ * 5. 缩容：W 低于 targetQueueWait / 4 且队列为空时缩到估算值，每次最多缩 25%，避免负载抖动时来回震荡；
+ *    缩容的这个间隔内最大线程数临时等于核心线程数，让多余线程退出（见 shrink）
+ * 6. 结果限制在 [minThreads, maxThreads]；核心线程数超过池的最大线程数时同时调大最大线程数
+ * 7. 参数都可以在运行时修改（见 ExecutorAdminServer），setEnabled(false) 后只采样不调整，便于人工接管
+ */
+public class AdaptivePoolController implements Closeable {
+
+    private static final double SATURATION_GAIN = 0.05;
+
+    private static final int COOLDOWN_TICKS = 3;
+
+    private final ManagedThreadPool pool;
+
+    private final Duration interval;
+
+    private final ScheduledExecutorService scheduler;
+
+    private volatile int minThreads;
+
+    private volatile int maxThreads;
+
+    private volatile long targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private volatile double targetUtilization = 0.8;
+
+    private volatile boolean enabled = true;
+
+    private volatile String lastDecision = "尚未采样";
+
+    private final LongAdder grows = new LongAdder();
+
+    private final LongAdder shrinks = new LongAdder();
+
+    private final LongAdder saturations = new LongAdder();
+
+    // 以下状态只在 tick 中访问，tick 由单线程调度执行
+
+    private ManagedThreadPool.Snapshot previous;
+
+    private int coreBeforeGrow = -1;
+
+    private double throughputBeforeGrow;
+
+    private int queuedBeforeGrow;
+
+    private int cooldown;
+
+    private int restoreMax = -1;
+
+    private volatile double arrivalRate;
+
+    private volatile double throughput;
+
+    private volatile double avgQueueWaitMillis;
+
+    private volatile double avgServiceMillis;
+
+
+    public AdaptivePoolController(ManagedThreadPool pool, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("采样间隔必须大于 0: " + interval);
+        }
+        this.pool = pool;
+        this.interval = interval;
+        this.minThreads = 1;
+        this.maxThreads = Math.max(pool.getMaximumPoolSize(), pool.getCorePoolSize());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, pool.name() + "-controller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public AdaptivePoolController minThreads(int minThreads) {
+        if (minThreads < 1 || minThreads > maxThreads) {
+            throw new IllegalArgumentException("最小线程数必须在 [1, " + maxThreads + "] 之间: " + minThreads);
+        }
+        this.minThreads = minThreads;
+        return this;
+    }
+
+    public AdaptivePoolController maxThreads(int maxThreads) {
+        if (maxThreads < minThreads) {
+            throw new IllegalArgumentException("最大线程数不能小于最小线程数 " + minThreads + ": " + maxThreads);
+        }
+        this.maxThreads = maxThreads;
+        return this;
+    }
+
+    public AdaptivePoolController targetQueueWait(Duration targetQueueWait) {
+        if (targetQueueWait.isNegative() || targetQueueWait.isZero()) {
+            throw new IllegalArgumentException("目标排队时间必须大于 0: " + targetQueueWait);
+        }
+        this.targetQueueWaitNanos = targetQueueWait.toNanos();
+        return this;
+    }
+
+    public AdaptivePoolController targetUtilization(double targetUtilization) {
+        if (targetUtilization <= 0 || targetUtilization > 1) {
+            throw new IllegalArgumentException("目标利用率必须在 (0, 1] 之间: " + targetUtilization);
+        }
+        this.targetUtilization = targetUtilization;
+        return this;
+    }
+
+    public AdaptivePoolController setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        return this;
+    }
+
+    public AdaptivePoolController start() {
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::safeTick, millis, millis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (RuntimeException e) {
+            lastDecision = "调整失败: " + e;
+        }
+    }
+
+    /**
+     * 一次采样和调整，包内可见便于手动驱动
+     */
+    void tick() {
+        ManagedThreadPool.Snapshot current = pool.snapshot();
+        ManagedThreadPool.Snapshot last = previous;
+        previous = current;
+        if (last == null) {
+            lastDecision = "首次采样";
+            return;
+        }
+        double seconds = (current.nanoTime - last.nanoTime) / 1e9;
+        long started = current.started - last.started;
+        long completed = current.completed - last.completed;
+        arrivalRate = (current.submitted - last.submitted) / seconds;
+        throughput = completed / seconds;
+        double waitNanos = started > 0 ? (double) (current.queueWaitNanos - last.queueWaitNanos) / started : 0;
+        double serviceNanos = completed > 0 ? (double) (current.executionNanos - last.executionNanos) / completed : 0;
+        avgQueueWaitMillis = waitNanos / 1e6;
+        avgServiceMillis = serviceNanos / 1e6;
+        restoreMaximumPoolSize();
+        if (!enabled) {
+            lastDecision = "自适应已关闭";
+            return;
+        }
+
+        int core = pool.getCorePoolSize();
+        int queued = pool.getQueue().size();
+        // 上一窗口扩容过：检查吞吐是否跟着提升
+        if (coreBeforeGrow > 0) {
+            int reverted = coreBeforeGrow;
+            coreBeforeGrow = -1;
+            if (waitNanos > targetQueueWaitNanos && queued >= queuedBeforeGrow
+                    && throughput < throughputBeforeGrow * (1 + SATURATION_GAIN)) {
+                saturations.increment();
+                cooldown = COOLDOWN_TICKS;
+                apply(clamp(reverted));
+                lastDecision = String.format("饱和：扩容后吞吐 %.0f/s → %.0f/s，回退核心线程数 %d → %d", throughputBeforeGrow,
+                        throughput, core, pool.getCorePoolSize());
+                return;
+            }
+        }
+
+        double serviceSeconds = serviceNanos / 1e9;
+        int needed = (int) Math.ceil(arrivalRate * serviceSeconds / targetUtilization);
+        int backlog = (int) Math.ceil(queued * serviceSeconds / seconds);
+        if (waitNanos > targetQueueWaitNanos || (started == 0 && queued > 0)) {
+            if (cooldown > 0) {
+                cooldown--;
+                lastDecision = String.format("排队 %.1f ms 超过目标，冷却中（剩余 %d 个间隔）", avgQueueWaitMillis, cooldown);
+                return;
+            }
+            int target = clamp(Math.min(Math.max(needed + backlog, core + 1), core * 2));
+            if (target > core) {
+                coreBeforeGrow = core;
+                throughputBeforeGrow = throughput;
+                queuedBeforeGrow = queued;
+                apply(target);
+                grows.increment();
+                lastDecision = String.format("扩容 %d → %d：排队 %.1f ms，λ=%.0f/s，S=%.2f ms，积压 %d", core, target,
+                        avgQueueWaitMillis, arrivalRate, avgServiceMillis, queued);
+            } else {
+                lastDecision = String.format("排队 %.1f ms 超过目标，但已到上限 %d", avgQueueWaitMillis, maxThreads);
+            }
+            return;
+        }
+        if (cooldown > 0) {
+            cooldown--;
+        }
+        if (waitNanos < targetQueueWaitNanos / 4.0 && queued == 0) {
+            int floor = core - (int) Math.ceil(core * 0.25);
+            int target = clamp(Math.max(needed, floor));
+            if (target < core) {
+                shrink(target);
+                shrinks.increment();
+                lastDecision = String.format("缩容 %d → %d：排队 %.1f ms，λ=%.0f/s，S=%.2f ms", core, target,
+                        avgQueueWaitMillis, arrivalRate, avgServiceMillis);
+                return;
+            }
+        }
+        if (core < minThreads || core > maxThreads) {
+            apply(clamp(core));
+            lastDecision = String.format("按范围 [%d, %d] 调整核心线程数 %d → %d", minThreads, maxThreads, core,
+                    pool.getCorePoolSize());
+            return;
+        }
+        lastDecision = String.format("保持 %d：排队 %.1f ms，λ=%.0f/s，S=%.2f ms", core, avgQueueWaitMillis, arrivalRate,
+                avgServiceMillis);
+    }
+
+    private int clamp(int threads) {
+        return Math.max(minThreads, Math.min(maxThreads, threads));
+    }
+
+    private void apply(int core) {
+        pool.resize(core, Math.max(core, pool.getMaximumPoolSize()));
+    }
+
+    /**
+     * 只调小核心线程数时多余线程不会退出：任务持续到达时空闲线程轮流从队列取任务，谁也等不满 keepAlive；
+     * 所以把最大线程数临时降到核心线程数，工作线程下次取任务时发现线程数超过上限就退出，下一个间隔再恢复最大线程数
+     */
+    private void shrink(int core) {
+        int max = pool.getMaximumPoolSize();
+        pool.resize(core, core);
+        restoreMax = max;
+    }
+
+    private void restoreMaximumPoolSize() {
+        if (restoreMax > 0) {
+            // 期间被手动改过（管理端点）就不再覆盖
+            if (pool.getMaximumPoolSize() == pool.getCorePoolSize()) {
+                pool.resize(pool.getCorePoolSize(), Math.max(restoreMax, pool.getCorePoolSize()));
+            }
+            restoreMax = -1;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int minThreads() {
+        return minThreads;
+    }
+
+    public int maxThreads() {
+        return maxThreads;
+    }
+
+    public String lastDecision() {
+        return lastDecision;
+    }
+
+    /**
+     * 当前参数和最近一个窗口的观测值，供管理端点输出
+     */
+    public Map<String, Object> state() {
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("enabled", enabled);
+        state.put("minThreads", minThreads);
+        state.put("maxThreads", maxThreads);
+        state.put("targetQueueWaitMillis", targetQueueWaitNanos / 1e6);
+        state.put("targetUtilization", targetUtilization);
+        state.put("arrivalRate", Math.round(arrivalRate));
+        state.put("throughput", Math.round(throughput));
+        state.put("avgQueueWaitMillis", Math.round(avgQueueWaitMillis * 100) / 100.0);
+        state.put("avgServiceMillis", Math.round(avgServiceMillis * 100) / 100.0);
+        state.put("grows", grows.sum());
+        state.put("shrinks", shrinks.sum());
+        state.put("saturations", saturations.sum());
+        state.put("lastDecision", lastDecision);
+        return state;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return "自适应控制器{" + pool.name() + ", 扩容=" + grows.sum() + ", 缩容=" + shrinks.sum() + ", 饱和=" + saturations.sum()
+                + ", 最近=" + lastDecision + "}";
+    }
+}
@@ -0,0 +1,250 @@
+package com.linsir.abc.pdai.thread.juc.executors.managed;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 线程池的动态配置端点：查看各池状态，不重启修改线程数和控制器参数
+ *
+ * 接口：
+ * <pre>
+ * GET  /executors                  所有池的状态
+ * GET  /executors/{name}           单个池：线程数、队列、拒绝次数、各任务类型的排队/执行时间百分位、控制器状态
+ * POST /executors/{name}?core=8&amp;max=64&amp;minThreads=2&amp;maxThreads=128&amp;targetQueueWaitMillis=20&amp;adaptive=false
+ *                                  修改参数，只改传入的项，返回修改后的状态
+ * </pre>
+ *
+ * 说明：
+ * 1. 基于 JDK 自带的 com.sun.net.httpserver，默认只绑定 127.0.0.1；对外暴露时应放在鉴权网关之后
+ * 2. 手动修改 core/max 时如果控制器仍开启，下一个间隔会按负载重新调整，需要固定线程数时同时传 adaptive=false
+ * 3. 参数非法返回 400，池不存在返回 404；所有参数校验通过后才开始修改，不会出现只改了一半的状态
+ * 4. 指标的持续采集走 MeterRegistry（Prometheus、JMX 等），这里只用于人工查看和调整
+ */
+public class ExecutorAdminServer implements Closeable {
+
+    private static final String PREFIX = "/executors";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<String, ManagedThreadPool> pools = new ConcurrentHashMap<>();
+
+    private final Map<String, AdaptivePoolController> controllers = new ConcurrentHashMap<>();
+
+    private HttpServer server;
+
+
+    public ExecutorAdminServer register(ManagedThreadPool pool) {
+        return register(pool, null);
+    }
+
+    public ExecutorAdminServer register(ManagedThreadPool pool, AdaptivePoolController controller) {
+        pools.put(pool.name(), pool);
+        if (controller != null) {
+            controllers.put(pool.name(), controller);
+        }
+        return this;
+    }
+
+    /**
+     * 启动服务，port 为 0 时由系统分配
+     */
+    public ExecutorAdminServer start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext(PREFIX, this::handle);
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            String name = path.length() > PREFIX.length() + 1 ? path.substring(PREFIX.length() + 1) : "";
+            String method = exchange.getRequestMethod();
+            if (name.isEmpty() && "GET".equals(method)) {
+                List<Object> all = new ArrayList<>();
+                for (String poolName : pools.keySet()) {
+                    all.add(describe(poolName));
+                }
+                respond(exchange, 200, all);
+                return;
+            }
+            if (!pools.containsKey(name)) {
+                respond(exchange, 404, error("线程池不存在: " + name));
+                return;
+            }
+            if ("GET".equals(method)) {
+                respond(exchange, 200, describe(name));
+            } else if ("POST".equals(method)) {
+                update(name, query(exchange.getRequestURI().getRawQuery()));
+                respond(exchange, 200, describe(name));
+            } else {
+                respond(exchange, 405, error("不支持的方法: " + method));
+            }
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e.getMessage()));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, error(e.toString()));
+        }
+    }
+
+    /**
+     * 先解析并校验全部参数，全部合法后再修改，非法请求返回 400 时池和控制器都保持原样
+     */
+    private void update(String name, Map<String, String> params) {
+        ManagedThreadPool pool = pools.get(name);
+        AdaptivePoolController controller = controllers.get(name);
+        if (controller == null && (params.containsKey("minThreads") || params.containsKey("maxThreads")
+                || params.containsKey("targetQueueWaitMillis") || params.containsKey("adaptive"))) {
+            throw new IllegalArgumentException("线程池 " + name + " 没有自适应控制器");
+        }
+
+        Boolean adaptive = params.containsKey("adaptive") ? parseBoolean(params, "adaptive") : null;
+        Duration targetQueueWait = null;
+        if (params.containsKey("targetQueueWaitMillis")) {
+            int millis = parseInt(params, "targetQueueWaitMillis");
+            if (millis <= 0) {
+                throw new IllegalArgumentException("目标排队时间必须大于 0: " + millis);
+            }
+            targetQueueWait = Duration.ofMillis(millis);
+        }
+        int minThreads = 0;
+        int maxThreads = 0;
+        if (controller != null) {
+            minThreads = params.containsKey("minThreads") ? parseInt(params, "minThreads") : controller.minThreads();
+            maxThreads = params.containsKey("maxThreads") ? parseInt(params, "maxThreads") : controller.maxThreads();
+            if (minThreads < 1 || minThreads > maxThreads) {
+                throw new IllegalArgumentException("线程数范围必须满足 1 <= minThreads <= maxThreads: "
+                        + minThreads + ", " + maxThreads);
+            }
+        }
+        boolean resize = params.containsKey("core") || params.containsKey("max");
+        int core = params.containsKey("core") ? parseInt(params, "core") : pool.getCorePoolSize();
+        int max = params.containsKey("max") ? parseInt(params, "max") : Math.max(core, pool.getMaximumPoolSize());
+        if (resize) {
+            if (core < 1 || core > max) {
+                throw new IllegalArgumentException("线程数必须满足 1 <= core <= max: " + core + ", " + max);
+            }
+            // 控制器开启时会把核心线程数拉回 [minThreads, maxThreads]，范围外的手动值只在关闭控制器时有意义
+            boolean enabled = adaptive != null ? adaptive : controller != null && controller.isEnabled();
+            if (controller != null && enabled && (core < minThreads || core > maxThreads)) {
+                throw new IllegalArgumentException("控制器开启时核心线程数必须在 [" + minThreads + ", " + maxThreads
+                        + "] 之间: " + core + "，需要固定线程数时同时传 adaptive=false");
+            }
+        }
+
+        if (controller != null) {
+            if (adaptive != null) {
+                controller.setEnabled(adaptive);
+            }
+            if (targetQueueWait != null) {
+                controller.targetQueueWait(targetQueueWait);
+            }
+            // 按先后顺序设置，避免中间状态 min > max 被拒绝
+            if (minThreads <= controller.maxThreads()) {
+                controller.minThreads(minThreads).maxThreads(maxThreads);
+            } else {
+                controller.maxThreads(maxThreads).minThreads(minThreads);
+            }
+        }
+        if (resize) {
+            pool.resize(core, max);
+        }
+    }
+
+    private Map<String, Object> describe(String name) {
+        ManagedThreadPool pool = pools.get(name);
+        Map<String, Object> state = new LinkedHashMap<>();
+        state.put("name", name);
+        state.put("corePoolSize", pool.getCorePoolSize());
+        state.put("maximumPoolSize", pool.getMaximumPoolSize());
+        state.put("poolSize", pool.getPoolSize());
+        state.put("activeCount", pool.getActiveCount());
+        state.put("queued", pool.getQueue().size());
+        state.put("queueRemainingCapacity", pool.getQueue().remainingCapacity());
+        state.put("completedTasks", pool.getCompletedTaskCount());
+        state.put("rejected", pool.rejectedCount());
+        List<Object> tasks = new ArrayList<>();
+        for (TaskMetrics metrics : pool.taskMetrics()) {
+            tasks.add(metrics.summary());
+        }
+        state.put("tasks", tasks);
+        AdaptivePoolController controller = controllers.get(name);
+        if (controller != null) {
+            state.put("controller", controller.state());
+        }
+        return state;
+    }
+
+    private static int parseInt(Map<String, String> params, String key) {
+        try {
+            return Integer.parseInt(params.get(key).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("参数 " + key + " 不是整数: " + params.get(key));
+        }
+    }
+
+    private static boolean parseBoolean(Map<String, String> params, String key) {
+        String value = params.get(key).trim();
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("参数 " + key + " 必须是 true 或 false: " + params.get(key));
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new LinkedHashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value);
+        }
+        return params;
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        return error;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.linsir.abc.pdai.thread.juc.executors.managed;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 可观测、可在运行时调整大小的线程池
+ *
+ * 说明：
+ * 1. 任务按类型（taskType）分别统计排队时间（提交到开始执行）和执行时间，用 Micrometer Timer 记录，带 p50/p95/p99 和直方图，
+ *    同时导出线程数、活跃数、队列长度、核心/最大线程数等 Gauge 和拒绝次数 Counter，注册到构造时传入的 MeterRegistry
+ * 2. resize 在运行时修改核心/最大线程数，按先后顺序设置，避免出现 core > max 的中间状态
+ * 3. 队列是有界 LinkedBlockingQueue：ThreadPoolExecutor 只在队列满时才会超过核心线程数，
+ *    所以自适应控制器（AdaptivePoolController）调整的是核心线程数，最大线程数作为突发时的上限
+ * 4. 拒绝策略被包一层计数，setRejectedExecutionHandler 替换策略后计数仍然有效
+ * 5. 允许核心线程空闲超时，核心线程数调小后多余线程在空闲 keepAlive 后退出
+ *
+ * 使用：
+ * <pre>
+ * ManagedThreadPool pool = new ManagedThreadPool("orders", 4, 64, 10_000, registry);
+ * pool.execute("query", () -&gt; ...);
+ * Future&lt;Order&gt; future = pool.submit("load", () -&gt; loadOrder(id));
+ * </pre>
+ */
+public class ManagedThreadPool extends ThreadPoolExecutor {
+
+    public static final String DEFAULT_TASK_TYPE = "default";
+
+    private final String name;
+
+    private final MeterRegistry registry;
+
+    private final Map<String, TaskMetrics> metrics = new ConcurrentHashMap<>();
+
+    private final Counter rejected;
+
+    // 累计值，控制器按采样间隔取差值
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder started = new LongAdder();
+
+    private final LongAdder completed = new LongAdder();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    private final LongAdder executionNanos = new LongAdder();
+
+
+    public ManagedThreadPool(String name, int corePoolSize, int maximumPoolSize, int queueCapacity, MeterRegistry registry) {
+        super(corePoolSize, maximumPoolSize, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity),
+                namedFactory(name), new AbortPolicy());
+        this.name = name;
+        this.registry = registry;
+        this.rejected = Counter.builder("executor.rejected").tag("pool", name).register(registry);
+        setRejectedExecutionHandler(getRejectedExecutionHandler());
+        allowCoreThreadTimeOut(true);
+        Gauge.builder("executor.pool.size", this, ThreadPoolExecutor::getPoolSize).tag("pool", name).register(registry);
+        Gauge.builder("executor.active", this, ThreadPoolExecutor::getActiveCount).tag("pool", name).register(registry);
+        Gauge.builder("executor.queued", this, pool -> pool.getQueue().size()).tag("pool", name).register(registry);
+        Gauge.builder("executor.pool.core", this, ThreadPoolExecutor::getCorePoolSize).tag("pool", name).register(registry);
+        Gauge.builder("executor.pool.max", this, ThreadPoolExecutor::getMaximumPoolSize).tag("pool", name).register(registry);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * 运行时修改核心和最大线程数
+     */
+    public synchronized void resize(int corePoolSize, int maximumPoolSize) {
+        if (corePoolSize < 1 || corePoolSize > maximumPoolSize) {
+            throw new IllegalArgumentException("线程数必须满足 1 <= core <= max: " + corePoolSize + ", " + maximumPoolSize);
+        }
+        // 变大时先调 max，变小时先调 core，任何时刻都满足 core <= max
+        if (maximumPoolSize >= getCorePoolSize()) {
+            setMaximumPoolSize(maximumPoolSize);
+            setCorePoolSize(corePoolSize);
+        } else {
+            setCorePoolSize(corePoolSize);
+            setMaximumPoolSize(maximumPoolSize);
+        }
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        execute(DEFAULT_TASK_TYPE, command);
+    }
+
+    /**
+     * 按任务类型提交
+     */
+    public void execute(String taskType, Runnable command) {
+        TimedTask task = command instanceof TimedTask ? (TimedTask) command : new TimedTask(metrics(taskType), command);
+        submitted.increment();
+        super.execute(task);
+    }
+
+    public <T> Future<T> submit(String taskType, Callable<T> callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+        RunnableFuture<T> future = newTaskFor(callable);
+        execute(taskType, future);
+        return future;
+    }
+
+    @Override
+    public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+        super.setRejectedExecutionHandler(handler instanceof CountingHandler ? handler : new CountingHandler(handler));
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        super.beforeExecute(thread, runnable);
+        if (runnable instanceof TimedTask) {
+            TimedTask task = (TimedTask) runnable;
+            task.startedAt = System.nanoTime();
+            long wait = task.startedAt - task.submittedAt;
+            task.metrics.queueWait.record(wait, TimeUnit.NANOSECONDS);
+            queueWaitNanos.add(wait);
+            started.increment();
+        }
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable throwable) {
+        super.afterExecute(runnable, throwable);
+        if (runnable instanceof TimedTask) {
+            TimedTask task = (TimedTask) runnable;
+            long elapsed = System.nanoTime() - task.startedAt;
+            task.metrics.execution.record(elapsed, TimeUnit.NANOSECONDS);
+            if (throwable != null || failedInFuture(task.delegate)) {
+                task.metrics.failures.increment();
+            }
+            executionNanos.add(elapsed);
+            completed.increment();
+        }
+    }
+
+    /**
+     * submit 提交的任务包在 FutureTask 里，异常被 FutureTask 捕获，afterExecute 拿到的 throwable 为 null；
+     * 按 ThreadPoolExecutor.afterExecute 文档的做法，从已完成的 Future 中取出异常
+     */
+    private static boolean failedInFuture(Runnable runnable) {
+        if (!(runnable instanceof Future) || !((Future<?>) runnable).isDone()) {
+            return false;
+        }
+        try {
+            ((Future<?>) runnable).get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (CancellationException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    TaskMetrics metrics(String taskType) {
+        return metrics.computeIfAbsent(taskType, type -> new TaskMetrics(registry, name, type));
+    }
+
+    public Collection<TaskMetrics> taskMetrics() {
+        return Collections.unmodifiableCollection(metrics.values());
+    }
+
+    public long rejectedCount() {
+        return (long) rejected.count();
+    }
+
+    /**
+     * 累计计数的快照，供控制器计算采样窗口内的到达率、吞吐和平均排队/执行时间
+     */
+    Snapshot snapshot() {
+        return new Snapshot(System.nanoTime(), submitted.sum(), started.sum(), completed.sum(),
+                queueWaitNanos.sum(), executionNanos.sum());
+    }
+
+    static final class Snapshot {
+
+        final long nanoTime;
+
+        final long submitted;
+
+        final long started;
+
+        final long completed;
+
+        final long queueWaitNanos;
+
+        final long executionNanos;
+
+        Snapshot(long nanoTime, long submitted, long started, long completed, long queueWaitNanos, long executionNanos) {
+            this.nanoTime = nanoTime;
+            this.submitted = submitted;
+            this.started = started;
+            this.completed = completed;
+            this.queueWaitNanos = queueWaitNanos;
+            this.executionNanos = executionNanos;
+        }
+    }
+
+    /**
+     * 记录提交时间的任务包装，FutureTask 也会被包一层，排队时间从进入 execute 算起
+     */
+    private static final class TimedTask implements Runnable {
+
+        final TaskMetrics metrics;
+
+        final Runnable delegate;
+
+        final long submittedAt = System.nanoTime();
+
+        long startedAt;
+
+        TimedTask(TaskMetrics metrics, Runnable delegate) {
+            this.metrics = metrics;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            delegate.run();
+        }
+    }
+
+    private final class CountingHandler implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate;
+
+        CountingHandler(RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejected.increment();
+            delegate.rejectedExecution(runnable, executor);
+        }
+    }
+
+    private static ThreadFactory namedFactory(String name) {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> new Thread(runnable, name + "-" + index.getAndIncrement());
+    }
+}
@@ -0,0 +1,129 @@
+package com.linsir.abc.pdai.thread.juc.executors.managed;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应线程池示例：分阶段施加负载，观察控制器扩缩容，最后通过管理端点查看和修改配置
+ *
+ * 运行：java ... ManagedThreadPoolDemo
+ *
+ * 说明：
+ * 1. 负载分三段：100/s → 2000/s → 200/s，任务 80% 为 "io"（sleep 5ms，模拟下游调用），20% 为 "cpu"（忙等约 1ms）
+ * 2. 初始核心线程数 2，2000/s 时按利特尔法则约需 1600 × 5ms + 400 × 1ms ≈ 8.4 个线程同时在忙，控制器应扩到 10 个左右，负载下降后逐步缩回
+ * 3. 每秒输出核心线程数、线程数、队列长度和控制器的决策，结束时输出各任务类型的排队/执行时间百分位
+ * 4. 实际使用时把 SimpleMeterRegistry 换成 PrometheusMeterRegistry 等，指标名见 ManagedThreadPool
+ */
+public class ManagedThreadPoolDemo {
+
+    public static void main(String[] args) throws Exception {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        ManagedThreadPool pool = new ManagedThreadPool("demo", 2, 64, 10_000, registry);
+        AdaptivePoolController controller = new AdaptivePoolController(pool, Duration.ofSeconds(1))
+                .minThreads(2)
+                .maxThreads(64)
+                .targetQueueWait(Duration.ofMillis(20))
+                .start();
+        ExecutorAdminServer admin = new ExecutorAdminServer().register(pool, controller).start(0);
+        try {
+            runPhase(pool, controller, 100, 5);
+            runPhase(pool, controller, 2000, 8);
+            runPhase(pool, controller, 200, 8);
+
+            System.out.println("=== 各任务类型 ===");
+            for (TaskMetrics metrics : pool.taskMetrics()) {
+                Map<String, Object> summary = metrics.summary();
+                System.out.printf("%-4s 完成 %6d  排队(ms) %s  执行(ms) %s%n", metrics.type(), metrics.count(),
+                        summary.get("queueWaitMs"), summary.get("executionMs"));
+            }
+            System.out.printf("拒绝 %d 次，%s%n", pool.rejectedCount(), controller);
+
+            adminEndpoint(admin.port());
+        } finally {
+            admin.close();
+            controller.close();
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 以固定速率提交任务，每 10ms 提交一批
+     */
+    private static void runPhase(ManagedThreadPool pool, AdaptivePoolController controller, int perSecond, int seconds)
+            throws InterruptedException {
+        System.out.printf("=== 负载 %d/s，持续 %d 秒 ===%n", perSecond, seconds);
+        long start = System.nanoTime();
+        long submitted = 0;
+        long nextReport = start + TimeUnit.SECONDS.toNanos(1);
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        while (System.nanoTime() < end) {
+            long due = (System.nanoTime() - start) * perSecond / 1_000_000_000L;
+            for (; submitted < due; submitted++) {
+                try {
+                    if (ThreadLocalRandom.current().nextInt(10) < 8) {
+                        pool.execute("io", ManagedThreadPoolDemo::ioTask);
+                    } else {
+                        pool.execute("cpu", ManagedThreadPoolDemo::cpuTask);
+                    }
+                } catch (RejectedExecutionException e) {
+                    // 已计入拒绝次数
+                }
+            }
+            if (System.nanoTime() >= nextReport) {
+                System.out.printf("  core %3d  线程 %3d  队列 %5d  %s%n", pool.getCorePoolSize(), pool.getPoolSize(),
+                        pool.getQueue().size(), controller.lastDecision());
+                nextReport += TimeUnit.SECONDS.toNanos(1);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static void ioTask() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void cpuTask() {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1);
+        long x = 0;
+        while (System.nanoTime() < end) {
+            x += ThreadLocalRandom.current().nextInt();
+        }
+        if (x == 42) {
+            System.out.print("");
+        }
+    }
+
+    private static void adminEndpoint(int port) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        String base = "http://127.0.0.1:" + port + "/executors";
+        System.out.println("=== 管理端点 ===");
+        System.out.println("POST /executors/demo?core=6&max=32&adaptive=false");
+        System.out.println(send(client, HttpRequest.newBuilder(URI.create(base + "/demo?core=6&max=32&adaptive=false"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build()));
+        System.out.println("POST /executors/demo?core=0 → "
+                + send(client, HttpRequest.newBuilder(URI.create(base + "/demo?core=0"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build()));
+        System.out.println("GET /executors/unknown → "
+                + send(client, HttpRequest.newBuilder(URI.create(base + "/unknown")).GET().build()));
+    }
+
+    private static String send(HttpClient client, HttpRequest request) throws Exception {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() + " " + response.body();
+    }
+}
@@ -0,0 +1,83 @@
+package com.linsir.abc.pdai.thread.juc.executors.managed;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一种任务类型的指标：排队时间、执行时间、失败次数
+ *
+ * 说明：
+ * 1. 两个 Timer 都开启了客户端百分位（p50/p95/p99，滑动窗口）和直方图桶，直方图供 Prometheus 等后端跨实例聚合
+ * 2. 标签为 pool + type，任务类型应是有限的枚举值（如接口名），不要用用户 id 之类的高基数值
+ */
+public final class TaskMetrics {
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    final String type;
+
+    final Timer queueWait;
+
+    final Timer execution;
+
+    final Counter failures;
+
+
+    TaskMetrics(MeterRegistry registry, String pool, String type) {
+        this.type = type;
+        this.queueWait = Timer.builder("executor.task.queue.wait")
+                .tags("pool", pool, "type", type)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.execution = Timer.builder("executor.task.execution")
+                .tags("pool", pool, "type", type)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+        this.failures = Counter.builder("executor.task.failures")
+                .tags("pool", pool, "type", type)
+                .register(registry);
+    }
+
+    public String type() {
+        return type;
+    }
+
+    public long count() {
+        return execution.count();
+    }
+
+    /**
+     * 以毫秒为单位的摘要，供管理端点和示例输出
+     */
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("type", type);
+        summary.put("completed", execution.count());
+        summary.put("failures", (long) failures.count());
+        summary.put("queueWaitMs", percentiles(queueWait));
+        summary.put("executionMs", percentiles(execution));
+        return summary;
+    }
+
+    private static Map<String, Double> percentiles(Timer timer) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        values.put("mean", round(timer.mean(TimeUnit.MILLISECONDS)));
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            values.put("p" + Math.round(value.percentile() * 100), round(value.value(TimeUnit.MILLISECONDS)));
+        }
+        values.put("max", round(timer.max(TimeUnit.MILLISECONDS)));
+        return values;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
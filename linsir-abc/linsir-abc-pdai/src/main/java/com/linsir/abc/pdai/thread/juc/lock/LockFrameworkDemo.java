@@ -1,5 +1,7 @@
 package com.linsir.abc.pdai.thread.juc.lock;
 
+import com.linsir.abc.pdai.thread.juc.lock.cache.OptimisticReadCache;
+
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.StampedLock;
@@ -193,6 +195,8 @@ public class LockFrameworkDemo {
     }
     
     // 3. StampedLock示例
+    // 这里只保护两个 double；保护整张表的乐观读缓存见 cache.OptimisticReadCache，
+    // 与 ConcurrentHashMap、读写锁的 JMH 对比见 cache.ReadMostlyMapBenchmark
     static class StampedLockDemo {
         private double x = 0.0;
         private double y = 0.0;
@@ -286,9 +290,59 @@ public class LockFrameworkDemo {
         }
     }
     
+    // 4. 基于StampedLock乐观读的读多写少缓存
+    static class OptimisticReadCacheDemo {
+        public static void test() {
+            System.out.println("4. StampedLock乐观读缓存示例:");
+            OptimisticReadCache<String, String> config = new OptimisticReadCache<>();
+            config.put("db.url", "jdbc:mysql://localhost:3306/demo");
+            config.put("db.pool.size", "10");
+            OptimisticReadCache.Snapshot<String, String> before = config.snapshot();
+            System.out.println("初始快照: " + before + " " + before.asMap());
+
+            // 4个读线程不断读取配置，1个写线程偶尔修改
+            Thread[] readers = new Thread[4];
+            for (int i = 0; i < readers.length; i++) {
+                readers[i] = new Thread(() -> {
+                    for (int j = 0; j < 100000; j++) {
+                        config.get("db.pool.size");
+                        config.computeIfAbsent("db.timeout", key -> "3000");
+                    }
+                }, "ReadThread-" + i);
+                readers[i].start();
+            }
+            Thread writer = new Thread(() -> {
+                for (int j = 0; j < 20; j++) {
+                    config.put("db.pool.size", String.valueOf(10 + j));
+                    try {
+                        Thread.sleep(5);
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }, "WriteThread");
+            writer.start();
+            try {
+                for (Thread reader : readers) {
+                    reader.join();
+                }
+                writer.join();
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+
+            OptimisticReadCache.Snapshot<String, String> after = config.snapshot();
+            System.out.println("最终快照: " + after + " " + after.asMap());
+            System.out.println("快照之后是否有修改: " + (config.version() != before.version()));
+            System.out.println("80万次读取中乐观读失效、退回读锁的次数: " + config.lockedReads());
+            System.out.println();
+        }
+    }
+
     public static void main(String[] args) {
         ReentrantLockDemo.test();
         ReentrantReadWriteLockDemo.test();
         StampedLockDemo.test();
+        OptimisticReadCacheDemo.test();
     }
 }
\ No newline at end of file
@@ -0,0 +1,360 @@
+package com.linsir.abc.pdai.thread.juc.lock.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * 读多写少的版本化缓存：读走 StampedLock 乐观读，不加锁也不写任何共享变量；校验失败才退回悲观读锁
+ *
+ * 说明：
+ * 1. 数据放在一个开放寻址（线性探测）的数组里，偶数下标放 key、奇数下标放 value，不用 HashMap：
+ *    乐观读期间写线程可能正在改表，读到的是"半新半旧"的数据，HashMap 的链表/红黑树在这种状态下遍历可能抛异常甚至死循环；
+ *    数组探测只读数组元素，探测次数不超过表长，结果是否可用交给 validate 判断；
+ *    槽位里的 key 可能是写线程刚放入、还没完整发布的对象，对它调用 equals（用户代码）之前先 validate，
+ *    戳记失效就直接退回读锁，equals 只会作用在完整发布的 key 上，不会因为读到半初始化的 key 抛异常或死循环
+ * 2. get：tryOptimisticRead 拿到戳记 → 在局部变量里的表上探测 → validate 通过直接返回；
+ *    期间有写（戳记失效）就加读锁重读一次。读线程之间完全不竞争，也不像读写锁那样每次读都 CAS 同一个读计数
+ * 3. 写（put / remove / 扩容）持写锁，每次写使版本号 +1；删除用线性探测的"向后移位"，不留墓碑，表不会被删除操作污染
+ * 4. computeIfAbsent：先乐观读，未命中时在锁外执行加载函数（加载可能很慢，不能阻塞其他读写），再持写锁放入；
+ *    并发加载同一个 key 时以先放入的为准，后到的结果丢弃
+ * 5. snapshot 持读锁复制出不可变的 Map，带上当时的版本号；调用方保存版本号，用 version() 比较即可知道缓存是否变过，
+ *    不用每次都复制整张表（不是写时复制：写不复制数组，只有需要快照时才复制）
+ * 6. 不允许 null 键和 null 值（null 用来表示空槽位和"不存在"），与 ConcurrentHashMap 一致
+ * 7. 适合读远多于写的场景（配置、路由表、字典数据）；写频繁时乐观读频繁失效，退化为读写锁，
+ *    lockedReads 统计退回读锁的次数（乐观读成功不计数，计数本身就是一次共享写），可以据此判断是否适用
+ */
+public final class OptimisticReadCache<K, V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    // find 在乐观读中途发现戳记失效，需要退回读锁
+    private static final Object RETRY = new Object();
+
+    private final StampedLock lock = new StampedLock();
+
+    private final LongAdder lockedReads = new LongAdder();
+
+    // 以下字段在写锁内修改；乐观读只读 table
+
+    private Object[] table;
+
+    private int size;
+
+    private volatile long version;
+
+
+    public OptimisticReadCache() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize 预计的元素个数，按负载因子 0.5 预先分配，避免扩容
+     */
+    public OptimisticReadCache(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > 1 << 28) {
+            throw new IllegalArgumentException("预计元素个数必须在 [0, 2^28] 之间: " + expectedSize);
+        }
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+        this.table = new Object[capacity * 2];
+    }
+
+    public V get(K key) {
+        Objects.requireNonNull(key, "key");
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            Object value = find(table, key, stamp);
+            if (value != RETRY && lock.validate(stamp)) {
+                return cast(value);
+            }
+        }
+        lockedReads.increment();
+        stamp = lock.readLock();
+        try {
+            return cast(find(table, key, 0));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public V getOrDefault(K key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * @return 原来的值，没有时返回 null
+     */
+    public V put(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        long stamp = lock.writeLock();
+        try {
+            return putLocked(key, value, false);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        long stamp = lock.writeLock();
+        try {
+            return putLocked(key, value, true);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * 命中时与 get 一样只做乐观读；未命中时在锁外执行 loader，loader 返回 null 时不放入
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V loaded = loader.apply(key);
+        if (loaded == null) {
+            return null;
+        }
+        V existing = putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * @return 被删除的值，没有时返回 null
+     */
+    public V remove(K key) {
+        Objects.requireNonNull(key, "key");
+        long stamp = lock.writeLock();
+        try {
+            return removeLocked(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            // 换一张新表而不是原地清空，乐观读看到的要么是旧表要么是新表
+            table = new Object[MIN_CAPACITY * 2];
+            size = 0;
+            version++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (lock.validate(stamp)) {
+            return current;
+        }
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 每次修改 +1，用于判断缓存自某个快照以来是否变过
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 持读锁复制出不可变快照
+     */
+    public Snapshot<K, V> snapshot() {
+        long stamp = lock.readLock();
+        try {
+            Map<K, V> copy = new HashMap<>(size * 2);
+            Object[] tab = table;
+            for (int i = 0; i < tab.length; i += 2) {
+                if (tab[i] != null) {
+                    copy.put(key(tab, i), value(tab, i));
+                }
+            }
+            return new Snapshot<>(version, Collections.unmodifiableMap(copy));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * 乐观读失败、退回读锁的次数
+     */
+    public long lockedReads() {
+        return lockedReads.sum();
+    }
+
+    /**
+     * 在给定的表上探测，最多探测 tab.length / 2 次，不会死循环；
+     * 乐观读时（stamp 不为 0）tab 可能正被修改，调用槽位里 key 的 equals 之前先 validate，失效时返回 RETRY
+     */
+    private Object find(Object[] tab, Object key, long stamp) {
+        int mask = tab.length / 2 - 1;
+        int index = home(key, mask);
+        for (int probes = 0; probes <= mask; probes++) {
+            Object k = tab[index * 2];
+            if (k == null) {
+                return null;
+            }
+            if (k == key) {
+                return tab[index * 2 + 1];
+            }
+            if (stamp != 0 && !lock.validate(stamp)) {
+                return RETRY;
+            }
+            if (k.equals(key)) {
+                return tab[index * 2 + 1];
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    private V putLocked(K key, V value, boolean onlyIfAbsent) {
+        Object[] tab = table;
+        int mask = tab.length / 2 - 1;
+        int index = home(key, mask);
+        for (; ; ) {
+            Object k = tab[index * 2];
+            if (k == null) {
+                break;
+            }
+            if (k == key || k.equals(key)) {
+                V old = value(tab, index * 2);
+                if (!onlyIfAbsent) {
+                    tab[index * 2 + 1] = value;
+                    version++;
+                }
+                return old;
+            }
+            index = (index + 1) & mask;
+        }
+        if ((size + 1) * 2 > mask + 1) {
+            resize();
+            return putLocked(key, value, onlyIfAbsent);
+        }
+        // 先写 value 再写 key：乐观读看到 key 时 value 多半已经就位，减少无谓的重试（正确性仍由 validate 保证）
+        tab[index * 2 + 1] = value;
+        tab[index * 2] = key;
+        size++;
+        version++;
+        return null;
+    }
+
+    private V removeLocked(Object key) {
+        Object[] tab = table;
+        int mask = tab.length / 2 - 1;
+        int index = home(key, mask);
+        for (; ; ) {
+            Object k = tab[index * 2];
+            if (k == null) {
+                return null;
+            }
+            if (k == key || k.equals(key)) {
+                break;
+            }
+            index = (index + 1) & mask;
+        }
+        V old = value(tab, index * 2);
+        // 向后移位：把后面"家"在空位之前（循环意义上）的元素前移，填补空位，保持探测链不断
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (tab[next * 2] != null) {
+            int nextHome = home(tab[next * 2], mask);
+            boolean canMove = hole <= next ? nextHome <= hole || nextHome > next : nextHome <= hole && nextHome > next;
+            if (canMove) {
+                tab[hole * 2] = tab[next * 2];
+                tab[hole * 2 + 1] = tab[next * 2 + 1];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        tab[hole * 2] = null;
+        tab[hole * 2 + 1] = null;
+        size--;
+        version++;
+        return old;
+    }
+
+    private void resize() {
+        Object[] old = table;
+        Object[] tab = new Object[old.length * 2];
+        int mask = tab.length / 2 - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            Object k = old[i];
+            if (k != null) {
+                int index = home(k, mask);
+                while (tab[index * 2] != null) {
+                    index = (index + 1) & mask;
+                }
+                tab[index * 2] = k;
+                tab[index * 2 + 1] = old[i + 1];
+            }
+        }
+        // 新表填好后再替换引用，乐观读要么读旧表要么读完整的新表
+        table = tab;
+    }
+
+    private static int home(Object key, int mask) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K key(Object[] tab, int i) {
+        return (K) tab[i];
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(Object[] tab, int i) {
+        return (V) tab[i + 1];
+    }
+
+    /**
+     * 某一时刻的不可变副本
+     */
+    public static final class Snapshot<K, V> {
+
+        private final long version;
+
+        private final Map<K, V> entries;
+
+        Snapshot(long version, Map<K, V> entries) {
+            this.version = version;
+            this.entries = entries;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public Map<K, V> asMap() {
+            return entries;
+        }
+
+        @Override
+        public String toString() {
+            return "version=" + version + ", size=" + entries.size();
+        }
+    }
+}
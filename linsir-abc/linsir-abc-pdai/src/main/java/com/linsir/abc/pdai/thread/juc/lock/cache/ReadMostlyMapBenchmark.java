@@ -0,0 +1,320 @@
+package com.linsir.abc.pdai.thread.juc.lock.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 读多写少场景下 OptimisticReadCache 与 ConcurrentHashMap、synchronized Map、读写锁 Map 的 JMH 对比
+ *
+ * 运行：java -cp ... ReadMostlyMapBenchmark [最大线程数，默认 16]
+ *
+ * 说明：
+ * 1. 预先放入 KEYS 个 key，每次操作随机挑一个 key，按 writePercent 的概率 put，否则 get；
+ *    writePercent=1 即 99/1 读写比，writePercent=10 即 90/10
+ * 2. key 提前装箱放在数组里，测的只是 Map 本身，不含 Integer 装箱
+ * 3. 线程数从 1 翻倍到最大线程数，输出每种实现、每种读写比的总吞吐（百万次/秒）
+ * 4. 预期：synchronized 与读写锁的读都要修改锁状态（同一缓存行），线程越多越慢；读写锁的读计数 CAS 甚至比 synchronized 更重；
+ *    乐观读与 ConcurrentHashMap 的读不写共享内存，能随线程数扩展；写比例升高后乐观读频繁失效，优势缩小
+ * 5. 正式压测前先校验 OptimisticReadCache：单线程随机操作与 HashMap 对照，多线程读写下读到的值必须与 key 匹配
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadMostlyMapBenchmark {
+
+    static final int KEYS = 4096;
+
+    static final Integer[] KEY_POOL = new Integer[KEYS];
+
+    static {
+        for (int i = 0; i < KEYS; i++) {
+            KEY_POOL[i] = i;
+        }
+    }
+
+    /**
+     * 被测实现的统一入口
+     */
+    interface Store {
+
+        Integer get(Integer key);
+
+        void put(Integer key, Integer value);
+    }
+
+    @State(Scope.Benchmark)
+    public static class MapState {
+
+        @Param({"optimistic", "concurrentHashMap", "synchronized", "readWriteLock"})
+        public String impl;
+
+        @Param({"1", "10"})
+        public int writePercent;
+
+        Store store;
+
+        OptimisticReadCache<Integer, Integer> cache;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            if ("optimistic".equals(impl)) {
+                cache = new OptimisticReadCache<>(KEYS);
+            }
+            store = create(impl, cache);
+            for (Integer key : KEY_POOL) {
+                store.put(key, key);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (cache != null) {
+                System.out.printf("%n写比例 %d%%，乐观读失效退回读锁 %d 次%n", writePercent, cache.lockedReads());
+            }
+        }
+    }
+
+    @Benchmark
+    public Integer mixed(MapState state) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Integer key = KEY_POOL[random.nextInt(KEYS)];
+        if (random.nextInt(100) < state.writePercent) {
+            state.store.put(key, key);
+            return key;
+        }
+        return state.store.get(key);
+    }
+
+    static Store create(String impl, OptimisticReadCache<Integer, Integer> cache) {
+        return switch (impl) {
+            case "optimistic" -> new Store() {
+                @Override
+                public Integer get(Integer key) {
+                    return cache.get(key);
+                }
+
+                @Override
+                public void put(Integer key, Integer value) {
+                    cache.put(key, value);
+                }
+            };
+            case "concurrentHashMap" -> mapStore(new ConcurrentHashMap<>(KEYS * 2));
+            case "synchronized" -> mapStore(Collections.synchronizedMap(new HashMap<>(KEYS * 2)));
+            case "readWriteLock" -> new ReadWriteLockStore();
+            default -> throw new IllegalArgumentException("未知实现: " + impl);
+        };
+    }
+
+    private static Store mapStore(Map<Integer, Integer> map) {
+        return new Store() {
+            @Override
+            public Integer get(Integer key) {
+                return map.get(key);
+            }
+
+            @Override
+            public void put(Integer key, Integer value) {
+                map.put(key, value);
+            }
+        };
+    }
+
+    /**
+     * 与 LockFrameworkDemo.ReentrantReadWriteLockDemo 写法相同：HashMap + 读写锁
+     */
+    static final class ReadWriteLockStore implements Store {
+
+        private final Map<Integer, Integer> map = new HashMap<>(KEYS * 2);
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        @Override
+        public Integer get(Integer key) {
+            lock.readLock().lock();
+            try {
+                return map.get(key);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        @Override
+        public void put(Integer key, Integer value) {
+            lock.writeLock().lock();
+            try {
+                map.put(key, value);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        verifySequential(200_000);
+        verifyConcurrent(4, 2_000_000);
+
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        Map<String, Map<Integer, Double>> table = new LinkedHashMap<>();
+        for (int threads : threadCounts) {
+            Options options = new OptionsBuilder()
+                    .include(ReadMostlyMapBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .verbosity(VerboseMode.SILENT)
+                    .build();
+            for (RunResult result : new Runner(options).run()) {
+                int writePercent = Integer.parseInt(result.getParams().getParam("writePercent"));
+                String label = result.getParams().getParam("impl") + " " + (100 - writePercent) + "/" + writePercent;
+                table.computeIfAbsent(label, key -> new LinkedHashMap<>())
+                        .put(threads, result.getPrimaryResult().getScore());
+            }
+            System.out.printf("%d 线程完成%n", threads);
+        }
+        print(table, threadCounts);
+    }
+
+    private static void print(Map<String, Map<Integer, Double>> table, List<Integer> threadCounts) {
+        System.out.printf("%n总吞吐（百万次/秒），CPU %d 核%n", Runtime.getRuntime().availableProcessors());
+        // 中文字符占两列，表头按显示宽度少补两格
+        System.out.printf("%-22s", "实现 读/写");
+        for (int threads : threadCounts) {
+            System.out.printf("%10s", threads + " 线程");
+        }
+        System.out.println();
+        for (Map.Entry<String, Map<Integer, Double>> row : table.entrySet()) {
+            System.out.printf("%-26s", row.getKey());
+            for (int threads : threadCounts) {
+                System.out.printf("%12.1f", row.getValue().getOrDefault(threads, Double.NaN) / 1e6);
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * 单线程随机 put / remove / get / clear，与 HashMap 逐步对照（覆盖扩容和删除时的向后移位）
+     */
+    static void verifySequential(int operations) {
+        OptimisticReadCache<Integer, Integer> cache = new OptimisticReadCache<>();
+        Map<Integer, Integer> model = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < operations; i++) {
+            Integer key = random.nextInt(2048);
+            int op = random.nextInt(100);
+            Integer expected;
+            Integer actual;
+            if (op < 45) {
+                expected = model.put(key, i);
+                actual = cache.put(key, i);
+            } else if (op < 85) {
+                expected = model.remove(key);
+                actual = cache.remove(key);
+            } else if (op < 99) {
+                expected = model.get(key);
+                actual = cache.get(key);
+            } else if (random.nextInt(100) == 0) {
+                model.clear();
+                cache.clear();
+                continue;
+            } else {
+                expected = model.putIfAbsent(key, -i);
+                actual = cache.putIfAbsent(key, -i);
+            }
+            if (!Objects.equals(expected, actual) || model.size() != cache.size()) {
+                throw new IllegalStateException("第 " + i + " 步结果不一致: key=" + key + ", 期望 " + expected
+                        + ", 实际 " + actual);
+            }
+        }
+        if (!model.equals(cache.snapshot().asMap())) {
+            throw new IllegalStateException("快照与 HashMap 不一致");
+        }
+        System.out.printf("单线程校验通过：%d 次随机操作，剩余 %d 个元素，版本号 %d%n", operations, cache.size(),
+                cache.version());
+    }
+
+    /**
+     * 一个写线程不断改值、删除、重新放入（值 = key + 轮次 × KEYS，并让表反复扩容），多个读线程检查读到的值必须属于这个 key
+     */
+    static void verifyConcurrent(int readers, int writes) throws InterruptedException {
+        OptimisticReadCache<Integer, Integer> cache = new OptimisticReadCache<>();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread writer = new Thread(() -> {
+            Random random = new Random(7);
+            for (int i = 0; i < writes; i++) {
+                int key = random.nextInt(KEYS);
+                if (i % 7 == 0) {
+                    cache.remove(key);
+                } else {
+                    cache.put(key, key + (i % 1000) * KEYS);
+                }
+                if (i % 200_000 == 0) {
+                    cache.clear();
+                }
+            }
+            done.set(true);
+        });
+        Thread[] readerThreads = new Thread[readers];
+        for (int r = 0; r < readers; r++) {
+            readerThreads[r] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (!done.get()) {
+                    Integer key = KEY_POOL[random.nextInt(KEYS)];
+                    Integer value = cache.get(key);
+                    if (value != null && value % KEYS != key) {
+                        failed.set(true);
+                        System.out.println("读到错误的值: key=" + key + ", value=" + value);
+                        return;
+                    }
+                }
+            });
+        }
+        writer.start();
+        for (Thread reader : readerThreads) {
+            reader.start();
+        }
+        writer.join();
+        for (Thread reader : readerThreads) {
+            reader.join();
+        }
+        if (failed.get()) {
+            throw new IllegalStateException("并发校验失败");
+        }
+        System.out.printf("并发校验通过：1 个写线程 × %d 次，%d 个读线程，退回读锁 %d 次%n", writes, readers,
+                cache.lockedReads());
+    }
+}
@@ -0,0 +1,115 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 紧凑二进制编解码器：每个类型注册一个手写的 BinarySchema，输出不带字段名的变长编码
+ *
+ * 用法：
+ * <pre>
+ * BinaryCodec codec = BinaryCodec.builder()
+ *         .register(UserSession.class, SampleSchemas.USER_SESSION)
+ *         .build();
+ * </pre>
+ *
+ * 说明：
+ * 1. 格式：1 字节格式版本 + schema 写出的字段；没有字段名、引号、分隔符，数字是 varint，payload 一般只有 JSON 的 1/3 ~ 1/2
+ * 2. 没有反射：字段读写是普通的方法调用，JIT 可以内联，编解码都比 JSON 快，分配也只有结果数组和解码出的对象本身
+ * 3. 代价：不可读、调试要靠工具；字段演进要遵守 BinarySchema 的规则；跨语言消费者需要同样实现一遍 schema。
+ *    服务内部的 Redis 缓存值、同一团队生产消费的 Kafka 消息适合用它，对外的 HTTP 接口仍然用 JSON
+ * 4. 每个线程缓存一个 BinaryWriter，编码只在最后拷贝一次结果数组；超过 64KB 的写入器在 reset 时缩小
+ * 5. 注册表在 build 后不可变，编解码器线程安全
+ */
+public final class BinaryCodec implements Codec {
+
+    /**
+     * 格式版本，放在每个 payload 的第一个字节；将来格式不兼容地变化时用来区分新旧数据
+     */
+    static final int FORMAT_VERSION = 1;
+
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final Map<Class<?>, BinarySchema<?>> schemas;
+
+    private final ThreadLocal<BinaryWriter> writers = ThreadLocal.withInitial(() -> new BinaryWriter(256));
+
+    private BinaryCodec(Map<Class<?>, BinarySchema<?>> schemas) {
+        this.schemas = Map.copyOf(schemas);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String name() {
+        return "binary";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/octet-stream";
+    }
+
+    @Override
+    public boolean supports(Class<?> type) {
+        return schemas.containsKey(type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] encode(Object value) {
+        if (value == null) {
+            throw new CodecException("binary 不支持编码 null");
+        }
+        BinarySchema<Object> schema = (BinarySchema<Object>) schema(value.getClass());
+        BinaryWriter writer = writers.get();
+        writer.reset(MAX_RETAINED_BUFFER);
+        writer.writeByte(FORMAT_VERSION);
+        schema.write(value, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        BinarySchema<T> schema = (BinarySchema<T>) schema(type);
+        BinaryReader reader = new BinaryReader(bytes, 0, bytes.length);
+        int version = reader.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new CodecException("不支持的格式版本 " + version + "，当前版本 " + FORMAT_VERSION);
+        }
+        return schema.read(reader);
+    }
+
+    private BinarySchema<?> schema(Class<?> type) {
+        BinarySchema<?> schema = schemas.get(type);
+        if (schema == null) {
+            throw new CodecException("binary 没有注册类型 " + type.getName() + " 的 schema");
+        }
+        return schema;
+    }
+
+    public static final class Builder {
+
+        private final Map<Class<?>, BinarySchema<?>> schemas = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public <T> Builder register(Class<T> type, BinarySchema<T> schema) {
+            if (type == null || schema == null) {
+                throw new IllegalArgumentException("类型和 schema 不能为空");
+            }
+            if (schemas.putIfAbsent(type, schema) != null) {
+                throw new IllegalArgumentException("类型 " + type.getName() + " 已经注册过 schema");
+            }
+            return this;
+        }
+
+        public BinaryCodec build() {
+            return new BinaryCodec(schemas);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 紧凑二进制格式的读取器，与 BinaryWriter 一一对应
+ *
+ * 说明：
+ * 1. 每次读取前检查剩余字节，数据被截断或长度前缀不合法时抛出 CodecException，而不是数组越界或分配超大数组
+ * 2. hasRemaining 用于 schema 兼容演进：末尾追加的新字段在老数据里不存在，读之前先判断
+ */
+public final class BinaryReader {
+
+    private final byte[] bytes;
+
+    private final int limit;
+
+    private int position;
+
+    public BinaryReader(byte[] bytes, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > bytes.length) {
+            throw new IllegalArgumentException("偏移或长度越界");
+        }
+        this.bytes = bytes;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public boolean hasRemaining() {
+        return position < limit;
+    }
+
+    public int readByte() {
+        require(1);
+        return bytes[position++];
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CodecException("varint 超过 5 字节，位置 " + position);
+    }
+
+    public int readSignedVarInt() {
+        int value = readVarInt();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new CodecException("varlong 超过 10 字节，位置 " + position);
+    }
+
+    public long readSignedVarLong() {
+        long value = readVarLong();
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    public double readDouble() {
+        require(8);
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits |= (bytes[position++] & 0xFFL) << (i * 8);
+        }
+        return Double.longBitsToDouble(bits);
+    }
+
+    public String readString() {
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    public byte[] readBytes() {
+        int length = readLength();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        System.arraycopy(bytes, position, value, 0, length);
+        position += length;
+        return value;
+    }
+
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        int ordinal = readVarInt();
+        if (ordinal == 0) {
+            return null;
+        }
+        if (ordinal < 0 || ordinal > values.length) {
+            throw new CodecException("未知的枚举序号 " + (ordinal - 1) + "，"
+                    + values.getClass().getComponentType().getSimpleName() + " 只有 " + values.length + " 个值");
+        }
+        return values[ordinal - 1];
+    }
+
+    public BigDecimal readDecimal() {
+        int kind = readVarInt();
+        switch (kind) {
+            case 0:
+                return null;
+            case 1: {
+                int scale = readSignedVarInt();
+                return BigDecimal.valueOf(readSignedVarLong(), scale);
+            }
+            case 2: {
+                int scale = readSignedVarInt();
+                byte[] unscaled = readBytes();
+                if (unscaled == null || unscaled.length == 0) {
+                    throw new CodecException("BigDecimal 的非标度值为空");
+                }
+                return new BigDecimal(new BigInteger(unscaled), scale);
+            }
+            default:
+                throw new CodecException("未知的 BigDecimal 编码 " + kind);
+        }
+    }
+
+    public <T> T readObject(BinarySchema<T> schema) {
+        return readByte() == 0 ? null : schema.read(this);
+    }
+
+    public <T> List<T> readList(BinarySchema<T> schema) {
+        int size = readLength();
+        if (size < 0) {
+            return null;
+        }
+        List<T> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readObject(schema));
+        }
+        return values;
+    }
+
+    public List<String> readStringList() {
+        int size = readLength();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString());
+        }
+        return values;
+    }
+
+    /**
+     * 读取长度前缀，null 返回 -1；长度不可能超过剩余字节数（列表每个元素至少 1 字节）
+     */
+    private int readLength() {
+        int encoded = readVarInt();
+        if (encoded == 0) {
+            return -1;
+        }
+        int length = encoded - 1;
+        if (length < 0 || length > limit - position) {
+            throw new CodecException("长度 " + length + " 超过剩余字节 " + (limit - position) + "，数据可能被截断");
+        }
+        return length;
+    }
+
+    private void require(int count) {
+        if (limit - position < count) {
+            throw new CodecException("数据被截断：位置 " + position + " 需要 " + count + " 字节");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.linsir.abc.pdai.tools.codec;
+
+/**
+ * 一个类型的二进制布局：按固定顺序写出 / 读回字段，字节里不带字段名和类型信息
+ *
+ * 说明：
+ * 1. write 和 read 的字段顺序必须完全一致，这就是格式本身，相当于手写的 protobuf 消息定义
+ * 2. 兼容演进：新字段只能追加在末尾，read 里先用 in.hasRemaining() 判断再读，老数据没有这些字段时取默认值；
+ *    旧版本读新数据时末尾多出来的字段被忽略。不能删除、重排字段，也不能改变字段类型
+ * 3. 嵌套对象和列表用 BinaryWriter.writeObject / writeList 写出，复用对应类型的 schema
+ */
+public interface BinarySchema<T> {
+
+    void write(T value, BinaryWriter out);
+
+    T read(BinaryReader in);
+}
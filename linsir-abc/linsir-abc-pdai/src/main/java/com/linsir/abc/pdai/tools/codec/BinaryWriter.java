@@ -0,0 +1,194 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 紧凑二进制格式的写入器：变长整数 + 长度前缀字符串，写入可增长的字节数组
+ *
+ * 说明：
+ * 1. 整数用 varint（每字节 7 位，最高位表示后面还有字节）：小于 128 的数只占 1 字节，时间戳、ID 这类 long 一般 5~6 字节；
+ *    可能为负的数先做 zigzag 变换（0, -1, 1, -2 → 0, 1, 2, 3），避免负数总是占满 10 字节
+ * 2. 可为 null 的字段（字符串、对象、列表、枚举、BigDecimal）把 null 编成 0，其余值编成长度或序号 + 1，不需要额外的标记字节
+ * 3. 字符串先按纯 ASCII 逐字符写入，遇到非 ASCII 字符再整体转 UTF-8，常见的英文 ID、枚举名、URL 不产生中间数组
+ * 4. 写入器不是线程安全的，BinaryCodec 为每个线程缓存一个，reset 后复用内部数组
+ */
+public final class BinaryWriter {
+
+    private byte[] buffer;
+
+    private int position;
+
+    public BinaryWriter(int initialCapacity) {
+        if (initialCapacity <= 0) {
+            throw new IllegalArgumentException("初始容量必须大于 0");
+        }
+        this.buffer = new byte[initialCapacity];
+    }
+
+    public void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeBoolean(boolean value) {
+        writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * 非负 int 的变长编码，负数会占 5 字节，可能为负时用 writeSignedVarInt
+     */
+    public void writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeSignedVarInt(int value) {
+        writeVarInt((value << 1) ^ (value >> 31));
+    }
+
+    public void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+    }
+
+    public void writeSignedVarLong(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * 8 字节定长，小端
+     */
+    public void writeDouble(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ensureCapacity(8);
+        for (int i = 0; i < 8; i++) {
+            buffer[position++] = (byte) (bits >>> (i * 8));
+        }
+    }
+
+    public void writeString(String value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        int length = value.length();
+        // 先假设全是 ASCII：长度前缀就是字符数
+        int start = position;
+        writeVarInt(length + 1);
+        ensureCapacity(length);
+        int offset = position;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                position = start;
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer[offset + i] = (byte) c;
+        }
+        position = offset + length;
+    }
+
+    /**
+     * 长度前缀的字节数组，null 编成 0
+     */
+    public void writeBytes(byte[] value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(value.length + 1);
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, buffer, position, value.length);
+        position += value.length;
+    }
+
+    public void writeEnum(Enum<?> value) {
+        writeVarInt(value == null ? 0 : value.ordinal() + 1);
+    }
+
+    /**
+     * scale + 非标度值；非标度值在 long 范围内时按 zigzag varint 写，否则写 BigInteger 的字节
+     */
+    public void writeDecimal(BigDecimal value) {
+        if (value == null) {
+            writeVarInt(0);
+            return;
+        }
+        if (value.unscaledValue().bitLength() < 63) {
+            writeVarInt(1);
+            writeSignedVarInt(value.scale());
+            writeSignedVarLong(value.unscaledValue().longValue());
+        } else {
+            writeVarInt(2);
+            writeSignedVarInt(value.scale());
+            writeBytes(value.unscaledValue().toByteArray());
+        }
+    }
+
+    public <T> void writeObject(T value, BinarySchema<T> schema) {
+        if (value == null) {
+            writeByte(0);
+            return;
+        }
+        writeByte(1);
+        schema.write(value, this);
+    }
+
+    public <T> void writeList(List<T> values, BinarySchema<T> schema) {
+        if (values == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(values.size() + 1);
+        for (T value : values) {
+            writeObject(value, schema);
+        }
+    }
+
+    public void writeStringList(List<String> values) {
+        if (values == null) {
+            writeVarInt(0);
+            return;
+        }
+        writeVarInt(values.size() + 1);
+        for (String value : values) {
+            writeString(value);
+        }
+    }
+
+    public int size() {
+        return position;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, position);
+    }
+
+    /**
+     * 清空已写内容；内部数组超过 maxRetained 时换成新的小数组，避免一次大对象让缓存的写入器一直占着大块内存
+     */
+    public void reset(int maxRetained) {
+        position = 0;
+        if (buffer.length > maxRetained) {
+            buffer = new byte[Math.max(16, maxRetained / 4)];
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (position + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.linsir.abc.pdai.tools.codec;
+
+/**
+ * 编解码器 SPI：把对象编码成字节（Redis 值、Kafka 消息、HTTP 响应体），再按类型解码回来
+ *
+ * 说明：
+ * 1. 实现必须线程安全、无状态（或只有只读的缓存），同一个实例在整个应用里共享
+ * 2. 解码时由调用方给出类型，字节里不带类名：既避免反序列化任意类的安全问题，也让二进制格式更紧凑
+ * 3. 编解码失败统一抛出 CodecException（非受检），调用方不必到处处理 IOException
+ * 4. 内置实现见 Codecs：jackson、jackson-tuned、gson、binary；自定义实现可以通过 ServiceLoader 注册
+ */
+public interface Codec {
+
+    /**
+     * 编解码器名称，用于配置和日志，如 "jackson"
+     */
+    String name();
+
+    /**
+     * 对应的 MIME 类型，如 "application/json"，HTTP 场景下用作 Content-Type
+     */
+    String contentType();
+
+    /**
+     * 是否能编解码该类型；二进制编解码器只支持注册过 schema 的类型
+     */
+    default boolean supports(Class<?> type) {
+        return true;
+    }
+
+    byte[] encode(Object value);
+
+    <T> T decode(byte[] bytes, Class<T> type);
+}
@@ -0,0 +1,179 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import com.linsir.abc.pdai.tools.codec.sample.OrderMessage;
+import com.linsir.abc.pdai.tools.codec.sample.SampleData;
+import com.linsir.abc.pdai.tools.codec.sample.SampleSchemas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编解码器的 JMH 基准：各编解码器在代表性 DTO 上的编码 / 解码吞吐、每次操作的分配字节数和 payload 大小
+ *
+ * 运行：java -cp ... CodecBenchmark
+ *
+ * 说明：
+ * 1. 编解码器：jackson（ObjectMapper 直接调用）、jackson-tuned（缓存 ObjectReader / ObjectWriter、省略 null）、gson、binary（手写 schema）
+ * 2. payload（JSON 大小）：session 约 230 字节，代表 Redis 缓存值；order 约 550 字节，代表 Kafka 消息；
+ *    page 是 20 个订单的分页，约 11KB，代表 HTTP 响应体
+ * 3. 用 GCProfiler 统计 gc.alloc.rate.norm（每次操作分配的字节数）：分配越多 GC 越频繁，在高 QPS 服务里和吞吐同样重要
+ * 4. 正式压测前先校验每个编解码器对每种 payload 都能原样往返（equals），并且 JSON 编解码器的输出可以互相解码
+ * 5. 最后输出汇总表，按场景（Redis / Kafka / HTTP）比较后在 Codecs 里按名称选用
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    static final String[] CODECS = {"jackson", "jackson-tuned", "gson", "binary"};
+
+    static final String[] PAYLOADS = {"session", "order", "page"};
+
+    @State(Scope.Benchmark)
+    public static class CodecState {
+
+        @Param({"jackson", "jackson-tuned", "gson", "binary"})
+        public String codecName;
+
+        @Param({"session", "order", "page"})
+        public String payload;
+
+        Codec codec;
+
+        Object value;
+
+        Class<?> type;
+
+        byte[] bytes;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            codec = codecs().get(codecName);
+            value = sample(payload);
+            type = value.getClass();
+            bytes = codec.encode(value);
+        }
+    }
+
+    @Benchmark
+    public byte[] encode(CodecState state) {
+        return state.codec.encode(state.value);
+    }
+
+    @Benchmark
+    public Object decode(CodecState state) {
+        return state.codec.decode(state.bytes, state.type);
+    }
+
+    static Codecs codecs() {
+        return Codecs.builder()
+                .add(JacksonCodec.plain())
+                .add(JacksonCodec.tuned())
+                .add(new GsonCodec())
+                .add(SampleSchemas.binaryCodec())
+                .build();
+    }
+
+    static Object sample(String payload) {
+        return switch (payload) {
+            case "session" -> SampleData.session(1);
+            case "order" -> SampleData.order(1);
+            case "page" -> SampleData.page(1, 20);
+            default -> throw new IllegalArgumentException("未知 payload: " + payload);
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        Codecs codecs = codecs();
+        verify(codecs);
+
+        Options options = new OptionsBuilder()
+                .include(CodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .verbosity(VerboseMode.SILENT)
+                .build();
+        // codec/payload → [编码 ops/s, 编码 B/op, 解码 ops/s, 解码 B/op]
+        Map<String, double[]> table = new LinkedHashMap<>();
+        for (String payload : PAYLOADS) {
+            for (String codec : CODECS) {
+                table.put(codec + "/" + payload, new double[4]);
+            }
+        }
+        for (RunResult result : new Runner(options).run()) {
+            String key = result.getParams().getParam("codecName") + "/" + result.getParams().getParam("payload");
+            int column = result.getParams().getBenchmark().endsWith("encode") ? 0 : 2;
+            double[] row = table.get(key);
+            row[column] = result.getPrimaryResult().getScore();
+            Result<?> allocated = result.getSecondaryResults().get("gc.alloc.rate.norm");
+            row[column + 1] = allocated == null ? Double.NaN : allocated.getScore();
+        }
+        print(codecs, table);
+    }
+
+    private static void print(Codecs codecs, Map<String, double[]> table) {
+        System.out.printf("%n吞吐单位：千次/秒；分配单位：字节/次；CPU %d 核%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-24s %10s %12s %12s %12s %12s%n", "codec/payload", "size(B)", "encode", "encode B/op",
+                "decode", "decode B/op");
+        for (Map.Entry<String, double[]> row : table.entrySet()) {
+            String[] key = row.getKey().split("/");
+            int size = codecs.get(key[0]).encode(sample(key[1])).length;
+            double[] values = row.getValue();
+            System.out.printf("%-24s %10d %12.1f %12.0f %12.1f %12.0f%n", row.getKey(), size, values[0] / 1e3, values[1],
+                    values[2] / 1e3, values[3]);
+        }
+    }
+
+    /**
+     * 每个编解码器对每种 payload 往返后必须相等；JSON 编解码器之间的输出必须能互相解码
+     */
+    static void verify(Codecs codecs) {
+        for (String payload : PAYLOADS) {
+            Object value = sample(payload);
+            StringBuilder sizes = new StringBuilder();
+            for (String name : CODECS) {
+                Codec codec = codecs.get(name);
+                byte[] bytes = codec.encode(value);
+                Object decoded = codec.decode(bytes, value.getClass());
+                if (!value.equals(decoded)) {
+                    throw new IllegalStateException(name + " 往返结果不一致: " + payload);
+                }
+                if (codec.contentType().equals("application/json")) {
+                    for (String other : CODECS) {
+                        Codec reader = codecs.get(other);
+                        if (reader.contentType().equals("application/json")
+                                && !value.equals(reader.decode(bytes, value.getClass()))) {
+                            throw new IllegalStateException(other + " 无法解码 " + name + " 的输出: " + payload);
+                        }
+                    }
+                }
+                sizes.append(String.format("  %s %d 字节", name, bytes.length));
+            }
+            System.out.printf("往返校验通过 %-8s%s%n", payload, sizes);
+        }
+        OrderMessage order = SampleData.order(7);
+        System.out.println("order 的 JSON: " + new String(codecs.get("jackson-tuned").encode(order), StandardCharsets.UTF_8));
+    }
+}
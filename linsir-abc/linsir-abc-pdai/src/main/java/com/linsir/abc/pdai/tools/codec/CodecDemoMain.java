@@ -0,0 +1,81 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import com.linsir.abc.pdai.tools.codec.sample.OrderMessage;
+import com.linsir.abc.pdai.tools.codec.sample.SampleData;
+import com.linsir.abc.pdai.tools.codec.sample.SampleSchemas;
+import com.linsir.abc.pdai.tools.codec.sample.UserSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 编解码器示例代码主类
+ * 演示 Codec SPI 的注册、按场景选择、往返编解码和错误处理
+ */
+public class CodecDemoMain {
+
+    public static void main(String[] args) {
+        System.out.println("===========================================");
+        System.out.println("编解码器示例代码演示");
+        System.out.println("===========================================");
+
+        Codecs codecs = Codecs.builder()
+                .add(JacksonCodec.plain())
+                .add(JacksonCodec.tuned())
+                .add(new GsonCodec())
+                .add(SampleSchemas.binaryCodec())
+                .loadServices()
+                .build();
+
+        // 1. 同一个对象用不同编解码器编码
+        System.out.println("\n1. 同一个订单消息用不同编解码器编码:");
+        System.out.println("-------------------------------------------");
+        OrderMessage order = SampleData.order(1);
+        for (Codec codec : codecs.all()) {
+            byte[] bytes = codec.encode(order);
+            OrderMessage decoded = codec.decode(bytes, OrderMessage.class);
+            System.out.printf("%-14s %-26s %4d 字节，往返一致: %s%n", codec.name(), codec.contentType(), bytes.length,
+                    order.equals(decoded));
+        }
+
+        // 2. 按场景选择：Redis 值优先二进制，没有 schema 的类型回退到 JSON
+        System.out.println("\n2. 按偏好顺序选择编解码器:");
+        System.out.println("-------------------------------------------");
+        Codec redisCodec = codecs.select(UserSession.class, "binary", "jackson-tuned");
+        Codec fallback = codecs.select(StringBuilder.class, "binary", "jackson-tuned");
+        System.out.println("UserSession → " + redisCodec.name() + "，StringBuilder（未注册 schema）→ " + fallback.name());
+        UserSession session = SampleData.session(1);
+        byte[] cached = redisCodec.encode(session);
+        System.out.println("缓存值 " + cached.length + " 字节: " + redisCodec.decode(cached, UserSession.class));
+
+        // 3. JSON 可读，二进制紧凑
+        System.out.println("\n3. 编码结果对比:");
+        System.out.println("-------------------------------------------");
+        System.out.println("JSON: " + new String(codecs.get("jackson").encode(session), StandardCharsets.UTF_8));
+        System.out.println("二进制前 32 字节: " + Arrays.toString(Arrays.copyOf(cached, 32)));
+
+        // 4. 错误处理：统一抛出 CodecException
+        System.out.println("\n4. 错误处理:");
+        System.out.println("-------------------------------------------");
+        try {
+            codecs.get("binary").decode(Arrays.copyOf(cached, cached.length / 2), UserSession.class);
+        } catch (CodecException e) {
+            System.out.println("截断的二进制数据: " + e.getMessage());
+        }
+        try {
+            codecs.get("jackson-tuned").decode("{\"userId\":".getBytes(StandardCharsets.UTF_8), UserSession.class);
+        } catch (CodecException e) {
+            System.out.println("不完整的 JSON: " + e.getMessage());
+        }
+        try {
+            codecs.get("binary").encode(new StringBuilder("x"));
+        } catch (CodecException e) {
+            System.out.println("未注册的类型: " + e.getMessage());
+        }
+
+        System.out.println("\n吞吐、分配和 payload 大小的完整对比见 CodecBenchmark");
+        System.out.println("\n===========================================");
+        System.out.println("编解码器示例代码演示完成！");
+        System.out.println("===========================================");
+    }
+}
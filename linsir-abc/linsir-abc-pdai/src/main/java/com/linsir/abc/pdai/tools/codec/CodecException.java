@@ -0,0 +1,17 @@
+package com.linsir.abc.pdai.tools.codec;
+
+/**
+ * 编解码失败：格式错误、类型不支持、数据被截断等
+ */
+public class CodecException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CodecException(String message) {
+        super(message);
+    }
+
+    public CodecException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
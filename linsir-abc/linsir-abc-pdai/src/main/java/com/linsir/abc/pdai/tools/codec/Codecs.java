@@ -0,0 +1,95 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * 编解码器注册表：按名称查找，或按偏好顺序为某个类型挑选第一个支持它的编解码器
+ *
+ * 用法：
+ * <pre>
+ * Codecs codecs = Codecs.builder()
+ *         .add(JacksonCodec.tuned())
+ *         .add(binaryCodec)
+ *         .loadServices()
+ *         .build();
+ * Codec redisCodec = codecs.select(UserSession.class, "binary", "jackson-tuned");
+ * </pre>
+ *
+ * 说明：
+ * 1. 各服务按场景在配置里写编解码器名称（如 Redis 值用 binary、HTTP 用 jackson-tuned），切换时不改业务代码；
+ *    选哪个以 CodecBenchmark 的测量结果为准
+ * 2. loadServices 通过 ServiceLoader 加载 META-INF/services/com.linsir.abc.pdai.tools.codec.Codec 里声明的实现，
+ *    与显式 add 的同名时以显式 add 的为准
+ * 3. build 后不可变，可以多线程共享
+ */
+public final class Codecs {
+
+    private final Map<String, Codec> codecs;
+
+    private Codecs(Map<String, Codec> codecs) {
+        this.codecs = Collections.unmodifiableMap(new LinkedHashMap<>(codecs));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Codec get(String name) {
+        Codec codec = codecs.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("未知的编解码器: " + name + "，可选 " + codecs.keySet());
+        }
+        return codec;
+    }
+
+    /**
+     * 按 preferred 的顺序返回第一个支持 type 的编解码器
+     */
+    public Codec select(Class<?> type, String... preferred) {
+        for (String name : preferred) {
+            Codec codec = get(name);
+            if (codec.supports(type)) {
+                return codec;
+            }
+        }
+        throw new CodecException("没有编解码器支持类型 " + type.getName() + "，候选 " + String.join(", ", preferred));
+    }
+
+    public List<Codec> all() {
+        return new ArrayList<>(codecs.values());
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Codec> codecs = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(Codec codec) {
+            if (codec == null) {
+                throw new IllegalArgumentException("编解码器不能为空");
+            }
+            if (codecs.putIfAbsent(codec.name(), codec) != null) {
+                throw new IllegalArgumentException("编解码器 " + codec.name() + " 已经注册");
+            }
+            return this;
+        }
+
+        public Builder loadServices() {
+            for (Codec codec : ServiceLoader.load(Codec.class)) {
+                codecs.putIfAbsent(codec.name(), codec);
+            }
+            return this;
+        }
+
+        public Codecs build() {
+            return new Codecs(codecs);
+        }
+    }
+}
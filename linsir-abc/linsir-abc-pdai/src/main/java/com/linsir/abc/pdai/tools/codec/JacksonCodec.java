@@ -0,0 +1,114 @@
+package com.linsir.abc.pdai.tools.codec;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+
+/**
+ * 基于 Jackson databind 的 JSON 编解码器
+ *
+ * 说明：
+ * 1. plain：直接调用 ObjectMapper.writeValueAsBytes / readValue，和业务代码里最常见的写法一致，作为基线
+ * 2. tuned：每个类型第一次使用时构造一次 ObjectReader / ObjectWriter 并缓存（ClassValue），之后不再按根类型查找序列化器；
+ *    同时省略 null 字段（payload 更小）、忽略未知字段（生产者先加字段不会让老消费者失败）
+ * 3. Afterburner / Blackbird 模块用字节码生成替代反射访问属性，能再提升一些吞吐；
+ *    需要时在传入的 ObjectMapper 上 registerModule 即可，编解码器本身不用改
+ * 4. ObjectMapper 配置完成后只读，多线程共享；不要在编解码过程中修改它的配置
+ */
+public final class JacksonCodec implements Codec {
+
+    private final String name;
+
+    private final ObjectMapper mapper;
+
+    private final ClassValue<ObjectReader> readers;
+
+    private final ClassValue<ObjectWriter> writers;
+
+    private JacksonCodec(String name, ObjectMapper mapper, boolean cacheBindings) {
+        this.name = name;
+        this.mapper = mapper;
+        if (cacheBindings) {
+            this.readers = new ClassValue<ObjectReader>() {
+                @Override
+                protected ObjectReader computeValue(Class<?> type) {
+                    return mapper.readerFor(type);
+                }
+            };
+            this.writers = new ClassValue<ObjectWriter>() {
+                @Override
+                protected ObjectWriter computeValue(Class<?> type) {
+                    return mapper.writerFor(type);
+                }
+            };
+        } else {
+            this.readers = null;
+            this.writers = null;
+        }
+    }
+
+    /**
+     * 默认配置的 ObjectMapper，直接调用
+     */
+    public static JacksonCodec plain() {
+        return new JacksonCodec("jackson", new ObjectMapper(), false);
+    }
+
+    /**
+     * 缓存 ObjectReader / ObjectWriter，省略 null 字段，忽略未知字段
+     */
+    public static JacksonCodec tuned() {
+        ObjectMapper mapper = new ObjectMapper()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return new JacksonCodec("jackson-tuned", mapper, true);
+    }
+
+    /**
+     * 使用调用方配置好的 ObjectMapper（可以注册 Afterburner / Blackbird 等模块），缓存读写器
+     */
+    public static JacksonCodec of(String name, ObjectMapper mapper) {
+        if (mapper == null) {
+            throw new IllegalArgumentException("ObjectMapper 不能为空");
+        }
+        return new JacksonCodec(name, mapper, true);
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json";
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            if (writers == null || value == null) {
+                return mapper.writeValueAsBytes(value);
+            }
+            return writers.get(value.getClass()).writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new CodecException(name + " 编码失败: " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        try {
+            if (readers == null) {
+                return mapper.readValue(bytes, type);
+            }
+            return readers.get(type).readValue(bytes);
+        } catch (IOException e) {
+            throw new CodecException(name + " 解码失败: " + type.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * 订单明细行
+ */
+public class LineItem {
+    private String sku;
+    private String title;
+    private int quantity;
+    private BigDecimal unitPrice;
+
+    // 无参构造函数（Jackson / Gson 反序列化需要）
+    public LineItem() {
+    }
+
+    // getter 和 setter 方法
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public void setUnitPrice(BigDecimal unitPrice) {
+        this.unitPrice = unitPrice;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LineItem)) {
+            return false;
+        }
+        LineItem that = (LineItem) o;
+        return Objects.equals(sku, that.sku)
+                && Objects.equals(title, that.title)
+                && quantity == that.quantity
+                && Objects.equals(unitPrice, that.unitPrice);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sku, title, quantity, unitPrice);
+    }
+
+    @Override
+    public String toString() {
+        return "LineItem{sku='" + sku + '\''
+                + ", title='" + title + '\''
+                + ", quantity=" + quantity
+                + ", unitPrice=" + unitPrice
+                + '}';
+    }
+}
@@ -0,0 +1,125 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 订单消息：代表 Kafka 里的中等大小消息（1KB 左右），含枚举、金额（BigDecimal）、中文地址和嵌套的明细列表
+ */
+public class OrderMessage {
+    private long orderId;
+    private long userId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+    private String currency;
+    private long createdAt;
+    private String shippingAddress;
+    private List<LineItem> items;
+
+    // 无参构造函数（Jackson / Gson 反序列化需要）
+    public OrderMessage() {
+    }
+
+    // getter 和 setter 方法
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public void setShippingAddress(String shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public List<LineItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<LineItem> items) {
+        this.items = items;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderMessage)) {
+            return false;
+        }
+        OrderMessage that = (OrderMessage) o;
+        return orderId == that.orderId
+                && userId == that.userId
+                && Objects.equals(status, that.status)
+                && Objects.equals(totalAmount, that.totalAmount)
+                && Objects.equals(currency, that.currency)
+                && createdAt == that.createdAt
+                && Objects.equals(shippingAddress, that.shippingAddress)
+                && Objects.equals(items, that.items);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, userId, status, totalAmount, currency, createdAt, shippingAddress, items);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderMessage{orderId=" + orderId
+                + ", userId=" + userId
+                + ", status=" + status
+                + ", totalAmount=" + totalAmount
+                + ", currency='" + currency + '\''
+                + ", createdAt=" + createdAt
+                + ", shippingAddress='" + shippingAddress + '\''
+                + ", items=" + items
+                + '}';
+    }
+}
@@ -0,0 +1,80 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 订单分页：代表 HTTP 接口返回的较大响应体（几十 KB），一页多个订单
+ */
+public class OrderPage {
+    private int page;
+    private int pageSize;
+    private long total;
+    private List<OrderMessage> orders;
+
+    // 无参构造函数（Jackson / Gson 反序列化需要）
+    public OrderPage() {
+    }
+
+    // getter 和 setter 方法
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public List<OrderMessage> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<OrderMessage> orders) {
+        this.orders = orders;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OrderPage)) {
+            return false;
+        }
+        OrderPage that = (OrderPage) o;
+        return page == that.page
+                && pageSize == that.pageSize
+                && total == that.total
+                && Objects.equals(orders, that.orders);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(page, pageSize, total, orders);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderPage{page=" + page
+                + ", pageSize=" + pageSize
+                + ", total=" + total
+                + ", orders=" + orders
+                + '}';
+    }
+}
@@ -0,0 +1,8 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+/**
+ * 订单状态
+ */
+public enum OrderStatus {
+    CREATED, PAID, SHIPPED, COMPLETED, CANCELLED, REFUNDED
+}
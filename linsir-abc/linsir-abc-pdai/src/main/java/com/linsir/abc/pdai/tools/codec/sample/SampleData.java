@@ -0,0 +1,75 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准和示例用的代表性数据，固定随机种子，每次生成的内容相同
+ */
+public final class SampleData {
+
+    private static final String[] TITLES = {"机械键盘 87 键 青轴", "USB-C 扩展坞 7 合 1", "降噪蓝牙耳机", "27 英寸 4K 显示器",
+            "人体工学椅", "Java 并发编程实战", "Wireless Mouse", "Laptop Stand Aluminum"};
+
+    private static final String[] ADDRESSES = {"北京市海淀区中关村大街 27 号 1101 室", "上海市浦东新区世纪大道 100 号 23 楼",
+            "广东省深圳市南山区科技园南区 8 栋", "浙江省杭州市西湖区文三路 90 号"};
+
+    private SampleData() {
+    }
+
+    public static UserSession session(long seed) {
+        Random random = new Random(seed);
+        UserSession session = new UserSession();
+        session.setSessionId(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        session.setUserId(10_000_000L + random.nextInt(90_000_000));
+        session.setUserName("user_" + random.nextInt(1_000_000));
+        session.setRoles(Arrays.asList("USER", "ORDER_READ", "ORDER_WRITE"));
+        session.setCreatedAt(1_700_000_000_000L + random.nextInt(1_000_000_000));
+        session.setExpiresAt(session.getCreatedAt() + 30 * 60 * 1000);
+        session.setMfaVerified(random.nextBoolean());
+        session.setClientIp("10." + random.nextInt(256) + "." + random.nextInt(256) + "." + random.nextInt(256));
+        return session;
+    }
+
+    public static OrderMessage order(long seed) {
+        Random random = new Random(seed);
+        OrderMessage order = new OrderMessage();
+        order.setOrderId(2_024_000_000_000L + random.nextInt(1_000_000_000));
+        order.setUserId(10_000_000L + random.nextInt(90_000_000));
+        order.setStatus(OrderStatus.values()[random.nextInt(OrderStatus.values().length)]);
+        order.setCurrency("CNY");
+        order.setCreatedAt(1_700_000_000_000L + random.nextInt(1_000_000_000));
+        order.setShippingAddress(ADDRESSES[random.nextInt(ADDRESSES.length)]);
+        List<LineItem> items = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        int count = 3 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            LineItem item = new LineItem();
+            item.setSku("SKU-" + (100_000 + random.nextInt(900_000)));
+            item.setTitle(TITLES[random.nextInt(TITLES.length)]);
+            item.setQuantity(1 + random.nextInt(5));
+            item.setUnitPrice(BigDecimal.valueOf(100 + random.nextInt(500_000), 2));
+            items.add(item);
+            total = total.add(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        order.setItems(items);
+        order.setTotalAmount(total);
+        return order;
+    }
+
+    public static OrderPage page(long seed, int pageSize) {
+        OrderPage page = new OrderPage();
+        page.setPage(1);
+        page.setPageSize(pageSize);
+        page.setTotal(12_345);
+        List<OrderMessage> orders = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            orders.add(order(seed * 1000 + i));
+        }
+        page.setOrders(orders);
+        return page;
+    }
+}
@@ -0,0 +1,129 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+import com.linsir.abc.pdai.tools.codec.BinaryCodec;
+import com.linsir.abc.pdai.tools.codec.BinaryReader;
+import com.linsir.abc.pdai.tools.codec.BinarySchema;
+import com.linsir.abc.pdai.tools.codec.BinaryWriter;
+
+/**
+ * 示例 DTO 的二进制 schema
+ *
+ * 说明：
+ * 1. 字段顺序即格式：write 和 read 必须逐字段对应，新字段只能追加在末尾（见 BinarySchema）
+ * 2. 可能为负的 int（数量）用 zigzag 变长编码，ID、时间戳这类非负 long 直接用 varint
+ */
+public final class SampleSchemas {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    public static final BinarySchema<UserSession> USER_SESSION = new BinarySchema<UserSession>() {
+        @Override
+        public void write(UserSession value, BinaryWriter out) {
+            out.writeString(value.getSessionId());
+            out.writeVarLong(value.getUserId());
+            out.writeString(value.getUserName());
+            out.writeStringList(value.getRoles());
+            out.writeVarLong(value.getCreatedAt());
+            out.writeVarLong(value.getExpiresAt());
+            out.writeBoolean(value.isMfaVerified());
+            out.writeString(value.getClientIp());
+        }
+
+        @Override
+        public UserSession read(BinaryReader in) {
+            UserSession value = new UserSession();
+            value.setSessionId(in.readString());
+            value.setUserId(in.readVarLong());
+            value.setUserName(in.readString());
+            value.setRoles(in.readStringList());
+            value.setCreatedAt(in.readVarLong());
+            value.setExpiresAt(in.readVarLong());
+            value.setMfaVerified(in.readBoolean());
+            value.setClientIp(in.readString());
+            return value;
+        }
+    };
+
+    public static final BinarySchema<LineItem> LINE_ITEM = new BinarySchema<LineItem>() {
+        @Override
+        public void write(LineItem value, BinaryWriter out) {
+            out.writeString(value.getSku());
+            out.writeString(value.getTitle());
+            out.writeSignedVarInt(value.getQuantity());
+            out.writeDecimal(value.getUnitPrice());
+        }
+
+        @Override
+        public LineItem read(BinaryReader in) {
+            LineItem value = new LineItem();
+            value.setSku(in.readString());
+            value.setTitle(in.readString());
+            value.setQuantity(in.readSignedVarInt());
+            value.setUnitPrice(in.readDecimal());
+            return value;
+        }
+    };
+
+    public static final BinarySchema<OrderMessage> ORDER_MESSAGE = new BinarySchema<OrderMessage>() {
+        @Override
+        public void write(OrderMessage value, BinaryWriter out) {
+            out.writeVarLong(value.getOrderId());
+            out.writeVarLong(value.getUserId());
+            out.writeEnum(value.getStatus());
+            out.writeDecimal(value.getTotalAmount());
+            out.writeString(value.getCurrency());
+            out.writeVarLong(value.getCreatedAt());
+            out.writeString(value.getShippingAddress());
+            out.writeList(value.getItems(), LINE_ITEM);
+        }
+
+        @Override
+        public OrderMessage read(BinaryReader in) {
+            OrderMessage value = new OrderMessage();
+            value.setOrderId(in.readVarLong());
+            value.setUserId(in.readVarLong());
+            value.setStatus(in.readEnum(STATUSES));
+            value.setTotalAmount(in.readDecimal());
+            value.setCurrency(in.readString());
+            value.setCreatedAt(in.readVarLong());
+            value.setShippingAddress(in.readString());
+            value.setItems(in.readList(LINE_ITEM));
+            return value;
+        }
+    };
+
+    public static final BinarySchema<OrderPage> ORDER_PAGE = new BinarySchema<OrderPage>() {
+        @Override
+        public void write(OrderPage value, BinaryWriter out) {
+            out.writeVarInt(value.getPage());
+            out.writeVarInt(value.getPageSize());
+            out.writeVarLong(value.getTotal());
+            out.writeList(value.getOrders(), ORDER_MESSAGE);
+        }
+
+        @Override
+        public OrderPage read(BinaryReader in) {
+            OrderPage value = new OrderPage();
+            value.setPage(in.readVarInt());
+            value.setPageSize(in.readVarInt());
+            value.setTotal(in.readVarLong());
+            value.setOrders(in.readList(ORDER_MESSAGE));
+            return value;
+        }
+    };
+
+    private SampleSchemas() {
+    }
+
+    /**
+     * 注册了全部示例 DTO 的二进制编解码器
+     */
+    public static BinaryCodec binaryCodec() {
+        return BinaryCodec.builder()
+                .register(UserSession.class, USER_SESSION)
+                .register(LineItem.class, LINE_ITEM)
+                .register(OrderMessage.class, ORDER_MESSAGE)
+                .register(OrderPage.class, ORDER_PAGE)
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package com.linsir.abc.pdai.tools.codec.sample;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 用户会话：代表 Redis 里缓存的小对象（几百字节），每个请求都要读一次
+ */
+public class UserSession {
+    private String sessionId;
+    private long userId;
+    private String userName;
+    private List<String> roles;
+    private long createdAt;
+    private long expiresAt;
+    private boolean mfaVerified;
+    private String clientIp;
+
+    // 无参构造函数（Jackson / Gson 反序列化需要）
+    public UserSession() {
+    }
+
+    // getter 和 setter 方法
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public void setUserName(String userName) {
+        this.userName = userName;
+    }
+
+    public List<String> getRoles() {
+        return roles;
+    }
+
+    public void setRoles(List<String> roles) {
+        this.roles = roles;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isMfaVerified() {
+        return mfaVerified;
+    }
+
+    public void setMfaVerified(boolean mfaVerified) {
+        this.mfaVerified = mfaVerified;
+    }
+
+    public String getClientIp() {
+        return clientIp;
+    }
+
+    public void setClientIp(String clientIp) {
+        this.clientIp = clientIp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserSession)) {
+            return false;
+        }
+        UserSession that = (UserSession) o;
+        return Objects.equals(sessionId, that.sessionId)
+                && userId == that.userId
+                && Objects.equals(userName, that.userName)
+                && Objects.equals(roles, that.roles)
+                && createdAt == that.createdAt
+                && expiresAt == that.expiresAt
+                && mfaVerified == that.mfaVerified
+                && Objects.equals(clientIp, that.clientIp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sessionId, userId, userName, roles, createdAt, expiresAt, mfaVerified, clientIp);
+    }
+
+    @Override
+    public String toString() {
+        return "UserSession{sessionId='" + sessionId + '\''
+                + ", userId=" + userId
+                + ", userName='" + userName + '\''
+                + ", roles=" + roles
+                + ", createdAt=" + createdAt
+                + ", expiresAt=" + expiresAt
+                + ", mfaVerified=" + mfaVerified
+                + ", clientIp='" + clientIp + '\''
+                + '}';
+    }
+}
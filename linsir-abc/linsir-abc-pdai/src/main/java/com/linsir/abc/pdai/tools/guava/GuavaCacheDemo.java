@@ -2,9 +2,20 @@ package com.linsir.abc.pdai.tools.guava;
 
 import com.google.common.cache.*;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.linsir.abc.pdai.tools.guava.cache.CacheLoadException;
+import com.linsir.abc.pdai.tools.guava.cache.CacheSpec;
+import com.linsir.abc.pdai.tools.guava.cache.DataCache;
+import com.linsir.abc.pdai.tools.guava.cache.DataLoader;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Guava 缓存示例
@@ -301,6 +312,93 @@ public class GuavaCacheDemo {
         }
     }
 
+    /**
+     * 演示迁移到 Caffeine：同一份 CacheSpec 构建 Caffeine 或 Guava 实现
+     * 命中率对比见 cache.TraceSimulator
+     */
+    public static void demonstrateCaffeineMigration() throws InterruptedException {
+        System.out.println("\n=== 迁移到 Caffeine 示例 ===");
+
+        ThreadPoolExecutor refreshExecutor = CacheSpec.newRefreshExecutor("user", 2, 100);
+        AtomicInteger version = new AtomicInteger();
+        AtomicInteger bulkLoads = new AtomicInteger();
+        DataLoader<String, String> loader = new DataLoader<String, String>() {
+            @Override
+            public String load(String key) {
+                if (key.startsWith("missing")) {
+                    return null;
+                }
+                if (key.startsWith("broken")) {
+                    throw new IllegalStateException("数据库连接失败");
+                }
+                return key + "@v" + version.get() + "（" + Thread.currentThread().getName() + "）";
+            }
+
+            @Override
+            public String reload(String key, String oldValue) throws InterruptedException {
+                // 模拟较慢的查询：刷新期间读取到的仍是旧值
+                Thread.sleep(100);
+                return load(key);
+            }
+
+            @Override
+            public Map<String, String> loadAll(Set<? extends String> keys) {
+                // 模拟一次 IN 查询
+                bulkLoads.incrementAndGet();
+                Map<String, String> values = new HashMap<>();
+                for (String key : keys) {
+                    if (!key.startsWith("missing")) {
+                        values.put(key, key + "@v" + version.get());
+                    }
+                }
+                return values;
+            }
+        };
+
+        for (CacheSpec.Backend backend : CacheSpec.Backend.values()) {
+            System.out.println("\n--- " + backend + " ---");
+            DataCache<String, String> cache = CacheSpec.<String, String>named("user")
+                    .maximumSize(1000)
+                    .expireAfterWrite(Duration.ofSeconds(10))
+                    .refreshAfterWrite(Duration.ofMillis(500), refreshExecutor)
+                    .build(loader, backend);
+
+            // 1. 异步刷新：到期后的第一次读取返回旧值，新值在刷新线程池里加载
+            System.out.println("首次加载: " + cache.get("user1"));
+            version.incrementAndGet();
+            Thread.sleep(600);
+            System.out.println("刷新到期后读取（旧值）: " + cache.get("user1"));
+            Thread.sleep(300);
+            System.out.println("刷新完成后读取（新值）: " + cache.get("user1"));
+
+            // 2. getAll：未命中的键一次批量加载，加载器没有返回的键不在结果里
+            bulkLoads.set(0);
+            Map<String, String> users = cache.getAll(Arrays.asList("user1", "user2", "user3", "missing1"));
+            System.out.println("getAll 结果: " + users.keySet() + "，批量加载次数: " + bulkLoads.get());
+
+            // 3. 不存在的数据返回 null，加载失败统一抛出 CacheLoadException
+            System.out.println("不存在的键: " + cache.get("missing2"));
+            try {
+                cache.get("broken1");
+            } catch (CacheLoadException e) {
+                System.out.println("加载失败: " + e.getMessage() + "，原因: " + e.getCause().getMessage());
+            }
+            System.out.println("统计: " + cache.stats());
+        }
+
+        // 4. 按权重限制内存：值是序列化后的字节数组，总字节数不超过 1KB
+        DataCache<String, byte[]> payloads = CacheSpec.<String, byte[]>named("payload")
+                .maximumWeight(1024, (key, value) -> value.length)
+                .build(key -> new byte[200]);
+        for (int i = 0; i < 10; i++) {
+            payloads.get("order" + i);
+        }
+        payloads.cleanUp();
+        System.out.println("\n按权重限制: 加载 10 个 200 字节的值后剩余 " + payloads.estimatedSize() + " 个，统计: "
+                + payloads.stats());
+        refreshExecutor.shutdown();
+    }
+
     /**
      * 用户类，用于缓存示例
      */
@@ -41,6 +41,7 @@ public class GuavaDemoMain {
             GuavaCacheDemo.demonstrateCacheRefresh();
             GuavaCacheDemo.demonstrateCacheSizeLimit();
             GuavaCacheDemo.demonstrateCacheUsage();
+            GuavaCacheDemo.demonstrateCaffeineMigration();
             
             // 运行 Guava 函数式编程示例
             System.out.println("\n4. 运行 Guava 函数式编程示例:");
@@ -0,0 +1,83 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两种实现共用的部分：调用 DataLoader 并统一异常类型，统计异步刷新
+ */
+abstract class AbstractDataCache<K, V> implements DataCache<K, V> {
+
+    final String name;
+
+    final DataLoader<K, V> loader;
+
+    final LongAdder refreshes = new LongAdder();
+
+    final LongAdder refreshFailures = new LongAdder();
+
+    final LongAdder refreshRejected = new LongAdder();
+
+    AbstractDataCache(String name, DataLoader<K, V> loader) {
+        this.name = name;
+        this.loader = loader;
+    }
+
+    V loadValue(K key) {
+        try {
+            return loader.load(key);
+        } catch (CacheLoadException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheLoadException(name + " 加载失败: " + key, e);
+        }
+    }
+
+    Map<K, V> loadValues(Set<? extends K> keys) {
+        try {
+            return loader.loadAll(keys);
+        } catch (CacheLoadException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CacheLoadException(name + " 批量加载失败: " + keys.size() + " 个键", e);
+        }
+    }
+
+    /**
+     * 在刷新线程池里执行
+     */
+    V reloadValue(K key, V oldValue) {
+        try {
+            return loader.reload(key, oldValue);
+        } catch (Exception e) {
+            refreshFailures.increment();
+            throw new CacheLoadException(name + " 刷新失败: " + key, e);
+        }
+    }
+
+    Map<String, Object> stats(String backend, long hits, long misses, long loads, long loadFailures,
+                              double averageLoadNanos, long evictions) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("backend", backend);
+        stats.put("size", estimatedSize());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", hits + misses == 0 ? 1.0 : (double) hits / (hits + misses));
+        stats.put("loads", loads);
+        stats.put("loadFailures", loadFailures);
+        stats.put("averageLoadMillis", averageLoadNanos / 1e6);
+        stats.put("evictions", evictions);
+        stats.put("refreshes", refreshes.sum());
+        stats.put("refreshFailures", refreshFailures.sum());
+        stats.put("refreshRejected", refreshRejected.sum());
+        return stats;
+    }
+
+    @Override
+    public String toString() {
+        return stats().toString();
+    }
+}
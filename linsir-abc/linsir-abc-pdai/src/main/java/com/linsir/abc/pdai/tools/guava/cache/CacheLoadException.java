@@ -0,0 +1,13 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+/**
+ * 缓存加载失败：包装 DataLoader 抛出的异常，Caffeine 和 Guava 实现抛出的异常类型一致
+ */
+public class CacheLoadException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CacheLoadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,202 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * 缓存配置：容量或权重上限、过期、异步刷新；同一份配置可以构建 Caffeine 或 Guava 实现
+ *
+ * 用法：
+ * <pre>
+ * DataCache&lt;Long, User&gt; users = CacheSpec.&lt;Long, User&gt;named("users")
+ *         .maximumSize(100_000)
+ *         .expireAfterWrite(Duration.ofMinutes(30))
+ *         .refreshAfterWrite(Duration.ofMinutes(5), refreshExecutor)
+ *         .build(userDao::findById);
+ * </pre>
+ *
+ * 说明：
+ * 1. 容量二选一：maximumSize 按条目数；maximumWeight + weigher 按权重（如序列化后的字节数），值大小差别很大时用后者才能真正限制内存
+ * 2. Caffeine 的淘汰策略是 W-TinyLFU：新条目先进 1% 的窗口区，被挤出窗口时和主区的淘汰候选比较访问频率（Count-Min Sketch 估计），
+ *    频率低的被拒绝；一次性的扫描、批量任务不会把热点数据挤出去。Guava 按段各自 LRU，没有准入过滤，
+ *    段数（concurrencyLevel）越多、每段容量越小，命中率越低，两者的差距用 TraceSimulator 回放访问日志来量化
+ * 3. refreshAfterWrite：写入超过这个时长后的第一次读取照常返回旧值，同时在刷新线程池里异步调用 DataLoader.reload，
+ *    热点键不会集中过期、不会有请求因为重新加载而阻塞；刷新线程池专用、有界，不和业务线程池或 commonPool 混用，
+ *    池满时跳过本次刷新继续用旧值（计入 refreshRejected），旧值最长存活时间由 expireAfterWrite 兜底
+ * 4. 配置应在 build 之前完成；build 之后修改配置不影响已经构建的缓存
+ */
+public final class CacheSpec<K, V> {
+
+    /**
+     * 底层实现
+     */
+    public enum Backend {
+        CAFFEINE, GUAVA
+    }
+
+    private final String name;
+
+    private long maximumSize = -1;
+
+    private long maximumWeight = -1;
+
+    private ToIntBiFunction<? super K, ? super V> weigher;
+
+    private Duration expireAfterWrite;
+
+    private Duration expireAfterAccess;
+
+    private Duration refreshAfterWrite;
+
+    private Executor refreshExecutor;
+
+    private int concurrencyLevel = 4;
+
+    private CacheSpec(String name) {
+        this.name = name;
+    }
+
+    public static <K, V> CacheSpec<K, V> named(String name) {
+        if (name == null || name.isEmpty()) {
+            throw new IllegalArgumentException("缓存名称不能为空");
+        }
+        return new CacheSpec<>(name);
+    }
+
+    public CacheSpec<K, V> maximumSize(long maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("最大条目数不能为负数: " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * 按权重限制容量，weigher 返回单个条目的权重（不能为负，比如值的字节数）
+     */
+    public CacheSpec<K, V> maximumWeight(long maximumWeight, ToIntBiFunction<? super K, ? super V> weigher) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("最大权重不能为负数: " + maximumWeight);
+        }
+        if (weigher == null) {
+            throw new IllegalArgumentException("weigher 不能为空");
+        }
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        return this;
+    }
+
+    public CacheSpec<K, V> expireAfterWrite(Duration duration) {
+        this.expireAfterWrite = positive(duration, "写入后过期时间");
+        return this;
+    }
+
+    public CacheSpec<K, V> expireAfterAccess(Duration duration) {
+        this.expireAfterAccess = positive(duration, "访问后过期时间");
+        return this;
+    }
+
+    /**
+     * 写入超过 duration 后在 executor 中异步刷新，见类说明第 3 条
+     */
+    public CacheSpec<K, V> refreshAfterWrite(Duration duration, Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("刷新线程池不能为空");
+        }
+        this.refreshAfterWrite = positive(duration, "刷新间隔");
+        this.refreshExecutor = executor;
+        return this;
+    }
+
+    /**
+     * 只对 Guava 生效：段数，默认 4，与 CacheBuilder 的默认值相同
+     */
+    public CacheSpec<K, V> concurrencyLevel(int concurrencyLevel) {
+        if (concurrencyLevel < 1) {
+            throw new IllegalArgumentException("段数至少为 1: " + concurrencyLevel);
+        }
+        this.concurrencyLevel = concurrencyLevel;
+        return this;
+    }
+
+    public DataCache<K, V> build(DataLoader<K, V> loader) {
+        return build(loader, Backend.CAFFEINE);
+    }
+
+    public DataCache<K, V> build(DataLoader<K, V> loader, Backend backend) {
+        if (loader == null) {
+            throw new IllegalArgumentException("加载器不能为空");
+        }
+        if (maximumSize >= 0 && maximumWeight >= 0) {
+            throw new IllegalStateException("maximumSize 和 maximumWeight 只能设置一个");
+        }
+        if (refreshAfterWrite != null && expireAfterWrite != null && refreshAfterWrite.compareTo(expireAfterWrite) >= 0) {
+            throw new IllegalStateException("刷新间隔应小于写入后过期时间，否则条目在刷新前就过期了");
+        }
+        return switch (backend) {
+            case CAFFEINE -> new CaffeineDataCache<>(this, loader);
+            case GUAVA -> new GuavaDataCache<>(this, loader);
+        };
+    }
+
+    /**
+     * 创建专用的刷新线程池：固定线程数、有界队列、守护线程，池满时拒绝（刷新被跳过，继续使用旧值）
+     */
+    public static ThreadPoolExecutor newRefreshExecutor(String name, int threads, int queueCapacity) {
+        AtomicInteger sequence = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-refresh-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    private static Duration positive(Duration duration, String label) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException(label + "必须大于 0: " + duration);
+        }
+        return duration;
+    }
+
+    String name() {
+        return name;
+    }
+
+    long maximumSize() {
+        return maximumSize;
+    }
+
+    long maximumWeight() {
+        return maximumWeight;
+    }
+
+    ToIntBiFunction<? super K, ? super V> weigher() {
+        return weigher;
+    }
+
+    Duration expireAfterWrite() {
+        return expireAfterWrite;
+    }
+
+    Duration expireAfterAccess() {
+        return expireAfterAccess;
+    }
+
+    Duration refreshAfterWrite() {
+        return refreshAfterWrite;
+    }
+
+    Executor refreshExecutor() {
+        return refreshExecutor;
+    }
+
+    int concurrencyLevel() {
+        return concurrencyLevel;
+    }
+}
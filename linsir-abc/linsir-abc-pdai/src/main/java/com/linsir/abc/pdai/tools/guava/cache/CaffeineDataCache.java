@@ -0,0 +1,129 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Caffeine 实现
+ *
+ * 说明：
+ * 1. 设置了容量上限时 Caffeine 自动使用 W-TinyLFU 淘汰；读操作只把访问记录写进环形缓冲区，
+ *    由维护任务批量回放，读路径上没有锁，高并发下吞吐接近 ConcurrentHashMap
+ * 2. asyncReload 把 reload 提交到专用刷新线程池；线程池拒绝时返回失败的 future，本次刷新跳过，
+ *    Caffeine 保留旧值且不更新写入时间，旧值仍按 expireAfterWrite 过期
+ * 3. loadAll 直接委托给 DataLoader.loadAll，getAll 的未命中键一次加载完
+ * 4. 同步 LoadingCache 把加载器抛出的非受检异常原样抛给调用方，loadValue/loadValues 已包装成 CacheLoadException，
+ *    get/getAll 不需要再转换
+ */
+final class CaffeineDataCache<K, V> extends AbstractDataCache<K, V> {
+
+    private final LoadingCache<K, V> cache;
+
+    CaffeineDataCache(CacheSpec<K, V> spec, DataLoader<K, V> loader) {
+        super(spec.name(), loader);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.maximumSize() >= 0) {
+            builder.maximumSize(spec.maximumSize());
+        }
+        if (spec.expireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.expireAfterWrite());
+        }
+        if (spec.expireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.expireAfterAccess());
+        }
+        if (spec.refreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.refreshAfterWrite());
+        }
+        Executor refreshExecutor = spec.refreshExecutor();
+        CacheLoader<K, V> cacheLoader = new CacheLoader<K, V>() {
+            @Override
+            public V load(K key) {
+                return loadValue(key);
+            }
+
+            @Override
+            public Map<? extends K, ? extends V> loadAll(Set<? extends K> keys) {
+                return loadValues(keys);
+            }
+
+            @Override
+            public CompletableFuture<? extends V> asyncReload(K key, V oldValue, Executor executor) {
+                refreshes.increment();
+                try {
+                    return CompletableFuture.supplyAsync(() -> reloadValue(key, oldValue), refreshExecutor);
+                } catch (RejectedExecutionException e) {
+                    // 返回失败而不是旧值：成功的刷新会重置写入时间，旧值就永远不会按 expireAfterWrite 过期
+                    refreshRejected.increment();
+                    return CompletableFuture.failedFuture(e);
+                }
+            }
+        };
+        if (spec.maximumWeight() >= 0) {
+            this.cache = builder.maximumWeight(spec.maximumWeight())
+                    .<K, V>weigher((key, value) -> spec.weigher().applyAsInt(key, value))
+                    .build(cacheLoader);
+        } else {
+            this.cache = builder.<K, V>build(cacheLoader);
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        return cache.getAll(keys);
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    @Override
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = stats("caffeine", stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+                stats.loadFailureCount(), stats.averageLoadPenalty(), stats.evictionCount());
+        cache.policy().eviction().ifPresent(eviction -> eviction.weightedSize().ifPresent(weight -> {
+            result.put("weightedSize", weight);
+            result.put("evictionWeight", stats.evictionWeight());
+        }));
+        return result;
+    }
+}
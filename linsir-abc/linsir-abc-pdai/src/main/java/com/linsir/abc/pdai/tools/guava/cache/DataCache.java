@@ -0,0 +1,45 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import java.util.Map;
+
+/**
+ * 业务代码使用的加载型缓存接口，与底层实现（Caffeine / Guava）无关
+ *
+ * 说明：
+ * 1. 由 CacheSpec 按配置构建，默认 Caffeine；迁移期间可以用同一份 CacheSpec 构建 Guava 实现做对比或回退
+ * 2. get：命中直接返回，未命中调用 DataLoader.load；同一个键的并发加载只执行一次。加载结果为 null 时返回 null 且不缓存
+ * 3. getAll：只对未命中的键调用一次 DataLoader.loadAll，而不是逐个 load；加载器没有返回的键不出现在结果里
+ * 4. 加载失败抛出 CacheLoadException，两种实现的异常类型一致
+ */
+public interface DataCache<K, V> {
+
+    V get(K key);
+
+    Map<K, V> getAll(Iterable<? extends K> keys);
+
+    /**
+     * 只查缓存，不触发加载
+     */
+    V getIfPresent(K key);
+
+    void put(K key, V value);
+
+    void invalidate(K key);
+
+    void invalidateAll();
+
+    /**
+     * 条目数的估计值：过期和淘汰是异步或惰性处理的，可能短暂大于上限
+     */
+    long estimatedSize();
+
+    /**
+     * 执行挂起的过期、淘汰等维护工作
+     */
+    void cleanUp();
+
+    /**
+     * 命中率、加载、淘汰、刷新等统计
+     */
+    Map<String, Object> stats();
+}
@@ -0,0 +1,36 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 缓存未命中时的数据加载器
+ *
+ * 说明：
+ * 1. load：加载单个键，返回 null 表示数据不存在（不缓存）
+ * 2. loadAll：批量加载，默认逐个调用 load；数据源支持批量查询（IN 查询、Redis MGET）时应覆盖它，
+ *    一次 getAll 只访问一次数据源
+ * 3. reload：refreshAfterWrite 到期后在刷新线程池里调用，默认等同于 load；
+ *    可以覆盖成带版本号的条件查询，数据没变时直接返回 oldValue
+ */
+@FunctionalInterface
+public interface DataLoader<K, V> {
+
+    V load(K key) throws Exception;
+
+    default Map<K, V> loadAll(Set<? extends K> keys) throws Exception {
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = load(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    default V reload(K key, V oldValue) throws Exception {
+        return load(key);
+    }
+}
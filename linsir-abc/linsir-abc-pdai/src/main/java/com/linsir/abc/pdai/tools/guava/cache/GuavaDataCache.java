@@ -0,0 +1,159 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Guava 实现，迁移期间用于对比和回退
+ *
+ * 说明：
+ * 1. 与 CacheBuilder 的默认行为一致：按 concurrencyLevel 分段，每段各自 LRU，容量平均分给各段
+ * 2. Guava 不允许加载结果为 null（InvalidCacheLoadException），这里转换成与 Caffeine 相同的语义：get 返回 null，
+ *    getAll 的结果里不包含这个键
+ * 3. reload 按 Guava 文档的写法用 ListenableFutureTask 提交到刷新线程池；线程池拒绝时返回失败的 future，
+ *    Guava 保留旧值且不更新写入时间，旧值仍按 expireAfterWrite 过期
+ */
+final class GuavaDataCache<K, V> extends AbstractDataCache<K, V> {
+
+    private final LoadingCache<K, V> cache;
+
+    GuavaDataCache(CacheSpec<K, V> spec, DataLoader<K, V> loader) {
+        super(spec.name(), loader);
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+                .concurrencyLevel(spec.concurrencyLevel())
+                .recordStats();
+        if (spec.maximumSize() >= 0) {
+            builder.maximumSize(spec.maximumSize());
+        }
+        if (spec.expireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.expireAfterWrite());
+        }
+        if (spec.expireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.expireAfterAccess());
+        }
+        if (spec.refreshAfterWrite() != null) {
+            builder.refreshAfterWrite(spec.refreshAfterWrite());
+        }
+        Executor refreshExecutor = spec.refreshExecutor();
+        CacheLoader<K, V> cacheLoader = new CacheLoader<K, V>() {
+            @Override
+            public V load(K key) {
+                return loadValue(key);
+            }
+
+            @Override
+            public Map<K, V> loadAll(Iterable<? extends K> keys) {
+                return loadValues(ImmutableSet.copyOf(keys));
+            }
+
+            @Override
+            public ListenableFuture<V> reload(K key, V oldValue) {
+                refreshes.increment();
+                ListenableFutureTask<V> task = ListenableFutureTask.create(() -> reloadValue(key, oldValue));
+                try {
+                    refreshExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    // 返回失败而不是旧值：成功的刷新会重置写入时间，旧值就永远不会按 expireAfterWrite 过期
+                    refreshRejected.increment();
+                    return Futures.immediateFailedFuture(e);
+                }
+                return task;
+            }
+        };
+        if (spec.maximumWeight() >= 0) {
+            this.cache = builder.maximumWeight(spec.maximumWeight())
+                    .<K, V>weigher((key, value) -> spec.weigher().applyAsInt(key, value))
+                    .build(cacheLoader);
+        } else {
+            this.cache = builder.<K, V>build(cacheLoader);
+        }
+    }
+
+    @Override
+    public V get(K key) {
+        try {
+            return cache.get(key);
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            return null;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw unwrap(e.getCause(), key);
+        }
+    }
+
+    @Override
+    public Map<K, V> getAll(Iterable<? extends K> keys) {
+        try {
+            return cache.getAll(keys);
+        } catch (CacheLoader.InvalidCacheLoadException e) {
+            // 加载器没有返回全部键：已加载的键已经进入缓存，只从缓存取回，不存在的键跳过；
+            // 用 get 会为每个缺失键各调一次加载器，批量加载退化成逐个加载
+            Map<K, V> values = new HashMap<>();
+            for (K key : keys) {
+                V value = cache.getIfPresent(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            return values;
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw unwrap(e.getCause(), "批量");
+        }
+    }
+
+    private CacheLoadException unwrap(Throwable cause, Object key) {
+        if (cause instanceof CacheLoadException) {
+            return (CacheLoadException) cause;
+        }
+        return new CacheLoadException(name + " 加载失败: " + key, cause);
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void invalidate(K key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public long estimatedSize() {
+        return cache.size();
+    }
+
+    @Override
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        return stats("guava", stats.hitCount(), stats.missCount(), stats.loadSuccessCount(), stats.loadExceptionCount(),
+                stats.averageLoadPenalty(), stats.evictionCount());
+    }
+}
@@ -0,0 +1,242 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * 回放访问日志，比较 Guava 与 Caffeine 在同样容量下的命中率
+ *
+ * 运行：java ... TraceSimulator [访问日志文件 或 zipf / scan / shift，默认全部合成负载] [缓存容量，逗号分隔，默认 1000,4000,16000]
+ *
+ * 说明：
+ * 1. 访问日志：每行一次访问，取第一个空白前的内容作为键（可以直接用 awk 从网关日志、Redis MONITOR 输出里切出键），# 开头的行忽略
+ * 2. 合成负载（100 万次访问，10 万个键，固定随机种子）：
+ *    zipf：Zipf(0.9) 分布，少数热点键占大部分访问，典型的商品详情、用户信息读取；
+ *    scan：zipf 中每 10 万次访问插入一次 2 万个新键的顺序扫描（批量任务、爬虫、全量导出），这些键只访问一次；
+ *    shift：前一半和后一半的热点键完全不同（大促换品、热点迁移），考察策略能否及时忘掉旧热点
+ * 3. 策略：
+ *    caffeine：CacheSpec 构建的 Caffeine 实现（W-TinyLFU）；
+ *    guava：CacheSpec 构建的 Guava 实现，默认 4 段 LRU；guava-1seg：1 段，相当于全局 LRU；
+ *    lru：LinkedHashMap 实现的精确 LRU，作为参照；
+ *    optimal：Belady 最优策略（总是淘汰下次访问最远的键），需要预知未来，是任何策略命中率的上限
+ * 4. 回放通过 DataCache.get 进行，未命中时加载器返回键本身，命中率取自各实现自己的统计，和线上读到的指标一致；
+ *    每次访问后调用 cleanUp，让淘汰同步完成，各策略在严格相同的容量下比较
+ */
+public final class TraceSimulator {
+
+    private static final String[] POLICIES = {"caffeine", "guava", "guava-1seg", "lru", "optimal"};
+
+    private TraceSimulator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String[] traces = args.length > 0 ? new String[]{args[0]} : new String[]{"zipf", "scan", "shift"};
+        long[] sizes = args.length > 1 ? parseSizes(args[1]) : new long[]{1000, 4000, 16000};
+
+        for (String name : traces) {
+            long[] trace = load(name);
+            System.out.printf("%n%s：%d 次访问，%d 个不同的键%n", name, trace.length, Arrays.stream(trace).distinct().count());
+            System.out.printf("%-8s", "容量");
+            for (String policy : POLICIES) {
+                System.out.printf("%12s", policy);
+            }
+            System.out.println();
+            for (long size : sizes) {
+                System.out.printf("%-10d", size);
+                for (String policy : POLICIES) {
+                    System.out.printf("%11.2f%%", simulate(policy, trace, size) * 100);
+                }
+                System.out.println();
+            }
+        }
+    }
+
+    /**
+     * 容量至少为 1：容量为 0 时 optimal 找不到可淘汰的键；lru/optimal 按 int 容量模拟，不能超过 Integer.MAX_VALUE
+     */
+    private static long[] parseSizes(String arg) {
+        long[] sizes = Arrays.stream(arg.split(",")).mapToLong(Long::parseLong).toArray();
+        for (long size : sizes) {
+            if (size < 1 || size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("缓存容量必须在 1 到 " + Integer.MAX_VALUE + " 之间: " + size);
+            }
+        }
+        return sizes;
+    }
+
+    static double simulate(String policy, long[] trace, long size) {
+        return switch (policy) {
+            case "caffeine" -> replay(CacheSpec.<Long, Long>named(policy).maximumSize(size)
+                    .build(key -> key, CacheSpec.Backend.CAFFEINE), trace);
+            case "guava" -> replay(CacheSpec.<Long, Long>named(policy).maximumSize(size)
+                    .build(key -> key, CacheSpec.Backend.GUAVA), trace);
+            case "guava-1seg" -> replay(CacheSpec.<Long, Long>named(policy).maximumSize(size).concurrencyLevel(1)
+                    .build(key -> key, CacheSpec.Backend.GUAVA), trace);
+            case "lru" -> lru(trace, (int) size);
+            case "optimal" -> optimal(trace, (int) size);
+            default -> throw new IllegalArgumentException("未知策略: " + policy);
+        };
+    }
+
+    private static double replay(DataCache<Long, Long> cache, long[] trace) {
+        for (long key : trace) {
+            cache.get(key);
+            // Caffeine 的淘汰在维护任务里异步执行，不立即执行的话缓存会短暂超出容量，小容量时命中率被高估
+            cache.cleanUp();
+        }
+        return (double) cache.stats().get("hitRate");
+    }
+
+    private static double lru(long[] trace, int size) {
+        Map<Long, Boolean> cache = new LinkedHashMap<Long, Boolean>(size * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > size;
+            }
+        };
+        long hits = 0;
+        for (long key : trace) {
+            if (cache.get(key) != null) {
+                hits++;
+            } else {
+                cache.put(key, Boolean.TRUE);
+            }
+        }
+        return (double) hits / trace.length;
+    }
+
+    /**
+     * Belady：先倒序算出每次访问之后同一个键的下一次访问位置，缓存满时淘汰下一次访问最远的键
+     */
+    private static double optimal(long[] trace, int size) {
+        int[] next = new int[trace.length];
+        Map<Long, Integer> lastSeen = new HashMap<>();
+        for (int i = trace.length - 1; i >= 0; i--) {
+            next[i] = lastSeen.getOrDefault(trace[i], Integer.MAX_VALUE);
+            lastSeen.put(trace[i], i);
+        }
+        // 缓存中的键 → 下一次访问位置；堆里按下一次访问位置从远到近排列，过时的堆元素在弹出时跳过
+        Map<Long, Integer> cache = new HashMap<>();
+        PriorityQueue<long[]> farthest = new PriorityQueue<>((a, b) -> Long.compare(b[0], a[0]));
+        long hits = 0;
+        for (int i = 0; i < trace.length; i++) {
+            long key = trace[i];
+            if (cache.containsKey(key)) {
+                hits++;
+            } else if (cache.size() >= size) {
+                while (true) {
+                    long[] victim = farthest.poll();
+                    Integer current = cache.get(victim[1]);
+                    if (current != null && current == victim[0]) {
+                        cache.remove(victim[1]);
+                        break;
+                    }
+                }
+            }
+            cache.put(key, next[i]);
+            farthest.add(new long[]{next[i], key});
+        }
+        return (double) hits / trace.length;
+    }
+
+    static long[] load(String name) throws IOException {
+        return switch (name) {
+            case "zipf" -> zipf(1_000_000, 100_000, 0.9, 0, new Random(42));
+            case "scan" -> scan();
+            case "shift" -> shift();
+            default -> readFile(name);
+        };
+    }
+
+    private static long[] scan() {
+        long[] trace = zipf(1_000_000, 100_000, 0.9, 0, new Random(42));
+        long[] result = new long[trace.length + 10 * 20_000];
+        long scanKey = 10_000_000;
+        int position = 0;
+        for (int i = 0; i < trace.length; i++) {
+            if (i % 100_000 == 50_000) {
+                for (int j = 0; j < 20_000; j++) {
+                    result[position++] = scanKey++;
+                }
+            }
+            result[position++] = trace[i];
+        }
+        return Arrays.copyOf(result, position);
+    }
+
+    private static long[] shift() {
+        Random random = new Random(42);
+        long[] first = zipf(500_000, 100_000, 0.9, 0, random);
+        long[] second = zipf(500_000, 100_000, 0.9, 1_000_000, random);
+        long[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    /**
+     * Zipf 分布：第 k 个键被访问的概率与 1 / k^alpha 成正比；按累积分布二分查找抽样，键打乱后再加上 offset
+     */
+    private static long[] zipf(int accesses, int keys, double alpha, long offset, Random random) {
+        double[] cumulative = new double[keys];
+        double sum = 0;
+        for (int k = 0; k < keys; k++) {
+            sum += 1 / Math.pow(k + 1, alpha);
+            cumulative[k] = sum;
+        }
+        // 热度排名到键的映射打乱，避免热点键恰好是连续的小整数
+        long[] ids = new long[keys];
+        for (int k = 0; k < keys; k++) {
+            ids[k] = k;
+        }
+        for (int k = keys - 1; k > 0; k--) {
+            int j = random.nextInt(k + 1);
+            long tmp = ids[k];
+            ids[k] = ids[j];
+            ids[j] = tmp;
+        }
+        long[] trace = new long[accesses];
+        for (int i = 0; i < accesses; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            rank = rank >= 0 ? rank : Math.min(-rank - 1, keys - 1);
+            trace[i] = offset + ids[rank];
+        }
+        return trace;
+    }
+
+    private static long[] readFile(String path) throws IOException {
+        Map<String, Long> ids = new HashMap<>();
+        long[] trace = new long[1024];
+        int size = 0;
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int end = 0;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) {
+                    end++;
+                }
+                Long id = ids.computeIfAbsent(line.substring(0, end), key -> (long) ids.size());
+                if (size == trace.length) {
+                    trace = Arrays.copyOf(trace, size * 2);
+                }
+                trace[size++] = id;
+            }
+        }
+        if (size == 0) {
+            throw new IllegalArgumentException("访问日志为空: " + path);
+        }
+        return Arrays.copyOf(trace, size);
+    }
+}
@@ -4,7 +4,14 @@ import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linsir.abc.pdai.tools.jackson.stream.JsonRecordPipeline;
+import com.linsir.abc.pdai.tools.jackson.stream.OrderEvent;
+import com.linsir.abc.pdai.tools.jackson.stream.OrderSummary;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.io.StringReader;
 import java.io.StringWriter;
 
@@ -119,6 +126,22 @@ public class JacksonStreamingDemo {
             long endTime = System.currentTimeMillis();
             System.out.println("处理大型 JSON 耗时: " + (endTime - startTime) + " ms");
 
+            // 4. 流式记录管道：逐条读取、绑定、过滤、转换、写出
+            // 上面的 processLargeJson 要先把整个 JSON 放进 String；GB 级文件用 JsonRecordPipeline 直接从 FileChannel 逐条处理，
+            // 吞吐和内存占用见 stream.StreamingPipelineBenchmark
+            System.out.println("\n=== 4. 流式记录管道（NDJSON → 过滤 → 转换 → NDJSON）===");
+            String ndjson = "{\"id\":1,\"userId\":100,\"status\":\"PAID\",\"amount\":199.0,\"items\":[{\"sku\":\"A\",\"quantity\":2,\"price\":99.5}]}\n"
+                    + "{\"id\":2,\"userId\":101,\"status\":\"CREATED\",\"amount\":59.0}\n"
+                    + "{\"id\":3,\"userId\":102,\"status\":\"PAID\",\"amount\":35.5,\"channel\":\"app\"}\n";
+            JsonRecordPipeline<OrderEvent, OrderSummary> pipeline = JsonRecordPipeline.of(new ObjectMapper(), OrderEvent.class)
+                    .filter(order -> "PAID".equals(order.getStatus()))
+                    .map(OrderSummary::of);
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            JsonRecordPipeline.Result result = pipeline.run(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), output);
+            System.out.print("管道输出:\n" + output.toString(StandardCharsets.UTF_8.name()));
+            System.out.println("读取 " + result.recordsRead() + " 条，输出 " + result.recordsWritten() + " 条（未知字段 channel 被忽略）");
+
         } catch (IOException e) {
             System.err.println("使用流式 API 时发生异常: " + e.getMessage());
             e.printStackTrace();
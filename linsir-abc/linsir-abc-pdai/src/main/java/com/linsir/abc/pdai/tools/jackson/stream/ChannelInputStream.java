@@ -0,0 +1,107 @@
+package com.linsir.abc.pdai.tools.jackson.stream;
+
+import com.linsir.abc.pdai.io.patterns.reactor.BufferPool;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+
+/**
+ * 从通道读取的输入流，读缓冲区从 BufferPool 借出，close 时归还（不关闭通道）
+ *
+ * 说明：
+ * 1. JsonParser 每次只要约 8000 字节，直接包 Channels.newInputStream 时每 8000 字节一次 read 系统调用，
+ *    而且堆数组要先经过 JDK 的临时直接缓冲区；这里每次从通道读满一整块池化的直接缓冲区（如 64KB），再分批拷给解析器
+ * 2. 缓冲区大小固定、用完归还，输入再大占用的内存也不变
+ * 3. 通道由调用方打开和关闭，便于从文件中间的某个位置开始读、或者读完后继续使用
+ * 4. 只支持阻塞通道：非阻塞通道没有数据时 read 返回 0，这里会原地空转，构造时直接拒绝
+ */
+public final class ChannelInputStream extends InputStream {
+
+    private final ReadableByteChannel channel;
+
+    private final BufferPool pool;
+
+    private ByteBuffer buffer;
+
+    private long bytesRead;
+
+    private boolean eof;
+
+
+    public ChannelInputStream(ReadableByteChannel channel, BufferPool pool) {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("不支持非阻塞通道");
+        }
+        this.channel = channel;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+        this.buffer.flip();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, n);
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return buffer == null ? 0 : buffer.remaining();
+    }
+
+    /**
+     * 已经从通道读出的字节数
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (buffer == null) {
+            throw new IOException("输入流已关闭");
+        }
+        while (!buffer.hasRemaining()) {
+            if (eof) {
+                return false;
+            }
+            buffer.clear();
+            int n = channel.read(buffer);
+            buffer.flip();
+            if (n < 0) {
+                eof = true;
+            } else if (n == 0) {
+                // 阻塞通道不会返回 0，构造之后被改成了非阻塞
+                throw new IOException("通道没有数据可读，不支持非阻塞通道");
+            } else {
+                bytesRead += n;
+            }
+        }
+        return true;
+    }
+}
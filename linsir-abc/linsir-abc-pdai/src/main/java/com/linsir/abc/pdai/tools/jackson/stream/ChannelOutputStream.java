@@ -0,0 +1,101 @@
+package com.linsir.abc.pdai.tools.jackson.stream;
+
+import com.linsir.abc.pdai.io.patterns.reactor.BufferPool;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 写入通道的输出流，写缓冲区从 BufferPool 借出，写满一整块才写一次通道；close 时写出剩余数据并归还缓冲区（不关闭通道）
+ *
+ * 说明：
+ * 1. JsonGenerator 自己的缓冲区约 8000 字节，满了就 flush 到下游；这里再攒成一整块池化的直接缓冲区才做一次 write 系统调用
+ * 2. flush 只把已攒的数据写到通道，不调用 force：是否落盘由调用方决定
+ * 3. 只支持阻塞通道：非阻塞通道写不进去时 write 返回 0，这里会原地空转，构造时直接拒绝
+ */
+public final class ChannelOutputStream extends OutputStream {
+
+    private final WritableByteChannel channel;
+
+    private final BufferPool pool;
+
+    private ByteBuffer buffer;
+
+    private long bytesWritten;
+
+
+    public ChannelOutputStream(WritableByteChannel channel, BufferPool pool) {
+        if (channel instanceof SelectableChannel && !((SelectableChannel) channel).isBlocking()) {
+            throw new IllegalArgumentException("不支持非阻塞通道");
+        }
+        this.channel = channel;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, n);
+            offset += n;
+            length -= n;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+    }
+
+    /**
+     * 已经写入通道的字节数（不含缓冲区中尚未写出的部分）
+     */
+    public long bytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        try {
+            drain();
+        } finally {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("输出流已关闭");
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package com.linsir.abc.pdai.tools.jackson.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.linsir.abc.pdai.io.patterns.reactor.BufferPool;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 流式 JSON 记录处理管道：逐条读取 → 绑定成对象 → filter / map → 逐条写出，内存占用与输入大小无关
+ *
+ * 用法：
+ * <pre>
+ * JsonRecordPipeline.of(mapper, OrderEvent.class)
+ *         .filter(order -&gt; "PAID".equals(order.getStatus()))
+ *         .map(OrderSummary::of)
+ *         .run(inputChannel, outputChannel);
+ * </pre>
+ *
+ * 说明：
+ * 1. 输入格式自动识别：第一个记号是 [ 时按 JSON 数组读取其中的元素，否则按换行分隔（NDJSON，任意空白分隔的多个根值都可以）读取
+ * 2. 绑定：ObjectReader 在创建管道时构造一次，不可变、线程安全，反序列化器只查找一次；
+ *    readValues 返回的 MappingIterator 每次 next 才从解析器读取并绑定一条记录，任何时刻只有当前这一条在内存里
+ * 3. reuseRecord：每次 run 只创建一个记录对象，之后每条记录都绑定到这个对象上（ObjectReader.withValueToUpdate），
+ *    省去每条记录的对象分配；代价是某条记录缺少的字段会保留上一条的值，而且 filter / map 不能把它保存下来，只适合字段固定的数据
+ * 4. 写出：一个 JsonGenerator 配合 SequenceWriter 逐条写出，NDJSON 或 JSON 数组；
+ *    map 返回 null 的记录同样会被丢弃
+ * 5. 缓冲区：解析器和生成器内部的字节/字符缓冲区由 Jackson 的 BufferRecycler 按线程复用；
+ *    通道输入输出再经过从 BufferPool 借出的 64KB 直接缓冲区（ChannelInputStream / ChannelOutputStream），用完归还
+ * 6. 默认忽略未知字段，日志类数据加字段不会导致整个文件处理失败；记录格式错误时抛出的异常带有行列位置
+ * 7. 管道对象不可变，filter / map 等方法返回新的管道，同一个管道可以被多个线程同时 run；输入输出流由调用方关闭
+ */
+public final class JsonRecordPipeline<I, O> {
+
+    /**
+     * 输出格式
+     */
+    public enum Format {
+        NDJSON, ARRAY
+    }
+
+    private static final BufferPool DEFAULT_POOL = new BufferPool(64 * 1024, 16);
+
+    private final ObjectReader reader;
+
+    private final ObjectWriter writer;
+
+    private final Function<? super I, ? extends O> stage;
+
+    private final Format outputFormat;
+
+    private final BufferPool pool;
+
+    private final Supplier<? extends I> reuseFactory;
+
+    private JsonRecordPipeline(ObjectReader reader, ObjectWriter writer, Function<? super I, ? extends O> stage,
+                               Format outputFormat, BufferPool pool, Supplier<? extends I> reuseFactory) {
+        this.reader = reader;
+        this.writer = writer;
+        this.stage = stage;
+        this.outputFormat = outputFormat;
+        this.pool = pool;
+        this.reuseFactory = reuseFactory;
+    }
+
+    public static <T> JsonRecordPipeline<T, T> of(ObjectMapper mapper, Class<T> type) {
+        ObjectReader reader = mapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        return new JsonRecordPipeline<>(reader, mapper.writer(), Function.identity(), Format.NDJSON, DEFAULT_POOL, null);
+    }
+
+    public JsonRecordPipeline<I, O> filter(Predicate<? super O> predicate) {
+        Function<? super I, ? extends O> previous = stage;
+        return new JsonRecordPipeline<I, O>(reader, writer, record -> {
+            O value = previous.apply(record);
+            return value != null && predicate.test(value) ? value : null;
+        }, outputFormat, pool, reuseFactory);
+    }
+
+    public <R> JsonRecordPipeline<I, R> map(Function<? super O, ? extends R> mapper) {
+        Function<? super I, ? extends O> previous = stage;
+        return new JsonRecordPipeline<I, R>(reader, writer, record -> {
+            O value = previous.apply(record);
+            return value == null ? null : mapper.apply(value);
+        }, outputFormat, pool, reuseFactory);
+    }
+
+    public JsonRecordPipeline<I, O> outputFormat(Format format) {
+        if (format == null) {
+            throw new IllegalArgumentException("输出格式不能为空");
+        }
+        return new JsonRecordPipeline<>(reader, writer, stage, format, pool, reuseFactory);
+    }
+
+    public JsonRecordPipeline<I, O> bufferPool(BufferPool bufferPool) {
+        if (bufferPool == null) {
+            throw new IllegalArgumentException("缓冲区池不能为空");
+        }
+        return new JsonRecordPipeline<>(reader, writer, stage, outputFormat, bufferPool, reuseFactory);
+    }
+
+    /**
+     * 每次 run 用 factory 创建一个记录对象，所有记录都绑定到它上面，见类说明第 3 条
+     */
+    public JsonRecordPipeline<I, O> reuseRecord(Supplier<? extends I> factory) {
+        return new JsonRecordPipeline<>(reader, writer, stage, outputFormat, pool, factory);
+    }
+
+    /**
+     * 从通道读取，处理后写入通道，读写都经过池化的直接缓冲区
+     */
+    public Result run(ReadableByteChannel input, WritableByteChannel output) throws IOException {
+        try (ChannelInputStream in = new ChannelInputStream(input, pool);
+             ChannelOutputStream out = new ChannelOutputStream(output, pool)) {
+            return run(in, out);
+        }
+    }
+
+    public Result run(InputStream input, OutputStream output) throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream out = new CountingOutputStream(output);
+        long read = 0;
+        long written = 0;
+        try (JsonParser parser = reader.createParser(input);
+             JsonGenerator generator = writer.createGenerator(out)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            SequenceWriter sequence = outputFormat == Format.ARRAY
+                    ? writer.writeValuesAsArray(generator)
+                    : writer.withRootValueSeparator("\n").writeValues(generator);
+            MappingIterator<I> records = open(parser);
+            while (records.hasNextValue()) {
+                read++;
+                O value = stage.apply(records.nextValue());
+                if (value != null) {
+                    sequence.write(value);
+                    written++;
+                }
+            }
+            requireEnd(parser);
+            sequence.close();
+            if (outputFormat == Format.NDJSON && written > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+            return new Result(read, written, parser.getCurrentLocation().getByteOffset(), out.count,
+                    System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 只读取和处理，不写出：结果交给 sink（聚合、写数据库、发消息）
+     */
+    public Result forEach(InputStream input, Consumer<? super O> sink) throws IOException {
+        long start = System.nanoTime();
+        long read = 0;
+        long consumed = 0;
+        try (JsonParser parser = reader.createParser(input)) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            MappingIterator<I> records = open(parser);
+            while (records.hasNextValue()) {
+                read++;
+                O value = stage.apply(records.nextValue());
+                if (value != null) {
+                    sink.accept(value);
+                    consumed++;
+                }
+            }
+            requireEnd(parser);
+            return new Result(read, consumed, parser.getCurrentLocation().getByteOffset(), 0, System.nanoTime() - start);
+        }
+    }
+
+    public Result forEach(ReadableByteChannel input, Consumer<? super O> sink) throws IOException {
+        try (ChannelInputStream in = new ChannelInputStream(input, pool)) {
+            return forEach(in, sink);
+        }
+    }
+
+    /**
+     * 识别输入格式，把解析器停在第一条记录的起始记号上
+     */
+    private MappingIterator<I> open(JsonParser parser) throws IOException {
+        ObjectReader recordReader = reuseFactory == null ? reader : reader.withValueToUpdate(reuseFactory.get());
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.START_ARRAY) {
+            parser.nextToken();
+            if (parser.currentToken() == JsonToken.END_ARRAY) {
+                return MappingIterator.emptyIterator();
+            }
+        } else if (first == null) {
+            return MappingIterator.emptyIterator();
+        }
+        return recordReader.readValues(parser);
+    }
+
+    /**
+     * 顶层数组结束后不允许再有内容：MappingIterator 读到数组的 "]" 就停止，不检查的话之后的数据会被悄悄丢掉；
+     * NDJSON 输入由 MappingIterator 一直读到输入结束，多余的内容本身就会解析失败
+     */
+    private static void requireEnd(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.END_ARRAY && parser.getParsingContext().inRoot()
+                && parser.nextToken() != null) {
+            throw new JsonParseException(parser, "顶层数组结束后还有多余的内容: " + parser.currentToken());
+        }
+    }
+
+    /**
+     * 一次 run 的统计
+     */
+    public static final class Result {
+
+        private final long recordsRead;
+
+        private final long recordsWritten;
+
+        private final long bytesRead;
+
+        private final long bytesWritten;
+
+        private final long elapsedNanos;
+
+        Result(long recordsRead, long recordsWritten, long bytesRead, long bytesWritten, long elapsedNanos) {
+            this.recordsRead = recordsRead;
+            this.recordsWritten = recordsWritten;
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long recordsRead() {
+            return recordsRead;
+        }
+
+        /**
+         * 通过 filter / map 后写出（或交给 sink）的记录数
+         */
+        public long recordsWritten() {
+            return recordsWritten;
+        }
+
+        public long bytesRead() {
+            return bytesRead;
+        }
+
+        public long bytesWritten() {
+            return bytesWritten;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * 按输入字节计算的吞吐（MB/s）
+         */
+        public double megabytesPerSecond() {
+            return bytesRead / 1048576.0 / (elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("读取 %d 条 / %.1f MB，输出 %d 条 / %.1f MB，耗时 %.2f s，%.1f MB/s", recordsRead,
+                    bytesRead / 1048576.0, recordsWritten, bytesWritten / 1048576.0, elapsedNanos / 1e9,
+                    megabytesPerSecond());
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 输出流由调用方关闭
+            flush();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.linsir.abc.pdai.tools.jackson.stream;
+
+import java.util.List;
+
+/**
+ * 订单事件：流式管道示例和基准中的输入记录
+ */
+public class OrderEvent {
+    private long id;
+    private long userId;
+    private String status;
+    private double amount;
+    private String currency;
+    private long createdAt;
+    private List<Item> items;
+
+    // 无参构造函数（Jackson 反序列化需要）
+    public OrderEvent() {
+    }
+
+    public OrderEvent(long id, long userId, String status, double amount, String currency, long createdAt,
+                      List<Item> items) {
+        this.id = id;
+        this.userId = userId;
+        this.status = status;
+        this.amount = amount;
+        this.currency = currency;
+        this.createdAt = createdAt;
+        this.items = items;
+    }
+
+    // getter 和 setter 方法
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderEvent{" +
+                "id=" + id +
+                ", userId=" + userId +
+                ", status='" + status + '\'' +
+                ", amount=" + amount +
+                ", currency='" + currency + '\'' +
+                ", createdAt=" + createdAt +
+                ", items=" + items +
+                '}';
+    }
+
+    /**
+     * 订单明细
+     */
+    public static class Item {
+        private String sku;
+        private int quantity;
+        private double price;
+
+        public Item() {
+        }
+
+        public Item(String sku, int quantity, double price) {
+            this.sku = sku;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+        public String getSku() {
+            return sku;
+        }
+
+        public void setSku(String sku) {
+            this.sku = sku;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(int quantity) {
+            this.quantity = quantity;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public void setPrice(double price) {
+            this.price = price;
+        }
+
+        @Override
+        public String toString() {
+            return sku + "×" + quantity;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.linsir.abc.pdai.tools.jackson.stream;
+
+/**
+ * 订单汇总：流式管道 map 阶段的输出记录
+ */
+public class OrderSummary {
+    private long orderId;
+    private long userId;
+    private double amount;
+    private int itemCount;
+
+    public OrderSummary() {
+    }
+
+    public OrderSummary(long orderId, long userId, double amount, int itemCount) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.amount = amount;
+        this.itemCount = itemCount;
+    }
+
+    public static OrderSummary of(OrderEvent order) {
+        int itemCount = 0;
+        if (order.getItems() != null) {
+            for (OrderEvent.Item item : order.getItems()) {
+                itemCount += item.getQuantity();
+            }
+        }
+        return new OrderSummary(order.getId(), order.getUserId(), order.getAmount(), itemCount);
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(long orderId) {
+        this.orderId = orderId;
+    }
+
+    public long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(long userId) {
+        this.userId = userId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(int itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderSummary{" +
+                "orderId=" + orderId +
+                ", userId=" + userId +
+                ", amount=" + amount +
+                ", itemCount=" + itemCount +
+                '}';
+    }
+}
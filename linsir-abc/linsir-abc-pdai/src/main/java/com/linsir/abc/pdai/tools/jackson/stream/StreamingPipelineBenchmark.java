@@ -0,0 +1,218 @@
+package com.linsir.abc.pdai.tools.jackson.stream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.linsir.abc.pdai.io.patterns.reactor.BufferPool;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 流式 JSON 管道吞吐基准：对 1GB 级别的输入报告 MB/s、每条记录的分配字节数和峰值堆占用
+ *
+ * 运行：java -Xmx64m ... StreamingPipelineBenchmark [输入大小 MB，默认 1024] [目录，默认临时目录] [keep 保留生成的文件]
+ *
+ * 说明：
+ * 1. 先生成订单事件的 NDJSON 文件和同样内容的 JSON 数组文件（已存在且大小相符时直接复用），每条约 250 字节
+ * 2. 依次测量：
+ *    tokens：只用 JsonParser 遍历记号、不绑定对象，是解析的上限；
+ *    bind：MappingIterator 逐条绑定成 OrderEvent；
+ *    bind-reuse：所有记录绑定到同一个 OrderEvent 上（reuseRecord），看每条记录少分配多少；
+ *    pipeline：绑定 + filter（已支付且金额 ≥ 100）+ map（OrderSummary）+ 写出 NDJSON 文件；
+ *    pipeline-array：同上，输入为 JSON 数组
+ * 3. 每项输出 MB/s、记录/秒、当前线程每条记录分配的字节数、本轮峰值堆占用和 GC 次数；
+ *    用 -Xmx64m 运行即可验证内存占用与输入大小无关：1GB 输入的峰值堆只有几 MB 到十几 MB，
+ *    如果一次性 readValue 成 List，1GB 输入需要数 GB 堆
+ * 4. 第二次运行时文件在页缓存里，测到的是解析本身的速度；想测冷读需先清页缓存
+ */
+public final class StreamingPipelineBenchmark {
+
+    private static final String[] STATUSES = {"PAID", "PAID", "PAID", "CREATED", "CANCELLED", "REFUNDED"};
+
+    private StreamingPipelineBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        long sizeMb = args.length > 0 ? Long.parseLong(args[0]) : 1024;
+        Path dir = Paths.get(args.length > 1 ? args[1] : System.getProperty("java.io.tmpdir"));
+        boolean keep = args.length > 2 && "keep".equals(args[2]);
+        Path ndjson = dir.resolve("orders-" + sizeMb + "mb.ndjson");
+        Path array = dir.resolve("orders-" + sizeMb + "mb.json");
+        Path output = dir.resolve("orders-" + sizeMb + "mb-summary.ndjson");
+        BufferPool pool = new BufferPool(64 * 1024, 4);
+        ObjectMapper mapper = new ObjectMapper();
+
+        try {
+            generate(ndjson, false, sizeMb, pool);
+            generate(array, true, sizeMb, pool);
+            System.out.printf("最大堆 %d MB，CPU %d 核%n", Runtime.getRuntime().maxMemory() >> 20,
+                    Runtime.getRuntime().availableProcessors());
+
+            JsonRecordPipeline<OrderEvent, OrderEvent> bind = JsonRecordPipeline.of(mapper, OrderEvent.class)
+                    .bufferPool(pool);
+            JsonRecordPipeline<OrderEvent, OrderSummary> pipeline = bind
+                    .filter(order -> "PAID".equals(order.getStatus()) && order.getAmount() >= 100)
+                    .map(OrderSummary::of);
+            LongAdder sink = new LongAdder();
+
+            // 预热一轮，让 JIT 编译热点路径
+            measure("warmup", ndjson, () -> forEachRecord(bind, ndjson, sink));
+            measure("tokens", ndjson, () -> scanTokens(mapper.getFactory(), ndjson, pool));
+            measure("bind", ndjson, () -> forEachRecord(bind, ndjson, sink));
+            measure("bind-reuse", ndjson, () -> forEachRecord(bind.reuseRecord(OrderEvent::new), ndjson, sink));
+            measure("pipeline", ndjson, () -> runToFile(pipeline, ndjson, output));
+            measure("pipeline-array", array, () -> runToFile(pipeline, array, output));
+        } finally {
+            Files.deleteIfExists(output);
+            if (!keep) {
+                Files.deleteIfExists(ndjson);
+                Files.deleteIfExists(array);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Run {
+
+        JsonRecordPipeline.Result execute() throws IOException;
+    }
+
+    private static void measure(String name, Path input, Run run) throws IOException {
+        System.gc();
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            memoryPool.resetPeakUsage();
+        }
+        long gcBefore = gcCount();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+
+        JsonRecordPipeline.Result result = run.execute();
+
+        long allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean memoryPool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (memoryPool.getType() == MemoryType.HEAP) {
+                peakHeap += memoryPool.getPeakUsage().getUsed();
+            }
+        }
+        long records = Math.max(1, result.recordsRead());
+        System.out.printf("%-15s %7.1f MB/s  %9.0f 条/秒  每条分配 %5d 字节  峰值堆 %4d MB  GC %4d 次  %s%n", name,
+                result.megabytesPerSecond(), records / (result.elapsedNanos() / 1e9), allocated / records,
+                peakHeap >> 20, gcCount() - gcBefore,
+                result.recordsWritten() < result.recordsRead() ? "（输出 " + result.recordsWritten() + " 条）" : "");
+        if (result.bytesRead() != Files.size(input)) {
+            throw new IllegalStateException(name + " 没有读完输入: " + result.bytesRead() + " / " + Files.size(input));
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    private static JsonRecordPipeline.Result forEachRecord(JsonRecordPipeline<?, ?> pipeline, Path input,
+                                                           LongAdder sink) throws IOException {
+        try (FileChannel in = open(input)) {
+            return pipeline.forEach(in, record -> sink.increment());
+        }
+    }
+
+    private static JsonRecordPipeline.Result runToFile(JsonRecordPipeline<?, ?> pipeline, Path input, Path output)
+            throws IOException {
+        try (FileChannel in = open(input);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            return pipeline.run(in, out);
+        }
+    }
+
+    /**
+     * 只遍历记号，不绑定对象
+     */
+    private static JsonRecordPipeline.Result scanTokens(JsonFactory factory, Path input, BufferPool pool)
+            throws IOException {
+        long start = System.nanoTime();
+        long records = 0;
+        try (FileChannel channel = open(input);
+             ChannelInputStream in = new ChannelInputStream(channel, pool);
+             JsonParser parser = factory.createParser(in)) {
+            while (parser.nextToken() != null) {
+                if (parser.currentToken().isStructStart() && parser.getParsingContext().getParent().inRoot()) {
+                    records++;
+                }
+            }
+            return new JsonRecordPipeline.Result(records, records, parser.getCurrentLocation().getByteOffset(), 0,
+                    System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 生成约 sizeMb 的订单事件文件；已存在且大小在 ±1% 以内时复用
+     */
+    private static void generate(Path path, boolean array, long sizeMb, BufferPool pool) throws IOException {
+        long target = sizeMb << 20;
+        if (Files.exists(path) && Math.abs(Files.size(path) - target) < target / 100 + 4096) {
+            System.out.printf("复用 %s（%d MB）%n", path, Files.size(path) >> 20);
+            return;
+        }
+        long start = System.nanoTime();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long records = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             ChannelOutputStream out = new ChannelOutputStream(channel, pool);
+             JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            if (array) {
+                generator.writeStartArray();
+            }
+            while (out.bytesWritten() < target) {
+                generator.writeStartObject();
+                generator.writeNumberField("id", records);
+                generator.writeNumberField("userId", random.nextLong(1_000_000));
+                generator.writeStringField("status", STATUSES[random.nextInt(STATUSES.length)]);
+                generator.writeNumberField("amount", random.nextInt(100_000) / 100.0);
+                generator.writeStringField("currency", "CNY");
+                generator.writeNumberField("createdAt", 1_700_000_000_000L + records * 37);
+                generator.writeArrayFieldStart("items");
+                int items = 1 + random.nextInt(3);
+                for (int i = 0; i < items; i++) {
+                    generator.writeStartObject();
+                    generator.writeStringField("sku", "SKU-" + random.nextInt(100_000));
+                    generator.writeNumberField("quantity", 1 + random.nextInt(5));
+                    generator.writeNumberField("price", random.nextInt(50_000) / 100.0);
+                    generator.writeEndObject();
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                if (!array) {
+                    generator.writeRaw('\n');
+                }
+                records++;
+            }
+            if (array) {
+                generator.writeEndArray();
+            }
+        }
+        System.out.printf("生成 %s：%d 条，%d MB，%.1f s%n", path, records, Files.size(path) >> 20,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+}
@@ -0,0 +1,41 @@
+package com.linsir.abc.pdai.tools.guava.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 刷新线程池打满时，旧值仍按 expireAfterWrite 过期，不会因为刷新被跳过而一直存活
+ */
+public class RefreshRejectionTest {
+
+    @ParameterizedTest
+    @EnumSource(CacheSpec.Backend.class)
+    public void staleValueExpiresWhenRefreshPoolRejects(CacheSpec.Backend backend) throws InterruptedException {
+        Executor saturated = task -> {
+            throw new RejectedExecutionException("刷新线程池已满");
+        };
+        AtomicInteger loads = new AtomicInteger();
+        DataCache<String, String> cache = CacheSpec.<String, String>named("refresh-rejection")
+                .maximumSize(10)
+                .expireAfterWrite(Duration.ofMillis(300))
+                .refreshAfterWrite(Duration.ofMillis(50), saturated)
+                .build(key -> key + "-" + loads.incrementAndGet(), backend);
+
+        Assertions.assertEquals("k-1", cache.get("k"));
+        long deadline = System.nanoTime() + Duration.ofMillis(1500).toNanos();
+        String value = "k-1";
+        while ("k-1".equals(value) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            value = cache.get("k");
+        }
+        Assertions.assertEquals("k-2", value, "旧值超过 expireAfterWrite 后应重新加载");
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertTrue((Long) cache.stats().get("refreshRejected") > 0);
+    }
+}